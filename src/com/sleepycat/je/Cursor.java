@@ -48,6 +48,7 @@ import java.util.Comparator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.sleepycat.je.cleaner.Cleaner;
 import com.sleepycat.je.dbi.CursorImpl;
 import com.sleepycat.je.dbi.CursorImpl.LockStanding;
 import com.sleepycat.je.dbi.CursorImpl.SearchMode;
@@ -1295,6 +1296,112 @@ public class Cursor implements ForwardCursor {
         }
     }
 
+    /**
+     * Moves the cursor forward over one or more key/data pairs, and returns
+     * them in the given batch.  This is equivalent to calling {@link #getNext
+     * getNext} until the batch is full or no more records are found, but
+     * avoids much of the per-record overhead of doing so: each internal Btree
+     * node is latched once for all the records it contributes, and keys and
+     * data are copied into the batch's buffer rather than into new byte
+     * arrays.
+     *
+     * <p>The batch is cleared before it is filled.  If the cursor is not yet
+     * initialized, the first record returned is the first record of the
+     * database.  When at least one record is returned, the cursor is left
+     * positioned on the last record in the batch, so that the next call
+     * continues from that record.  The cursor may also be used with {@link
+     * #getNext getNext} and other methods between calls.</p>
+     *
+     * <p>Records are locked as they would be by {@link #getNext getNext}.
+     * With a transactional cursor, each record returned remains locked
+     * according to the isolation mode.  With a non-transactional cursor or
+     * {@link LockMode#READ_COMMITTED read-committed} isolation, only the last
+     * record returned remains locked.  Serializable isolation, databases
+     * configured for duplicates, and {@link CacheMode} values other than
+     * {@link CacheMode#DEFAULT DEFAULT}, {@link CacheMode#KEEP_HOT KEEP_HOT}
+     * and {@link CacheMode#EVICT_LN EVICT_LN} are supported, but records are
+     * then retrieved one at a time internally.</p>
+     *
+     * <p>In a replicated environment, an explicit transaction must have been
+     * specified when opening the cursor, unless read-uncommitted isolation is
+     * specified via the {@link CursorConfig} or {@link LockMode}
+     * parameter.</p>
+     *
+     * @param batch the batch to be filled.  Its capacity determines the number
+     * of records returned.
+     *
+     * @param lockMode the locking attributes; if null, default attributes are
+     * used. {@link LockMode#READ_COMMITTED} is not allowed.
+     *
+     * @return {@link com.sleepycat.je.OperationStatus#NOTFOUND
+     * OperationStatus.NOTFOUND} if no records are found; otherwise, {@link
+     * com.sleepycat.je.OperationStatus#SUCCESS OperationStatus.SUCCESS}.
+     *
+     * @throws OperationFailureException if one of the <a
+     * href="OperationFailureException.html#readFailures">Read Operation
+     * Failures</a> occurs.
+     *
+     * @throws EnvironmentFailureException if an unexpected, internal or
+     * environment-wide failure occurs.
+     *
+     * @throws IllegalStateException if the cursor or database has been closed,
+     * or the non-transactional cursor was created in a different thread.
+     *
+     * @throws IllegalArgumentException if an invalid parameter is specified.
+     */
+    public OperationStatus getNextBatch(
+        final RecordBatch batch,
+        final LockMode lockMode)
+        throws DatabaseException {
+
+        checkState(false);
+        DatabaseUtil.checkForNullParam(batch, "batch");
+        trace(Level.FINEST, "Cursor.getNextBatch: ", lockMode);
+
+        return retrieveBatch(batch, lockMode, true /*forward*/);
+    }
+
+    /**
+     * Moves the cursor backward over one or more key/data pairs, and returns
+     * them in the given batch.  This is the reverse-order equivalent of
+     * {@link #getNextBatch getNextBatch}: records are returned in descending
+     * key order, and if the cursor is not yet initialized, the first record
+     * returned is the last record of the database.
+     *
+     * @param batch the batch to be filled.  Its capacity determines the number
+     * of records returned.
+     *
+     * @param lockMode the locking attributes; if null, default attributes are
+     * used. {@link LockMode#READ_COMMITTED} is not allowed.
+     *
+     * @return {@link com.sleepycat.je.OperationStatus#NOTFOUND
+     * OperationStatus.NOTFOUND} if no records are found; otherwise, {@link
+     * com.sleepycat.je.OperationStatus#SUCCESS OperationStatus.SUCCESS}.
+     *
+     * @throws OperationFailureException if one of the <a
+     * href="OperationFailureException.html#readFailures">Read Operation
+     * Failures</a> occurs.
+     *
+     * @throws EnvironmentFailureException if an unexpected, internal or
+     * environment-wide failure occurs.
+     *
+     * @throws IllegalStateException if the cursor or database has been closed,
+     * or the non-transactional cursor was created in a different thread.
+     *
+     * @throws IllegalArgumentException if an invalid parameter is specified.
+     */
+    public OperationStatus getPrevBatch(
+        final RecordBatch batch,
+        final LockMode lockMode)
+        throws DatabaseException {
+
+        checkState(false);
+        DatabaseUtil.checkForNullParam(batch, "batch");
+        trace(Level.FINEST, "Cursor.getPrevBatch: ", lockMode);
+
+        return retrieveBatch(batch, lockMode, false /*forward*/);
+    }
+
     /**
      * If the previous key/data pair of the database is a duplicate data record
      * for the current key/data pair, moves the cursor to the previous key/data
@@ -2045,19 +2152,122 @@ public class Cursor implements ForwardCursor {
 
         checkUpdatesAllowed();
 
+        final Cleaner cleaner = dbImpl.getEnv().getCleaner();
+        final long sample = cleaner.startForegroundOp();
+        try {
+            synchronized (getTxnSynchronizer()) {
+                checkTxnState();
+
+                if (dbImpl.getSortedDuplicates()) {
+                    return putHandleDups(key, data, putMode);
+                }
+
+                if (putMode == PutMode.NO_DUP_DATA) {
+                    throw new UnsupportedOperationException(
+                        "Database is not configured for duplicate data.");
+                }
+
+                return putNoDups(key, data, putMode);
+            }
+        } finally {
+            cleaner.endForegroundOp(sample);
+        }
+    }
+
+    /**
+     * Internal version of putBatch that does no parameter checking, other than
+     * checking the order of the keys in the batch.
+     *
+     * When triggers, secondaries or foreign keys must be notified, or another
+     * serializable transaction may require next-key locking, the records are
+     * written one at a time with putInternal.  Otherwise they are written by
+     * CursorImpl.putBatch, which descends the Btree once per target BIN.
+     *
+     * @return the number of records written.
+     */
+    int putBatchInternal(final RecordBatch batch, final PutMode putMode) {
+
+        assert putMode == PutMode.OVERWRITE ||
+               putMode == PutMode.NO_OVERWRITE : putMode;
+
+        checkUpdatesAllowed();
+        checkBatchOrder(batch);
+
         synchronized (getTxnSynchronizer()) {
             checkTxnState();
 
-            if (dbImpl.getSortedDuplicates()) {
-                return putHandleDups(key, data, putMode);
+            final boolean hasUserTriggers = (dbImpl.getTriggers() != null);
+            final boolean hasAssociations = (dbHandle != null) &&
+                dbHandle.hasSecondaryOrForeignKeyAssociations();
+
+            if (dbImpl.getSortedDuplicates() ||
+                hasUserTriggers ||
+                hasAssociations ||
+                dbImpl.getEnv().getTxnManager().
+                    areOtherSerializableTransactionsActive(
+                        cursorImpl.getLocker())) {
+                return putBatchByRecord(batch, putMode);
             }
 
-            if (putMode == PutMode.NO_DUP_DATA) {
-                throw new UnsupportedOperationException(
-                    "Database is not configured for duplicate data.");
+            final CursorImpl dup = beginMoveCursor(false /*samePosition*/);
+            int nWritten = 0;
+            boolean success = false;
+            try {
+                nWritten = dup.putBatch(
+                    batch, putMode, dbImpl.getRepContext());
+                success = true;
+            } finally {
+                endMoveCursor(dup, success && !batch.isEmpty());
             }
+            return nWritten;
+        }
+    }
 
-            return putNoDups(key, data, putMode);
+    /**
+     * Writes the batch one record at a time, for the cases not handled by
+     * CursorImpl.putBatch.
+     */
+    private int putBatchByRecord(
+        final RecordBatch batch,
+        final PutMode putMode) {
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        int nWritten = 0;
+
+        for (int i = 0; i < batch.size(); i += 1) {
+            batch.getKey(i, key);
+            batch.getData(i, data);
+            if (putInternal(key, data, putMode) == OperationStatus.SUCCESS) {
+                nWritten += 1;
+            }
+        }
+        return nWritten;
+    }
+
+    /**
+     * Throws IllegalArgumentException unless the keys in the batch are in
+     * ascending order according to the btree comparator.  Keys must be
+     * strictly ascending, except that in a duplicates database a key may be
+     * repeated to store several data items for it.
+     */
+    private void checkBatchOrder(final RecordBatch batch) {
+
+        final Comparator<byte[]> comparator = dbImpl.getBtreeComparator();
+        final boolean allowEqual = dbImpl.getSortedDuplicates();
+        final byte[] buffer = batch.getBuffer();
+
+        for (int i = 1; i < batch.size(); i += 1) {
+            final int cmp = Key.compareKeys(
+                buffer, batch.getKeyOffset(i - 1), batch.getKeyLength(i - 1),
+                buffer, batch.getKeyOffset(i), batch.getKeyLength(i),
+                comparator);
+            if (cmp > 0 || (cmp == 0 && !allowEqual)) {
+                throw new IllegalArgumentException(
+                    "Batch keys must be in ascending order, but the key " +
+                    "at index " + i + " is out of order with the key at " +
+                    "index " + (i - 1));
+            }
         }
     }
 
@@ -2820,6 +3030,144 @@ public class Cursor implements ForwardCursor {
         return status;
     }
 
+    /**
+     * Internal version of getNextBatch/getPrevBatch that does no parameter
+     * checking.
+     */
+    private OperationStatus retrieveBatch(
+        final RecordBatch batch,
+        final LockMode lockMode,
+        final boolean forward) {
+
+        batch.clear();
+
+        if (dbImpl.getSortedDuplicates() ||
+            isSerializableIsolation(lockMode) ||
+            !CursorImpl.isBatchCacheMode(cacheMode)) {
+            return retrieveBatchByRecord(batch, lockMode, forward);
+        }
+
+        try {
+            if (cursorImpl.isNotInitialized()) {
+                final DatabaseEntry key = new DatabaseEntry();
+                final DatabaseEntry data = new DatabaseEntry();
+                if (batch.getKeysOnly()) {
+                    data.setPartial(0, 0, true);
+                }
+                if (position(key, data, lockMode, forward) !=
+                    OperationStatus.SUCCESS) {
+                    return OperationStatus.NOTFOUND;
+                }
+                batch.addRetrieved(key, data);
+                if (batch.isFull()) {
+                    return OperationStatus.SUCCESS;
+                }
+            }
+
+            final int nPositioned = batch.size();
+            final CursorImpl dup = beginMoveCursor(true /*samePosition*/);
+
+            OperationStatus status = OperationStatus.NOTFOUND;
+            try {
+                status = dup.getNextBatch(
+                    batch, getLockType(lockMode, false),
+                    lockMode == LockMode.READ_UNCOMMITTED_ALL,
+                    forward, rangeConstraint);
+            } finally {
+                endMoveCursor(dup, status == OperationStatus.SUCCESS);
+            }
+
+            /*
+             * If the batch was not filled, the dup cursor stopped past the
+             * last record it added, and the cursor was left at its prior
+             * position.  Move it to the last record in the batch.
+             */
+            if (status != OperationStatus.SUCCESS &&
+                batch.size() > nPositioned) {
+                positionAfterBatch(batch, forward);
+            }
+
+            return batch.isEmpty() ?
+                OperationStatus.NOTFOUND :
+                OperationStatus.SUCCESS;
+
+        } catch (Error E) {
+            dbImpl.getEnv().invalidate(E);
+            throw E;
+        }
+    }
+
+    /**
+     * Fills the batch by moving the cursor one record at a time, for the
+     * cases not handled by CursorImpl.getNextBatch.
+     */
+    private OperationStatus retrieveBatchByRecord(
+        final RecordBatch batch,
+        final LockMode lockMode,
+        final boolean forward) {
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        if (batch.getKeysOnly()) {
+            data.setPartial(0, 0, true);
+        }
+
+        while (!batch.isFull()) {
+            final OperationStatus status;
+            if (cursorImpl.isNotInitialized()) {
+                status = position(key, data, lockMode, forward);
+            } else {
+                status = retrieveNext(
+                    key, data, lockMode,
+                    forward ? GetMode.NEXT : GetMode.PREV);
+            }
+            if (status != OperationStatus.SUCCESS) {
+                break;
+            }
+            batch.addRetrieved(key, data);
+        }
+
+        return batch.isEmpty() ?
+            OperationStatus.NOTFOUND :
+            OperationStatus.SUCCESS;
+    }
+
+    /**
+     * Positions the cursor on the key of the last record in the batch, or if
+     * that record has since been deleted, at the position from which the scan
+     * would continue.  The record is not locked again.
+     */
+    private void positionAfterBatch(
+        final RecordBatch batch,
+        final boolean forward) {
+
+        final DatabaseEntry lastKey =
+            batch.getKey(batch.size() - 1, new DatabaseEntry());
+
+        final CursorImpl dup = beginMoveCursor(false /*samePosition*/);
+
+        boolean success = false;
+        try {
+            final int searchResult = dup.searchRange(lastKey, null);
+
+            if ((searchResult & CursorImpl.FOUND) != 0) {
+
+                /*
+                 * For a non-exact match, searchRange positions the cursor
+                 * before the search key.  A reverse scan must continue from
+                 * the slot after it, so it is not skipped.
+                 */
+                if ((searchResult & CursorImpl.EXACT_KEY) == 0 && !forward) {
+                    dup.setIndex(dup.getIndex() + 1);
+                }
+                success = true;
+            }
+        } finally {
+            dup.releaseBIN();
+            endMoveCursor(dup, success);
+        }
+    }
+
     /**
      * Retrieves the next or previous record. Prevents phantoms.
      */
@@ -2828,12 +3176,18 @@ public class Cursor implements ForwardCursor {
         final DatabaseEntry data,
         final LockMode lockMode,
         final GetMode getMode) {
-        
-        if (dbImpl.getSortedDuplicates()) {
-            return retrieveNextHandleDups(key, data, lockMode, getMode);
-        }
 
-        return retrieveNextNoDups(key, data, lockMode, getMode);
+        final Cleaner cleaner = dbImpl.getEnv().getCleaner();
+        final long sample = cleaner.startForegroundOp();
+        try {
+            if (dbImpl.getSortedDuplicates()) {
+                return retrieveNextHandleDups(key, data, lockMode, getMode);
+            }
+
+            return retrieveNextNoDups(key, data, lockMode, getMode);
+        } finally {
+            cleaner.endForegroundOp(sample);
+        }
     }
 
     /**
@@ -3311,6 +3665,21 @@ public class Cursor implements ForwardCursor {
         final LockMode lockMode,
         final SearchMode searchMode) {
 
+        final Cleaner cleaner = dbImpl.getEnv().getCleaner();
+        final long sample = cleaner.startForegroundOp();
+        try {
+            return searchInternal(key, data, lockMode, searchMode);
+        } finally {
+            cleaner.endForegroundOp(sample);
+        }
+    }
+
+    private OperationStatus searchInternal(
+        final DatabaseEntry key,
+        final DatabaseEntry data,
+        final LockMode lockMode,
+        final SearchMode searchMode) {
+
         synchronized (getTxnSynchronizer()) {
 
             checkTxnState();
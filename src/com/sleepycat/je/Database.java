@@ -398,8 +398,12 @@ public class Database implements Closeable {
             envImpl.getDbTree().modifyDbRoot(dbImpl);
         }
 
-        /* CacheMode is changed for all handles, but is not persistent. */
+        /*
+         * CacheMode and log compression are changed for all handles, but are
+         * not persistent.
+         */
         dbImpl.setCacheMode(config.getCacheMode());
+        dbImpl.setLogCompression(config.getLogCompression());
     }
 
     /**
@@ -1690,6 +1694,106 @@ public class Database implements Closeable {
         return putInternal(txn, key, data, PutMode.NO_OVERWRITE);
     }
 
+    /**
+     * Stores a batch of key/data pairs, sorted by key, into the database.
+     *
+     * <p>The effect is the same as calling {@link #put put} for each record in
+     * the batch, in order, using a single transaction: if the key already
+     * appears in the database the data associated with the key is replaced,
+     * otherwise the record is inserted.  When the database does not use
+     * sorted duplicates, triggers or secondary indices, the Btree is
+     * descended only once for each BIN that receives records, rather than
+     * once per record, which makes this method well suited to loading large
+     * amounts of sorted data.</p>
+     *
+     * <p>The keys in the batch must be in strictly ascending order according
+     * to the database's Btree comparator.  If the database is configured for
+     * sorted duplicates, a key may be repeated to store several data items
+     * for it.  The batch is typically built with {@link
+     * RecordBatch#add(DatabaseEntry, DatabaseEntry)}.</p>
+     *
+     * @param txn For a transactional database, an explicit transaction may be
+     * specified, or null may be specified to use a single auto-commit
+     * transaction for the entire batch.  For a non-transactional database,
+     * null must be specified.
+     *
+     * @param batch the records to store.
+     *
+     * @return the number of records stored.
+     *
+     * @throws OperationFailureException if one of the <a
+     * href="../je/OperationFailureException.html#writeFailures">Write
+     * Operation Failures</a> occurs.
+     *
+     * @throws EnvironmentFailureException if an unexpected, internal or
+     * environment-wide failure occurs.
+     *
+     * @throws UnsupportedOperationException if this database is read-only.
+     *
+     * @throws IllegalStateException if the database has been closed.
+     *
+     * @throws IllegalArgumentException if the batch is null, or its keys are
+     * not in ascending order.
+     */
+    public int putBatch(final Transaction txn, final RecordBatch batch)
+        throws DatabaseException {
+
+        checkEnv();
+        DatabaseUtil.checkForNullParam(batch, "batch");
+        checkOpen("Can't call Database.putBatch");
+        trace(Level.FINEST, "Database.putBatch", txn, null /*config*/);
+        putStat.add(batch.size());
+
+        return putBatchInternal(txn, batch, PutMode.OVERWRITE);
+    }
+
+    /**
+     * Stores the key/data pairs of a batch, sorted by key, into the database,
+     * except for those whose keys already appear in the database.
+     *
+     * <p>The effect is the same as calling {@link #putNoOverwrite
+     * putNoOverwrite} for each record in the batch, in order, using a single
+     * transaction.  See {@link #putBatch putBatch} for a description of the
+     * performance characteristics and of the ordering requirement.</p>
+     *
+     * @param txn For a transactional database, an explicit transaction may be
+     * specified, or null may be specified to use a single auto-commit
+     * transaction for the entire batch.  For a non-transactional database,
+     * null must be specified.
+     *
+     * @param batch the records to store.
+     *
+     * @return the number of records stored, which excludes records whose key
+     * already appeared in the database.
+     *
+     * @throws OperationFailureException if one of the <a
+     * href="../je/OperationFailureException.html#writeFailures">Write
+     * Operation Failures</a> occurs.
+     *
+     * @throws EnvironmentFailureException if an unexpected, internal or
+     * environment-wide failure occurs.
+     *
+     * @throws UnsupportedOperationException if this database is read-only.
+     *
+     * @throws IllegalStateException if the database has been closed.
+     *
+     * @throws IllegalArgumentException if the batch is null, or its keys are
+     * not in ascending order.
+     */
+    public int putNoOverwriteBatch(final Transaction txn,
+                                   final RecordBatch batch)
+        throws DatabaseException {
+
+        checkEnv();
+        DatabaseUtil.checkForNullParam(batch, "batch");
+        checkOpen("Can't call Database.putNoOverwriteBatch");
+        trace(Level.FINEST, "Database.putNoOverwriteBatch", txn,
+              null /*config*/);
+        putNoOverwriteStat.add(batch.size());
+
+        return putBatchInternal(txn, batch, PutMode.NO_OVERWRITE);
+    }
+
     /**
      * Stores the key/data pair into the database if it does not already appear
      * in the database.
@@ -1782,6 +1886,44 @@ public class Database implements Closeable {
         }
     }
 
+    /**
+     * Internal version of putBatch() that does no parameter checking.
+     */
+    int putBatchInternal(final Transaction txn,
+                         final RecordBatch batch,
+                         final PutMode putMode)
+        throws DatabaseException {
+
+        try {
+            Locker locker = null;
+            Cursor cursor = null;
+            boolean success = false;
+            try {
+                locker = LockerFactory.getWritableLocker(
+                    envHandle, txn,
+                    databaseImpl.isInternalDb(),
+                    isTransactional(),
+                    databaseImpl.isReplicated()); // autoTxnIsReplicated
+
+                cursor = new Cursor(this, locker, null);
+                cursor.setNonSticky(true);
+                final int nWritten = cursor.putBatchInternal(batch, putMode);
+                success = true;
+                return nWritten;
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+                if (locker != null) {
+                    locker.operationEnd(success);
+                }
+            }
+        } catch (Error E) {
+            DbInternal.getEnvironmentImpl(envHandle).invalidate(E);
+            throw E;
+        }
+    }
+
     /**
      * Creates a specialized join cursor for use in performing equality or
      * natural joins on secondary indices.
@@ -149,6 +149,7 @@ public class DatabaseConfig implements Cloneable {
     private boolean overrideDuplicateComparator = false;
     private boolean useExistingConfig = false;
     private CacheMode cacheMode = null;
+    private boolean logCompression = true;
     private SecondaryAssociation secAssociation = null;
 
     /* User defined triggers associated with this database. */
@@ -1315,6 +1316,48 @@ public class DatabaseConfig implements Cloneable {
         return cacheMode;
     }
 
+    /**
+     * Configures whether log entries for this database may be compressed.
+     * When true, the default, the LNs and BINs of this database are
+     * compressed as configured for the environment by {@link
+     * EnvironmentConfig#LOG_COMPRESSION} and its related parameters.  When
+     * false, entries for this database are written uncompressed, which is
+     * useful when the data is already compressed or encrypted by the
+     * application.
+     * <p>
+     * This property is not persistent and applies to all handles for the
+     * database; it is changed by opening a handle with a different value.
+     * Compressed entries written earlier may always be read.
+     *
+     * @param logCompression whether log entries for this database may be
+     * compressed.
+     *
+     * @return this
+     */
+    public DatabaseConfig setLogCompression(boolean logCompression) {
+        setLogCompressionVoid(logCompression);
+        return this;
+    }
+
+    /**
+     * @hidden
+     * The void return setter for use by Bean editors.
+     */
+    public void setLogCompressionVoid(boolean logCompression) {
+        this.logCompression = logCompression;
+    }
+
+    /**
+     * Returns whether log entries for this database may be compressed.
+     *
+     * @return whether log entries for this database may be compressed.
+     *
+     * @see #setLogCompression
+     */
+    public boolean getLogCompression() {
+        return logCompression;
+    }
+
     /**
      * Configures a database to be replicated or non-replicated, in a
      * replicated Environment.  By default this property is true, meaning that
@@ -1789,6 +1832,7 @@ public class DatabaseConfig implements Cloneable {
             "\ndeferredWrite=" + deferredWrite +
             "\ntemporary=" + temporary +
             "\nkeyPrefixing=" + keyPrefixing +
+            "\nlogCompression=" + logCompression +
             "\n";
     }
 }
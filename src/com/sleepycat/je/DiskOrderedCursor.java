@@ -52,6 +52,7 @@ import com.sleepycat.je.dbi.DatabaseImpl;
 import com.sleepycat.je.dbi.DiskOrderedCursorImpl;
 import com.sleepycat.je.dbi.EnvironmentImpl;
 import com.sleepycat.je.utilint.AtomicLongStat;
+import com.sleepycat.je.utilint.DatabaseUtil;
 import com.sleepycat.je.utilint.LoggerUtils;
 
 /**
@@ -398,6 +399,63 @@ public class DiskOrderedCursor implements ForwardCursor {
         }
     }
 
+    /**
+     * Moves the cursor over one or more key/data pairs, and returns them in
+     * the given batch.  This is equivalent to calling {@link #getNext getNext}
+     * until the batch is full, except that after the first record is
+     * available, only records that have already been read by the scan are
+     * added; this method does not wait for more records to fill the batch.
+     *
+     * <p>The batch is cleared before it is filled.  The last record in the
+     * batch becomes the current record, as returned by {@link #getCurrent
+     * getCurrent}.  If the cursor has been configured with {@link
+     * DiskOrderedCursorConfig#setKeysOnly keysOnly}, every record has a zero
+     * length data item.</p>
+     *
+     * @param batch the batch to be filled.  Its capacity determines the number
+     * of records returned.
+     *
+     * @param lockMode the locking attributes.  For DiskOrderedCursors this
+     * parameter must be either null or {@link
+     * com.sleepycat.je.LockMode#READ_UNCOMMITTED} since no locking is
+     * performed.
+     *
+     * @return {@link com.sleepycat.je.OperationStatus#NOTFOUND
+     * OperationStatus.NOTFOUND} if no more records are found; otherwise,
+     * {@link com.sleepycat.je.OperationStatus#SUCCESS
+     * OperationStatus.SUCCESS}.
+     *
+     * @throws OperationFailureException if one of the <a
+     * href="OperationFailureException.html#readFailures">Read Operation
+     * Failures</a> occurs.
+     *
+     * @throws EnvironmentFailureException if an unexpected, internal or
+     * environment-wide failure occurs.
+     *
+     * @throws IllegalStateException if the cursor or database has been closed.
+     *
+     * @throws IllegalArgumentException if an invalid parameter is specified.
+     */
+    public OperationStatus getNextBatch(
+        final RecordBatch batch,
+        final LockMode lockMode)
+        throws DatabaseException {
+
+        try {
+            checkState();
+            DatabaseUtil.checkForNullParam(batch, "batch");
+            checkLockMode(lockMode);
+            trace(Level.FINEST, "DiskOrderedCursor.getNextBatch: ", lockMode);
+            getNextStat.increment();
+
+            return dosCursorImpl.getNextBatch(batch);
+
+        } catch (Error E) {
+            dbImpls[0].getEnv().invalidate(E);
+            throw E;
+        }
+    }
+
     /**
      * Returns this cursor's configuration.
      *
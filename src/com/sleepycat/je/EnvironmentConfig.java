@@ -332,6 +332,40 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
     public static final String ENV_RECOVERY_FORCE_NEW_FILE =
         "je.env.recoveryForceNewFile";
 
+    /**
+     * The number of threads used to redo data records during recovery.
+     *
+     * <p>Recovery reads the log sequentially on a single thread.  When this
+     * parameter is greater than one, the redo of committed data records, which
+     * is the longest recovery pass after an abnormal shutdown with a large
+     * checkpoint interval, is applied to the Btree by this number of threads.
+     * Records are assigned to threads by database and key, so that the
+     * records for a given key are redone in log order.  For a database with a
+     * custom btree or duplicate comparator, all records of the database are
+     * redone by the same thread.  The undo passes, and the recovery of the
+     * internal database mapping tree, are always performed by a single
+     * thread.</p>
+     *
+     * <p>The default value of one performs recovery entirely in the thread
+     * that opens the environment.  A value close to the number of available
+     * cores is recommended when recovery time is important.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>No</td>
+     * <td>1</td>
+     * <td>1</td>
+     * <td>64</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String ENV_RECOVERY_THREADS =
+        "je.env.recoveryThreads";
+
     /**
      * By default, if a checksum exception is found at the end of the log
      * during Environment startup, JE will assume the checksum is due to
@@ -1054,6 +1088,47 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
     public static final String LOG_GROUP_COMMIT_THRESHOLD =
         "je.log.groupCommitThreshold";
 
+    /**
+     * If true, the time a group commit leader waits for more transactions to
+     * join its group is adapted to the measured fsync latency and commit
+     * arrival rate.
+     * <p>
+     * When adaptive group commit is enabled, {@link
+     * #LOG_GROUP_COMMIT_INTERVAL} is the upper bound on the leader's wait and
+     * {@link #LOG_GROUP_COMMIT_THRESHOLD} is the target number of waiting
+     * transactions; both must be non-zero for any waiting to occur. The
+     * leader waits no longer than it takes to gather the target number of
+     * transactions at the recently observed arrival rate, and no longer than
+     * a recent fsync took. It does not wait at all when another commit is
+     * not expected to arrive within that time, so that single threaded or
+     * lightly loaded applications do not pay for the wait.
+     * <p>
+     * When false, a leader that has transactions waiting to join its group
+     * waits until the group commit interval has elapsed since the first of
+     * them arrived, or until the threshold is reached.
+     * <p>
+     * <table border="1">
+     * <tr>
+     * <td>Name</td>
+     * <td>Type</td>
+     * <td>Mutable</td>
+     * <td>Default</td>
+     * </tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>No</td>
+     * <td>false</td>
+     * </tr>
+     * </table>
+     * </p>
+     *
+     * @see #LOG_GROUP_COMMIT_INTERVAL
+     * @see #LOG_GROUP_COMMIT_THRESHOLD
+     */
+    public static final String LOG_GROUP_COMMIT_ADAPTIVE =
+        "je.log.groupCommitAdaptive";
+
     /**
      * If true (default is false) O_DSYNC is used to open JE log files.
      *
@@ -1109,6 +1184,201 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
      */
     public static final String LOG_WRITE_QUEUE_SIZE = "je.log.writeQueueSize";
 
+    /**
+     * If true (default is false) full log buffers are written to the log by a
+     * dedicated writer thread.
+     * <p>
+     * By default, a thread that fills a log buffer while logging with
+     * {@link Durability.SyncPolicy#NO_SYNC} writes the filled buffer itself,
+     * after releasing the log write latch. When this parameter is true, it
+     * hands the buffer to the writer thread instead and returns immediately.
+     * Because buffers are written as soon as they are filled, logging threads
+     * seldom find the buffer pool full and have to write buffers while
+     * holding the log write latch. Log buffers are always written in log
+     * order.
+     * <p>
+     * When the writer thread would have to wait for an fsync in progress, it
+     * places the buffer on the write queue instead, if the queue is enabled
+     * (see {@link #LOG_USE_WRITE_QUEUE}), so that an fsync does not hold up
+     * the writing of the following buffers. Threads that commit with SYNC or
+     * WRITE_NO_SYNC durability write any queued data before they return, so
+     * their log entries are written to the file, as without the writer
+     * thread.
+     * <p>
+     * This is mainly useful when log writes are slow and the application has
+     * many threads logging concurrently.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>No</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     *
+     * @see #LOG_NUM_BUFFERS
+     */
+    public static final String LOG_USE_WRITER_THREAD =
+        "je.log.useWriterThread";
+
+    /**
+     * If true (default is false) log files are read using positional reads
+     * on the file's FileChannel, rather than by seeking and reading the
+     * RandomAccessFile while synchronized on it.
+     *
+     * <p>Positional reads do not change the file pointer, so multiple threads
+     * may read the same log file concurrently.  When this parameter is true,
+     * readers share access to a cached file handle instead of serializing on
+     * it, which may significantly improve the throughput of cache misses,
+     * log cleaning and other log reads on storage devices that can service
+     * many random reads in parallel.  The number of concurrent reads is
+     * reported by {@link EnvironmentStats#getNConcurrentReads} and {@link
+     * EnvironmentStats#getMaxConcurrentReads}.</p>
+     *
+     * <p>Note that a FileChannel is closed if a thread is interrupted while
+     * it is reading.  As with other I/O interrupts, this invalidates the
+     * Environment and a {@link ThreadInterruptedException} is thrown.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>No</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String LOG_USE_POSITIONAL_READ =
+        "je.log.usePositionalRead";
+
+    /**
+     * If true (default is false) log files which are completely written are
+     * memory mapped, and log entries fetched from these files are copied from
+     * the mapping rather than read with a system call.
+     *
+     * <p>Once JE moves on to a new log file, the previous files never change
+     * until they are deleted by the log cleaner.  When this parameter is
+     * true, such a file is mapped read-only the first time an entry is
+     * fetched from it, and the mapping is released when the file is closed,
+     * either because it is evicted from the file handle cache (see {@link
+     * #LOG_FILE_CACHE_SIZE}) or because it is deleted.  For read-heavy
+     * applications whose log files are held in the file system cache, this
+     * reduces the CPU cost of fetching records that are not in the JE cache.
+     * The number of fetches served from mappings is reported by {@link
+     * EnvironmentStats#getNMappedReads}.</p>
+     *
+     * <p>Mapped files consume virtual address space, up to {@link
+     * #LOG_FILE_MAX} for each file in the file handle cache, so this mode
+     * should only be used with a 64-bit JVM.  Log file reads performed during
+     * recovery and log cleaning are not affected by this parameter.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>No</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String LOG_USE_MEMORY_MAPPED_READ =
+        "je.log.useMemoryMappedRead";
+
+    /**
+     * The codec used to compress log entries, or NONE to disable
+     * compression.
+     *
+     * <p>The supported codecs are:</p>
+     * <ul>
+     * <li>LZ - a fast LZ77 codec implemented in JE, which uses little CPU
+     * and is suitable for most applications.</li>
+     * <li>DEFLATE - the Deflate codec of {@code java.util.zip} at its fastest
+     * level, which usually compresses better than LZ but uses more CPU.</li>
+     * </ul>
+     *
+     * <p>Which entries are compressed is determined by {@link
+     * #LOG_COMPRESSION_ENTRY_TYPES}, {@link #LOG_COMPRESSION_MIN_SIZE} and
+     * {@link DatabaseConfig#setLogCompression}.  An entry is written
+     * uncompressed if compression does not reduce its size.  Compression
+     * reduces disk usage and write bandwidth, at the cost of CPU time for
+     * compressing entries when they are written and decompressing them when
+     * they are fetched from the log.  The effectiveness and cost of
+     * compression are reported by {@link
+     * EnvironmentStats#getNLogCompressionInputBytes}, {@link
+     * EnvironmentStats#getNLogCompressionOutputBytes}, {@link
+     * EnvironmentStats#getLogCompressionNanos} and {@link
+     * EnvironmentStats#getLogDecompressionNanos}.</p>
+     *
+     * <p>Compressed entries may be read regardless of this parameter, so it
+     * may be changed when the environment is re-opened.  However, a log
+     * containing compressed entries cannot be read by earlier releases of
+     * JE.  Entries that are part of the replication stream are never
+     * compressed.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>String</td>
+     * <td>No</td>
+     * <td>"NONE"</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String LOG_COMPRESSION = "je.log.compression";
+
+    /**
+     * A comma separated list of the kinds of log entries that are compressed
+     * when {@link #LOG_COMPRESSION} is not NONE.
+     *
+     * <p>The kinds of entries are:</p>
+     * <ul>
+     * <li>LN - record data, including the key.</li>
+     * <li>BIN - bottom internal nodes and BIN-deltas, which hold keys.</li>
+     * <li>IN - upper internal nodes, which usually make up a small fraction
+     * of the log.</li>
+     * </ul>
+     *
+     * <p>Entries belonging to JE internal databases are never compressed.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>String</td>
+     * <td>No</td>
+     * <td>"LN,BIN"</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String LOG_COMPRESSION_ENTRY_TYPES =
+        "je.log.compressionEntryTypes";
+
+    /**
+     * The minimum size of a log entry item, in bytes, for the entry to be
+     * compressed when {@link #LOG_COMPRESSION} is not NONE.  Small entries
+     * usually do not compress well enough to justify the CPU cost.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>No</td>
+     * <td>128</td>
+     * <td>0</td>
+     * <td>-none-</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String LOG_COMPRESSION_MIN_SIZE =
+        "je.log.compressionMinSize";
+
     /**
      * @deprecated NIO is no longer used by JE and this parameter has no
      * effect.
@@ -1310,12 +1580,25 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
      * <li>If key lengths vary by large amounts within an internal node, the
      * wasted space of the fixed length storage may negate the benefits of the
      * compact representation and cause more memory to be used than with the
-     * default representation.  In that case, the default representation will
-     * be used.</li>
+     * default representation.  In that case, the default or packed
+     * representation will be used.</li>
      * </ul>
      *
-     * <p>If this configuration parameter is set to zero, the compact
-     * representation will not be used.</p>
+     * <p>When the keys in a node are too long or vary too much for the
+     * compact representation, a packed representation may be used instead.
+     * It stores the keys of any length, by their actual length, in a single
+     * byte array per node, and is used automatically when it takes less
+     * memory than the default representation.</p>
+     *
+     * <p>When all keys in a node have the same length, up to 16 bytes and no
+     * longer than this parameter, they may instead be stored as primitive
+     * longs. This is used automatically when it takes the least memory, which
+     * is typically the case for 8 and 16 byte keys such as those of a
+     * LongBinding or a sequence, and lets searches compare keys eight bytes
+     * at a time.</p>
+     *
+     * <p>If this configuration parameter is set to zero, none of the compact,
+     * packed or primitive representations will be used.</p>
      *
      * <p>The default value of this configuration parameter is 16 bytes.  The
      * potential drawbacks of specifying a larger length are:</p>
@@ -1706,6 +1989,42 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
      */
     public static final String OFFHEAP_N_LRU_LISTS = "je.evictor.nLRULists";
 
+    /**
+     * The memory allocator used for the off-heap cache: MALLOC or SLAB.
+     *
+     * <p>MALLOC, the default, allocates each off-heap LN and BIN separately
+     * using the C runtime heap (malloc and free). Under heavy eviction this
+     * can fragment the heap, so that the process uses noticeably more memory
+     * than {@link #MAX_OFF_HEAP_MEMORY}, and the amount of fragmentation is
+     * not known to JE.</p>
+     *
+     * <p>SLAB carves blocks of a fixed set of sizes out of larger memory
+     * regions (slabs), and returns a slab to the OS when all of its blocks
+     * are freed. A slab is never created if it would make the total size of
+     * all slabs exceed {@link #MAX_OFF_HEAP_MEMORY}. The memory lost to
+     * rounding block sizes up, and the free blocks of each block size up to
+     * the size of one slab, are included in {@link
+     * EnvironmentStats#getOffHeapTotalBytes}. Further free blocks are not
+     * included, since they are reused before another slab is created, and
+     * counting them would cause most of the cache to be evicted. Allocations
+     * larger than 64KB are still made with malloc.</p>
+     *
+     * <p>With either allocator, the memory used for block overhead and lost
+     * to fragmentation is {@link EnvironmentStats#getOffHeapTotalBytes} minus
+     * {@link EnvironmentStats#getOffHeapAllocatedBytes}.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>String</td>
+     * <td>No</td>
+     * <td>"MALLOC"</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String OFFHEAP_ALLOCATOR = "je.offHeap.allocator";
+
     /**
      * Can be used to add a checksum to each off-heap block when the block is
      * written, and validate the checksum when the block is read, for debugging
@@ -1723,6 +2042,64 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
      */
     public static final String OFFHEAP_CHECKSUM = "je.offHeap.checksum";
 
+    /**
+     * The codec used to compress LNs and BINs stored in the off-heap cache,
+     * or NONE to disable compression.
+     *
+     * <p>The supported codecs are the same as for {@link #LOG_COMPRESSION}:
+     * LZ, which is fast and suitable for most applications, and DEFLATE,
+     * which usually compresses better but uses more CPU. A block is stored
+     * uncompressed if it is smaller than {@link
+     * #OFFHEAP_COMPRESSION_MIN_SIZE} or if compression does not reduce its
+     * size. Only the serialized BIN is compressed, not the information used
+     * to manage the BIN in the off-heap cache.</p>
+     *
+     * <p>Compression allows more data to fit in an off-heap cache of a given
+     * size, at the cost of CPU time when LNs and BINs are moved off-heap and
+     * loaded back into the main cache. This is worthwhile when the data is
+     * compressible and loading from the off-heap cache is much cheaper than
+     * reading from disk. The effectiveness and cost of compression are
+     * reported by {@link EnvironmentStats#getOffHeapCompressionInputBytes},
+     * {@link EnvironmentStats#getOffHeapCompressionOutputBytes}, {@link
+     * EnvironmentStats#getOffHeapCompressionNanos} and {@link
+     * EnvironmentStats#getOffHeapDecompressionNanos}.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>String</td>
+     * <td>No</td>
+     * <td>"NONE"</td>
+     * </tr>
+     * </table></p>
+     *
+     * @see #OFFHEAP_COMPRESSION_MIN_SIZE
+     */
+    public static final String OFFHEAP_COMPRESSION = "je.offHeap.compression";
+
+    /**
+     * The smallest LN or BIN, in bytes, that is compressed when stored in the
+     * off-heap cache. Compressing small blocks saves little memory.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>No</td>
+     * <td>64</td>
+     * <td>0</td>
+     * <td>-none-</td>
+     * </tr>
+     * </table></p>
+     *
+     * @see #OFFHEAP_COMPRESSION
+     */
+    public static final String OFFHEAP_COMPRESSION_MIN_SIZE =
+        "je.offHeap.compressionMinSize";
+
     /**
      * The minimum number of threads in the off-heap eviction thread pool.
      * These threads help keep memory usage within cache bounds, offloading
@@ -1887,6 +2264,66 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
     public static final String CHECKPOINTER_HIGH_PRIORITY =
         "je.checkpointer.highPriority";
 
+    /**
+     * The percentage of the checkpoint interval over which the checkpointer
+     * daemon spreads the flushing of dirty INs, or zero to flush them as
+     * quickly as possible.
+     *
+     * <p>When non-zero, a checkpoint started by the daemon trickles dirty INs
+     * out at a rate that is paced against the rate at which the log is
+     * growing, so that the flushing completes after the log has grown by
+     * roughly this percentage of {@link #CHECKPOINTER_BYTES_INTERVAL}, or
+     * after this percentage of the time since the prior checkpoint has
+     * elapsed, whichever comes first.  This flattens the write I/O and latch
+     * contention caused by each checkpoint, at the cost of longer
+     * checkpoints.  Checkpoints invoked through {@link Environment#checkpoint}
+     * and during recovery or close are never paced, nor are checkpoints when
+     * {@link #CHECKPOINTER_HIGH_PRIORITY} is true.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>Yes</td>
+     * <td>0</td>
+     * <td>0</td>
+     * <td>90</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CHECKPOINTER_FLUSH_SPREAD_PERCENT =
+        "je.checkpointer.flushSpreadPercent";
+
+    /**
+     * The number of threads used to flush the dirty INs of each Btree level
+     * during a checkpoint.  When greater than one, the INs at each level are
+     * flushed concurrently by this number of threads, and the next level is
+     * not started until all INs at the current level have been flushed.  On
+     * machines with many cores and a large number of dirty INs, increasing
+     * this value can greatly reduce checkpoint duration.
+     *
+     * <p>Checkpoints whose flushing is paced by {@link
+     * #CHECKPOINTER_FLUSH_SPREAD_PERCENT} and {@link Database#sync} always
+     * use a single thread.</p>
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>No</td>
+     * <td>1</td>
+     * <td>1</td>
+     * <td>64</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CHECKPOINTER_FLUSH_THREADS =
+        "je.checkpointer.flushThreads";
+
     /**
      * The cleaner will keep the total disk space utilization percentage above
      * this value.
@@ -2272,6 +2709,180 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
     public static final String CLEANER_LOOK_AHEAD_CACHE_SIZE =
         "je.cleaner.lookAheadCacheSize";
 
+    /**
+     * If true, files are selected for cleaning by their age-weighted
+     * benefit/cost ratio rather than by lowest utilization alone.
+     * <p>
+     * By default, when the total log utilization falls below {@link
+     * #CLEANER_MIN_UTILIZATION} the cleaner picks the file with the lowest
+     * utilization.  With mixed-lifetime workloads this tends to pick recently
+     * written files whose short-lived records would soon have become
+     * obsolete anyway, and long-lived records in them are migrated again and
+     * again.  When this parameter is true, a file's score is
+     * {@code (1 - u) * age / (1 + u)}, where {@code u} is its utilization and
+     * {@code age} is its distance in files from the end of the log, and the
+     * file with the highest score is cleaned.  Old files, where free space is
+     * stable, are then cleaned at a higher utilization, and young files are
+     * given time to empty.
+     * <p>
+     * Files below {@link #CLEANER_MIN_FILE_UTILIZATION} are still cleaned
+     * first.  The score is also used to order the files of a cleaner backlog.
+     * The number of times the age-weighted choice differed from the lowest
+     * utilization file is reported by {@link
+     * EnvironmentStats#getNAgeWeightedSelections}.
+     * <p>
+     * Whether this reduces the amount of data written by the cleaner depends
+     * on the lifetimes of the records, so it should be measured for the
+     * application's workload before it is enabled.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>Yes</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_AGE_WEIGHTED_SELECTION =
+        "je.cleaner.ageWeightedSelection";
+
+    /**
+     * If true, the file that is expected to be cleaned next is read by a
+     * background thread while the current file is cleaned, so that it is in
+     * the file system cache when the cleaner processes it.  This overlaps the
+     * disk reads for one file with the Btree lookups and LN migration for
+     * another, and is useful when the cleaner backlog is large and the log
+     * is much larger than the JE cache.  Read-ahead is counted as background
+     * reads, see {@link #ENV_BACKGROUND_READ_LIMIT}.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>Yes</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_READ_AHEAD = "je.cleaner.readAhead";
+
+    /**
+     * If true, the cleaner paces its reads and LN migration so that cleaning
+     * yields to foreground operations.
+     * <p>
+     * A fraction of foreground cursor operations are timed.  When their 99th
+     * percentile latency exceeds {@link #CLEANER_PACING_LATENCY_TARGET}, the
+     * cleaner rate is halved; otherwise it is gradually raised toward {@link
+     * #CLEANER_PACING_MAX_BYTES_RATE} and {@link
+     * #CLEANER_PACING_MAX_LN_RATE}.  The rate is never reduced below what is
+     * needed to keep up with log growth at {@link #CLEANER_MIN_UTILIZATION},
+     * and pacing is suspended while free disk space is below {@link
+     * #CLEANER_PACING_MIN_FREE_DISK_PERCENT}.  The current target rates and
+     * the number of throttling decisions are reported in the cleaner
+     * statistics.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td><td>Default</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Boolean</td>
+     * <td>Yes</td>
+     * <td>false</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_ADAPTIVE_PACING =
+        "je.cleaner.adaptivePacing";
+
+    /**
+     * The 99th percentile foreground operation latency that the cleaner
+     * tries not to exceed when {@link #CLEANER_ADAPTIVE_PACING} is true.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>{@link <a href="#timeDuration">Duration</a>}</td>
+     * <td>Yes</td>
+     * <td>10 ms</td>
+     * <td>1 ms</td>
+     * <td>1 min</td>
+     * </tr>
+     * </table></p>
+     *
+     * @see <a href="EnvironmentConfig.html#timeDuration">Time Duration
+     * Properties</a>
+     */
+    public static final String CLEANER_PACING_LATENCY_TARGET =
+        "je.cleaner.pacingLatencyTarget";
+
+    /**
+     * The maximum rate, in bytes per second, at which the cleaner reads log
+     * files when {@link #CLEANER_ADAPTIVE_PACING} is true.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Long</td>
+     * <td>Yes</td>
+     * <td>104857600 (100M)</td>
+     * <td>1024 (1K)</td>
+     * <td>-none-</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_PACING_MAX_BYTES_RATE =
+        "je.cleaner.pacingMaxBytesRate";
+
+    /**
+     * The maximum rate, in LNs per second, at which the cleaner migrates LNs
+     * when {@link #CLEANER_ADAPTIVE_PACING} is true.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>Yes</td>
+     * <td>50000</td>
+     * <td>1</td>
+     * <td>-none-</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_PACING_MAX_LN_RATE =
+        "je.cleaner.pacingMaxLNRate";
+
+    /**
+     * The percentage of free space on the file store holding the environment
+     * below which pacing is suspended and the cleaner runs at full speed,
+     * when {@link #CLEANER_ADAPTIVE_PACING} is true.  Zero disables this
+     * check.  The check is also skipped when the Java runtime cannot report
+     * file store space.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Integer</td>
+     * <td>Yes</td>
+     * <td>10</td>
+     * <td>0</td>
+     * <td>99</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String CLEANER_PACING_MIN_FREE_DISK_PERCENT =
+        "je.cleaner.pacingMinFreeDiskPercent";
+
     /**
      * @deprecated This parameter is ignored and proactive migration is no
      * longer supported due to its negative impact on eviction and Btree
@@ -2321,10 +2932,14 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
         "je.env.diskOrderedScanLockTimeout";
 
     /**
-     * Number of Lock Tables.  Set this to a value other than 1 when an
-     * application has multiple threads performing concurrent JE operations.
-     * It should be set to a prime number, and in general not higher than the
-     * number of application threads performing JE operations.
+     * Number of Lock Tables.  Each lock table is protected by its own latch,
+     * so multiple tables reduce contention when an application has multiple
+     * threads performing concurrent JE operations.  When this parameter is
+     * not specified, the number of tables is the smallest prime number that
+     * is at least twice the number of available processors, or 1 on a
+     * single processor machine.  If specified, it should be set to a prime
+     * number, and in general not higher than the number of application
+     * threads performing JE operations.
      *
      * <p><table border="1">
      * <tr><td>Name</td><td>Type</td><td>Mutable</td>
@@ -2333,7 +2948,7 @@ public class EnvironmentConfig extends EnvironmentMutableConfig {
      * <td>{@value}</td>
      * <td>Integer</td>
      * <td>No</td>
-     * <td>1</td>
+     * <td>2 x CPUs, rounded up to a prime</td>
      * <td>1</td>
      * <td>32767 (32K)</td>
      * </tr>
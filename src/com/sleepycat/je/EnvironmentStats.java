@@ -44,6 +44,7 @@
 package com.sleepycat.je;
 
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BACKLOG;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_AGE_WEIGHTED_SELECTIONS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_CLEANED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_DEAD;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_MIGRATED;
@@ -66,9 +67,18 @@ import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_MARKED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_MIGRATED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_OBSOLETE;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_MARKED_LNS_PROCESSED;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_BYTES_RATE;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_DISK_OVERRIDES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_GROWTH_FLOORS;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LATENCY;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LATENCY_THROTTLES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LN_RATE;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_SLEEP_TIME;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PENDING_LNS_LOCKED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PENDING_LNS_PROCESSED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PENDING_LN_QUEUE_SIZE;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_READ_AHEAD_BYTES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_READ_AHEAD_FILES;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_REPEAT_ITERATOR_READS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_RUNS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_TOTAL_LOG_SIZE;
@@ -131,8 +141,12 @@ import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_RELEASES;
 import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_SELF_OWNED;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_BYTES_READ_FROM_WRITEQUEUE;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_BYTES_WRITTEN_FROM_WRITEQUEUE;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_CONCURRENT_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_FILE_OPENS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_LOG_FSYNCS;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAPPED_FILES;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAPPED_READS;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAX_CONCURRENT_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_OPEN_FILES;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_RANDOM_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_RANDOM_READ_BYTES;
@@ -149,15 +163,31 @@ import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_WRITES_FROM_WRITEQU
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_FSYNCS;
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_FSYNC_REQUESTS;
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_TIMEOUTS;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_COMMIT_WAIT_TIME;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_16_PLUS;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_1;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_2_3;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_4_7;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_8_15;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_N_GROUP_COMMIT_WAITS;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_BUFFER_BYTES;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_LOG_BUFFERS;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_MISS;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_NOT_RESIDENT;
+import static com.sleepycat.je.log.LogStatDefinition.LBFP_WRITER_THREAD_WRITES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSED_ENTRIES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_INPUT_BYTES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_NANOS;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_OUTPUT_BYTES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_DECOMPRESSED_ENTRIES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_DECOMPRESSION_NANOS;
 import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_END_OF_LOG;
 import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_REPEAT_FAULT_READS;
 import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_TEMP_BUFFER_WRITES;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_CHECKPOINTS;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_DELTA_IN_FLUSH;
+import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEPS;
+import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEP_TIME;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_FULL_BIN_FLUSH;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_FULL_IN_FLUSH;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_LAST_CKPTID;
@@ -500,6 +530,26 @@ public class EnvironmentStats implements Serializable {
         return ckptStats.getLong(CKPT_DELTA_IN_FLUSH);
     }
 
+    /**
+     * The number of times the checkpointer slept in order to spread the
+     * flushing of dirty INs over the checkpoint interval.
+     *
+     * @see EnvironmentConfig#CHECKPOINTER_FLUSH_SPREAD_PERCENT
+     */
+    public long getNPacedFlushSleeps() {
+        return ckptStats.getLong(CKPT_PACED_FLUSH_SLEEPS);
+    }
+
+    /**
+     * The accumulated time, in milliseconds, that the checkpointer slept in
+     * order to spread the flushing of dirty INs over the checkpoint interval.
+     *
+     * @see EnvironmentConfig#CHECKPOINTER_FLUSH_SPREAD_PERCENT
+     */
+    public long getPacedFlushSleepTime() {
+        return ckptStats.getLong(CKPT_PACED_FLUSH_SLEEP_TIME);
+    }
+
     /**
      * Byte length from last checkpoint start to the previous checkpoint start.
      */
@@ -810,6 +860,92 @@ public class EnvironmentStats implements Serializable {
         return cleanerStats.getLong(CLEANER_TOTAL_LOG_SIZE);
     }
 
+    /**
+     * The target rate, in bytes per second, at which the cleaner reads log
+     * files when {@link EnvironmentConfig#CLEANER_ADAPTIVE_PACING} is
+     * configured.
+     */
+    public long getPacingBytesRate() {
+        return cleanerStats.getLong(CLEANER_PACING_BYTES_RATE);
+    }
+
+    /**
+     * The target rate, in LNs per second, at which the cleaner migrates LNs
+     * when {@link EnvironmentConfig#CLEANER_ADAPTIVE_PACING} is configured.
+     */
+    public long getPacingLNRate() {
+        return cleanerStats.getLong(CLEANER_PACING_LN_RATE);
+    }
+
+    /**
+     * The 99th percentile latency, in microseconds, of the foreground
+     * operations sampled during the last pacing interval, or zero if too few
+     * operations were sampled.  The value is rounded up to a power of two
+     * nanoseconds.
+     */
+    public long getPacingForegroundLatency() {
+        return cleanerStats.getLong(CLEANER_PACING_LATENCY);
+    }
+
+    /**
+     * The number of times the cleaner rate was reduced because foreground
+     * latency exceeded {@link
+     * EnvironmentConfig#CLEANER_PACING_LATENCY_TARGET}.
+     */
+    public long getNPacingLatencyThrottles() {
+        return cleanerStats.getLong(CLEANER_PACING_LATENCY_THROTTLES);
+    }
+
+    /**
+     * The number of pacing intervals during which the cleaner ran at full
+     * speed because free disk space was below {@link
+     * EnvironmentConfig#CLEANER_PACING_MIN_FREE_DISK_PERCENT}.
+     */
+    public long getNPacingDiskOverrides() {
+        return cleanerStats.getLong(CLEANER_PACING_DISK_OVERRIDES);
+    }
+
+    /**
+     * The number of pacing intervals during which the cleaner rate was raised
+     * above the latency-based rate to keep up with log growth.
+     */
+    public long getNPacingGrowthFloors() {
+        return cleanerStats.getLong(CLEANER_PACING_GROWTH_FLOORS);
+    }
+
+    /**
+     * The accumulated time, in milliseconds, that cleaner threads slept to
+     * enforce the pacing rate.
+     */
+    public long getPacingSleepTime() {
+        return cleanerStats.getLong(CLEANER_PACING_SLEEP_TIME);
+    }
+
+    /**
+     * The number of log files read ahead of cleaning when {@link
+     * EnvironmentConfig#CLEANER_READ_AHEAD} is configured.
+     */
+    public long getNReadAheadFiles() {
+        return cleanerStats.getLong(CLEANER_READ_AHEAD_FILES);
+    }
+
+    /**
+     * The number of bytes read ahead of cleaning when {@link
+     * EnvironmentConfig#CLEANER_READ_AHEAD} is configured.
+     */
+    public long getNReadAheadBytes() {
+        return cleanerStats.getLong(CLEANER_READ_AHEAD_BYTES);
+    }
+
+    /**
+     * The number of times {@link
+     * EnvironmentConfig#CLEANER_AGE_WEIGHTED_SELECTION} caused the cleaner to
+     * choose a different file than the file with the lowest utilization.
+     */
+    public long getNAgeWeightedSelections() {
+        return cleanerStats.getLong(CLEANER_AGE_WEIGHTED_SELECTIONS);
+    }
+
     /* LogManager stats. */
 
     /**
@@ -820,6 +956,15 @@ public class EnvironmentStats implements Serializable {
         return logStats.getAtomicLong(LBFP_MISS);
     }
 
+    /**
+     * The number of log buffers written by the log writer thread.
+     *
+     * @see EnvironmentConfig#LOG_USE_WRITER_THREAD
+     */
+    public long getNWriterThreadWrites() {
+        return logStats.getAtomicLong(LBFP_WRITER_THREAD_WRITES);
+    }
+
     /**
      * The location of the next entry to be written to the log.
      *
@@ -854,6 +999,42 @@ public class EnvironmentStats implements Serializable {
         return logStats.getLong(FSYNCMGR_TIMEOUTS);
     }
 
+    /**
+     * The number of times a group commit leader waited for more requests to
+     * join its group before issuing a write or fsync.
+     *
+     * @see EnvironmentConfig#LOG_GROUP_COMMIT_INTERVAL
+     * @see EnvironmentConfig#LOG_GROUP_COMMIT_ADAPTIVE
+     */
+    public long getNGroupCommitWaits() {
+        return logStats.getLong(GRPCMGR_N_GROUP_COMMIT_WAITS);
+    }
+
+    /**
+     * The total time in microseconds that group commit leaders waited for
+     * more requests to join their group.
+     *
+     * @see #getNGroupCommitWaits
+     */
+    public long getGroupCommitWaitTime() {
+        return logStats.getLong(GRPCMGR_GROUP_COMMIT_WAIT_TIME);
+    }
+
+    /**
+     * A histogram of the number of requests satisfied by each write or fsync
+     * issued through the group commit manager. The five elements count groups
+     * of 1, 2 to 3, 4 to 7, 8 to 15, and 16 or more requests.
+     */
+    public long[] getGroupCommitSizes() {
+        return new long[] {
+            logStats.getLong(GRPCMGR_GROUP_SIZE_1),
+            logStats.getLong(GRPCMGR_GROUP_SIZE_2_3),
+            logStats.getLong(GRPCMGR_GROUP_SIZE_4_7),
+            logStats.getLong(GRPCMGR_GROUP_SIZE_8_15),
+            logStats.getLong(GRPCMGR_GROUP_SIZE_16_PLUS),
+        };
+    }
+
     /**
      * The total number of fsyncs of the JE log. This includes those fsyncs
      * issued on behalf of transaction commits.
@@ -1017,6 +1198,42 @@ public class EnvironmentStats implements Serializable {
         return logStats.getLong(FILEMGR_WRITEQUEUE_OVERFLOW_FAILURES);
     }
 
+    /**
+     * The number of positional file reads which were started while at least
+     * one other positional read was in progress.  Positional reads are only
+     * used when {@link EnvironmentConfig#LOG_USE_POSITIONAL_READ} is true.
+     */
+    public long getNConcurrentReads() {
+        return logStats.getAtomicLong(FILEMGR_CONCURRENT_READS);
+    }
+
+    /**
+     * The maximum number of positional file reads which were in progress at
+     * the same time.  Positional reads are only used when {@link
+     * EnvironmentConfig#LOG_USE_POSITIONAL_READ} is true.
+     */
+    public long getMaxConcurrentReads() {
+        return logStats.getLong(FILEMGR_MAX_CONCURRENT_READS);
+    }
+
+    /**
+     * The number of log entry fetches which were satisfied by copying from a
+     * memory mapped log file rather than reading the file.  Memory mapped
+     * reads are only used when {@link
+     * EnvironmentConfig#LOG_USE_MEMORY_MAPPED_READ} is true.
+     */
+    public long getNMappedReads() {
+        return logStats.getAtomicLong(FILEMGR_MAPPED_READS);
+    }
+
+    /**
+     * The number of files in the file cache which are currently memory
+     * mapped.
+     */
+    public int getNMappedFiles() {
+        return logStats.getInt(FILEMGR_MAPPED_FILES);
+    }
+
     /**
      * The total memory currently consumed by log buffers, in bytes.  If this
      * environment uses the shared cache, this method returns only the amount
@@ -1052,6 +1269,54 @@ public class EnvironmentStats implements Serializable {
         return logStats.getLong(LOGMGR_TEMP_BUFFER_WRITES);
     }
 
+    /**
+     * The number of log entries written in compressed form.  Compression is
+     * configured using {@link EnvironmentConfig#LOG_COMPRESSION}.
+     */
+    public long getNCompressedLogEntries() {
+        return logStats.getAtomicLong(LOGMGR_COMPRESSED_ENTRIES);
+    }
+
+    /**
+     * The number of log entry item bytes that were compressed, including
+     * entries which were written uncompressed because compression did not
+     * reduce their size.  The compression ratio is this value divided by
+     * {@link #getNLogCompressionOutputBytes}.
+     */
+    public long getNLogCompressionInputBytes() {
+        return logStats.getAtomicLong(LOGMGR_COMPRESSION_INPUT_BYTES);
+    }
+
+    /**
+     * The number of log entry item bytes written for the entries counted by
+     * {@link #getNLogCompressionInputBytes}.
+     */
+    public long getNLogCompressionOutputBytes() {
+        return logStats.getAtomicLong(LOGMGR_COMPRESSION_OUTPUT_BYTES);
+    }
+
+    /**
+     * The time spent compressing log entries, in nanoseconds.
+     */
+    public long getLogCompressionNanos() {
+        return logStats.getAtomicLong(LOGMGR_COMPRESSION_NANOS);
+    }
+
+    /**
+     * The number of compressed log entries which were decompressed when read
+     * from the log.
+     */
+    public long getNDecompressedLogEntries() {
+        return logStats.getAtomicLong(LOGMGR_DECOMPRESSED_ENTRIES);
+    }
+
+    /**
+     * The time spent decompressing log entries, in nanoseconds.
+     */
+    public long getLogDecompressionNanos() {
+        return logStats.getAtomicLong(LOGMGR_DECOMPRESSION_NANOS);
+    }
+
     /**
      * The number of times a log file has been opened.
      */
@@ -1731,6 +1996,8 @@ public class EnvironmentStats implements Serializable {
      * because the allocator will perform the allocation as long as any memory
      * is available. Even so, the off-heap evictor normally prevents
      * overflowing of the off-heap cache by freeing memory before it is needed.
+     * With the SLAB allocator, this happens when a new slab would exceed the
+     * cache size, and is followed by eviction.
      *
      * <p>If this environment uses the shared cache, the return value is the
      * total for all environments that are sharing the cache.</p>
@@ -1980,6 +2247,22 @@ public class EnvironmentStats implements Serializable {
         return offHeapStats.getLong(OffHeapStatDefinition.TOTAL_BYTES);
     }
 
+    /**
+     * Total size of the memory blocks in the off-heap cache, not including
+     * allocator overhead and fragmentation.
+     *
+     * The difference between {@link #getOffHeapTotalBytes} and this value is
+     * the memory used for block overhead and lost to fragmentation. How
+     * accurately this is known depends on the allocator; see {@link
+     * EnvironmentConfig#OFFHEAP_ALLOCATOR}.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     */
+    public long getOffHeapAllocatedBytes() {
+        return offHeapStats.getLong(OffHeapStatDefinition.ALLOCATED_BYTES);
+    }
+
     /**
      * Total number of memory blocks in the off-heap cache.
      *
@@ -2015,6 +2298,67 @@ public class EnvironmentStats implements Serializable {
         return offHeapStats.getInt(OffHeapStatDefinition.TOTAL_BLOCKS);
     }
 
+    /**
+     * Number of LN and BIN bytes that were compressed when stored into the
+     * off-heap cache. This includes blocks that were stored uncompressed
+     * because compression did not reduce their size. The compression ratio
+     * is this value divided by {@link #getOffHeapCompressionOutputBytes}.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     *
+     * @see EnvironmentConfig#OFFHEAP_COMPRESSION
+     */
+    public long getOffHeapCompressionInputBytes() {
+        return offHeapStats.getLong(
+            OffHeapStatDefinition.COMPRESSION_INPUT_BYTES);
+    }
+
+    /**
+     * Number of bytes stored into the off-heap cache for the blocks counted
+     * by {@link #getOffHeapCompressionInputBytes}.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     */
+    public long getOffHeapCompressionOutputBytes() {
+        return offHeapStats.getLong(
+            OffHeapStatDefinition.COMPRESSION_OUTPUT_BYTES);
+    }
+
+    /**
+     * Time spent compressing off-heap blocks, in nanoseconds.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     */
+    public long getOffHeapCompressionNanos() {
+        return offHeapStats.getLong(OffHeapStatDefinition.COMPRESSION_NANOS);
+    }
+
+    /**
+     * Number of compressed off-heap blocks that were decompressed, when
+     * loading LNs and BINs into the main cache or logging dirty off-heap
+     * BINs.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     */
+    public long getOffHeapDecompressions() {
+        return offHeapStats.getLong(OffHeapStatDefinition.DECOMPRESSIONS);
+    }
+
+    /**
+     * Time spent decompressing off-heap blocks, in nanoseconds.
+     *
+     * <p>If this environment uses the shared cache, the return value is the
+     * total for all environments that are sharing the cache.</p>
+     */
+    public long getOffHeapDecompressionNanos() {
+        return offHeapStats.getLong(
+            OffHeapStatDefinition.DECOMPRESSION_NANOS);
+    }
+
     /* EnvironmentImpl stats. */
 
     /**
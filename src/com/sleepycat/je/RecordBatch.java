@@ -0,0 +1,355 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je;
+
+import com.sleepycat.je.utilint.DatabaseUtil;
+
+/**
+ * A caller-owned, reusable buffer of key/data pairs that is filled by the
+ * bulk retrieval methods {@link Cursor#getNextBatch Cursor.getNextBatch},
+ * {@link Cursor#getPrevBatch Cursor.getPrevBatch} and {@link
+ * DiskOrderedCursor#getNextBatch DiskOrderedCursor.getNextBatch}.
+ *
+ * <p>All keys and data of a batch are copied into a single byte array, and
+ * the position of each record in that array is described by offset and
+ * length arrays.  Filling a batch therefore does not allocate a byte array per
+ * key or data item, and a single batch object may be reused for an entire
+ * scan.  For example:</p>
+ *
+ * <pre>
+ *  RecordBatch batch = new RecordBatch(1000, 256 * 1024);
+ *  DatabaseEntry key = new DatabaseEntry();
+ *  DatabaseEntry data = new DatabaseEntry();
+ *  while (cursor.getNextBatch(batch, null) == OperationStatus.SUCCESS) {
+ *      for (int i = 0; i &lt; batch.size(); i += 1) {
+ *          batch.getKey(i, key);
+ *          batch.getData(i, data);
+ *          // Use key and data...
+ *      }
+ *  }
+ * </pre>
+ *
+ * <p>A batch is filled until it holds {@link #getMaxRecords} records, or until
+ * the number of key and data bytes it holds reaches the size of its buffer.
+ * The buffer size is a soft limit: the record that crosses the limit is
+ * still added, and the buffer is enlarged as needed to hold it.  The buffer
+ * returned by {@link #getBuffer} may therefore change when a batch is
+ * filled.</p>
+ *
+ * <p>A batch of records sorted by key may also be built with {@link
+ * #add(DatabaseEntry, DatabaseEntry)} and written with {@link
+ * Database#putBatch Database.putBatch} or {@link Database#putNoOverwriteBatch
+ * Database.putNoOverwriteBatch}.</p>
+ *
+ * <p>The contents of a batch are valid until the batch is filled again or
+ * {@link #clear} is called.  DatabaseEntry objects returned by {@link #getKey}
+ * and {@link #getData} reference the batch buffer and are not copies.</p>
+ *
+ * <p>A RecordBatch is not thread safe.</p>
+ */
+public class RecordBatch {
+
+    private final int maxRecords;
+    private final int[] keyOffsets;
+    private final int[] keyLengths;
+    private final int[] dataOffsets;
+    private final int[] dataLengths;
+    private byte[] buffer;
+    private int bufferSize;
+    private int nRecords;
+    private int nBytes;
+    private boolean keysOnly;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param maxRecords the maximum number of records returned by a single
+     * bulk retrieval call.
+     *
+     * @param bufferSize the initial size of the buffer, and the number of key
+     * and data bytes after which filling of the batch stops.
+     *
+     * @throws IllegalArgumentException if maxRecords is less than one, or
+     * bufferSize is negative.
+     */
+    public RecordBatch(final int maxRecords, final int bufferSize) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException
+                ("maxRecords must be greater than zero: " + maxRecords);
+        }
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException
+                ("bufferSize may not be negative: " + bufferSize);
+        }
+        this.maxRecords = maxRecords;
+        this.bufferSize = bufferSize;
+        keyOffsets = new int[maxRecords];
+        keyLengths = new int[maxRecords];
+        dataOffsets = new int[maxRecords];
+        dataLengths = new int[maxRecords];
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Returns the maximum number of records held by the batch.
+     */
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    /**
+     * Returns the number of key and data bytes after which filling of the
+     * batch stops.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Configures whether only keys are returned.  When true, record data is
+     * not read, which avoids fetching data from disk when it is not already
+     * cached, and every record has a zero length data item.  The default is
+     * false.
+     *
+     * <p>Keys-only mode is not used by {@link DiskOrderedCursor}, which
+     * instead uses {@link DiskOrderedCursorConfig#setKeysOnly}.</p>
+     */
+    public void setKeysOnly(final boolean keysOnly) {
+        this.keysOnly = keysOnly;
+    }
+
+    /**
+     * Returns whether only keys are returned.
+     *
+     * @see #setKeysOnly
+     */
+    public boolean getKeysOnly() {
+        return keysOnly;
+    }
+
+    /**
+     * Returns the number of records in the batch.
+     */
+    public int size() {
+        return nRecords;
+    }
+
+    /**
+     * Returns whether the batch holds no records.
+     */
+    public boolean isEmpty() {
+        return nRecords == 0;
+    }
+
+    /**
+     * Removes all records from the batch.  The buffer is retained for reuse.
+     */
+    public void clear() {
+        nRecords = 0;
+        nBytes = 0;
+    }
+
+    /**
+     * Returns the byte array holding the keys and data of all records.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the offset in the buffer of the key of the given record.
+     */
+    public int getKeyOffset(final int index) {
+        checkIndex(index);
+        return keyOffsets[index];
+    }
+
+    /**
+     * Returns the length of the key of the given record.
+     */
+    public int getKeyLength(final int index) {
+        checkIndex(index);
+        return keyLengths[index];
+    }
+
+    /**
+     * Returns the offset in the buffer of the data of the given record.
+     */
+    public int getDataOffset(final int index) {
+        checkIndex(index);
+        return dataOffsets[index];
+    }
+
+    /**
+     * Returns the length of the data of the given record.
+     */
+    public int getDataLength(final int index) {
+        checkIndex(index);
+        return dataLengths[index];
+    }
+
+    /**
+     * Sets the given entry to reference the key of the given record, and
+     * returns the entry.
+     */
+    public DatabaseEntry getKey(final int index, final DatabaseEntry key) {
+        checkIndex(index);
+        key.setData(buffer, keyOffsets[index], keyLengths[index]);
+        return key;
+    }
+
+    /**
+     * Sets the given entry to reference the data of the given record, and
+     * returns the entry.
+     */
+    public DatabaseEntry getData(final int index, final DatabaseEntry data) {
+        checkIndex(index);
+        data.setData(buffer, dataOffsets[index], dataLengths[index]);
+        return data;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= nRecords) {
+            throw new IndexOutOfBoundsException
+                ("index: " + index + " size: " + nRecords);
+        }
+    }
+
+    /**
+     * @hidden
+     * For internal use only.
+     *
+     * Returns whether another record may be added.
+     */
+    public boolean isFull() {
+        return nRecords >= maxRecords ||
+               (nRecords > 0 && nBytes >= bufferSize);
+    }
+
+    /**
+     * @hidden
+     * For internal use only.
+     *
+     * Appends a copy of the given key and data, enlarging the buffer if
+     * necessary.  A null data array is treated as a zero length item.
+     */
+    public void add(final byte[] key, final byte[] data) {
+        assert !isFull();
+        addRecord(key, data);
+    }
+
+    private void addRecord(final byte[] key, final byte[] data) {
+        final int keyLen = key.length;
+        final int dataLen = (data != null) ? data.length : 0;
+        final int needed = nBytes + keyLen + dataLen;
+        if (needed > buffer.length) {
+            final byte[] newBuffer =
+                new byte[Math.max(needed, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, nBytes);
+            buffer = newBuffer;
+        }
+        keyOffsets[nRecords] = nBytes;
+        keyLengths[nRecords] = keyLen;
+        System.arraycopy(key, 0, buffer, nBytes, keyLen);
+        nBytes += keyLen;
+        dataOffsets[nRecords] = nBytes;
+        dataLengths[nRecords] = dataLen;
+        if (dataLen > 0) {
+            System.arraycopy(data, 0, buffer, nBytes, dataLen);
+            nBytes += dataLen;
+        }
+        nRecords += 1;
+    }
+
+    /**
+     * Appends a copy of the given key and data entries, enlarging the buffer
+     * if necessary.  This method is used to build a batch for {@link
+     * Database#putBatch Database.putBatch} and {@link
+     * Database#putNoOverwriteBatch Database.putNoOverwriteBatch}, and only
+     * the maximum number of records limits the size of the batch.
+     *
+     * @param key the key to add.  Partial entries are not allowed.
+     *
+     * @param data the data to add.  Partial entries are not allowed.
+     *
+     * @throws IllegalStateException if the batch already holds {@link
+     * #getMaxRecords} records.
+     *
+     * @throws IllegalArgumentException if an entry is null or partial.
+     */
+    public void add(final DatabaseEntry key, final DatabaseEntry data) {
+        DatabaseUtil.checkForNullDbt(key, "key", true);
+        DatabaseUtil.checkForNullDbt(data, "data", true);
+        DatabaseUtil.checkForPartialKey(key);
+        if (data.getPartial()) {
+            throw new IllegalArgumentException
+                ("data may not be a partial entry");
+        }
+        if (nRecords >= maxRecords) {
+            throw new IllegalStateException
+                ("batch is full, maxRecords: " + maxRecords);
+        }
+        addRecord(entryBytes(key), entryBytes(data));
+    }
+
+    /**
+     * Appends a copy of the given entries without checking them.  Used when
+     * filling the batch from a cursor, where the data entry may be partial.
+     */
+    void addRetrieved(final DatabaseEntry key, final DatabaseEntry data) {
+        assert !isFull();
+        addRecord(entryBytes(key), entryBytes(data));
+    }
+
+    private static byte[] entryBytes(final DatabaseEntry entry) {
+        final byte[] bytes = entry.getData();
+        if (bytes == null ||
+            (entry.getOffset() == 0 && entry.getSize() == bytes.length)) {
+            return bytes;
+        }
+        final byte[] copy = new byte[entry.getSize()];
+        System.arraycopy(bytes, entry.getOffset(), copy, 0, copy.length);
+        return copy;
+    }
+}
@@ -1057,6 +1057,31 @@ public class SecondaryDatabase extends Database {
         throw notAllowedException();
     }
 
+    /**
+     * This operation is not allowed on a secondary database. {@link
+     * UnsupportedOperationException} will always be thrown by this method.
+     * The corresponding method on the primary database should be used instead.
+     */
+    @Override
+    public int putBatch(final Transaction txn, final RecordBatch batch)
+        throws UnsupportedOperationException {
+
+        throw notAllowedException();
+    }
+
+    /**
+     * This operation is not allowed on a secondary database. {@link
+     * UnsupportedOperationException} will always be thrown by this method.
+     * The corresponding method on the primary database should be used instead.
+     */
+    @Override
+    public int putNoOverwriteBatch(final Transaction txn,
+                                   final RecordBatch batch)
+        throws UnsupportedOperationException {
+
+        throw notAllowedException();
+    }
+
     /**
      * This operation is not allowed on a secondary database. {@link
      * UnsupportedOperationException} will always be thrown by this method.
@@ -43,6 +43,7 @@
 
 package com.sleepycat.je.cleaner;
 
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_AGE_WEIGHTED_SELECTIONS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_CLEANED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_DEAD;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_BIN_DELTAS_MIGRATED;
@@ -64,8 +65,17 @@ import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_MARKED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_MIGRATED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_LNS_OBSOLETE;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_MARKED_LNS_PROCESSED;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_BYTES_RATE;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_DISK_OVERRIDES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_GROWTH_FLOORS;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LATENCY;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LATENCY_THROTTLES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_LN_RATE;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PACING_SLEEP_TIME;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PENDING_LNS_LOCKED;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_PENDING_LNS_PROCESSED;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_READ_AHEAD_BYTES;
+import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_READ_AHEAD_FILES;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_REPEAT_ITERATOR_READS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_RUNS;
 import static com.sleepycat.je.cleaner.CleanerStatDefinition.CLEANER_TOTAL_LOG_SIZE;
@@ -243,6 +253,16 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
     LongStat totalLogSize;
     FloatStat lnSizeCorrectionFactor;
     IntStat lastKnownUtilization;
+    LongStat pacingBytesRate;
+    LongStat pacingLNRate;
+    LongStat pacingLatency;
+    LongStat nPacingLatencyThrottles;
+    LongStat nPacingDiskOverrides;
+    LongStat nPacingGrowthFloors;
+    LongStat pacingSleepTime;
+    LongStat nReadAheadFiles;
+    LongStat nReadAheadBytes;
+    LongStat nAgeWeightedSelections;
 
     /*
      * Configuration parameters are non-private for use by FileProcessor,
@@ -263,6 +283,8 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
     int minUtilization;
     int minFileUtilization;
     int minAge;
+    boolean readAhead;
+    boolean ageWeightedSelection;
 
     private final String name;
     private final EnvironmentImpl env;
@@ -270,6 +292,8 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
     private final UtilizationTracker tracker;
     private final UtilizationCalculator calculator;
     private final FileSelector fileSelector;
+    private final CleanerPacer pacer;
+    private final FileReadAhead fileReadAhead;
     private FileProcessor[] threads;
 
     /*
@@ -332,11 +356,27 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
         totalLogSize = new LongStat(stats, CLEANER_TOTAL_LOG_SIZE);
         lastKnownUtilization =
             new IntStat(stats, CLEANER_LAST_KNOWN_UTILIZATION);
+        pacingBytesRate = new LongStat(stats, CLEANER_PACING_BYTES_RATE);
+        pacingLNRate = new LongStat(stats, CLEANER_PACING_LN_RATE);
+        pacingLatency = new LongStat(stats, CLEANER_PACING_LATENCY);
+        nPacingLatencyThrottles =
+            new LongStat(stats, CLEANER_PACING_LATENCY_THROTTLES);
+        nPacingDiskOverrides =
+            new LongStat(stats, CLEANER_PACING_DISK_OVERRIDES);
+        nPacingGrowthFloors =
+            new LongStat(stats, CLEANER_PACING_GROWTH_FLOORS);
+        pacingSleepTime = new LongStat(stats, CLEANER_PACING_SLEEP_TIME);
+        nReadAheadFiles = new LongStat(stats, CLEANER_READ_AHEAD_FILES);
+        nReadAheadBytes = new LongStat(stats, CLEANER_READ_AHEAD_BYTES);
+        nAgeWeightedSelections =
+            new LongStat(stats, CLEANER_AGE_WEIGHTED_SELECTIONS);
 
         tracker = new UtilizationTracker(env, this);
         profile = new UtilizationProfile(env, tracker);
         calculator = new UtilizationCalculator(env, this);
         fileSelector = new FileSelector();
+        pacer = new CleanerPacer(env, this);
+        fileReadAhead = new FileReadAhead(env, this);
         threads = new FileProcessor[0];
         protectedFileRanges = new LinkedList<Long>();
         logger = LoggerUtils.getLogger(getClass());
@@ -437,6 +477,12 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
         minUtilization = cm.getInt(EnvironmentParams.CLEANER_MIN_UTILIZATION);
         minFileUtilization = cm.getInt
             (EnvironmentParams.CLEANER_MIN_FILE_UTILIZATION);
+
+        readAhead = cm.getBoolean(EnvironmentParams.CLEANER_READ_AHEAD);
+        ageWeightedSelection =
+            cm.getBoolean(EnvironmentParams.CLEANER_AGE_WEIGHTED_SELECTION);
+
+        pacer.envConfigUpdate(cm);
     }
 
     public UtilizationTracker getUtilizationTracker() {
@@ -455,6 +501,31 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
         return fileSelector;
     }
 
+    CleanerPacer getPacer() {
+        return pacer;
+    }
+
+    FileReadAhead getFileReadAhead() {
+        return fileReadAhead;
+    }
+
+    /**
+     * Called at the start of a foreground operation when adaptive pacing is
+     * configured.  Returns a value to be passed to endForegroundOp, which is
+     * zero if the operation is not sampled.
+     */
+    public long startForegroundOp() {
+        return pacer.startForegroundOp();
+    }
+
+    /**
+     * Called at the end of a foreground operation with the value returned by
+     * startForegroundOp.
+     */
+    public void endForegroundOp(long startValue) {
+        pacer.endForegroundOp(startValue);
+    }
+
     public boolean getFetchObsoleteSize(DatabaseImpl db) {
         return fetchObsoleteSize && !db.isLNImmediatelyObsolete();
     }
@@ -512,6 +583,7 @@ public class Cleaner implements DaemonRunner, EnvConfigObserver {
                 threads[i] = null;
             }
         }
+        fileReadAhead.shutdown();
     }
 
     public int getNWakeupRequests() {
@@ -0,0 +1,387 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.cleaner;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.dbi.DbConfigManager;
+import com.sleepycat.je.dbi.EnvironmentImpl;
+import com.sleepycat.je.utilint.DbLsn;
+import com.sleepycat.je.utilint.FileStoreInfo;
+
+/**
+ * Paces log cleaning when {@link EnvironmentParams#CLEANER_ADAPTIVE_PACING}
+ * is configured, so that cleaner I/O yields to foreground operations while
+ * still keeping up with log growth.
+ *
+ * <p>Foreground latency is sampled from a fraction of Cursor operations and
+ * kept in a histogram of power-of-two buckets.  Every {@link #WINDOW_NS} the
+ * histogram is drained and the 99th percentile is compared with the latency
+ * target.  The pacing factor is adjusted additively-increase,
+ * multiplicatively-decrease: it is halved when the target is exceeded and
+ * raised by {@link #FACTOR_INCREMENT} otherwise.  The target rates are the
+ * factor times the configured maximum rates, with two exceptions:</p>
+ * <ul>
+ * <li>The bytes rate is never lower than the rate needed to keep up with log
+ * growth at the configured minimum utilization.</li>
+ * <li>When the free space on the file store holding the environment falls
+ * below the configured percentage, pacing is suspended and the cleaner runs
+ * at full speed.</li>
+ * </ul>
+ *
+ * <p>Rates are enforced by a token bucket shared by all cleaner threads.
+ * FileProcessor calls {@link #pace} after each entry it reads, outside of
+ * any latch, and sleeps for as long as the bucket is in debt.</p>
+ */
+class CleanerPacer {
+
+    /** Length of the interval over which rates are recomputed. */
+    static final long WINDOW_NS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /** Lower bound of the pacing factor. */
+    static final double MIN_FACTOR = 1.0 / 64;
+
+    /** Amount the pacing factor is raised when latency is acceptable. */
+    static final double FACTOR_INCREMENT = 0.1;
+
+    /** Minimum samples in a window for the latency percentile to be used. */
+    static final int MIN_SAMPLES = 16;
+
+    /** One in (SAMPLE_MASK + 1) foreground operations is timed. */
+    private static final int SAMPLE_MASK = 0xF;
+
+    /** Longest single sleep, so that shutdown and rate changes are seen. */
+    private static final long MAX_SLEEP_MS = 100;
+
+    /** Number of histogram buckets; bucket i holds latencies < 2^i ns. */
+    private static final int N_BUCKETS = 48;
+
+    private final EnvironmentImpl env;
+    private final Cleaner cleaner;
+    private final FileStoreInfo fileStoreInfo;
+    private final AtomicLongArray latencyHistogram =
+        new AtomicLongArray(N_BUCKETS);
+
+    /* Mutable configuration, see envConfigUpdate. */
+    private volatile boolean enabled;
+    private volatile long latencyTargetNs;
+    private volatile long maxBytesRate;
+    private volatile int maxLNRate;
+    private volatile int minFreeDiskPercent;
+    private volatile long logFileSize;
+
+    /* The following fields are protected by synchronizing on this object. */
+    private double factor = 1.0;
+    private boolean unthrottled;
+    private double bytesRate;
+    private double lnRate;
+    private double byteTokens;
+    private double lnTokens;
+    private long windowStartNs;
+    private long windowStartLsn = DbLsn.NULL_LSN;
+    private long lastRefillNs;
+
+    CleanerPacer(EnvironmentImpl env, Cleaner cleaner) {
+        this.env = env;
+        this.cleaner = cleaner;
+        fileStoreInfo = getFileStoreInfo(env);
+    }
+
+    private static FileStoreInfo getFileStoreInfo(EnvironmentImpl env) {
+        try {
+            FileStoreInfo.checkSupported();
+            return FileStoreInfo.getInfo
+                (env.getEnvironmentHome().getAbsolutePath());
+        } catch (UnsupportedOperationException e) {
+            return null;
+        } catch (IllegalStateException e) {
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Called by the Cleaner when mutable properties change.
+     */
+    void envConfigUpdate(DbConfigManager cm) {
+        latencyTargetNs =
+            cm.getDurationNS(EnvironmentParams.CLEANER_PACING_LATENCY_TARGET);
+        maxBytesRate =
+            cm.getLong(EnvironmentParams.CLEANER_PACING_MAX_BYTES_RATE);
+        maxLNRate = cm.getInt(EnvironmentParams.CLEANER_PACING_MAX_LN_RATE);
+        minFreeDiskPercent =
+            cm.getInt(EnvironmentParams.CLEANER_PACING_MIN_FREE_DISK_PERCENT);
+        logFileSize = cm.getLong(EnvironmentParams.LOG_FILE_MAX);
+
+        final boolean newEnabled =
+            cm.getBoolean(EnvironmentParams.CLEANER_ADAPTIVE_PACING);
+        synchronized (this) {
+            if (newEnabled && !enabled) {
+                resetWindow(System.nanoTime());
+            }
+            enabled = newEnabled;
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the start time of a sampled foreground operation, or zero if
+     * this operation is not sampled.
+     */
+    long startForegroundOp() {
+        if (!enabled ||
+            (ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) != 0) {
+            return 0;
+        }
+        final long start = System.nanoTime();
+        return (start == 0) ? 1 : start;
+    }
+
+    /**
+     * Records the latency of an operation started by startForegroundOp.
+     */
+    void endForegroundOp(long startNs) {
+        if (startNs != 0) {
+            recordLatency(System.nanoTime() - startNs);
+        }
+    }
+
+    void recordLatency(long latencyNs) {
+        final int bucket = Math.min(
+            N_BUCKETS - 1,
+            64 - Long.numberOfLeadingZeros(Math.max(0, latencyNs)));
+        latencyHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * Charges the given number of bytes read and LNs migrated against the
+     * token bucket, and sleeps while the bucket is in debt.  Must not be
+     * called while holding a latch or lock.
+     *
+     * @param bytesRead the size of the log entries read since the last call.
+     *
+     * @param lnsMigrated the number of LNs migrated since the last call.
+     */
+    void pace(long bytesRead, int lnsMigrated) {
+
+        if (!enabled) {
+            return;
+        }
+
+        final long sleepMs;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (now - windowStartNs >= WINDOW_NS) {
+                updateWindow(now);
+            }
+            if (unthrottled) {
+                return;
+            }
+            refill(now);
+            byteTokens -= bytesRead;
+            lnTokens -= lnsMigrated;
+
+            final double debtSecs = Math.max(
+                (byteTokens < 0) ? (-byteTokens / bytesRate) : 0,
+                (lnTokens < 0) ? (-lnTokens / lnRate) : 0);
+            sleepMs = Math.min(MAX_SLEEP_MS, (long) (debtSecs * 1000));
+        }
+
+        if (sleepMs <= 0 || env.isClosing()) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        cleaner.pacingSleepTime.add(sleepMs);
+    }
+
+    /* Allow at most one window's worth of burst after an idle period. */
+    private void refill(long now) {
+        final double secs = (now - lastRefillNs) / 1e9;
+        lastRefillNs = now;
+        final double windowSecs = WINDOW_NS / 1e9;
+        byteTokens = Math.min(bytesRate * windowSecs,
+                              byteTokens + (bytesRate * secs));
+        lnTokens = Math.min(lnRate * windowSecs,
+                            lnTokens + (lnRate * secs));
+    }
+
+    private void resetWindow(long now) {
+        windowStartNs = now;
+        lastRefillNs = now;
+        windowStartLsn = env.getFileManager().getNextLsn();
+        for (int i = 0; i < N_BUCKETS; i += 1) {
+            latencyHistogram.set(i, 0);
+        }
+        computeRates(0);
+    }
+
+    /**
+     * Drains the latency histogram, adjusts the pacing factor and recomputes
+     * the target rates.
+     */
+    synchronized void updateWindow(long now) {
+
+        final double secs = Math.max(1, now - windowStartNs) / 1e9;
+        final long endLsn = env.getFileManager().getNextLsn();
+        final long growth = (windowStartLsn == DbLsn.NULL_LSN) ?
+            0 :
+            DbLsn.getNoCleaningDistance(endLsn, windowStartLsn, logFileSize);
+        windowStartNs = now;
+        windowStartLsn = endLsn;
+
+        final long p99Ns = drainLatencyPercentile(99);
+        cleaner.pacingLatency.set(TimeUnit.NANOSECONDS.toMicros(p99Ns));
+
+        if (p99Ns > latencyTargetNs) {
+            factor = Math.max(MIN_FACTOR, factor / 2);
+            cleaner.nPacingLatencyThrottles.increment();
+        } else {
+            factor = Math.min(1.0, factor + FACTOR_INCREMENT);
+        }
+
+        computeRates(growth / secs);
+    }
+
+    private void computeRates(double growthBytesPerSec) {
+
+        unthrottled = isDiskLow();
+        if (unthrottled) {
+            cleaner.nPacingDiskOverrides.increment();
+            bytesRate = maxBytesRate;
+            lnRate = maxLNRate;
+        } else {
+
+            /*
+             * To hold utilization at minUtilization, each byte appended must
+             * be matched by 100 / (100 - minUtilization) bytes cleaned.
+             */
+            final double floor = growthBytesPerSec * 100 /
+                Math.max(1, 100 - cleaner.minUtilization);
+            bytesRate = factor * maxBytesRate;
+            lnRate = Math.max(1, factor * maxLNRate);
+            if (floor > bytesRate) {
+                cleaner.nPacingGrowthFloors.increment();
+                lnRate = Math.max(lnRate, maxLNRate * (floor / maxBytesRate));
+                bytesRate = floor;
+            }
+        }
+
+        cleaner.pacingBytesRate.set((long) bytesRate);
+        cleaner.pacingLNRate.set((long) lnRate);
+    }
+
+    private boolean isDiskLow() {
+        if (fileStoreInfo == null || minFreeDiskPercent == 0) {
+            return false;
+        }
+        try {
+            final long total = fileStoreInfo.getTotalSpace();
+            return total > 0 &&
+                ((double) fileStoreInfo.getUsableSpace() * 100 / total) <
+                minFreeDiskPercent;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the upper bound of the histogram bucket holding the given
+     * percentile, or zero if too few samples were taken, and clears the
+     * histogram.
+     */
+    private long drainLatencyPercentile(int percentile) {
+        final long[] counts = new long[N_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < N_BUCKETS; i += 1) {
+            counts[i] = latencyHistogram.getAndSet(i, 0);
+            total += counts[i];
+        }
+        if (total < MIN_SAMPLES) {
+            return 0;
+        }
+        final long rank = (total * percentile + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < N_BUCKETS; i += 1) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (N_BUCKETS - 1);
+    }
+
+    /* For testing. */
+    synchronized double getFactor() {
+        return factor;
+    }
+
+    /* For testing. */
+    synchronized double getBytesRate() {
+        return bytesRate;
+    }
+
+    /* For testing. */
+    synchronized double getLNRate() {
+        return lnRate;
+    }
+
+    /* For testing. */
+    synchronized boolean isUnthrottled() {
+        return unthrottled;
+    }
+}
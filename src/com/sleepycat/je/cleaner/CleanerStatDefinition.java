@@ -221,4 +221,63 @@ public class CleanerStatDefinition {
                            "the log utilization without having to run the " +
                            "DbSpace utility.",
                            StatType.CUMULATIVE);
+
+    public static final StatDefinition CLEANER_PACING_BYTES_RATE =
+        new StatDefinition("pacingBytesRate",
+                           "The target rate, in bytes per second, at which " +
+                           "the cleaner reads log files when adaptive " +
+                           "pacing is configured.",
+                           StatType.CUMULATIVE);
+
+    public static final StatDefinition CLEANER_PACING_LN_RATE =
+        new StatDefinition("pacingLNRate",
+                           "The target rate, in LNs per second, at which " +
+                           "the cleaner migrates LNs when adaptive pacing " +
+                           "is configured.",
+                           StatType.CUMULATIVE);
+
+    public static final StatDefinition CLEANER_PACING_LATENCY =
+        new StatDefinition("pacingForegroundLatency",
+                           "The 99th percentile latency of sampled " +
+                           "foreground operations, in microseconds, during " +
+                           "the last pacing interval.",
+                           StatType.CUMULATIVE);
+
+    public static final StatDefinition CLEANER_PACING_LATENCY_THROTTLES =
+        new StatDefinition("nPacingLatencyThrottles",
+                           "Number of times the cleaner rate was reduced " +
+                           "because foreground latency exceeded the target.");
+
+    public static final StatDefinition CLEANER_PACING_DISK_OVERRIDES =
+        new StatDefinition("nPacingDiskOverrides",
+                           "Number of pacing intervals during which the " +
+                           "cleaner ran at full speed because free disk " +
+                           "space was low.");
+
+    public static final StatDefinition CLEANER_PACING_GROWTH_FLOORS =
+        new StatDefinition("nPacingGrowthFloors",
+                           "Number of pacing intervals during which the " +
+                           "cleaner rate was raised to keep up with log " +
+                           "growth.");
+
+    public static final StatDefinition CLEANER_PACING_SLEEP_TIME =
+        new StatDefinition("pacingSleepTime",
+                           "Accumulated time, in milliseconds, that cleaner " +
+                           "threads slept to enforce the pacing rate.");
+
+    public static final StatDefinition CLEANER_READ_AHEAD_FILES =
+        new StatDefinition("nReadAheadFiles",
+                           "Number of log files read ahead of cleaning so " +
+                           "that they are in the file system cache when the " +
+                           "cleaner processes them.");
+
+    public static final StatDefinition CLEANER_READ_AHEAD_BYTES =
+        new StatDefinition("nReadAheadBytes",
+                           "Number of bytes read ahead of cleaning.");
+
+    public static final StatDefinition CLEANER_AGE_WEIGHTED_SELECTIONS =
+        new StatDefinition("nAgeWeightedSelections",
+                           "Number of times age-weighted file selection " +
+                           "chose a different file than the file with the " +
+                           "lowest utilization.");
 }
@@ -45,9 +45,13 @@ package com.sleepycat.je.cleaner;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -72,6 +76,7 @@ import com.sleepycat.je.log.entry.LNLogEntry;
 import com.sleepycat.je.tree.BIN;
 import com.sleepycat.je.tree.ChildReference;
 import com.sleepycat.je.tree.IN;
+import com.sleepycat.je.tree.Key;
 import com.sleepycat.je.tree.LN;
 import com.sleepycat.je.tree.MapLN;
 import com.sleepycat.je.tree.OldBINDelta;
@@ -347,6 +352,13 @@ class FileProcessor extends DaemonThread {
                 break;
             }
 
+            /* Start reading the following file while this one is cleaned. */
+            if (cleaner.readAhead) {
+                cleaner.getFileReadAhead().requestFile(
+                    fileSelector.peekNextFileForCleaning(
+                        calculator, fileSummaryMap));
+            }
+
             /* Keep track of estimated and true utilization. */
             final FileSummary estimatedFileSummary;
             if (fileSummaryMap.containsKey(fileNum)) {
@@ -575,6 +587,7 @@ class FileProcessor extends DaemonThread {
 
             int nProcessedLNs = 0;
             int nProcessedEntries = 0;
+            final CleanerPacer pacer = cleaner.getPacer();
 
             while (reader.readNextEntryAllowExceptions()) {
 
@@ -643,6 +656,12 @@ class FileProcessor extends DaemonThread {
                 /* Sleep if background read/write limit was exceeded. */
                 env.sleepAfterBackgroundIO();
 
+                /*
+                 * Sleep if the adaptive pacing rate was exceeded.  Migrated
+                 * LNs are charged in processLookAheadCache.
+                 */
+                pacer.pace(reader.getLastEntrySize(), 0);
+
                 /* Check for a known obsolete node. */
                 while (nextObsolete < fileOffset && obsoleteIter.hasNext()) {
                     nextObsolete = obsoleteIter.next();
@@ -752,8 +771,9 @@ class FileProcessor extends DaemonThread {
                         new LNInfo(targetLN, dbId, key));
 
                     if (lookAheadCache.isFull()) {
-                        processLN(fileNum, location, lookAheadCache, dbCache,
-                                  checkPendingDbSet);
+                        processLookAheadCache(
+                            fileNum, location, lookAheadCache, dbCache,
+                            checkPendingDbSet);
                     }
 
                     /*
@@ -791,15 +811,9 @@ class FileProcessor extends DaemonThread {
             }
 
             /* Process remaining queued LNs. */
-            while (!lookAheadCache.isEmpty()) {
-                if (Cleaner.DO_CRITICAL_EVICTION) {
-                    env.daemonEviction(true /*backgroundIO*/);
-                }
-                processLN(fileNum, location, lookAheadCache, dbCache,
-                          checkPendingDbSet);
-                /* Sleep if background read/write limit was exceeded. */
-                env.sleepAfterBackgroundIO();
-            }
+            processLookAheadCache(
+                fileNum, location, lookAheadCache, dbCache,
+                checkPendingDbSet);
 
             /* Update the pending DB set. */
             if (checkPendingDbSet != null) {
@@ -850,25 +864,67 @@ class FileProcessor extends DaemonThread {
             (Long.valueOf(DbLsn.getFileOffset(logLsn)),
              new LNInfo(targetLN, dbId, key));
 
-        processLN(DbLsn.getFileNumber(logLsn), new TreeLocation(),
-            lookAheadCache, dbCache, null);
+        processLN(DbLsn.getFileNumber(logLsn), lookAheadCache.nextOffset(),
+            new TreeLocation(), lookAheadCache, dbCache, null);
     }
 
     /**
-     * Processes the first LN in the look ahead cache and removes it from the
-     * cache. While the BIN is latched, look through the BIN for other LNs in
-     * the cache; if any match, process them to avoid a tree search later.
+     * Processes all LNs in the look ahead cache, ordered by database and key
+     * rather than by log offset.  Consecutive lookups then descend to the
+     * same or adjacent BINs, which are likely to be latched-in and resident,
+     * and every LN that shares a BIN with a processed LN is handled in the
+     * same descent by processLN.
+     */
+    private void processLookAheadCache(
+        Long fileNum,
+        TreeLocation location,
+        LookAheadCache lookAheadCache,
+        Map<DatabaseId, DatabaseImpl> dbCache,
+        Set<DatabaseId> checkPendingDbSet)
+        throws DatabaseException {
+
+        final CleanerPacer pacer = cleaner.getPacer();
+
+        for (final Long offset :
+             lookAheadCache.getOffsetsInKeyOrder(env, cleaner, dbCache)) {
+
+            /* Skip LNs processed along with an earlier LN in their BIN. */
+            if (!lookAheadCache.contains(offset)) {
+                continue;
+            }
+
+            if (Cleaner.DO_CRITICAL_EVICTION) {
+                env.daemonEviction(true /*backgroundIO*/);
+            }
+
+            final int nMigratedBefore = nLNsMigratedThisRun;
+
+            processLN(fileNum, offset, location, lookAheadCache, dbCache,
+                      checkPendingDbSet);
+
+            /* Sleep if background read/write limit was exceeded. */
+            env.sleepAfterBackgroundIO();
+            pacer.pace(0, nLNsMigratedThisRun - nMigratedBefore);
+        }
+
+        assert lookAheadCache.isEmpty();
+    }
+
+    /**
+     * Processes the LN at the given offset in the look ahead cache and
+     * removes it from the cache. While the BIN is latched, look through the
+     * BIN for other LNs in the cache; if any match, process them to avoid a
+     * tree search later.
      */
     private void processLN(
         Long fileNum,
+        Long offset,
         TreeLocation location,
         LookAheadCache lookAheadCache,
         Map<DatabaseId, DatabaseImpl> dbCache,
         Set<DatabaseId> checkPendingDbSet)
         throws DatabaseException {
 
-        /* Get the first LN from the queue. */
-        Long offset = lookAheadCache.nextOffset();
         LNInfo info = lookAheadCache.remove(offset);
 
         LN lnFromLog = info.getLN();
@@ -1708,6 +1764,63 @@ class FileProcessor extends DaemonThread {
             return map.firstKey();
         }
 
+        boolean contains(Long offset) {
+            return map.containsKey(offset);
+        }
+
+        /**
+         * Returns the offsets of all cached LNs, ordered by database ID and
+         * then by key using the database's key comparator.
+         */
+        List<Long> getOffsetsInKeyOrder(
+            final EnvironmentImpl env,
+            final Cleaner cleaner,
+            final Map<DatabaseId, DatabaseImpl> dbCache) {
+
+            final Map<DatabaseId, Comparator<byte[]>> comparators =
+                new HashMap<DatabaseId, Comparator<byte[]>>();
+
+            for (final LNInfo info : map.values()) {
+                final DatabaseId dbId = info.getDbId();
+                if (!comparators.containsKey(dbId)) {
+                    final DatabaseImpl db = env.getDbTree().getDb(
+                        dbId, cleaner.lockTimeout, dbCache);
+                    comparators.put(
+                        dbId, (db != null) ? db.getKeyComparator() : null);
+                }
+            }
+
+            final List<Map.Entry<Long, LNInfo>> entries =
+                new ArrayList<Map.Entry<Long, LNInfo>>(map.entrySet());
+
+            Collections.sort(
+                entries, new Comparator<Map.Entry<Long, LNInfo>>() {
+                    @Override
+                    public int compare(Map.Entry<Long, LNInfo> e1,
+                                       Map.Entry<Long, LNInfo> e2) {
+                        final LNInfo info1 = e1.getValue();
+                        final LNInfo info2 = e2.getValue();
+                        int cmp = info1.getDbId().compareTo(info2.getDbId());
+                        if (cmp != 0) {
+                            return cmp;
+                        }
+                        cmp = Key.compareKeys(
+                            info1.getKey(), info2.getKey(),
+                            comparators.get(info1.getDbId()));
+                        if (cmp != 0) {
+                            return cmp;
+                        }
+                        return e1.getKey().compareTo(e2.getKey());
+                    }
+                });
+
+            final List<Long> offsets = new ArrayList<Long>(entries.size());
+            for (final Map.Entry<Long, LNInfo> entry : entries) {
+                offsets.add(entry.getKey());
+            }
+            return offsets;
+        }
+
         void add(Long lsnOffset, LNInfo info) {
             map.put(lsnOffset, info);
             usedMem += info.getMemorySize();
@@ -0,0 +1,175 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.cleaner;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.sleepycat.je.dbi.EnvironmentImpl;
+import com.sleepycat.je.dbi.MemoryBudget;
+import com.sleepycat.je.log.FileManager;
+import com.sleepycat.je.utilint.LoggerUtils;
+import com.sleepycat.je.utilint.StoppableThreadFactory;
+
+/**
+ * Reads the file that is expected to be cleaned next, so that its contents
+ * are in the file system cache by the time a FileProcessor starts reading it.
+ * This overlaps the disk reads for one file with the Btree lookups and
+ * migration for the file being cleaned.  It is enabled with {@link
+ * com.sleepycat.je.EnvironmentConfig#CLEANER_READ_AHEAD}.
+ *
+ * <p>Read-ahead is only a hint.  Requests are dropped when the single
+ * read-ahead thread is busy and its queue is full, and a file that is deleted
+ * or already being read is skipped.  Reads are counted as background reads,
+ * so they are subject to the background read limit.</p>
+ */
+class FileReadAhead {
+
+    /* Size of each read.  Large reads let the file system read ahead. */
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    /* Max number of files waiting to be read. */
+    private static final int MAX_QUEUED_FILES = 2;
+
+    /* Idle time before the read-ahead thread exits. */
+    private static final long KEEP_ALIVE_MS = 10 * 1000;
+
+    private final EnvironmentImpl env;
+    private final Cleaner cleaner;
+    private final Logger logger;
+    private final ThreadPoolExecutor pool;
+
+    /* The most recently requested file, to avoid reading a file twice. */
+    private Long lastRequested;
+
+    FileReadAhead(EnvironmentImpl env, Cleaner cleaner) {
+        this.env = env;
+        this.cleaner = cleaner;
+        logger = LoggerUtils.getLogger(getClass());
+        pool = new ThreadPoolExecutor(
+            0, 1, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(MAX_QUEUED_FILES),
+            new StoppableThreadFactory(env, "JECleanerReadAhead", logger),
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Requests that the given file be read in the background.  Returns
+     * immediately.
+     */
+    synchronized void requestFile(final Long fileNum) {
+        if (fileNum == null || fileNum.equals(lastRequested)) {
+            return;
+        }
+        lastRequested = fileNum;
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                readFile(fileNum);
+            }
+        });
+    }
+
+    private void readFile(Long fileNum) {
+
+        /* Don't bother if the file has already been cleaned by now. */
+        if (env.isClosing() ||
+            !cleaner.getFileSelector().isFileToBeCleaned(fileNum)) {
+            return;
+        }
+
+        final String fileName = env.getFileManager().getFullFileName
+            (fileNum, FileManager.JE_SUFFIX);
+        final MemoryBudget budget = env.getMemoryBudget();
+        budget.updateAdminMemoryUsage(CHUNK_SIZE);
+        long nBytes = 0;
+
+        try {
+            final RandomAccessFile file = new RandomAccessFile(fileName, "r");
+            try {
+                final FileChannel channel = file.getChannel();
+                final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+                while (!env.isClosing()) {
+                    buffer.clear();
+                    final int n = channel.read(buffer, nBytes);
+                    if (n <= 0) {
+                        break;
+                    }
+                    nBytes += n;
+                    env.updateBackgroundReads(1);
+                    env.sleepAfterBackgroundIO();
+                }
+            } finally {
+                file.close();
+            }
+            cleaner.nReadAheadFiles.increment();
+        } catch (FileNotFoundException e) {
+            /* The file was deleted. */
+        } catch (IOException e) {
+            /* Read-ahead is only a hint; the FileProcessor reports errors. */
+            LoggerUtils.fine(logger, env, "Cleaner read-ahead of file 0x" +
+                             Long.toHexString(fileNum) + " failed: " + e);
+        } finally {
+            budget.updateAdminMemoryUsage(0 - CHUNK_SIZE);
+            cleaner.nReadAheadBytes.add(nBytes);
+        }
+    }
+
+    /**
+     * Stops the read-ahead thread.  Pending requests are discarded and a
+     * read in progress ends at the next chunk, since it checks for
+     * environment close.
+     */
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
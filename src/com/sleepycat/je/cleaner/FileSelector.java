@@ -255,6 +255,19 @@ public class FileSelector {
         return fileNum;
     }
 
+    /**
+     * Returns the file that selectFileForCleaning would return next if no
+     * other files were added, without changing its status, or null if no
+     * file is waiting to be cleaned.  Used to read the file ahead.
+     */
+    synchronized Long peekNextFileForCleaning(
+        UtilizationCalculator calculator,
+        SortedMap<Long, FileSummary> fileSummaryMap) {
+
+        return calculator.getCheapestFileToClean
+            (fileSummaryMap, getFiles(FileStatus.TO_BE_CLEANED));
+    }
+
     /**
      * Returns the number of files having the given status.
      */
@@ -357,6 +370,16 @@ public class FileSelector {
         return fileInfoMap.containsKey(fileNum);
     }
 
+    /**
+     * Returns whether the file is waiting to be cleaned or is being cleaned.
+     */
+    synchronized boolean isFileToBeCleaned(Long fileNum) {
+        final FileInfo info = fileInfoMap.get(fileNum);
+        return info != null &&
+            (info.status == FileStatus.TO_BE_CLEANED ||
+             info.status == FileStatus.BEING_CLEANED);
+    }
+
     private boolean isFileCleaningInProgress(Collection<Long> files) {
         for (Long file : files) {
             if (isFileCleaningInProgress(file)) {
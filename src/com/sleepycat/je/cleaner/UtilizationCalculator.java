@@ -159,6 +159,7 @@ public class UtilizationCalculator {
         final int useMinUtilization = cleaner.minUtilization;
         final int useMinFileUtilization = cleaner.minFileUtilization;
         final int useMinAge = cleaner.minAge;
+        final boolean useAgeWeighting = cleaner.ageWeightedSelection;
 
         /*
          * Cleaning must refrain from rearranging the portion of log processed
@@ -185,25 +186,14 @@ public class UtilizationCalculator {
          * ckptA's firstActiveLsn, but the cleaning run will wait to ckptB end
          * to delete files.
          */
-        long firstActiveFile = fileSummaryMap.lastKey();
-        final long firstActiveTxnLsn = env.getTxnManager().getFirstActiveLsn();
-        if (firstActiveTxnLsn != DbLsn.NULL_LSN) {
-            long firstActiveTxnFile = 
-                DbLsn.getFileNumber(firstActiveTxnLsn);
-            if (firstActiveFile > firstActiveTxnFile) {
-                firstActiveFile = firstActiveTxnFile;
-            }
-        }
-
-        /*
-         * Note that minAge is at least one and may be configured to a higher
-         * value to prevent cleaning recently active files.
-         */
-        final long lastFileToClean = firstActiveFile - useMinAge;
+        final long lastFileToClean =
+            getLastFileToClean(fileSummaryMap, useMinAge);
 
         /* Calculate totals and find the best file. */
         Long bestFile = null;
         int bestUtilization = 101;
+        Long bestAgeWeightedFile = null;
+        long bestAgeWeightedScore = 0;
         long totalSize = 0;
         long totalObsoleteSize = 0;
         long lastKnownSize = 0;
@@ -261,6 +251,16 @@ public class UtilizationCalculator {
                 bestFile = file;
                 bestUtilization = thisUtilization;
             }
+
+            /* Select this file if it has the highest benefit/cost so far. */
+            if (useAgeWeighting) {
+                final long thisScore = getAgeWeightedScore(
+                    thisUtilization, lastFileToClean - fileNum + 1);
+                if (thisScore > bestAgeWeightedScore) {
+                    bestAgeWeightedFile = file;
+                    bestAgeWeightedScore = thisScore;
+                }
+            }
         }
 
         /*
@@ -278,8 +278,15 @@ public class UtilizationCalculator {
         lastKnownUtilization =
             FileSummary.utilization(lastKnownObsoleteSize, lastKnownSize);
 
-        if (totalUtilization < useMinUtilization ||
-            bestUtilization < useMinFileUtilization) {
+        if (totalUtilization < useMinUtilization &&
+            bestUtilization >= useMinFileUtilization &&
+            bestAgeWeightedFile != null &&
+            !bestAgeWeightedFile.equals(bestFile)) {
+            fileChosen = bestAgeWeightedFile;
+            loggingMsg = "Chose age-weighted file for cleaning.";
+            cleaner.nAgeWeightedSelections.increment();
+        } else if (totalUtilization < useMinUtilization ||
+                   bestUtilization < useMinFileUtilization) {
             fileChosen = bestFile;
             loggingMsg = "Chose lowest utilized file for cleaning.";
         } else if (!isBacklog &&
@@ -308,6 +315,49 @@ public class UtilizationCalculator {
         return fileChosen;
     }
 
+    /**
+     * Returns the last file that may be cleaned, given the minimum age.
+     * See getBestFile.
+     */
+    private long getLastFileToClean(
+        SortedMap<Long, FileSummary> fileSummaryMap,
+        int useMinAge) {
+
+        long firstActiveFile = fileSummaryMap.lastKey();
+        final long firstActiveTxnLsn = env.getTxnManager().getFirstActiveLsn();
+        if (firstActiveTxnLsn != DbLsn.NULL_LSN) {
+            long firstActiveTxnFile = 
+                DbLsn.getFileNumber(firstActiveTxnLsn);
+            if (firstActiveFile > firstActiveTxnFile) {
+                firstActiveFile = firstActiveTxnFile;
+            }
+        }
+
+        /*
+         * Note that minAge is at least one and may be configured to a higher
+         * value to prevent cleaning recently active files.
+         */
+        return firstActiveFile - useMinAge;
+    }
+
+    /**
+     * Returns the benefit/cost ratio of cleaning a file, scaled to an
+     * integer, as used by age-weighted file selection.
+     *
+     * Cleaning a file with utilization u reads the whole file and writes the
+     * fraction u, and frees the fraction 1-u, so cost is 1+u and benefit is
+     * 1-u.  The benefit is weighted by age, the distance in files from the
+     * end of the cleanable portion of the log, because space freed in an old
+     * file tends to stay free, while a young file is still being emptied by
+     * application updates and deletions.  Recently written files, including
+     * those holding records just migrated by the cleaner, are left alone
+     * until short-lived records in them have expired, so that long-lived
+     * records are migrated fewer times.
+     */
+    static long getAgeWeightedScore(int utilization, long age) {
+        return ((100L - utilization) * 1000 * age) / (100 + utilization);
+    }
+
     /**
      * Returns the cheapest file to clean from the given list of files.
      *
@@ -315,10 +365,14 @@ public class UtilizationCalculator {
      * active (non-obsolete) entries, since each active entry requires a Btree
      * lookup and must be logged.
      * 
+     * With age-weighted selection, the file with the highest age-weighted
+     * score is returned instead, as by getBestFile, so that a backlog is
+     * cleaned in the order in which the files would have been selected.
+     *
      * This method is used to select the first file to be cleaned in the batch
-     * of to-be-cleaned files.  If there is no backlog, then this method always
-     * returns the first and only file in the candidate set, so the cost
-     * algorithm has no impact.
+     * of to-be-cleaned files, and to peek at the next file to read it ahead.
+     * If there is no backlog, then this method always returns the first and
+     * only file in the candidate set, so the cost algorithm has no impact.
      *
      * Returns null iff the candidate set is empty.
      */
@@ -334,8 +388,13 @@ public class UtilizationCalculator {
             return candidateFiles.first();
         }
 
+        final boolean useAgeWeighting = cleaner.ageWeightedSelection;
+        final long lastFileToClean = useAgeWeighting ?
+            getLastFileToClean(fileSummaryMap, cleaner.minAge) : 0;
+
         Long bestFile = null;
         int bestCost = Integer.MAX_VALUE;
+        long bestAgeWeightedScore = -1;
 
         for (final Long file : candidateFiles) {
             final FileSummary summary = fileSummaryMap.get(file);
@@ -350,6 +409,24 @@ public class UtilizationCalculator {
                 return file;
             }
 
+            /*
+             * Select this file if it has the highest benefit/cost so far.
+             * The file may have become younger than the minimum age after it
+             * was selected, if an active txn started in an earlier file.
+             */
+            if (useAgeWeighting) {
+                final int thisUtilization = FileSummary.utilization(
+                    summary.getObsoleteSize(), summary.totalSize);
+                final long thisScore = getAgeWeightedScore(
+                    thisUtilization,
+                    Math.max(1, lastFileToClean - file + 1));
+                if (thisScore > bestAgeWeightedScore) {
+                    bestFile = file;
+                    bestAgeWeightedScore = thisScore;
+                }
+                continue;
+            }
+
             /* Calculate this file's cost to clean. */
             final int thisCost = summary.getNonObsoleteCount();
 
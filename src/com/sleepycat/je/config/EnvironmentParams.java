@@ -49,6 +49,8 @@ import java.util.logging.Level;
 
 import com.sleepycat.je.Durability;
 import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.evictor.OffHeapAllocatorFactory;
+import com.sleepycat.je.log.LogCompressor;
 
 /**
  */
@@ -129,6 +131,14 @@ public class EnvironmentParams {
                                false,         // mutable
                                false);        // forReplication
 
+    public static final IntConfigParam ENV_RECOVERY_THREADS =
+        new IntConfigParam(EnvironmentConfig.ENV_RECOVERY_THREADS,
+                           1,             // min
+                           64,            // max
+                           1,             // default
+                           false,         // mutable
+                           false);        // forReplication
+
     public static final BooleanConfigParam
         HALT_ON_COMMIT_AFTER_CHECKSUMEXCEPTION =
             new BooleanConfigParam(
@@ -614,6 +624,12 @@ public class EnvironmentParams {
                            false,  // mutable
                            false); // forReplication
 
+    public static final BooleanConfigParam LOG_GROUP_COMMIT_ADAPTIVE =
+        new BooleanConfigParam(EnvironmentConfig.LOG_GROUP_COMMIT_ADAPTIVE,
+                               false,          // default
+                               false,          // mutable
+                               false);         // forReplication
+
     public static final BooleanConfigParam LOG_USE_ODSYNC =
         new BooleanConfigParam(EnvironmentConfig.LOG_USE_ODSYNC,
                                false,          // default
@@ -632,6 +648,12 @@ public class EnvironmentParams {
                                false,          // mutable
                                false);         // forReplication
 
+    public static final BooleanConfigParam LOG_USE_WRITER_THREAD =
+        new BooleanConfigParam(EnvironmentConfig.LOG_USE_WRITER_THREAD,
+                               false,          // default
+                               false,          // mutable
+                               false);         // forReplication
+
     public static final IntConfigParam LOG_WRITE_QUEUE_SIZE =
         new IntConfigParam(EnvironmentConfig.LOG_WRITE_QUEUE_SIZE,
                            1 << 12,    // min (4KB)
@@ -640,6 +662,54 @@ public class EnvironmentParams {
                            false,      // mutable
                            false);     // forReplication
 
+    public static final BooleanConfigParam LOG_USE_POSITIONAL_READ =
+        new BooleanConfigParam(EnvironmentConfig.LOG_USE_POSITIONAL_READ,
+                               false,          // default
+                               false,          // mutable
+                               false);         // forReplication
+
+    public static final BooleanConfigParam LOG_USE_MEMORY_MAPPED_READ =
+        new BooleanConfigParam(EnvironmentConfig.LOG_USE_MEMORY_MAPPED_READ,
+                               false,          // default
+                               false,          // mutable
+                               false);         // forReplication
+
+    public static final ConfigParam LOG_COMPRESSION =
+        new ConfigParam(EnvironmentConfig.LOG_COMPRESSION,
+                        "NONE",                // default
+                        false,                 // mutable
+                        false) {               // forReplication
+
+            @Override
+            public void validateValue(String value)
+                throws IllegalArgumentException {
+
+                LogCompressor.validateCodec(value);
+            }
+    };
+
+    public static final ConfigParam LOG_COMPRESSION_ENTRY_TYPES =
+        new ConfigParam(EnvironmentConfig.LOG_COMPRESSION_ENTRY_TYPES,
+                        "LN,BIN",              // default
+                        false,                 // mutable
+                        false) {               // forReplication
+
+            @Override
+            public void validateValue(String value)
+                throws IllegalArgumentException {
+
+                LogCompressor.parseEntryTypes(value);
+            }
+    };
+
+    public static final IntConfigParam LOG_COMPRESSION_MIN_SIZE =
+        new IntConfigParam(EnvironmentConfig.LOG_COMPRESSION_MIN_SIZE,
+                           0,              // min
+                           null,           // max
+                           128,            // default
+                           false,          // mutable
+                           false);         // forReplication
+
     /**
      * @deprecated
      */
@@ -737,6 +807,43 @@ public class EnvironmentParams {
                                false,        // mutable
                                false);       // forReplication
 
+    /*
+     * Whether Btree searches read the upper INs optimistically, validating a
+     * version stamp instead of latching them.
+     */
+    public static final BooleanConfigParam TREE_OPTIMISTIC_READS =
+        new BooleanConfigParam("je.tree.optimisticReads",
+                               true,         // default
+                               false,        // mutable
+                               false);       // forReplication
+
+    /*
+     * Whether upper INs use key prefixing when it saves memory, regardless of
+     * the database's key prefixing setting, and whether BIN splits store the
+     * shortest separator key in the parent IN rather than the full key.
+     * The IN log format already stores a key prefix and keys of any length,
+     * so existing databases are read as before, and their upper INs are
+     * compacted as they are split and logged.
+     */
+    public static final BooleanConfigParam TREE_COMPACT_UPPER_IN_KEYS =
+        new BooleanConfigParam("je.tree.compactUpperINKeys",
+                               true,         // default
+                               false,        // mutable
+                               false);       // forReplication
+
+    /*
+     * The number of slots in the per-database cache of BINs found by point
+     * searches, which lets repeated searches for a key skip the upper INs.
+     * Zero disables the cache.
+     */
+    public static final IntConfigParam TREE_BIN_FINGER_CACHE_SIZE =
+        new IntConfigParam("je.tree.binFingerCacheSize",
+                           0,             // min
+                           1 << 20,       // max
+                           0,             // default
+                           false,         // mutable
+                           false);        // forReplication
+
     public static final LongConfigParam MIN_TREE_MEMORY =
         new LongConfigParam(EnvironmentConfig.TREE_MIN_MEMORY,
                             50L * 1024,   // min
@@ -930,12 +1037,48 @@ public class EnvironmentParams {
             false,        // mutable
             false);       // forReplication
 
+    public static final ConfigParam OFFHEAP_ALLOCATOR =
+        new ConfigParam(EnvironmentConfig.OFFHEAP_ALLOCATOR,
+            "MALLOC",              // default
+            false,                 // mutable
+            false) {               // forReplication
+
+            @Override
+            public void validateValue(String value)
+                throws IllegalArgumentException {
+
+                OffHeapAllocatorFactory.validateName(value);
+            }
+        };
+
     public static final BooleanConfigParam OFFHEAP_CHECKSUM =
         new BooleanConfigParam(EnvironmentConfig.OFFHEAP_CHECKSUM,
             false,                 // default
             false,                 // mutable
             false);                // forReplication
 
+    public static final ConfigParam OFFHEAP_COMPRESSION =
+        new ConfigParam(EnvironmentConfig.OFFHEAP_COMPRESSION,
+            "NONE",                // default
+            false,                 // mutable
+            false) {               // forReplication
+
+            @Override
+            public void validateValue(String value)
+                throws IllegalArgumentException {
+
+                LogCompressor.validateCodec(value);
+            }
+        };
+
+    public static final IntConfigParam OFFHEAP_COMPRESSION_MIN_SIZE =
+        new IntConfigParam(EnvironmentConfig.OFFHEAP_COMPRESSION_MIN_SIZE,
+            0,                     // min
+            null,                  // max
+            64,                    // default
+            false,                 // mutable
+            false);                // forReplication
+
     /**
      */
     public static final BooleanConfigParam ENV_RUN_OFFHEAP_EVICTOR =
@@ -1009,6 +1152,22 @@ public class EnvironmentParams {
                                true,  // mutable
                                false);// forReplication
 
+    public static final IntConfigParam CHECKPOINTER_FLUSH_SPREAD_PERCENT =
+        new IntConfigParam(EnvironmentConfig.CHECKPOINTER_FLUSH_SPREAD_PERCENT,
+                           0,     // min
+                           90,    // max
+                           0,     // default
+                           true,  // mutable
+                           false);// forReplication
+
+    public static final IntConfigParam CHECKPOINTER_FLUSH_THREADS =
+        new IntConfigParam(EnvironmentConfig.CHECKPOINTER_FLUSH_THREADS,
+                           1,     // min
+                           64,    // max
+                           1,     // default
+                           false, // mutable
+                           false);// forReplication
+
     /*
      * Cleaner
      */
@@ -1287,6 +1446,59 @@ public class EnvironmentParams {
                            true,   // mutable
                            false); // forReplication
 
+    public static final BooleanConfigParam CLEANER_AGE_WEIGHTED_SELECTION =
+        new BooleanConfigParam(
+            EnvironmentConfig.CLEANER_AGE_WEIGHTED_SELECTION,
+            false,  // default
+            true,   // mutable
+            false); // forReplication
+
+    public static final BooleanConfigParam CLEANER_READ_AHEAD =
+        new BooleanConfigParam(EnvironmentConfig.CLEANER_READ_AHEAD,
+                               false,  // default
+                               true,   // mutable
+                               false); // forReplication
+
+    public static final BooleanConfigParam CLEANER_ADAPTIVE_PACING =
+        new BooleanConfigParam(EnvironmentConfig.CLEANER_ADAPTIVE_PACING,
+                               false,  // default
+                               true,   // mutable
+                               false); // forReplication
+
+    public static final DurationConfigParam CLEANER_PACING_LATENCY_TARGET =
+        new DurationConfigParam(
+            EnvironmentConfig.CLEANER_PACING_LATENCY_TARGET,
+            "1 ms",  // min
+            "1 min", // max
+            "10 ms", // default
+            true,    // mutable
+            false);  // forReplication
+
+    public static final LongConfigParam CLEANER_PACING_MAX_BYTES_RATE =
+        new LongConfigParam(EnvironmentConfig.CLEANER_PACING_MAX_BYTES_RATE,
+                            1024L,          // min
+                            null,           // max
+                            104857600L,     // default
+                            true,           // mutable
+                            false);         // forReplication
+
+    public static final IntConfigParam CLEANER_PACING_MAX_LN_RATE =
+        new IntConfigParam(EnvironmentConfig.CLEANER_PACING_MAX_LN_RATE,
+                           1,      // min
+                           null,   // max
+                           50000,  // default
+                           true,   // mutable
+                           false); // forReplication
+
+    public static final IntConfigParam CLEANER_PACING_MIN_FREE_DISK_PERCENT =
+        new IntConfigParam(
+            EnvironmentConfig.CLEANER_PACING_MIN_FREE_DISK_PERCENT,
+            0,      // min
+            99,     // max
+            10,     // default
+            true,   // mutable
+            false); // forReplication
+
     /**
      * @deprecated
      * Retained here only to avoid errors in old je.properties files.
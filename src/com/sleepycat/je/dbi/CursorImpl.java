@@ -57,6 +57,7 @@ import com.sleepycat.je.DuplicateDataException;
 import com.sleepycat.je.EnvironmentFailureException;
 import com.sleepycat.je.LockConflictException;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.RecordBatch;
 import com.sleepycat.je.latch.LatchSupport;
 import com.sleepycat.je.log.LogItem;
 import com.sleepycat.je.log.LogUtils;
@@ -370,6 +371,28 @@ public class CursorImpl implements Cloneable {
         cacheMode = mode;
     }
 
+    /**
+     * Returns whether getNextBatch may be used with the given cache mode,
+     * i.e., whether the mode never evicts the BIN as the cursor moves off it.
+     */
+    @SuppressWarnings("deprecation")
+    public static boolean isBatchCacheMode(final CacheMode mode) {
+        return mode == CacheMode.DEFAULT ||
+               mode == CacheMode.KEEP_HOT ||
+               mode == CacheMode.EVICT_LN;
+    }
+
+    /**
+     * Returns whether putBatch leaves the LNs it writes resident with the
+     * given cache mode, i.e., whether the mode never evicts the LN as the
+     * batch moves on to the next record.
+     */
+    @SuppressWarnings("deprecation")
+    private static boolean isBatchKeepLNCacheMode(final CacheMode mode) {
+        return mode == CacheMode.DEFAULT ||
+               mode == CacheMode.KEEP_HOT;
+    }
+
     public void setTreeStatsAccumulator(TreeWalkerStatsAccumulator tSA) {
         maybeInitTreeStatsAccumulator();
         treeStatsAccumulatorTL.set(tSA);
@@ -1330,6 +1353,154 @@ public class CursorImpl implements Cloneable {
         }
     }
 
+    /**
+     * Inserts or updates the records of a batch whose keys are in strictly
+     * ascending order according to the key comparator.
+     *
+     * Rather than searching from the root for every record, the tree is
+     * searched once for the BIN that covers the first key of a run, and the
+     * following records are inserted into that BIN while it stays latched,
+     * for as long as their keys are known to belong there: either they are
+     * not greater than the last key in the BIN, or the BIN is the last one in
+     * the tree. A new search is performed when the next key may belong to
+     * another BIN, or when the BIN is full and must be split.
+     *
+     * Each record is still logged and locked individually, exactly as by
+     * insertOrUpdateRecord, so that transactional LNs are chained to the
+     * prior LSN of their txn and are assigned their own VLSN. If the record
+     * of an existing key cannot be locked without waiting, the BIN is released
+     * and the record is written by insertOrUpdateRecord, which may block.
+     *
+     * The cursor must initially be uninitialized, and the database must not
+     * be a duplicates database. On return, the cursor is positioned on the
+     * last record written, or is uninitialized if the batch is empty.
+     *
+     * @param putMode OVERWRITE or NO_OVERWRITE
+     *
+     * @return the number of records that were inserted or updated. With
+     * NO_OVERWRITE, records whose keys exist already are not counted.
+     */
+    public int putBatch(
+        final RecordBatch batch,
+        final PutMode putMode,
+        final ReplicationContext repContext) {
+
+        assert putMode == PutMode.OVERWRITE ||
+               putMode == PutMode.NO_OVERWRITE : putMode;
+        assert !dbImpl.getSortedDuplicates();
+        assert assertCursorState(
+            false /*mustBeInitialized*/, true /*mustNotBeInitialized*/);
+        if (LatchSupport.TRACK_LATCHES) {
+            LatchSupport.expectBtreeLatchesHeld(0);
+        }
+
+        final EnvironmentImpl envImpl = dbImpl.getEnv();
+        final Tree tree = dbImpl.getTree();
+        final Comparator<byte[]> comparator = dbImpl.getKeyComparator();
+        final BINBoundary binBoundary = new BINBoundary();
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final boolean evictLN = !isBatchKeepLNCacheMode(cacheMode);
+        final int nRecords = batch.size();
+        int nWritten = 0;
+        int i = 0;
+
+        try {
+            while (i < nRecords) {
+
+                batch.getKey(i, key);
+                batch.getData(i, data);
+                byte[] keyCopy = Key.makeKey(key);
+
+                /* Descend once for each run of records in the same BIN. */
+                if (bin != null) {
+                    releaseBIN();
+                    removeCursorAndPerformCacheEviction(null /*newCursor*/);
+                    criticalEviction();
+                }
+                bin = tree.findBinForInsert(
+                    keyCopy, getCacheMode(), binBoundary);
+                final BIN targetBin = bin;
+
+                while (true) {
+                    final LN ln = LN.makeLN(envImpl, data);
+
+                    final Pair<LockStanding, Boolean> result =
+                        insertRecordInBIN(
+                            keyCopy, ln, false /*blindInsertion*/,
+                            null /*returnNewData*/, repContext,
+                            true /*noWait*/);
+
+                    if (result == null) {
+
+                        /*
+                         * The existing record is locked by another locker.
+                         * Give up the BIN latch and write this record alone,
+                         * waiting for the lock.
+                         */
+                        releaseBIN();
+                        removeCursorAndPerformCacheEviction(null);
+                        final Pair<OperationStatus, Boolean> putResult =
+                            insertOrUpdateRecord(
+                                key, data, ln, putMode,
+                                null /*returnOldData*/,
+                                null /*returnNewData*/,
+                                repContext, null /*opStats*/);
+                        if (putResult.first() == OperationStatus.SUCCESS) {
+                            nWritten += 1;
+                        }
+                        i += 1;
+                        break;
+                    }
+
+                    if (result.second()) {
+                        nWritten += 1;
+                    } else if (putMode == PutMode.OVERWRITE) {
+                        if (updateRecordInternal(
+                                keyCopy, data, null /*returnOldData*/,
+                                null /*returnNewData*/, result.first(),
+                                repContext) == OperationStatus.SUCCESS) {
+                            nWritten += 1;
+                        }
+                    }
+
+                    if (evictLN) {
+                        performCacheModeLNEviction();
+                    }
+
+                    i += 1;
+                    if (i >= nRecords) {
+                        break;
+                    }
+
+                    batch.getKey(i, key);
+                    batch.getData(i, data);
+                    keyCopy = Key.makeKey(key);
+
+                    /*
+                     * Keys are ascending, so the next key is greater than a
+                     * key in this BIN. It also belongs to this BIN if it is
+                     * not greater than the BIN's last key, or if there is no
+                     * BIN to the right.
+                     */
+                    if (bin != targetBin ||
+                        bin.needsSplitting() ||
+                        !(binBoundary.isLastBin ||
+                          Key.compareKeys(
+                              keyCopy, bin.getKey(bin.getNEntries() - 1),
+                              comparator) < 0)) {
+                        break;
+                    }
+                }
+            }
+
+            return nWritten;
+
+        } finally {
+            releaseBIN();
+        }
+    }
+
     /*
      * Try to insert the key/data pair as a new record. Will succeed if the
      * record does not exist already.
@@ -1345,8 +1516,51 @@ public class CursorImpl implements Cloneable {
         DatabaseEntry returnNewData,
         final ReplicationContext repContext) {
 
+        /*
+         * At this point, this cursor does not have a position so it cannot be
+         * registered with the BIN that will be used. This is good because it
+         * allows slot compression to occur before BIN splits (thus avoiding
+         * splits if compression finds and removes any deleted slots). However,
+         * if another cursor, including the one from which this was cloned, is
+         * registered with the BIN, then splits won't be allowed. This is a
+         * good reason to use non-sticky cursors for insertions, especially
+         * sequential insertions since they will often end up in the same BIN.
+         *
+         * Find and latch the BIN that should contain the "key". On return from
+         * the tree search, this.bin is latched, but "this" is still not
+         * registered.
+         */
+        bin = dbImpl.getTree().findBinForInsert(key, getCacheMode());
+
+        final Pair<LockStanding, Boolean> result = insertRecordInBIN(
+            key, ln, blindInsertion, returnNewData, repContext,
+            false /*noWait*/);
+
+        assert result != null;
+        return result;
+    }
+
+    /*
+     * Inserts the key/data pair into this.bin, which must be latched and must
+     * be the BIN that covers the key. Will succeed if the record does not
+     * exist already. The cursor may be registered with this.bin at a prior
+     * slot, but must not hold a lock on that slot's record.
+     *
+     * If noWait is true and the key exists but its record cannot be locked
+     * without blocking, null is returned. Otherwise, this.bin remains latched
+     * throughout, as opposed to lockLN which may release and re-latch it.
+     *
+     * On return, this.bin is latched.
+     */
+    private Pair<LockStanding, Boolean> insertRecordInBIN(
+        final byte[] key,
+        final LN ln,
+        boolean blindInsertion,
+        DatabaseEntry returnNewData,
+        final ReplicationContext repContext,
+        final boolean noWait) {
+
         final EnvironmentImpl envImpl = dbImpl.getEnv();
-        final Tree tree = dbImpl.getTree();
         WriteLockInfo wli;
         LockStanding lockStanding = null;
         final boolean isSlotReuse;
@@ -1364,22 +1578,6 @@ public class CursorImpl implements Cloneable {
             data = null;
         }
 
-        /*
-         * At this point, this cursor does not have a position so it cannot be
-         * registered with the BIN that will be used. This is good because it
-         * allows slot compression to occur before BIN splits (thus avoiding
-         * splits if compression finds and removes any deleted slots). However,
-         * if another cursor, including the one from which this was cloned, is
-         * registered with the BIN, then splits won't be allowed. This is a
-         * good reason to use non-sticky cursors for insertions, especially
-         * sequential insertions since they will often end up in the same BIN.
-         *
-         * Find and latch the BIN that should contain the "key". On return from
-         * the tree search, this.bin is latched, but "this" is still not
-         * registered.
-         */
-        bin = tree.findBinForInsert(key, getCacheMode());
-
         /*
          * In the case where logging occurs before locking, allow lockers to
          * reject the operation (e.g., if writing on a replica) and also
@@ -1427,7 +1625,14 @@ public class CursorImpl implements Cloneable {
              * lock is taken by this cursor either.
              */
             lockStanding = lockLN(
-                LockType.WRITE, true /*allowUncontended*/, false /*noWait*/);
+                LockType.WRITE, true /*allowUncontended*/, noWait);
+
+            if (noWait &&
+                lockStanding.lockResult != null &&
+                lockStanding.lockResult.getLockGrant() ==
+                LockGrantType.DENIED) {
+                return null;
+            }
 
             boolean isDeleted = !lockStanding.recordExists();
 
@@ -2624,6 +2829,193 @@ public class CursorImpl implements Cloneable {
         return result;
     }
 
+    /**
+     * Moves the cursor forward or backward, adding each valid record to the
+     * given batch until the batch is full, or the end of the database or of
+     * the rangeConstraint is reached.  Works like calling getNext repeatedly,
+     * but a BIN is latched only once for all the records it contributes
+     * (unless a blocking lock is needed), and keys and data are copied
+     * directly into the batch buffer rather than into new byte arrays.
+     *
+     * Because the cursor does not return to the caller between records, the
+     * read locks of a non-transactional or read-committed locker are released
+     * here as the cursor moves past each record, as they would be by the
+     * cursor cloning done by Cursor for each getNext call.
+     *
+     * For CacheMode.EVICT_LN, the LN of each record except the last one is
+     * evicted as the cursor moves past it.  Other cache modes that evict
+     * records or BINs are not supported; Cursor uses getNext for them.
+     *
+     * Must be called with the BIN unlatched, and returns with it unlatched.
+     * Must not be called for a duplicates DB.
+     *
+     * @return SUCCESS if the batch was filled, in which case the cursor is
+     * positioned on the last record added, or NOTFOUND otherwise.  When
+     * NOTFOUND is returned some records may have been added, but the cursor is
+     * not positioned on the last of them.
+     */
+    public OperationStatus getNextBatch(
+        final RecordBatch batch,
+        final LockType lockType,
+        final boolean dirtyReadAll,
+        final boolean forward,
+        final RangeConstraint rangeConstraint)
+        throws DatabaseException {
+
+        assert assertCursorState(
+            true /*mustBeInitialized*/, false /*mustNotBeInitialized*/);
+
+        assert !dbImpl.getSortedDuplicates();
+
+        assert isBatchCacheMode(cacheMode) : cacheMode;
+
+        final boolean dataRequested = !batch.getKeysOnly();
+
+        final boolean releasePriorLock =
+            lockType == LockType.READ &&
+            (!locker.isTransactional() || locker.isReadCommittedIsolation());
+
+        OperationStatus result = OperationStatus.NOTFOUND;
+        LockStanding priorStanding = null;
+        BIN anchorBIN = null;
+        boolean isLatched = false;
+
+        try {
+            while (bin != null) {
+
+                if (!isLatched) {
+                    latchBIN();
+                    isLatched = true;
+                }
+
+                bin.mutateToFullBIN();
+
+                /* Is there anything left on this BIN? */
+                if ((forward && ++index < bin.getNEntries()) ||
+                    (!forward && --index > -1)) {
+
+                    if (rangeConstraint != null &&
+                        !rangeConstraint.inBounds(bin.getKey(index))) {
+                        break;
+                    }
+
+                    if (bin.isEntryKnownDeleted(index) ||
+                        bin.isEntryPendingDeleted(index)) {
+                        bin.queueSlotDeletion();
+                        if (bin.isEntryKnownDeleted(index)) {
+                            continue;
+                        }
+                    }
+
+                    /* May release and re-latch the BIN to wait for a lock. */
+                    final LockStanding standing = lockLNAndCheckDeleted(
+                        lockType, dirtyReadAll, dataRequested);
+
+                    if (standing == null) {
+                        continue;
+                    }
+
+                    addCurrentToBatch(batch, dataRequested);
+                    incrementLNCount();
+
+                    if (releasePriorLock && priorStanding != null) {
+                        revertLock(priorStanding);
+                    }
+                    priorStanding = standing;
+
+                    if (batch.isFull()) {
+                        result = OperationStatus.SUCCESS;
+                        break;
+                    }
+
+                    if (cacheMode == CacheMode.EVICT_LN) {
+                        performCacheModeLNEviction();
+                    }
+                } else {
+                    /* See getNext. */
+                    anchorBIN = bin;
+                    anchorBIN.pin();
+                    bin.removeCursor(this);
+                    bin = null;
+
+                    final Tree tree = dbImpl.getTree();
+
+                    if (forward) {
+                        bin = tree.getNextBin(anchorBIN, cacheMode);
+                        index = -1;
+                    } else {
+                        bin = tree.getPrevBin(anchorBIN, cacheMode);
+                        if (bin != null) {
+                            index = bin.getNEntries();
+                        }
+                    }
+
+                    if (bin == null) {
+                        isLatched = false;
+                        break;
+                    }
+
+                    addCursor();
+                    anchorBIN.unpin();
+                    anchorBIN = null;
+                }
+            }
+        } finally {
+            if (isLatched) {
+                releaseBIN();
+            }
+            if (anchorBIN != null) {
+                anchorBIN.unpin();
+            }
+        }
+
+        if (LatchSupport.TRACK_LATCHES) {
+            LatchSupport.expectBtreeLatchesHeld(0);
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies the current record into the batch.  Like getCurrent, but the
+     * key and data are not copied into new byte arrays.
+     */
+    private void addCurrentToBatch(
+        final RecordBatch batch,
+        final boolean dataRequested) {
+
+        assert(bin.isLatchExclusiveOwner());
+        assert(index >= 0 && index < bin.getNEntries());
+
+        final boolean isEmptyLN = dbImpl.isLNImmediatelyObsolete();
+        final boolean isEmbeddedLN = bin.isEmbeddedLN(index);
+
+        final LN ln = (!isEmptyLN && !isEmbeddedLN && dataRequested ?
+                       bin.fetchLN(index, cacheMode) :
+                       null);
+
+        final byte[] data;
+        if (!dataRequested) {
+            data = null;
+        } else if (ln != null) {
+            data = ln.getData();
+        } else if (isEmptyLN || bin.isNoDataLN(index)) {
+            data = null;
+        } else {
+            assert(isEmbeddedLN);
+            data = bin.getData(index);
+        }
+
+        batch.add(bin.getKey(index), data);
+
+        /* Cache record version for fetch operation. */
+        final long vlsn = (ln != null ?
+                           ln.getVLSNSequence() :
+                           bin.getVLSN(index, false /*allowFetch*/, cacheMode));
+
+        setCurrentVersion(vlsn, bin.getLsn(index));
+    }
+
     /**
      * Used to detect phantoms during "get next" operations with serializable
      * isolation.  If this method returns true, the caller should restart the
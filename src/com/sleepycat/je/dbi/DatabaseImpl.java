@@ -257,6 +257,9 @@ public class DatabaseImpl implements Loggable, Cloneable {
 
     private CacheMode cacheMode;
 
+    /* Whether log entries may be compressed; not persistent. */
+    private volatile boolean logCompression = true;
+
     /*
      * For debugging -- this gives the ability to force all non-internal
      * databases to use key prefixing.
@@ -291,6 +294,7 @@ public class DatabaseImpl implements Loggable, Cloneable {
 
         setConfigProperties(locker, dbName, dbConfig, envImpl);
         cacheMode = dbConfig.getCacheMode();
+        logCompression = dbConfig.getLogCompression();
 
         createdAtLogVersion = LogEntryType.LOG_VERSION;
 
@@ -830,6 +834,18 @@ public class DatabaseImpl implements Loggable, Cloneable {
         cacheMode = mode;
     }
 
+    /**
+     * Sets whether log entries for this database may be compressed (all
+     * handles).
+     */
+    public void setLogCompression(boolean logCompression) {
+        this.logCompression = logCompression;
+    }
+
+    public boolean getLogCompression() {
+        return logCompression;
+    }
+
     /**
      * Returns the default cache mode for this database. If the database has a
      * null cache mode and is not an internal database, the Environment default
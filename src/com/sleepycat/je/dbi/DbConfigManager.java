@@ -139,6 +139,14 @@ public class DbConfigManager {
         return getConfigParam(props, configParamName);
     }
 
+    /**
+     * Returns whether this parameter was explicitly set, for parameters whose
+     * default is computed at runtime rather than fixed.
+     */
+    public synchronized boolean isSpecified(ConfigParam configParam) {
+        return props.getProperty(configParam.getName()) != null;
+    }
+
     /**
      * Get this parameter from the environment wide configuration settings.
      *
@@ -1595,6 +1595,33 @@ public class DbTree implements Loggable {
                               String dbNameIfAvailable)
         throws DatabaseException {
 
+        return getDbInternal(dbId, lockTimeout, dbNameIfAvailable,
+                             false /*noWait*/);
+    }
+
+    /**
+     * Get a database object based on an id only, without waiting for a lock
+     * on its MapLN.  Returns null if the MapLN is locked by another locker,
+     * for example, by a replay txn that is creating the database, as well as
+     * when the database does not exist.  Used by threads that only do
+     * optional work and must never block on, or spin behind, user or replay
+     * transactions.
+     *
+     * As with the other variants, the use count of the returned DB is
+     * incremented and releaseDb must be called when it is no longer used.
+     */
+    public DatabaseImpl getDbNoWait(DatabaseId dbId)
+        throws DatabaseException {
+
+        return getDbInternal(dbId, -1, null, true /*noWait*/);
+    }
+
+    private DatabaseImpl getDbInternal(DatabaseId dbId,
+                                       long lockTimeout,
+                                       String dbNameIfAvailable,
+                                       boolean noWait)
+        throws DatabaseException {
+
         if (dbId.equals(idDatabase.getId())) {
             /* We're looking for the id database itself. */
             return idDatabase;
@@ -1614,7 +1641,7 @@ public class DbTree implements Loggable {
                 CursorImpl idCursor = null;
                 boolean operationOk = false;
                 try {
-                    locker = BasicLocker.createBasicLocker(envImpl);
+                    locker = BasicLocker.createBasicLocker(envImpl, noWait);
                     if (lockTimeout != -1) {
                         locker.setLockTimeout(lockTimeout);
                     }
@@ -1634,6 +1661,9 @@ public class DbTree implements Loggable {
                     operationOk = true;
                     break;
                 } catch (LockConflictException e) {
+                    if (noWait) {
+                        return null;
+                    }
                     /* Continue loop and retry. */
                 } finally {
                     if (idCursor != null) {
@@ -51,6 +51,7 @@ import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DiskOrderedCursorConfig;
 import com.sleepycat.je.DiskOrderedCursorProducerException;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.RecordBatch;
 import com.sleepycat.je.ThreadInterruptedException;
 import com.sleepycat.je.config.EnvironmentParams;
 import com.sleepycat.je.tree.LN;
@@ -387,6 +388,52 @@ public class DiskOrderedCursorImpl {
         final DatabaseEntry foundKey,
         final DatabaseEntry foundData) {
 
+        if (!takeNext()) {
+            return OperationStatus.NOTFOUND;
+        }
+
+        return setData(foundKey, foundData);
+    }
+
+    /**
+     * Returns the next records in the given batch.  Blocks until at least one
+     * record is available, like getNext, and then adds the records that are
+     * already queued, until the batch is full.  The current record is the
+     * last record added.
+     */
+    public synchronized OperationStatus getNextBatch(final RecordBatch batch) {
+
+        batch.clear();
+
+        if (!takeNext()) {
+            return OperationStatus.NOTFOUND;
+        }
+
+        batch.add(currentNode.getKey(), currentNode.getData());
+
+        /*
+         * There is a single consumer, so a non-null peek guarantees that poll
+         * returns the same element.  END_OF_QUEUE is left in the queue to be
+         * taken by the next call, so the last record stays current.
+         */
+        while (!batch.isFull()) {
+            final KeyAndData next = queue.peek();
+            if (next == null || next == END_OF_QUEUE) {
+                break;
+            }
+            currentNode = queue.poll();
+            batch.add(currentNode.getKey(), currentNode.getData());
+        }
+
+        return OperationStatus.SUCCESS;
+    }
+
+    /**
+     * Waits for the next queued entry and makes it the current node.
+     * Returns false if the end of the queue was reached.
+     */
+    private boolean takeNext() {
+
         if (closed) {
             throw new IllegalStateException("ForwardCursor not initialized");
         }
@@ -396,7 +443,7 @@ public class DiskOrderedCursorImpl {
          * hang. [#21282]
          */
         if (currentNode == END_OF_QUEUE) {
-            return OperationStatus.NOTFOUND;
+            return false;
         }
 
         try {
@@ -424,11 +471,7 @@ public class DiskOrderedCursorImpl {
                 "Producer Thread Failure", processor.getException());
         }
 
-        if (currentNode == END_OF_QUEUE) {
-            return OperationStatus.NOTFOUND;
-        }
-
-        return setData(foundKey, foundData);
+        return currentNode != END_OF_QUEUE;
     }
 
     /**
@@ -114,6 +114,7 @@ import com.sleepycat.je.latch.Latch;
 import com.sleepycat.je.latch.LatchFactory;
 import com.sleepycat.je.latch.LatchSupport;
 import com.sleepycat.je.log.FileManager;
+import com.sleepycat.je.log.LogCodec;
 import com.sleepycat.je.log.LogEntryHeader;
 import com.sleepycat.je.log.LogEntryType;
 import com.sleepycat.je.log.LogItem;
@@ -185,6 +186,8 @@ public class EnvironmentImpl implements EnvConfigObserver {
     /* true if offset tracking should be used for deferred write dbs. */
     private boolean dbEviction;
     private boolean useOffHeapChecksums;
+    private LogCodec offHeapCodec;
+    private int offHeapCompressionMinSize;
 
     private boolean allowBlindOps = false;
     private boolean allowBlindPuts = false;
@@ -442,6 +445,15 @@ public class EnvironmentImpl implements EnvConfigObserver {
     /* EnvironmentParams.ENV_LATCH_TIMEOUT. */
     private int latchTimeoutMs;
 
+    /* EnvironmentParams.TREE_OPTIMISTIC_READS. */
+    private boolean optimisticTreeReads;
+
+    /* EnvironmentParams.TREE_COMPACT_UPPER_IN_KEYS. */
+    private boolean compactUpperINKeys;
+
+    /* EnvironmentParams.TREE_BIN_FINGER_CACHE_SIZE. */
+    private int binFingerCacheSize;
+
     public EnvironmentImpl(File envHome,
                            EnvironmentConfig envConfig,
                            EnvironmentImpl sharedCacheEnv)
@@ -646,6 +658,11 @@ public class EnvironmentImpl implements EnvConfigObserver {
         useOffHeapChecksums = configManager.getBoolean(
             EnvironmentParams.OFFHEAP_CHECKSUM);
 
+        offHeapCodec = LogCodec.getCodec(
+            configManager.get(EnvironmentParams.OFFHEAP_COMPRESSION));
+        offHeapCompressionMinSize = configManager.getInt(
+            EnvironmentParams.OFFHEAP_COMPRESSION_MIN_SIZE);
+
         adler32ChunkSize = configManager.getInt(
             EnvironmentParams.ADLER32_CHUNK_SIZE);
 
@@ -661,6 +678,15 @@ public class EnvironmentImpl implements EnvConfigObserver {
         latchTimeoutMs = configManager.getDuration(
             EnvironmentParams.ENV_LATCH_TIMEOUT);
 
+        optimisticTreeReads = configManager.getBoolean(
+            EnvironmentParams.TREE_OPTIMISTIC_READS);
+
+        compactUpperINKeys = configManager.getBoolean(
+            EnvironmentParams.TREE_COMPACT_UPPER_IN_KEYS);
+
+        binFingerCacheSize = configManager.getInt(
+            EnvironmentParams.TREE_BIN_FINGER_CACHE_SIZE);
+
         allowBlindOps = configManager.getBoolean(
             EnvironmentParams.BIN_DELTA_BLIND_OPS);
 
@@ -1838,6 +1864,12 @@ public class EnvironmentImpl implements EnvConfigObserver {
                              "About to shutdown daemons for Env " + envHome);
             shutdownDaemons();
 
+            try {
+                logManager.shutdownWriter();
+            } catch (Exception e) {
+                appendException(errors, e, "shutting down log writer");
+            }
+
             /* Flush log. */
             if (!isAbnormalClose) {
                 try {
@@ -1975,6 +2007,12 @@ public class EnvironmentImpl implements EnvConfigObserver {
 
         shutdownDaemons();
 
+        try {
+            logManager.shutdownWriter();
+        } catch (Throwable e) {
+            /* Klockwork - ok */
+        }
+
         try {
             fileManager.clear();
         } catch (Throwable e) {
@@ -2494,6 +2532,18 @@ public class EnvironmentImpl implements EnvConfigObserver {
         return allowBlindPuts;
     }
 
+    public boolean getOptimisticTreeReads() {
+        return optimisticTreeReads;
+    }
+
+    public boolean getCompactUpperINKeys() {
+        return compactUpperINKeys;
+    }
+
+    public int getBINFingerCacheSize() {
+        return binFingerCacheSize;
+    }
+
     public int getMaxEmbeddedLN() {
         return maxEmbeddedLN;
     }
@@ -2843,6 +2893,18 @@ public class EnvironmentImpl implements EnvConfigObserver {
         return useOffHeapChecksums;
     }
 
+    /**
+     * Returns the codec used to compress off-heap LNs and BINs, or null if
+     * off-heap compression is disabled.
+     */
+    public LogCodec getOffHeapCodec() {
+        return offHeapCodec;
+    }
+
+    public int getOffHeapCompressionMinSize() {
+        return offHeapCompressionMinSize;
+    }
+
     public Evictor getEvictor() {
         return evictor;
     }
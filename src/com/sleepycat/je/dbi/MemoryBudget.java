@@ -237,6 +237,16 @@ public class MemoryBudget implements EnvConfigObserver {
     private final static int DEFAULT_KEYVALS_OVERHEAD_64 = 24;
     private final static int DEFAULT_KEYVALS_OVERHEAD_OOPS = 16;
 
+    // 59
+    private final static int PACKED_KEYVALS_OVERHEAD_32 = 24;
+    private final static int PACKED_KEYVALS_OVERHEAD_64 = 40;
+    private final static int PACKED_KEYVALS_OVERHEAD_OOPS = 24;
+
+    // 60
+    private final static int FIXED_LONG_KEYVALS_OVERHEAD_32 = 24;
+    private final static int FIXED_LONG_KEYVALS_OVERHEAD_64 = 40;
+    private final static int FIXED_LONG_KEYVALS_OVERHEAD_OOPS = 24;
+
     // 52
     private final static int DEFAULT_LONG_REP_OVERHEAD_32 = 16;
     private final static int DEFAULT_LONG_REP_OVERHEAD_64 = 32;
@@ -258,9 +268,9 @@ public class MemoryBudget implements EnvConfigObserver {
     private final static int DBIN_FIXED_OVERHEAD_OOPS = 168;
 
     // 13
-    private final static int IN_FIXED_OVERHEAD_32 = 296;
-    private final static int IN_FIXED_OVERHEAD_64 = 392;
-    private final static int IN_FIXED_OVERHEAD_OOPS = 256;
+    private final static int IN_FIXED_OVERHEAD_32 = 304;
+    private final static int IN_FIXED_OVERHEAD_64 = 400;
+    private final static int IN_FIXED_OVERHEAD_OOPS = 264;
 
     // 6
     private final static int KEY_OVERHEAD_32 = 16;
@@ -407,6 +417,8 @@ public class MemoryBudget implements EnvConfigObserver {
     public final static int DEFAULT_TARGET_ENTRY_OVERHEAD;
     public final static int DEFAULT_KEYVALS_OVERHEAD;
     public final static int MAX_KEY_SIZE_KEYVALS_OVERHEAD;
+    public final static int PACKED_KEYVALS_OVERHEAD;
+    public final static int FIXED_LONG_KEYVALS_OVERHEAD;
     public final static int DEFAULT_LONG_REP_OVERHEAD;
     public final static int SPARSE_LONG_REP_OVERHEAD;
     public final static int DIN_FIXED_OVERHEAD;
@@ -506,6 +518,9 @@ public class MemoryBudget implements EnvConfigObserver {
             DEFAULT_KEYVALS_OVERHEAD = DEFAULT_KEYVALS_OVERHEAD_OOPS;
             MAX_KEY_SIZE_KEYVALS_OVERHEAD =
                 MAX_KEY_SIZE_KEYVALS_OVERHEAD_OOPS;
+            PACKED_KEYVALS_OVERHEAD = PACKED_KEYVALS_OVERHEAD_OOPS;
+            FIXED_LONG_KEYVALS_OVERHEAD =
+                FIXED_LONG_KEYVALS_OVERHEAD_OOPS;
             DEFAULT_LONG_REP_OVERHEAD = DEFAULT_LONG_REP_OVERHEAD_OOPS;
             SPARSE_LONG_REP_OVERHEAD = SPARSE_LONG_REP_OVERHEAD_OOPS;
             DIN_FIXED_OVERHEAD = DIN_FIXED_OVERHEAD_OOPS;
@@ -565,6 +580,9 @@ public class MemoryBudget implements EnvConfigObserver {
             DEFAULT_KEYVALS_OVERHEAD = DEFAULT_KEYVALS_OVERHEAD_64;
             MAX_KEY_SIZE_KEYVALS_OVERHEAD =
                 MAX_KEY_SIZE_KEYVALS_OVERHEAD_64;
+            PACKED_KEYVALS_OVERHEAD = PACKED_KEYVALS_OVERHEAD_64;
+            FIXED_LONG_KEYVALS_OVERHEAD =
+                FIXED_LONG_KEYVALS_OVERHEAD_64;
             DEFAULT_LONG_REP_OVERHEAD = DEFAULT_LONG_REP_OVERHEAD_64;
             SPARSE_LONG_REP_OVERHEAD = SPARSE_LONG_REP_OVERHEAD_64;
             TREEMAP_ENTRY_OVERHEAD = TREEMAP_ENTRY_OVERHEAD_64;
@@ -619,6 +637,9 @@ public class MemoryBudget implements EnvConfigObserver {
             DEFAULT_KEYVALS_OVERHEAD = DEFAULT_KEYVALS_OVERHEAD_32;
             MAX_KEY_SIZE_KEYVALS_OVERHEAD =
                 MAX_KEY_SIZE_KEYVALS_OVERHEAD_32;
+            PACKED_KEYVALS_OVERHEAD = PACKED_KEYVALS_OVERHEAD_32;
+            FIXED_LONG_KEYVALS_OVERHEAD =
+                FIXED_LONG_KEYVALS_OVERHEAD_32;
             DEFAULT_LONG_REP_OVERHEAD = DEFAULT_LONG_REP_OVERHEAD_32;
             SPARSE_LONG_REP_OVERHEAD = SPARSE_LONG_REP_OVERHEAD_32;
             DIN_FIXED_OVERHEAD = DIN_FIXED_OVERHEAD_32;
@@ -72,8 +72,19 @@ class CHeapAllocator implements OffHeapAllocator {
 
     private final Unsafe unsafe;
     private final AtomicLong usedBytes = new AtomicLong(0);
+    private final AtomicLong allocatedBytes = new AtomicLong(0);
 
     public CHeapAllocator() {
+        unsafe = getUnsafe();
+    }
+
+    /**
+     * Returns the Unsafe singleton, after checking that it is usable. Also
+     * used by SlabAllocator.
+     */
+    static Unsafe getUnsafe() {
+
+        final Unsafe unsafe;
 
         /*
          * We cannot call Unsafe.getUnsafe because it throws
@@ -110,6 +121,8 @@ class CHeapAllocator implements OffHeapAllocator {
                 "Unexpected Unsafe.ARRAY_INT_INDEX_SCALE: " +
                     Unsafe.ARRAY_INT_INDEX_SCALE);
         }
+
+        return unsafe;
     }
 
     @Override
@@ -122,6 +135,12 @@ class CHeapAllocator implements OffHeapAllocator {
         return usedBytes.get();
     }
 
+    @Override
+    public long getAllocatedBytes() {
+
+        return allocatedBytes.get();
+    }
+
     @Override
     public long allocate(int size) {
 
@@ -131,6 +150,7 @@ class CHeapAllocator implements OffHeapAllocator {
         unsafe.putInt(memId, size);
         unsafe.setMemory(memId + SIZE_BYTES, size, (byte) 0);
         usedBytes.addAndGet(addOverhead(allocSize));
+        allocatedBytes.addAndGet(size);
 
         return memId;
     }
@@ -138,13 +158,19 @@ class CHeapAllocator implements OffHeapAllocator {
     @Override
     public int free(long memId) {
 
-        final int totalSize = addOverhead(size(memId) + SIZE_BYTES);
+        final int size = size(memId);
+        final int totalSize = addOverhead(size + SIZE_BYTES);
         unsafe.freeMemory(memId);
         usedBytes.addAndGet(0 - totalSize);
+        allocatedBytes.addAndGet(0 - size);
         return totalSize;
     }
 
-    private int addOverhead(int allocSize) {
+    /**
+     * Returns the estimated memory used by malloc for a block of the given
+     * size. Also used by SlabAllocator.
+     */
+    static int addOverhead(int allocSize) {
 
         /* TODO: There is 70 bytes added overhead when using the IBM JDK. */
 
@@ -121,6 +121,15 @@ public interface OffHeapAllocator {
      */
     long getUsedBytes();
 
+    /**
+     * Returns the total size of all allocated blocks, as passed to {@link
+     * #allocate}, not including any overhead.
+     *
+     * The difference between {@link #getUsedBytes} and this value is the
+     * memory used for block overhead and lost to fragmentation.
+     */
+    long getAllocatedBytes();
+
     /**
      * Allocates a block of a given size and returns its ID.
      *
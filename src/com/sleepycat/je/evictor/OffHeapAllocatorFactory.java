@@ -48,6 +48,10 @@ package com.sleepycat.je.evictor;
  */
 public class OffHeapAllocatorFactory {
 
+    /* Names used in the je.offHeap.allocator parameter. */
+    public static final String MALLOC_NAME = "MALLOC";
+    public static final String SLAB_NAME = "SLAB";
+
     private OffHeapAllocator defaultAllocator;
 
     OffHeapAllocatorFactory()
@@ -73,4 +77,40 @@ public class OffHeapAllocatorFactory {
     public OffHeapAllocator getDefaultAllocator() {
         return defaultAllocator;
     }
+
+    /**
+     * Returns the allocator with the given je.offHeap.allocator name. Like
+     * CHeapAllocator, SlabAllocator uses the Unsafe class and is loaded by
+     * name.
+     *
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    public OffHeapAllocator getAllocator(final String name)
+        throws ClassNotFoundException, IllegalAccessException,
+        InstantiationException {
+
+        validateName(name);
+
+        if (MALLOC_NAME.equalsIgnoreCase(name)) {
+            return defaultAllocator;
+        }
+
+        final Class<?> cls =
+            Class.forName("com.sleepycat.je.evictor.SlabAllocator");
+
+        return (OffHeapAllocator) cls.newInstance();
+    }
+
+    /**
+     * Validates the value of je.offHeap.allocator.
+     *
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    public static void validateName(final String name) {
+        if (!MALLOC_NAME.equalsIgnoreCase(name) &&
+            !SLAB_NAME.equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException
+                ("Unknown off-heap allocator: " + name);
+        }
+    }
 }
@@ -44,6 +44,7 @@
 package com.sleepycat.je.evictor;
 
 import static com.sleepycat.je.EnvironmentFailureException.unexpectedState;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.ALLOCATED_BYTES;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.ALLOC_FAILURE;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.ALLOC_OVERFLOW;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.BINS_LOADED;
@@ -51,6 +52,11 @@ import static com.sleepycat.je.evictor.OffHeapStatDefinition.BINS_STORED;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.CACHED_BINS;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.CACHED_BIN_DELTAS;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.CACHED_LNS;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.COMPRESSION_INPUT_BYTES;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.COMPRESSION_NANOS;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.COMPRESSION_OUTPUT_BYTES;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.DECOMPRESSIONS;
+import static com.sleepycat.je.evictor.OffHeapStatDefinition.DECOMPRESSION_NANOS;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.DIRTY_NODES_EVICTED;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.GROUP_DESC;
 import static com.sleepycat.je.evictor.OffHeapStatDefinition.GROUP_NAME;
@@ -81,6 +87,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
 
 import com.sleepycat.je.CacheMode;
 import com.sleepycat.je.EnvironmentMutableConfig;
@@ -92,6 +99,7 @@ import com.sleepycat.je.dbi.EnvConfigObserver;
 import com.sleepycat.je.dbi.EnvironmentImpl;
 import com.sleepycat.je.dbi.MemoryBudget;
 import com.sleepycat.je.evictor.Evictor.EvictionSource;
+import com.sleepycat.je.log.LogCodec;
 import com.sleepycat.je.log.LogEntryType;
 import com.sleepycat.je.log.Provisional;
 import com.sleepycat.je.log.entry.BINDeltaLogEntry;
@@ -303,6 +311,15 @@ public class OffHeapCache implements EnvConfigObserver {
     private static final int BIN_FLAG_CAN_MUTATE = 0x2;
     private static final int BIN_FLAG_PROHIBIT_NEXT_DELTA = 0x4;
     private static final int BIN_FLAG_LOGGED_FULL_VERSION = 0x8;
+    private static final int BIN_FLAG_COMPRESSED = 0x10;
+
+    /*
+     * A compressed block is prefixed by the codec id and the uncompressed
+     * length. For LNs, a codec id of zero means the data is not compressed
+     * and is not followed by a length.
+     */
+    private static final int CODEC_ID_SIZE = 1;
+    private static final int COMPRESSED_PREFIX_SIZE = CODEC_ID_SIZE + 4;
 
     private static final boolean DEBUG_DOUBLE_FREE = false;
     private static final boolean DEBUG_TRACE = false;
@@ -671,6 +688,11 @@ public class OffHeapCache implements EnvConfigObserver {
     private final AtomicLong nLNsStored = new AtomicLong(0);
     private final AtomicLong nBINsLoaded = new AtomicLong(0);
     private final AtomicLong nBINsStored = new AtomicLong(0);
+    private final AtomicLong nCompressionInputBytes = new AtomicLong(0);
+    private final AtomicLong nCompressionOutputBytes = new AtomicLong(0);
+    private final AtomicLong compressionNanos = new AtomicLong(0);
+    private final AtomicLong nDecompressions = new AtomicLong(0);
+    private final AtomicLong decompressionNanos = new AtomicLong(0);
     private final AtomicInteger cachedLNs = new AtomicInteger(0);
     private final AtomicInteger cachedBINs = new AtomicInteger(0);
     private final AtomicInteger cachedBINDeltas = new AtomicInteger(0);
@@ -681,18 +703,22 @@ public class OffHeapCache implements EnvConfigObserver {
 
         logger = LoggerUtils.getLogger(getClass());
 
+        final DbConfigManager configManager = envImpl.getConfigManager();
+
+        final String allocatorName =
+            configManager.get(EnvironmentParams.OFFHEAP_ALLOCATOR);
+
         try {
             final OffHeapAllocatorFactory factory =
                 new OffHeapAllocatorFactory();
-            allocator = factory.getDefaultAllocator();
+            allocator = factory.getAllocator(allocatorName);
         } catch (Throwable e) {
             // TODO: allow continuing without an off-heap cache?
             throw new IllegalStateException(
-                "Unable to create default allocator for off-heap cache", e);
+                "Unable to create " + allocatorName +
+                " allocator for off-heap cache", e);
         }
 
-        final DbConfigManager configManager = envImpl.getConfigManager();
-
         evictBytes = configManager.getLong(
             EnvironmentParams.OFFHEAP_EVICT_BYTES);
 
@@ -879,10 +905,18 @@ public class OffHeapCache implements EnvConfigObserver {
         new LongStat(stats, LNS_STORED, nLNsStored.get());
         new LongStat(stats, BINS_LOADED, nBINsLoaded.get());
         new LongStat(stats, BINS_STORED, nBINsStored.get());
+        new LongStat(
+            stats, COMPRESSION_INPUT_BYTES, nCompressionInputBytes.get());
+        new LongStat(
+            stats, COMPRESSION_OUTPUT_BYTES, nCompressionOutputBytes.get());
+        new LongStat(stats, COMPRESSION_NANOS, compressionNanos.get());
+        new LongStat(stats, DECOMPRESSIONS, nDecompressions.get());
+        new LongStat(stats, DECOMPRESSION_NANOS, decompressionNanos.get());
         new IntStat(stats, CACHED_LNS, cachedLNs.get());
         new IntStat(stats, CACHED_BINS, cachedBINs.get());
         new IntStat(stats, CACHED_BIN_DELTAS, cachedBINDeltas.get());
         new LongStat(stats, TOTAL_BYTES, allocator.getUsedBytes());
+        new LongStat(stats, ALLOCATED_BYTES, allocator.getAllocatedBytes());
         new IntStat(stats, TOTAL_BLOCKS, totalBlocks.get());
         new IntStat(stats, LRU_SIZE, lruSize.get());
 
@@ -901,6 +935,11 @@ public class OffHeapCache implements EnvConfigObserver {
             nLNsStored.set(0);
             nBINsLoaded.set(0);
             nBINsStored.set(0);
+            nCompressionInputBytes.set(0);
+            nCompressionOutputBytes.set(0);
+            compressionNanos.set(0);
+            nDecompressions.set(0);
+            decompressionNanos.set(0);
         }
 
         return stats;
@@ -1378,7 +1417,10 @@ public class OffHeapCache implements EnvConfigObserver {
         final boolean useChecksums = envImpl.useOffHeapChecksums();
         final int checksumSize = useChecksums ? CHECKSUM_SIZE : 0;
         final int vlsnSize = envImpl.getCacheVLSN() ? VLSN_SIZE : 0;
-        final int lnDataOffset = vlsnSize + checksumSize;
+        final int codecOffset = vlsnSize + checksumSize;
+        final LogCodec codec = envImpl.getOffHeapCodec();
+        final int codecIdSize = (codec != null) ? CODEC_ID_SIZE : 0;
+        final int lnDataOffset = codecOffset + codecIdSize;
 
         /*
          * We make 3 calls to allocator.copy (one explicit and two via putLong
@@ -1391,7 +1433,19 @@ public class OffHeapCache implements EnvConfigObserver {
         final byte[] data = ln.getData();
         assert data != null;
 
-        final long memId = allocateMemory(envImpl, lnDataOffset + data.length);
+        /*
+         * When compression is configured, the codec id (or zero if the data
+         * could not be compressed) precedes the data. The checksum is always
+         * computed over the uncompressed data.
+         */
+        final byte[] compressed = (codec != null) ?
+            compress(envImpl, codec, data, 0, data.length) : null;
+
+        final int memSize = (compressed != null) ?
+            (codecOffset + compressed.length) :
+            (lnDataOffset + data.length);
+
+        final long memId = allocateMemory(envImpl, memSize);
         if (memId == 0) {
             return 0;
         }
@@ -1410,7 +1464,17 @@ public class OffHeapCache implements EnvConfigObserver {
             putInt(checksumValue, memId, vlsnSize, tempBuf);
         }
 
-        allocator.copy(data, 0, memId, lnDataOffset, data.length);
+        if (compressed != null) {
+            allocator.copy(
+                compressed, 0, memId, codecOffset, compressed.length);
+        } else {
+            if (codecIdSize > 0) {
+                allocator.copy(
+                    new byte[CODEC_ID_SIZE], 0, memId, codecOffset,
+                    CODEC_ID_SIZE);
+            }
+            allocator.copy(data, 0, memId, lnDataOffset, data.length);
+        }
 
         nLNsStored.incrementAndGet();
         cachedLNs.incrementAndGet();
@@ -1424,13 +1488,25 @@ public class OffHeapCache implements EnvConfigObserver {
         final boolean useChecksums = envImpl.useOffHeapChecksums();
         final int checksumSize = useChecksums ? CHECKSUM_SIZE : 0;
         final int vlsnSize = envImpl.getCacheVLSN() ? VLSN_SIZE : 0;
-        final int lnDataOffset = vlsnSize + checksumSize;
-
-        final byte[] data = new byte[allocator.size(memId) - lnDataOffset];
-        allocator.copy(memId, lnDataOffset, data, 0, data.length);
+        final int codecOffset = vlsnSize + checksumSize;
+        final boolean useCodec = envImpl.getOffHeapCodec() != null;
 
         final byte[] tempBuf =
-            (vlsnSize > 0 || useChecksums) ? new byte[8] : null;
+            (vlsnSize > 0 || useChecksums || useCodec) ? new byte[8] : null;
+
+        final byte[] data;
+
+        if (useCodec && getByte(memId, codecOffset, tempBuf) != 0) {
+            final byte[] stored =
+                new byte[allocator.size(memId) - codecOffset];
+            allocator.copy(memId, codecOffset, stored, 0, stored.length);
+            data = decompress(envImpl, stored, 0, stored.length);
+        } else {
+            final int lnDataOffset =
+                codecOffset + (useCodec ? CODEC_ID_SIZE : 0);
+            data = new byte[allocator.size(memId) - lnDataOffset];
+            allocator.copy(memId, lnDataOffset, data, 0, data.length);
+        }
 
         if (useChecksums) {
             final int storedChecksum = getInt(memId, vlsnSize, tempBuf);
@@ -2080,16 +2156,10 @@ public class OffHeapCache implements EnvConfigObserver {
 
         final short lnIdSize = getPackedLnMemIdSize(bin);
 
-        final int memSize =
+        final int bufSize =
             checksumSize + 1 + 8 + 8 + 2 + lnIdSize + bin.getLogSize(asDelta);
 
-        final long memId = allocateMemory(envImpl, memSize);
-
-        if (memId == 0) {
-            return 0;
-        }
-
-        final byte[] buf = new byte[memSize];
+        byte[] buf = new byte[bufSize];
         int bufOffset = checksumSize;
 
         buf[bufOffset] = (byte) flags;
@@ -2114,11 +2184,37 @@ public class OffHeapCache implements EnvConfigObserver {
 
         bin.serialize(byteBuf, asDelta, false /*clearDirtyBits*/);
 
+        /*
+         * Only the serialized BIN is compressed. The fields preceding it are
+         * updated in place by postBINLog and stripLNs, and must remain
+         * uncompressed.
+         */
+        final LogCodec codec = envImpl.getOffHeapCodec();
+        if (codec != null) {
+            final byte[] compressed = compress(
+                envImpl, codec, buf, bufOffset, buf.length - bufOffset);
+
+            if (compressed != null) {
+                final byte[] newBuf = new byte[bufOffset + compressed.length];
+                System.arraycopy(buf, 0, newBuf, 0, bufOffset);
+                System.arraycopy(
+                    compressed, 0, newBuf, bufOffset, compressed.length);
+                newBuf[checksumSize] |= BIN_FLAG_COMPRESSED;
+                buf = newBuf;
+            }
+        }
+
+        final long memId = allocateMemory(envImpl, buf.length);
+
+        if (memId == 0) {
+            return 0;
+        }
+
         if (useChecksums) {
             final Checksum checksum = Adler32.makeChecksum();
             checksum.update(buf, checksumSize, buf.length - checksumSize);
             final int checksumValue = (int) checksum.getValue();
-            putInt(checksumValue, memId, 0, buf);
+            putInt(checksumValue, buf, 0);
         }
 
         allocator.copy(buf, 0, memId, 0, buf.length);
@@ -2141,7 +2237,7 @@ public class OffHeapCache implements EnvConfigObserver {
         final BIN bin = new BIN();
 
         bin.materialize(
-            pb.binBytes,
+            getBINBody(envImpl, pb),
             LogEntryType.LOG_VERSION,
             (pb.flags & BIN_FLAG_DELTA) != 0 /*deltasOnly*/,
             (pb.flags & BIN_FLAG_LOGGED_FULL_VERSION) != 0 /*clearDirtyBits*/);
@@ -2248,10 +2344,13 @@ public class OffHeapCache implements EnvConfigObserver {
 
     private INLogEntry<BIN> createBINLogEntry(final long memId,
                                               final IN parent) {
+        final EnvironmentImpl envImpl = parent.getEnv();
         final byte[] buf = getMemBytes(memId);
 
         final ParsedBIN pb = parseBINBytes(
-            parent.getEnv(), buf, false /*partialBuf*/, false /*parseLNIds*/);
+            envImpl, buf, false /*partialBuf*/, false /*parseLNIds*/);
+
+        final ByteBuffer binBytes = getBINBody(envImpl, pb);
 
         if ((pb.flags & BIN_FLAG_CAN_MUTATE) != 0) {
 
@@ -2266,7 +2365,7 @@ public class OffHeapCache implements EnvConfigObserver {
             final BIN bin = new BIN();
 
             bin.materialize(
-                pb.binBytes, LogEntryType.LOG_VERSION,
+                binBytes, LogEntryType.LOG_VERSION,
                 false /*deltasOnly*/,
                 (pb.flags & BIN_FLAG_LOGGED_FULL_VERSION) != 0
                 /*clearDirtyBits*/);
@@ -2286,11 +2385,11 @@ public class OffHeapCache implements EnvConfigObserver {
         return ((pb.flags & BIN_FLAG_DELTA) != 0) ?
 
             new BINDeltaLogEntry(
-                pb.binBytes, pb.lastFullLsn, pb.lastDeltaLsn,
+                binBytes, pb.lastFullLsn, pb.lastDeltaLsn,
                 LogEntryType.LOG_BIN_DELTA, parent) :
 
             new INLogEntry<BIN>(
-                pb.binBytes, pb.lastFullLsn, pb.lastDeltaLsn,
+                binBytes, pb.lastFullLsn, pb.lastDeltaLsn,
                 LogEntryType.LOG_BIN, parent);
     }
 
@@ -2474,6 +2573,102 @@ public class OffHeapCache implements EnvConfigObserver {
             flags, lnMemIds, lastFullLsn, lastDeltaLsn, byteBuf);
     }
 
+    /**
+     * Returns the serialized BIN, decompressing it if it was compressed by
+     * serializeBIN. Decompression is deferred until the BIN itself is needed,
+     * since callers that only use the header fields or LN memIds do not need
+     * to pay for it.
+     */
+    private ByteBuffer getBINBody(final EnvironmentImpl envImpl,
+                                  final ParsedBIN pb) {
+
+        if ((pb.flags & BIN_FLAG_COMPRESSED) == 0) {
+            return pb.binBytes;
+        }
+
+        final ByteBuffer stored = pb.binBytes;
+
+        return ByteBuffer.wrap(decompress(
+            envImpl, stored.array(),
+            stored.arrayOffset() + stored.position(), stored.remaining()));
+    }
+
+    /**
+     * Compresses an LN or BIN using the given codec.
+     *
+     * @return the compressed block, consisting of the codec id, the
+     * uncompressed length and the compressed bytes; or null if the block is
+     * smaller than je.offHeap.compressionMinSize or compression does not
+     * reduce its size, in which case it should be stored uncompressed.
+     */
+    private byte[] compress(final EnvironmentImpl envImpl,
+                            final LogCodec codec,
+                            final byte[] src,
+                            final int srcOff,
+                            final int srcLen) {
+
+        if (srcLen < envImpl.getOffHeapCompressionMinSize()) {
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+
+        final byte[] dest = new byte[
+            COMPRESSED_PREFIX_SIZE + codec.maxCompressedLength(srcLen)];
+
+        dest[0] = codec.getId();
+        putInt(srcLen, dest, CODEC_ID_SIZE);
+
+        final int destLen = COMPRESSED_PREFIX_SIZE +
+            codec.compress(src, srcOff, srcLen, dest, COMPRESSED_PREFIX_SIZE);
+
+        compressionNanos.addAndGet(System.nanoTime() - startTime);
+        nCompressionInputBytes.addAndGet(srcLen);
+
+        if (destLen >= srcLen) {
+            nCompressionOutputBytes.addAndGet(srcLen);
+            return null;
+        }
+
+        nCompressionOutputBytes.addAndGet(destLen);
+        return Arrays.copyOf(dest, destLen);
+    }
+
+    /**
+     * Decompresses a block created by {@link #compress}.
+     */
+    private byte[] decompress(final EnvironmentImpl envImpl,
+                              final byte[] src,
+                              final int srcOff,
+                              final int srcLen) {
+
+        final long startTime = System.nanoTime();
+
+        final LogCodec codec = LogCodec.getCodec(src[srcOff]);
+        if (codec == null) {
+            throw unexpectedState(
+                envImpl,
+                "Unknown off-heap compression codec id: " + src[srcOff]);
+        }
+
+        final byte[] dest = new byte[getInt(src, srcOff + CODEC_ID_SIZE)];
+
+        try {
+            codec.decompress(
+                src, srcOff + COMPRESSED_PREFIX_SIZE,
+                srcLen - COMPRESSED_PREFIX_SIZE, dest, 0, dest.length);
+        } catch (DataFormatException e) {
+            throw unexpectedState(
+                envImpl,
+                "Off-heap cache decompression error: " + e.getMessage());
+        }
+
+        decompressionNanos.addAndGet(System.nanoTime() - startTime);
+        nDecompressions.incrementAndGet();
+
+        return dest;
+    }
+
     /**
      * Adds LN memIds to the buffer using an RLE approach to save space:
      *
@@ -2628,10 +2823,22 @@ public class OffHeapCache implements EnvConfigObserver {
 
         try {
             memId = allocator.allocate(size);
-            totalBlocks.incrementAndGet();
 
-            if (DEBUG_DOUBLE_FREE) {
-                freedBlocks.remove(memId);
+            if (memId == 0) {
+
+                /*
+                 * The allocator could not allocate the block without
+                 * exceeding the cache size. Unlike an overflow exception,
+                 * the limit is not lowered.
+                 */
+                nAllocOverflow.incrementAndGet();
+
+            } else {
+                totalBlocks.incrementAndGet();
+
+                if (DEBUG_DOUBLE_FREE) {
+                    freedBlocks.remove(memId);
+                }
             }
 
         } catch (OutOfMemoryError e) {
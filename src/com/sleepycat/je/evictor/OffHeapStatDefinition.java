@@ -141,6 +141,12 @@ public class OffHeapStatDefinition {
             "Total number of estimated bytes in off-heap cache.",
             StatDefinition.StatType.CUMULATIVE);
 
+    public static final StatDefinition ALLOCATED_BYTES =
+        new StatDefinition("offHeapAllocatedBytes",
+            "Total size of the memory blocks in the off-heap cache, not " +
+            "including allocator overhead and fragmentation.",
+            StatDefinition.StatType.CUMULATIVE);
+
     public static final StatDefinition TOTAL_BLOCKS =
         new StatDefinition("offHeapTotalBlocks",
             "Total number of memory blocks in off-heap cache.",
@@ -150,4 +156,27 @@ public class OffHeapStatDefinition {
         new StatDefinition("offHeapLruSize",
             "Number of LRU entries used for the off-heap cache.",
             StatDefinition.StatType.CUMULATIVE);
+
+    public static final StatDefinition COMPRESSION_INPUT_BYTES =
+        new StatDefinition("offHeapCompressionInputBytes",
+            "Number of LN and BIN bytes that were compressed when stored " +
+            "into the off-heap cache, including blocks which were stored " +
+            "uncompressed because compression did not reduce their size.");
+
+    public static final StatDefinition COMPRESSION_OUTPUT_BYTES =
+        new StatDefinition("offHeapCompressionOutputBytes",
+            "Number of bytes stored for the blocks counted by " +
+            "offHeapCompressionInputBytes.");
+
+    public static final StatDefinition COMPRESSION_NANOS =
+        new StatDefinition("offHeapCompressionNanos",
+            "Time spent compressing off-heap blocks, in nanoseconds.");
+
+    public static final StatDefinition DECOMPRESSIONS =
+        new StatDefinition("offHeapDecompressions",
+            "Number of compressed off-heap blocks that were decompressed.");
+
+    public static final StatDefinition DECOMPRESSION_NANOS =
+        new StatDefinition("offHeapDecompressionNanos",
+            "Time spent decompressing off-heap blocks, in nanoseconds.");
 }
@@ -0,0 +1,570 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.evictor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sun.misc.Unsafe;
+
+/**
+ * An off-heap allocator that carves blocks out of large memory regions,
+ * called slabs, rather than calling malloc and free for every block.
+ *
+ * Each block is rounded up to one of a fixed set of size classes, and each
+ * slab holds blocks of a single size class. The classes are 16 bytes apart
+ * up to 128 bytes, and there are four classes per power of two above that,
+ * so less than a quarter of a block is lost to rounding. Blocks larger than
+ * the largest class are allocated individually with malloc, as in
+ * CHeapAllocator.
+ *
+ * Compared to CHeapAllocator, this avoids fragmentation of the malloc heap
+ * and the memory used is known precisely. When all blocks in a slab are
+ * freed, the slab is returned to the OS, except for the last slab of each
+ * size class.
+ *
+ * Blocks freed by eviction are spread over many slabs, so few slabs become
+ * empty, and the total size of all slabs hardly drops. If that total were
+ * reported by {@link #getUsedBytes}, the evictor would keep evicting until
+ * most of the cache was empty. Free blocks are reused by later allocations
+ * of the same class, so getUsedBytes instead counts the allocated blocks,
+ * plus the free blocks of each class up to the size of one slab. The total
+ * size of all slabs is kept within the max cache size by not creating a slab
+ * that would exceed it. In that case, allocate returns zero and
+ * getUsedBytes returns the total size of all slabs, so that blocks are
+ * evicted, until a slab is returned to the OS.
+ *
+ * Each size class has its own lock, so threads allocating and freeing
+ * blocks of different sizes do not contend with each other.
+ *
+ * Every allocated block starts with an 8 byte header containing the block
+ * size and the index of its slab, or -1 for blocks allocated with malloc. A
+ * free block in a slab instead contains the address of the next free block
+ * in the same slab.
+ *
+ * This class should not be referenced symbolically by any other class,
+ * except for CHeapAllocator. It is loaded by {@link OffHeapAllocatorFactory}
+ * using reflection, for the same reasons as CHeapAllocator.
+ */
+class SlabAllocator implements OffHeapAllocator {
+
+    /* See CHeapAllocator. */
+    private static final boolean CHECK_BOUNDS = true;
+
+    /* Number of bytes for the int block size and int slab index. */
+    private static final int HEADER_BYTES = 8;
+
+    /* Slab index stored in the header of blocks allocated with malloc. */
+    private static final int NO_SLAB = -1;
+
+    private static final int SMALL_CLASS_STEP = 16;
+    private static final int SMALL_CLASS_MAX = 128;
+    private static final int CLASSES_PER_DOUBLING = 4;
+    private static final int MAX_CLASS_SIZE = 64 * 1024;
+
+    /*
+     * The slab size is the max cache size divided by SLABS_PER_CACHE, within
+     * these bounds. Small slabs waste less memory when a size class has few
+     * blocks, and large slabs reduce the number of malloc calls.
+     */
+    static final int MIN_SLAB_BYTES = 16 * 1024;
+    static final int MAX_SLAB_BYTES = 1024 * 1024;
+    private static final int SLABS_PER_CACHE = 256;
+
+    /* Block size of each class, including the header, in increasing order. */
+    static final int[] CLASS_SIZES = initClassSizes();
+
+    private final Unsafe unsafe;
+    private final SizeClass[] sizeClasses;
+
+    /*
+     * Slabs by index. Slabs are added and removed while synchronized on
+     * slabTableMutex. Reading a slab without synchronization is safe when
+     * freeing a block, since the block was allocated from the slab, and
+     * passed to the freeing thread, after the slab was added.
+     */
+    private volatile Slab[] slabs = new Slab[64];
+    private final ArrayDeque<Integer> freeSlabIndexes = new ArrayDeque<>();
+    private int nextSlabIndex = 0;
+    private final Object slabTableMutex = new Object();
+
+    private volatile int slabBytes = MIN_SLAB_BYTES;
+    private volatile long maxBytes = 0;
+
+    /*
+     * totalBytes is the memory used by all slabs and malloc blocks.
+     * excessFreeBytes is the sum, for all classes, of the bytes in free
+     * blocks beyond the size of one slab. slabShortage is set when a slab
+     * is not created because of the max cache size, and cleared when a slab
+     * is freed.
+     */
+    private final AtomicLong totalBytes = new AtomicLong(0);
+    private final AtomicLong excessFreeBytes = new AtomicLong(0);
+    private final AtomicLong allocatedBytes = new AtomicLong(0);
+    private volatile boolean slabShortage = false;
+
+    public SlabAllocator() {
+
+        unsafe = CHeapAllocator.getUnsafe();
+
+        sizeClasses = new SizeClass[CLASS_SIZES.length];
+        for (int i = 0; i < sizeClasses.length; i += 1) {
+            sizeClasses[i] = new SizeClass(CLASS_SIZES[i]);
+        }
+    }
+
+    private static int[] initClassSizes() {
+
+        final List<Integer> sizes = new ArrayList<>();
+
+        for (int size = SMALL_CLASS_STEP;
+             size <= SMALL_CLASS_MAX;
+             size += SMALL_CLASS_STEP) {
+            sizes.add(size);
+        }
+
+        for (int base = SMALL_CLASS_MAX; base < MAX_CLASS_SIZE; base *= 2) {
+            final int step = base / CLASSES_PER_DOUBLING;
+            for (int i = 1; i <= CLASSES_PER_DOUBLING; i += 1) {
+                sizes.add(base + (i * step));
+            }
+        }
+
+        final int[] array = new int[sizes.size()];
+        for (int i = 0; i < array.length; i += 1) {
+            array[i] = sizes.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Returns the index of the smallest class that holds a block of the
+     * given size, including the header, or -1 if the block is larger than
+     * the largest class.
+     */
+    static int getClassIndex(final int allocSize) {
+
+        final int i = Arrays.binarySearch(CLASS_SIZES, allocSize);
+
+        if (i >= 0) {
+            return i;
+        }
+
+        final int insertionPoint = -(i + 1);
+
+        return (insertionPoint < CLASS_SIZES.length) ? insertionPoint : -1;
+    }
+
+    @Override
+    public void setMaxBytes(long maxBytes) {
+
+        this.maxBytes = maxBytes;
+        slabShortage = false;
+
+        /* Only affects slabs created later. */
+        slabBytes = (int) Math.max(
+            MIN_SLAB_BYTES,
+            Math.min(MAX_SLAB_BYTES, maxBytes / SLABS_PER_CACHE));
+    }
+
+    @Override
+    public long getUsedBytes() {
+
+        if (slabShortage) {
+            return totalBytes.get();
+        }
+
+        return totalBytes.get() - excessFreeBytes.get();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+
+        return allocatedBytes.get();
+    }
+
+    @Override
+    public long allocate(int size) {
+
+        final int allocSize = size + HEADER_BYTES;
+        final int classIndex = getClassIndex(allocSize);
+        final long memId;
+        final int slabIndex;
+
+        if (classIndex < 0) {
+            memId = unsafe.allocateMemory(allocSize);
+            totalBytes.addAndGet(CHeapAllocator.addOverhead(allocSize));
+            slabIndex = NO_SLAB;
+        } else {
+            final SizeClass sizeClass = sizeClasses[classIndex];
+
+            synchronized (sizeClass) {
+
+                Slab slab = sizeClass.available.peekFirst();
+
+                if (slab == null) {
+                    slab = createSlab(sizeClass);
+                    if (slab == null) {
+                        return 0;
+                    }
+                    sizeClass.available.addFirst(slab);
+                    slab.isAvailable = true;
+                }
+
+                memId = slab.take();
+                addFreeBytes(sizeClass, 0 - sizeClass.blockSize);
+
+                if (slab.isFull()) {
+                    sizeClass.available.removeFirst();
+                    slab.isAvailable = false;
+                }
+
+                slabIndex = slab.index;
+            }
+        }
+
+        unsafe.putInt(memId, size);
+        unsafe.putInt(memId + 4, slabIndex);
+        unsafe.setMemory(memId + HEADER_BYTES, size, (byte) 0);
+        allocatedBytes.addAndGet(size);
+
+        return memId;
+    }
+
+    @Override
+    public int free(long memId) {
+
+        final int size = size(memId);
+        final int slabIndex = unsafe.getInt(memId + 4);
+
+        allocatedBytes.addAndGet(0 - size);
+
+        if (slabIndex == NO_SLAB) {
+            final int totalSize =
+                CHeapAllocator.addOverhead(size + HEADER_BYTES);
+            unsafe.freeMemory(memId);
+            totalBytes.addAndGet(0 - totalSize);
+            return totalSize;
+        }
+
+        final Slab slab = slabs[slabIndex];
+        final SizeClass sizeClass = slab.sizeClass;
+
+        synchronized (sizeClass) {
+
+            slab.put(memId);
+            addFreeBytes(sizeClass, sizeClass.blockSize);
+
+            if (slab.nUsed == 0 && sizeClass.nSlabs > 1) {
+                if (slab.isAvailable) {
+                    sizeClass.available.remove(slab);
+                }
+                releaseSlab(slab);
+            } else if (!slab.isAvailable) {
+                sizeClass.available.addLast(slab);
+                slab.isAvailable = true;
+            }
+        }
+
+        return sizeClass.blockSize;
+    }
+
+    /**
+     * Allocates a slab for the given class, or returns null if the slab
+     * would make the total size exceed the max cache size. Must be called
+     * while synchronized on the size class.
+     */
+    private Slab createSlab(final SizeClass sizeClass) {
+
+        final int blockSize = sizeClass.blockSize;
+        final int nBlocks = Math.max(1, slabBytes / blockSize);
+        final int bytes = nBlocks * blockSize;
+        final int totalSize = CHeapAllocator.addOverhead(bytes);
+
+        if (maxBytes > 0 && totalBytes.get() + totalSize > maxBytes) {
+            slabShortage = true;
+            return null;
+        }
+
+        final long address = unsafe.allocateMemory(bytes);
+        totalBytes.addAndGet(totalSize);
+
+        final Slab slab;
+
+        synchronized (slabTableMutex) {
+
+            final int index;
+
+            if (freeSlabIndexes.isEmpty()) {
+                index = nextSlabIndex;
+                nextSlabIndex += 1;
+                if (index >= slabs.length) {
+                    slabs = Arrays.copyOf(slabs, slabs.length * 2);
+                }
+            } else {
+                index = freeSlabIndexes.pop();
+            }
+
+            slab = new Slab(index, sizeClass, address, nBlocks);
+            slabs[index] = slab;
+        }
+
+        sizeClass.nSlabs += 1;
+        addFreeBytes(sizeClass, bytes);
+        return slab;
+    }
+
+    /**
+     * Returns an empty slab to the OS. Must be called while synchronized on
+     * the size class.
+     */
+    private void releaseSlab(final Slab slab) {
+
+        assert slab.nUsed == 0;
+
+        synchronized (slabTableMutex) {
+            slabs[slab.index] = null;
+            freeSlabIndexes.push(slab.index);
+        }
+
+        final int bytes = slab.nBlocks * slab.sizeClass.blockSize;
+
+        slab.sizeClass.nSlabs -= 1;
+        addFreeBytes(slab.sizeClass, 0 - bytes);
+
+        unsafe.freeMemory(slab.address);
+        totalBytes.addAndGet(0 - CHeapAllocator.addOverhead(bytes));
+        slabShortage = false;
+    }
+
+    /**
+     * Adjusts the free bytes of a class and the excess free bytes for all
+     * classes. Must be called while synchronized on the size class.
+     */
+    private void addFreeBytes(final SizeClass sizeClass, final long delta) {
+
+        sizeClass.freeBytes += delta;
+
+        final long excess = Math.max(
+            0, sizeClass.freeBytes - Math.max(slabBytes, sizeClass.blockSize));
+
+        excessFreeBytes.addAndGet(excess - sizeClass.excessFreeBytes);
+        sizeClass.excessFreeBytes = excess;
+    }
+
+    @Override
+    public int size(long memId) {
+
+        return unsafe.getInt(memId);
+    }
+
+    @Override
+    public int totalSize(long memId) {
+
+        final int allocSize = size(memId) + HEADER_BYTES;
+
+        if (unsafe.getInt(memId + 4) == NO_SLAB) {
+            return CHeapAllocator.addOverhead(allocSize);
+        }
+
+        return CLASS_SIZES[getClassIndex(allocSize)];
+    }
+
+    @Override
+    public void copy(long memId, int memOff, byte[] buf, int bufOff, int len) {
+
+        if (CHECK_BOUNDS) {
+            checkBounds(memId, memOff, len);
+            checkBounds(buf, bufOff, len);
+        }
+
+        unsafe.copyMemory(
+            null, memId + HEADER_BYTES + memOff,
+            buf, Unsafe.ARRAY_BYTE_BASE_OFFSET + bufOff,
+            len);
+    }
+
+    @Override
+    public void copy(byte[] buf, int bufOff, long memId, int memOff, int len) {
+
+        if (CHECK_BOUNDS) {
+            checkBounds(memId, memOff, len);
+            checkBounds(buf, bufOff, len);
+        }
+
+        unsafe.copyMemory(
+            buf, Unsafe.ARRAY_BYTE_BASE_OFFSET + bufOff,
+            null, memId + HEADER_BYTES + memOff,
+            len);
+    }
+
+    @Override
+    public void copy(long fromMemId,
+                     int fromMemOff,
+                     long toMemId,
+                     int toMemOff,
+                     int len) {
+
+        if (CHECK_BOUNDS) {
+            checkBounds(fromMemId, fromMemOff, len);
+            checkBounds(toMemId, toMemOff, len);
+        }
+
+        unsafe.copyMemory(
+            null, fromMemId + HEADER_BYTES + fromMemOff,
+            null, toMemId + HEADER_BYTES + toMemOff,
+            len);
+    }
+
+    private void checkBounds(final long memId,
+                             final int memOff,
+                             final int len) {
+        if (memId == 0) {
+            throw new NullPointerException("memId is 0");
+        }
+        if (memOff < 0 || memOff + len > size(memId)) {
+            throw new IndexOutOfBoundsException(
+                "memOff=" + memOff +
+                " memSize=" + size(memId) +
+                " copyLen=" + len);
+        }
+    }
+
+    private static void checkBounds(final byte[] buf,
+                                    final int bufOff,
+                                    final int len) {
+        if (buf == null) {
+            throw new NullPointerException("buf is null");
+        }
+        if (bufOff < 0 || bufOff + len > buf.length) {
+            throw new IndexOutOfBoundsException(
+                "bufOff=" + bufOff +
+                " bufSize=" + buf.length +
+                " copyLen=" + len);
+        }
+    }
+
+    /**
+     * Slabs of one block size, with the slabs that have free blocks. Fields
+     * are protected by synchronizing on the SizeClass.
+     */
+    private static class SizeClass {
+
+        final int blockSize;
+        final ArrayDeque<Slab> available = new ArrayDeque<>();
+        int nSlabs;
+        long freeBytes;
+        long excessFreeBytes;
+
+        SizeClass(final int blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    /**
+     * A region of memory divided into blocks of one size. Blocks that have
+     * never been allocated are at the end of the region, and are allocated
+     * in order. Freed blocks are kept on a list, linked through the first
+     * 8 bytes of each free block. Fields are protected by synchronizing on
+     * the SizeClass.
+     */
+    private class Slab {
+
+        final int index;
+        final SizeClass sizeClass;
+        final long address;
+        final int nBlocks;
+        int nUsed;
+        int nUntouched;
+        long freeList;
+        boolean isAvailable;
+
+        Slab(final int index,
+             final SizeClass sizeClass,
+             final long address,
+             final int nBlocks) {
+            this.index = index;
+            this.sizeClass = sizeClass;
+            this.address = address;
+            this.nBlocks = nBlocks;
+            nUntouched = nBlocks;
+        }
+
+        boolean isFull() {
+            return nUsed == nBlocks;
+        }
+
+        long take() {
+
+            assert !isFull();
+
+            final long block;
+
+            if (freeList != 0) {
+                block = freeList;
+                freeList = unsafe.getLong(block);
+            } else {
+                block = address +
+                    ((long) (nBlocks - nUntouched) * sizeClass.blockSize);
+                nUntouched -= 1;
+            }
+
+            nUsed += 1;
+            return block;
+        }
+
+        void put(final long block) {
+
+            assert block >= address &&
+                block < address + ((long) nBlocks * sizeClass.blockSize);
+
+            unsafe.putLong(block, freeList);
+            freeList = block;
+            nUsed -= 1;
+        }
+    }
+}
@@ -137,6 +137,16 @@ public class LatchImpl extends ReentrantLock implements SharedLatch {
         acquireExclusive();
     }
 
+    @Override
+    public long getOptimisticStamp() {
+        return 0;
+    }
+
+    @Override
+    public boolean validateOptimisticStamp(final long stamp) {
+        return false;
+    }
+
     @Override
     public void release() {
         if (!isHeldByCurrentThread()) {
@@ -45,6 +45,10 @@ package com.sleepycat.je.latch;
 
 import static com.sleepycat.je.EnvironmentFailureException.unexpectedState;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -81,6 +85,46 @@ public class LatchSupport {
      */
     static final boolean INTERRUPTIBLE_WITH_TIMEOUT = true;
 
+    /*
+     * Unsafe.loadFence, used to validate optimistic reads of a SharedLatch
+     * (see SharedLatch.getOptimisticStamp).  A stamp check must not be
+     * reordered before the reads it protects, and there is no public API
+     * for such a fence before Java 9.  Unsafe.loadFence exists in Java 8 and
+     * later; when it is unavailable, optimistic reads are disabled.
+     */
+    private static final MethodHandle LOAD_FENCE;
+
+    static {
+        MethodHandle loadFence = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            loadFence = MethodHandles.lookup().findVirtual(
+                unsafeClass, "loadFence", MethodType.methodType(void.class)).
+                bindTo(field.get(null));
+        } catch (Exception e) {
+            /* Not Java 8 or later, or Unsafe is not accessible. */
+            loadFence = null;
+        }
+        LOAD_FENCE = loadFence;
+    }
+
+    /* Whether SharedLatch optimistic reads are supported by this JVM. */
+    public static final boolean OPTIMISTIC_READS = (LOAD_FENCE != null);
+
+    /**
+     * Prevents loads before the fence from being reordered with loads after
+     * it.  Must only be called when OPTIMISTIC_READS is true.
+     */
+    static void loadFence() {
+        try {
+            LOAD_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw unexpectedState("Unsafe.loadFence failed: " + e);
+        }
+    }
+
     /* Used for Btree latches. */
     public final static LatchTable btreeLatchTable =
         TRACK_LATCHES ? (new LatchTable()) : null;
@@ -65,4 +65,27 @@ public interface SharedLatch extends Latch {
      * {@link #acquireExclusive()}.
      */
     void acquireShared();
+
+    /**
+     * Returns a stamp for an optimistic read, or zero if the latch is
+     * currently held exclusively or optimistic reads are not supported.
+     *
+     * An optimistic reader does not acquire the latch.  It reads the
+     * protected state and then calls {@link #validateOptimisticStamp} with
+     * the stamp; if that returns false the state may have been changed
+     * concurrently and everything read since the stamp was obtained must be
+     * discarded.  The reader must therefore be prepared for inconsistent
+     * reads, including runtime exceptions, before validation.
+     *
+     * In exclusive-only mode, optimistic reads are not supported and this
+     * method always returns zero.
+     */
+    long getOptimisticStamp();
+
+    /**
+     * Returns whether the latch has not been acquired exclusively since the
+     * given stamp was returned by {@link #getOptimisticStamp}.  Returns false
+     * if the stamp is zero.
+     */
+    boolean validateOptimisticStamp(long stamp);
 }
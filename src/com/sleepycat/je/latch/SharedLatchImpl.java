@@ -46,6 +46,7 @@ package com.sleepycat.je.latch;
 import static com.sleepycat.je.EnvironmentFailureException.unexpectedState;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.sleepycat.je.ThreadInterruptedException;
@@ -56,9 +57,22 @@ import com.sleepycat.je.utilint.StatGroup;
 public class SharedLatchImpl extends ReentrantReadWriteLock
     implements SharedLatch {
 
+    private static final AtomicLongFieldUpdater<SharedLatchImpl> VERSION =
+        AtomicLongFieldUpdater.newUpdater(SharedLatchImpl.class, "version");
+
     private final LatchContext context;
     private OwnerInfo lastOwnerInfo;
 
+    /*
+     * Incremented when the latch is acquired exclusively and again when it is
+     * released, so it is even while an exclusive owner may be changing the
+     * protected state and odd otherwise.  It starts at one so that zero is
+     * never a valid optimistic stamp.  It is only changed by the exclusive
+     * owner.  The increment on acquisition is atomic so that the owner's
+     * subsequent writes cannot become visible before it.
+     */
+    private volatile long version = 1;
+
     SharedLatchImpl(final boolean fair, final LatchContext context) {
         super(fair);
         this.context = context;
@@ -104,6 +118,8 @@ public class SharedLatchImpl extends ReentrantReadWriteLock
             writeLock().lock();
         }
 
+        VERSION.incrementAndGet(this);
+
         if (LatchSupport.TRACK_LATCHES) {
             LatchSupport.trackAcquire(this, context);
         }
@@ -147,6 +163,24 @@ public class SharedLatchImpl extends ReentrantReadWriteLock
         assert EnvironmentImpl.maybeForceYield();
     }
 
+    @Override
+    public long getOptimisticStamp() {
+        if (!LatchSupport.OPTIMISTIC_READS) {
+            return 0;
+        }
+        final long stamp = version;
+        return ((stamp & 1) != 0) ? stamp : 0;
+    }
+
+    @Override
+    public boolean validateOptimisticStamp(final long stamp) {
+        if (stamp == 0) {
+            return false;
+        }
+        LatchSupport.loadFence();
+        return version == stamp;
+    }
+
     @Override
     public void release() {
         doRelease(false /*ifOwner*/);
@@ -172,6 +206,7 @@ public class SharedLatchImpl extends ReentrantReadWriteLock
             if (LatchSupport.TRACK_LATCHES) {
                 LatchSupport.trackRelease(this, context);
             }
+            version += 1;
             writeLock().unlock();
             return;
         }
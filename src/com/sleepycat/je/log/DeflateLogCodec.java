@@ -0,0 +1,136 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A LogCodec that uses the raw Deflate format of java.util.zip at its fastest
+ * level.  It compresses better than LZLogCodec at a higher CPU cost.
+ *
+ * The zlib stream objects are expensive to create, so one of each is kept
+ * per thread and reset before each use.
+ */
+class DeflateLogCodec extends LogCodec {
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+        new ThreadLocal<Deflater>() {
+            @Override
+            protected Deflater initialValue() {
+                return new Deflater(Deflater.BEST_SPEED, true /*nowrap*/);
+            }
+        };
+
+    private static final ThreadLocal<Inflater> INFLATERS =
+        new ThreadLocal<Inflater>() {
+            @Override
+            protected Inflater initialValue() {
+                return new Inflater(true /*nowrap*/);
+            }
+        };
+
+    DeflateLogCodec() {
+        super(DEFLATE_ID, "DEFLATE");
+    }
+
+    /**
+     * Stored deflate blocks add 5 bytes per 16K block, and a few bytes are
+     * needed to terminate the stream.
+     */
+    @Override
+    public int maxCompressedLength(int srcLen) {
+        return srcLen + ((srcLen >>> 14) + 1) * 5 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen,
+                        byte[] dest, int destOff) {
+
+        final Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(src, srcOff, srcLen);
+        deflater.finish();
+
+        int destPos = destOff;
+        while (!deflater.finished()) {
+            final int len =
+                deflater.deflate(dest, destPos, dest.length - destPos);
+            if (len == 0 && destPos == dest.length) {
+                throw new IllegalStateException
+                    ("Deflate output exceeded maxCompressedLength");
+            }
+            destPos += len;
+        }
+        return destPos - destOff;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen,
+                           byte[] dest, int destOff, int destLen)
+        throws DataFormatException {
+
+        final Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(src, srcOff, srcLen);
+
+        int destPos = destOff;
+        final int destEnd = destOff + destLen;
+        while (destPos < destEnd) {
+            final int len = inflater.inflate(dest, destPos, destEnd - destPos);
+            if (len == 0 &&
+                (inflater.finished() || inflater.needsInput() ||
+                 inflater.needsDictionary())) {
+                break;
+            }
+            destPos += len;
+        }
+        if (destPos != destEnd) {
+            throw new DataFormatException
+                ("Inflated " + (destPos - destOff) + " bytes, expected " +
+                 destLen);
+        }
+    }
+}
@@ -46,6 +46,12 @@ package com.sleepycat.je.log;
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_FSYNCS;
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_FSYNC_REQUESTS;
 import static com.sleepycat.je.log.LogStatDefinition.FSYNCMGR_TIMEOUTS;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_COMMIT_WAIT_TIME;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_16_PLUS;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_1;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_2_3;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_4_7;
+import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_GROUP_SIZE_8_15;
 import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_N_GROUP_COMMIT_REQUESTS;
 import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_N_GROUP_COMMIT_WAITS;
 import static com.sleepycat.je.log.LogStatDefinition.GRPCMGR_N_LOG_INTERVAL_EXCEEDED;
@@ -125,6 +131,19 @@ import com.sleepycat.je.utilint.TestHookExecute;
  *
  * Note that the FileManager keeps a file descriptor that corresponds to the
  * current end of file, and that is what we fsync.
+ *
+ * Group commit wait
+ * -----------------
+ * When LOG_GROUP_COMMIT_INTERVAL and LOG_GROUP_COMMIT_THRESHOLD are set, a new
+ * leader may wait, before it takes ownership of the waiting group, for more
+ * threads to join the group. Threads that join while the leader is waiting
+ * wake it once the threshold is reached. In the fixed mode the wait ends when
+ * the interval has elapsed since the first waiter arrived. In the adaptive
+ * mode (LOG_GROUP_COMMIT_ADAPTIVE) the leader keeps moving averages of the
+ * fsync time and of the time between sync requests, and waits no longer than
+ * the expected time to fill the group, the last fsync time, or the interval,
+ * whichever is smallest. If no other request is expected within that time,
+ * the leader does not wait at all.
  */
 class FSyncManager {
     private final EnvironmentImpl envImpl;
@@ -141,6 +160,18 @@ class FSyncManager {
     private final int grpcThreshold;
     private final long grpcInterval;
     private final boolean grpWaitOn;
+    private final boolean grpAdaptive;
+
+    /*
+     * Moving averages used by the adaptive group commit wait, in ns. They are
+     * protected by mgrMutex.
+     */
+    private long lastRequestTime;
+    private long avgRequestInterval;
+    private long avgFSyncTime;
+
+    /* True while a leader is waiting on mgrMutex for its group to fill. */
+    private boolean leaderWaiting;
 
     /* stats */
     private final StatGroup stats;
@@ -151,6 +182,8 @@ class FSyncManager {
     private final LongStat nWaitersExceeded;
     private final LongStat nTimeExceeded;
     private final LongStat nWaits;
+    private final LongStat waitTime;
+    private final LongStat[] groupSizes;
 
     /* For unit tests. */
     private TestHook<CountDownLatch> flushHook;
@@ -168,6 +201,9 @@ class FSyncManager {
         } else {
             grpWaitOn = true;
         }
+        grpAdaptive = grpWaitOn &&
+            envImpl.getConfigManager().getBoolean(
+                EnvironmentParams.LOG_GROUP_COMMIT_ADAPTIVE);
 
         this.envImpl = envImpl;
 
@@ -187,6 +223,14 @@ class FSyncManager {
             new LongStat(stats, GRPCMGR_N_LOG_MAX_GROUP_COMMIT);
         nWaits =
             new LongStat(stats, GRPCMGR_N_GROUP_COMMIT_WAITS);
+        waitTime = new LongStat(stats, GRPCMGR_GROUP_COMMIT_WAIT_TIME);
+        groupSizes = new LongStat[] {
+            new LongStat(stats, GRPCMGR_GROUP_SIZE_1),
+            new LongStat(stats, GRPCMGR_GROUP_SIZE_2_3),
+            new LongStat(stats, GRPCMGR_GROUP_SIZE_4_7),
+            new LongStat(stats, GRPCMGR_GROUP_SIZE_8_15),
+            new LongStat(stats, GRPCMGR_GROUP_SIZE_16_PLUS),
+        };
         numNextWaiters = 0;
     }
 
@@ -225,7 +269,6 @@ class FSyncManager {
     void sync(boolean fsyncRequired)
         throws DatabaseException {
 
-        long interval;
         boolean doWork = false;
         boolean isLeader = false;
         boolean needToWait = false;
@@ -237,6 +280,14 @@ class FSyncManager {
             if (fsyncRequired) {
                 nFSyncRequests.increment();
             }
+            if (grpAdaptive) {
+                final long now = System.nanoTime();
+                if (lastRequestTime != 0) {
+                    avgRequestInterval = updateAverage(
+                        avgRequestInterval, now - lastRequestTime);
+                }
+                lastRequestTime = now;
+            }
             myGroup = nextFSyncWaiters;
             myGroup.setDoFsync(fsyncRequired);
 
@@ -247,31 +298,15 @@ class FSyncManager {
                 if (grpWaitOn && numNextWaiters == 1) {
                     startNextWait = System.nanoTime();
                 }
+                if (leaderWaiting && numNextWaiters >= grpcThreshold) {
+                    mgrMutex.notifyAll();
+                }
             } else {
                 isLeader = true;
                 doWork = true;
                 workInProgress = true;
-                if (grpWaitOn) {
-                    if (numNextWaiters < grpcThreshold) {
-                        interval = System.nanoTime() - startNextWait;
-                        if (interval < grpcInterval) {
-                            try {
-                                nWaits.increment();
-                                mgrMutex.wait(interval/1000000,
-                                              (int) interval%1000000);
-                            } catch (InterruptedException e) {
-                                throw new ThreadInterruptedException(
-                                    envImpl,
-                                    "Unexpected interrupt while " +
-                                    "waiting for write or fsync",
-                                    e);
-                            }
-                        }
-                        nTimeExceeded.increment();
-                    } else {
-                        nWaitersExceeded.increment();
-                    }
-                }
+                leaderWait();
+                countGroup(numNextWaiters + 1);
                 inProgressGroup = nextFSyncWaiters;
                 nextFSyncWaiters = new FSyncGroup(timeout, envImpl);
                 numNextWaiters = 0;
@@ -312,28 +347,8 @@ class FSyncManager {
                         isLeader = true;
                         doWork = true;
                         workInProgress = true;
-
-                        if (grpWaitOn) {
-                            if (numNextWaiters < grpcThreshold) {
-                                interval = System.nanoTime() - startNextWait;
-                                if (interval < grpcInterval) {
-                                    try {
-                                        nWaits.increment();
-                                        mgrMutex.wait(interval/1000000,
-                                                      (int) interval%1000000);
-                                    } catch (InterruptedException e) {
-                                        throw new ThreadInterruptedException(
-                                            envImpl,
-                                            "Unexpected interrupt while " +
-                                            "waiting for write or fsync",
-                                            e);
-                                    }
-                                }
-                                nTimeExceeded.increment();
-                            } else {
-                                nWaitersExceeded.increment();
-                            }
-                        }
+                        leaderWait();
+                        countGroup(numNextWaiters);
                         inProgressGroup = myGroup;
                         nextFSyncWaiters = new FSyncGroup(timeout, envImpl);
                         numNextWaiters = 0;
@@ -375,12 +390,20 @@ class FSyncManager {
             TestHookExecute.doHookIfSet(flushHook);
 
             /* execute fsync */
+            long fsyncTime = 0;
             if (myGroup.getDoFsync()) {
+                final long fsyncStart = grpAdaptive ? System.nanoTime() : 0;
                 executeFSync();
                 nFSyncs.increment();
+                if (grpAdaptive) {
+                    fsyncTime = Math.max(1, System.nanoTime() - fsyncStart);
+                }
             }
 
             synchronized (mgrMutex) {
+                if (fsyncTime != 0) {
+                    avgFSyncTime = updateAverage(avgFSyncTime, fsyncTime);
+                }
                 if (isLeader) {
 
                     /*
@@ -400,6 +423,97 @@ class FSyncManager {
         }
     }
 
+    /**
+     * Called by a new leader, with mgrMutex held, before it takes ownership
+     * of the waiting group. Waits for more threads to join the group if group
+     * commit waiting is configured, and returns when the threshold is reached
+     * or the wait time has elapsed. Arriving threads notify mgrMutex when the
+     * threshold is reached.
+     */
+    private void leaderWait() {
+        if (!grpWaitOn) {
+            return;
+        }
+        if (numNextWaiters >= grpcThreshold) {
+            nWaitersExceeded.increment();
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final long deadline;
+        if (grpAdaptive) {
+            deadline = start + getAdaptiveWait();
+        } else if (numNextWaiters > 0) {
+            deadline = startNextWait + grpcInterval;
+        } else {
+            deadline = start;
+        }
+
+        long remaining = deadline - start;
+        if (remaining > 0) {
+            nWaits.increment();
+            leaderWaiting = true;
+            try {
+                while (remaining > 0 && numNextWaiters < grpcThreshold) {
+                    mgrMutex.wait(remaining / 1000000,
+                                  (int) (remaining % 1000000));
+                    remaining = deadline - System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                throw new ThreadInterruptedException(
+                    envImpl,
+                    "Unexpected interrupt while waiting for write or fsync",
+                    e);
+            } finally {
+                leaderWaiting = false;
+            }
+            waitTime.add((System.nanoTime() - start) / 1000);
+        }
+
+        if (numNextWaiters >= grpcThreshold) {
+            nWaitersExceeded.increment();
+        } else {
+            nTimeExceeded.increment();
+        }
+    }
+
+    /**
+     * Returns the time in ns that a leader should wait for the group to fill
+     * in the adaptive mode. Waiting longer than an fsync takes would add more
+     * latency than issuing another fsync, and waiting is pointless when the
+     * next request is not expected before the wait would end.
+     */
+    private long getAdaptiveWait() {
+        if (avgRequestInterval == 0 || avgFSyncTime == 0) {
+            return 0;
+        }
+        final long maxWait = Math.min(grpcInterval, avgFSyncTime);
+        if (avgRequestInterval > maxWait) {
+            return 0;
+        }
+        final long fillTime =
+            (grpcThreshold - numNextWaiters) * avgRequestInterval;
+        return Math.min(fillTime, maxWait);
+    }
+
+    /**
+     * Returns an exponentially weighted moving average that gives the new
+     * sample a weight of 1/8.
+     */
+    private static long updateAverage(long avg, long sample) {
+        return (avg == 0) ? sample : (avg + ((sample - avg) >> 3));
+    }
+
+    /**
+     * Adds a write or fsync issued on behalf of groupSize requests to the
+     * group size histogram.
+     */
+    private void countGroup(int groupSize) {
+        final int bucket = 31 - Integer.numberOfLeadingZeros(
+            Math.max(1, groupSize));
+        groupSizes[Math.min(bucket, groupSizes.length - 1)].increment();
+    }
+
     /*
      * Stats.
      */
@@ -415,6 +529,18 @@ class FSyncManager {
         return nTimeouts.get();
     }
 
+    long getNGroupCommitWaits() {
+        return nWaits.get();
+    }
+
+    long[] getGroupSizes() {
+        final long[] sizes = new long[groupSizes.length];
+        for (int i = 0; i < sizes.length; i += 1) {
+            sizes[i] = groupSizes[i].get();
+        }
+        return sizes;
+    }
+
     StatGroup loadStats(StatsConfig config) {
         return stats.cloneGroup(config.getClear());
     }
@@ -45,28 +45,49 @@ package com.sleepycat.je.log;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.dbi.EnvironmentImpl;
-import com.sleepycat.je.latch.Latch;
 import com.sleepycat.je.latch.LatchFactory;
+import com.sleepycat.je.latch.SharedLatch;
 
 /**
  * A FileHandle embodies a File and its accompanying latch.
  */
 public class FileHandle {
     private RandomAccessFile file;
-    private Latch fileLatch;
+    private SharedLatch fileLatch;
     private int logVersion;
     private long fileNum;
 
+    /*
+     * Read-only mapping of the entire file, or null if the file has not been
+     * mapped.  Only sealed files (files before the current end-of-log file)
+     * are mapped, since their content never changes.  The mapping is created
+     * lazily while the handle is latched, and is unmapped by close(), which
+     * is always called with the latch held exclusively.
+     */
+    private volatile MappedByteBuffer mappedBuffer;
+
     /**
      * Creates a new handle but does not initialize it.  The init method must
      * be called before using the handle to access the file.
+     *
+     * @param sharedLatch is true if the handle may be latched shared by
+     * readers, which is only safe when reads do not use the file pointer.
      */
-    FileHandle(EnvironmentImpl envImpl, long fileNum, String label) {
-        fileLatch = LatchFactory.createExclusiveLatch(
-            envImpl, "file_" + label + "_fileHandle", false /*collectStats*/);
+    FileHandle(EnvironmentImpl envImpl,
+               long fileNum,
+               String label,
+               boolean sharedLatch) {
+        fileLatch = LatchFactory.createSharedLatch(
+            envImpl, "file_" + label + "_fileHandle",
+            !sharedLatch /*exclusiveOnly*/);
         this.fileNum = fileNum;
     }
 
@@ -83,6 +104,40 @@ public class FileHandle {
         return file;
     }
 
+    /**
+     * Returns the read-only mapping of this file, mapping it if necessary.
+     * Must be called with the handle latched, and only for a file that is
+     * sealed.  The returned buffer may only be accessed while the latch is
+     * held, since the file may be unmapped after the latch is released.
+     *
+     * @return the mapping, or null if the file is closed.
+     */
+    MappedByteBuffer getMappedBuffer()
+        throws IOException {
+
+        MappedByteBuffer buffer = mappedBuffer;
+        if (buffer != null) {
+            return buffer;
+        }
+
+        /*
+         * Synchronize to prevent two threads from mapping the file when the
+         * handle is latched shared.
+         */
+        synchronized (this) {
+            if (mappedBuffer == null && file != null) {
+                final FileChannel channel = file.getChannel();
+                mappedBuffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            return mappedBuffer;
+        }
+    }
+
+    boolean isMapped() {
+        return mappedBuffer != null;
+    }
+
     long getFileNum() {
         return fileNum;
     }
@@ -101,6 +156,16 @@ public class FileHandle {
         fileLatch.acquireExclusive();
     }
 
+    /**
+     * Latches the handle for reading.  If the handle was not created with a
+     * shared latch, this is equivalent to latch().
+     */
+    void latchShared()
+        throws DatabaseException {
+
+        fileLatch.acquireShared();
+    }
+
     boolean latchNoWait()
         throws DatabaseException {
 
@@ -116,6 +181,10 @@ public class FileHandle {
     void close()
         throws IOException {
 
+        if (mappedBuffer != null) {
+            unmap(mappedBuffer);
+            mappedBuffer = null;
+        }
         if (file != null) {
             try {
                 file.close();
@@ -124,4 +193,55 @@ public class FileHandle {
             }
         }
     }
+
+    /*
+     * There is no public API for releasing a mapping, so the JDK's internal
+     * cleaner is invoked via reflection.  In Java 9 and later this is done
+     * with Unsafe.invokeCleaner, and in earlier releases with the cleaner()
+     * method of the DirectByteBuffer implementation.  If neither is
+     * available, the mapping is released when the buffer is garbage
+     * collected.
+     */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner =
+                unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (Exception e) {
+            /* Not Java 9 or later, use DirectByteBuffer.cleaner below. */
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                return;
+            }
+            final Method cleanerMethod =
+                buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            final Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                final Method cleanMethod =
+                    cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            /* Leave it to GC to release the mapping. */
+        }
+    }
 }
@@ -43,6 +43,8 @@
 
 package com.sleepycat.je.log;
 
+import java.nio.ByteBuffer;
+
 import com.sleepycat.je.DatabaseException;
 
 /**
@@ -60,6 +62,18 @@ class FileHandleSource extends FileSource {
         this.fileHandle = fileHandle;
     }
 
+    /**
+     * Reads from the file's memory mapping if it is sealed and memory mapped
+     * reads are configured, to avoid a read system call.  Otherwise reads
+     * from the file.
+     */
+    @Override
+    void readFromFile(ByteBuffer destBuf, long fileOffset) {
+        if (!fileManager.readFromMappedFile(fileHandle, destBuf, fileOffset)) {
+            super.readFromFile(destBuf, fileOffset);
+        }
+    }
+
     /**
      * @see LogSource#release
      */
@@ -45,8 +45,12 @@ package com.sleepycat.je.log;
 
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_BYTES_READ_FROM_WRITEQUEUE;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_BYTES_WRITTEN_FROM_WRITEQUEUE;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_CONCURRENT_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_FILE_OPENS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_LOG_FSYNCS;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAPPED_FILES;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAPPED_READS;
+import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_MAX_CONCURRENT_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_OPEN_FILES;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_RANDOM_READS;
 import static com.sleepycat.je.log.LogStatDefinition.FILEMGR_RANDOM_READ_BYTES;
@@ -67,6 +71,7 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
@@ -83,6 +88,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.sleepycat.je.DatabaseException;
@@ -97,6 +103,7 @@ import com.sleepycat.je.dbi.EnvironmentFailureReason;
 import com.sleepycat.je.dbi.EnvironmentImpl;
 import com.sleepycat.je.log.entry.FileHeaderEntry;
 import com.sleepycat.je.log.entry.LogEntry;
+import com.sleepycat.je.utilint.AtomicLongStat;
 import com.sleepycat.je.utilint.DbLsn;
 import com.sleepycat.je.utilint.HexFormatter;
 import com.sleepycat.je.utilint.IntStat;
@@ -243,6 +250,29 @@ public class FileManager {
     /* The starting size of the Write Queue. */
     private final int writeQueueSize;
 
+    /*
+     * True if log files are read with FileChannel positional reads.  In this
+     * mode the file pointer is never used for reading, so there is no need to
+     * synchronize on the RandomAccessFile, and cached FileHandles are latched
+     * shared by readers.  Only closing a handle requires an exclusive latch.
+     */
+    private final boolean usePositionalRead;
+
+    /* Number of positional reads currently in progress, for stats. */
+    private final AtomicInteger nReadsInProgress = new AtomicInteger();
+
+    /* True if sealed files are memory mapped for LogManager fetches. */
+    private final boolean useMemoryMappedRead;
+
+    /*
+     * Files numbered lower than this are completely written and will not
+     * change until they are deleted, and may therefore be memory mapped.
+     * After recovery this is the current file.  It is advanced when a log
+     * buffer is written to a later file, since log buffers are written in
+     * LSN order and the write queue only holds writes for a single file.
+     */
+    private volatile long firstUnsealedFileNum = 0;
+
     /*
      * Use O_DSYNC to open JE log files.
      */
@@ -296,6 +326,10 @@ public class FileManager {
     final LongStat nWritesFromWriteQueue;
     final LongStat nWriteQueueOverflow;
     final LongStat nWriteQueueOverflowFailures;
+    final AtomicLongStat nConcurrentReads;
+    final LongStat maxConcurrentReads;
+    final AtomicLongStat nMappedReads;
+    final IntStat nMappedFiles;
     /* all fsyncs, includes those issued for group commit */
     final LongStat nLogFSyncs;
     final LongStat nFSyncTime;
@@ -346,6 +380,10 @@ public class FileManager {
         nWriteQueueOverflow = new LongStat(stats, FILEMGR_WRITEQUEUE_OVERFLOW);
         nWriteQueueOverflowFailures =
             new LongStat(stats, FILEMGR_WRITEQUEUE_OVERFLOW_FAILURES);
+        nConcurrentReads = new AtomicLongStat(stats, FILEMGR_CONCURRENT_READS);
+        maxConcurrentReads = new LongStat(stats, FILEMGR_MAX_CONCURRENT_READS);
+        nMappedReads = new AtomicLongStat(stats, FILEMGR_MAPPED_READS);
+        nMappedFiles = new IntStat(stats, FILEMGR_MAPPED_FILES);
         nLogFSyncs = new LongStat(stats, FILEMGR_LOG_FSYNCS);
         nFSyncTime = new LongStat(stats, LogStatDefinition.GRPCMGR_FSYNC_TIME);
 
@@ -359,6 +397,10 @@ public class FileManager {
                 (EnvironmentParams.LOG_USE_WRITE_QUEUE);
             writeQueueSize = configManager.getInt
                 (EnvironmentParams.LOG_WRITE_QUEUE_SIZE);
+            usePositionalRead = configManager.getBoolean
+                (EnvironmentParams.LOG_USE_POSITIONAL_READ);
+            useMemoryMappedRead = configManager.getBoolean
+                (EnvironmentParams.LOG_USE_MEMORY_MAPPED_READ);
             useODSYNC = configManager.getBoolean
                 (EnvironmentParams.LOG_USE_ODSYNC);
             VERIFY_CHECKSUMS = configManager.getBoolean
@@ -465,6 +507,7 @@ public class FileManager {
                                Long.valueOf(lastUsedLsn));
         this.nextAvailableLsn = nextAvailableLsn;
         currentFileNum = DbLsn.getFileNumber(this.nextAvailableLsn);
+        firstUnsealedFileNum = currentFileNum;
         this.prevOffset = prevOffset;
     }
 
@@ -516,6 +559,13 @@ public class FileManager {
         return useWriteQueue;
     }
 
+    /**
+     * For unit tests.
+     */
+    boolean getUsePositionalRead() {
+        return usePositionalRead;
+    }
+
     /**
      * For assertions that check whether a file is valid or has been deleted
      * via log cleaning.
@@ -1211,6 +1261,16 @@ public class FileManager {
                             clearFileCache(fileNum);
                         }
                     }
+                } else if (usePositionalRead) {
+
+                    /*
+                     * The handle was found in the cache.  Positional reads
+                     * may be performed concurrently, so a shared latch is
+                     * sufficient to prevent the file from being closed while
+                     * it is read.  The latch is only held exclusively while
+                     * the handle is opened or closed.
+                     */
+                    fileHandle.latchShared();
                 } else {
 
                     /*
@@ -1226,7 +1286,8 @@ public class FileManager {
                          */
                         final FileHandle existingHandle = fileHandle;
                         fileHandle = new FileHandle(
-                            envImpl, fileId, getFileNumberString(fileId)) {
+                            envImpl, fileId, getFileNumberString(fileId),
+                            false /*sharedLatch*/) {
                                 @Override
                                 public void release()
                                     throws DatabaseException {
@@ -1275,7 +1336,8 @@ public class FileManager {
         throws IOException, DatabaseException {
 
         FileHandle fileHandle =
-            new FileHandle(envImpl, fileNum, getFileNumberString(fileNum));
+            new FileHandle(envImpl, fileNum, getFileNumberString(fileNum),
+                           usePositionalRead);
         fileCache.add(fileNum, fileHandle);
         fileHandle.latch();
         return fileHandle;
@@ -1296,7 +1358,8 @@ public class FileManager {
         throws FileNotFoundException, ChecksumException {
 
         FileHandle fileHandle =
-            new FileHandle(envImpl, fileNum, getFileNumberString(fileNum));
+            new FileHandle(envImpl, fileNum, getFileNumberString(fileNum),
+                           usePositionalRead);
         openFileHandle(fileHandle, mode, null /*existingHandle*/);
         return fileHandle;
     }
@@ -1663,6 +1726,11 @@ public class FileManager {
                 writeToFile(file, data, DbLsn.getFileOffset(firstLsn),
                             DbLsn.getFileNumber(firstLsn),
                             flushRequired);
+
+                /* All prior files are now completely written. */
+                if (DbLsn.getFileNumber(firstLsn) > firstUnsealedFileNum) {
+                    firstUnsealedFileNum = DbLsn.getFileNumber(firstLsn);
+                }
             } catch (ClosedChannelException e) {
 
                 /*
@@ -1855,7 +1923,9 @@ public class FileManager {
                  * file or the next incur the cost of a check of file.length(),
                  * which is a system call.
                  */
-                readThisFile = (offset < file.length());
+                readThisFile = (offset < (usePositionalRead ?
+                                          file.getChannel().size() :
+                                          file.length()));
             }
 
             if (readThisFile) {
@@ -1884,6 +1954,11 @@ public class FileManager {
                                       long fileNum)
         throws IOException {
 
+        if (usePositionalRead) {
+            readFromChannel(file, readBuffer, offset, fileNum);
+            return;
+        }
+
         /*
          * Perform a RandomAccessFile read and update the buffer position.
          * ByteBuffer.array() is safe to use since all non-direct ByteBuffers
@@ -1918,6 +1993,119 @@ public class FileManager {
         }
     }
 
+    /**
+     * Performs a positional read using the file's channel and updates the
+     * buffer position.  The file pointer is not used, so no synchronization
+     * on the file object is needed and concurrent reads of the same file may
+     * proceed in parallel.  The sequential/random read stats and the last
+     * file touched are updated without synchronization and are therefore
+     * approximate, as they are for concurrent reads of different files.
+     */
+    private void readFromChannel(RandomAccessFile file,
+                                 ByteBuffer readBuffer,
+                                 long offset,
+                                 long fileNum)
+        throws IOException {
+
+        final int pos = readBuffer.position();
+        final int size = readBuffer.limit() - pos;
+
+        if (lastFileNumberTouched == fileNum &&
+            (Math.abs(offset - lastFileTouchedOffset) <
+             ADJACENT_TRACK_SEEK_DELTA)) {
+            nSequentialReads.increment();
+            nSequentialReadBytes.add(size);
+        } else {
+            nRandomReads.increment();
+            nRandomReadBytes.add(size);
+        }
+
+        final int nReading = nReadsInProgress.incrementAndGet();
+        try {
+            if (nReading > 1) {
+                nConcurrentReads.increment();
+            }
+            if (nReading > maxConcurrentReads.get()) {
+                maxConcurrentReads.set((long) nReading);
+            }
+
+            /*
+             * Unlike RandomAccessFile.read, a channel read may return fewer
+             * bytes than requested before the end of the file is reached, so
+             * read until the buffer is full or EOF is reached.
+             */
+            final FileChannel fileChannel = file.getChannel();
+            long readOffset = offset;
+            while (readBuffer.hasRemaining()) {
+                final int bytesRead = fileChannel.read(readBuffer, readOffset);
+                if (bytesRead < 0) {
+                    break;
+                }
+                readOffset += bytesRead;
+            }
+        } finally {
+            nReadsInProgress.decrementAndGet();
+        }
+
+        lastFileNumberTouched = fileNum;
+        lastFileTouchedOffset = offset + (readBuffer.position() - pos);
+    }
+
+    /**
+     * Reads a buffer from the memory mapping of a sealed file at a given
+     * offset, mapping the file if necessary.  The file handle must be latched
+     * by the caller and remain latched until it is done with the buffer.
+     * Only handles in the file cache are mapped, since transient handles are
+     * closed after a single use.
+     *
+     * @return true if the buffer was filled from the mapping, up to its limit
+     * or the end of the file, or false if memory mapped reads are not
+     * configured or the file cannot be mapped, in which case the caller must
+     * read from the file instead.
+     */
+    boolean readFromMappedFile(FileHandle fileHandle,
+                               ByteBuffer readBuffer,
+                               long offset) {
+        if (!useMemoryMappedRead) {
+            return false;
+        }
+
+        final long fileNum = fileHandle.getFileNum();
+        if (fileNum >= firstUnsealedFileNum) {
+            return false;
+        }
+
+        if (!fileHandle.isMapped() &&
+            fileCache.get(Long.valueOf(fileNum)) != fileHandle) {
+            return false;
+        }
+
+        final MappedByteBuffer mappedBuffer;
+        try {
+            mappedBuffer = fileHandle.getMappedBuffer();
+        } catch (IOException e) {
+
+            /*
+             * Mapping may fail if address space is exhausted, and a closed
+             * channel will be reported by the file read.
+             */
+            return false;
+        }
+
+        if (mappedBuffer == null || offset >= mappedBuffer.capacity()) {
+            return false;
+        }
+
+        final ByteBuffer src = mappedBuffer.duplicate();
+        final int size = Math.min(readBuffer.remaining(),
+                                  (int) (src.capacity() - offset));
+        src.position((int) offset);
+        src.limit((int) offset + size);
+        readBuffer.put(src);
+        nMappedReads.increment();
+        return true;
+    }
+
     private void printLogBuffer(ByteBuffer entryBuffer, long lsn) {
 
         int curPos = entryBuffer.position();
@@ -2042,6 +2230,19 @@ public class FileManager {
         return endOfLog.hasQueuedWrites();
     }
 
+    /**
+     * Writes the contents of the write queue to the file, waiting for an
+     * fsync in progress if the queue is not empty. Must not be called while
+     * an fsync or write is performed by the current thread.
+     */
+    void flushWriteQueue()
+        throws DatabaseException {
+
+        if (useWriteQueue && endOfLog.hasQueuedWrites()) {
+            endOfLog.dequeuePendingWrites();
+        }
+    }
+
     /**
      * For unit testing only.
      */
@@ -2294,6 +2495,20 @@ public class FileManager {
         throws IOException, DatabaseException {
 
         try {
+
+            /*
+             * A truncated file must not be read via a stale mapping, since
+             * touching a mapped page past the new end of the file raises
+             * SIGBUS rather than an exception. Stop mapped reads of the file
+             * and unmap it before truncating.
+             */
+            if (useMemoryMappedRead) {
+                if (fileNum < firstUnsealedFileNum) {
+                    firstUnsealedFileNum = fileNum;
+                }
+                clearFileCache(fileNum);
+            }
+
             FileHandle handle =
                 makeFileHandle(fileNum, getAppropriateReadWriteMode());
             RandomAccessFile file = handle.getFile();
@@ -2521,6 +2736,7 @@ public class FileManager {
 
     StatGroup loadStats(StatsConfig config) {
         nOpenFiles.set(fileCache.size());
+        nMappedFiles.set(fileCache.getMappedCount());
         StatGroup copyStats = stats.cloneGroup(config.getClear());
 
         return copyStats;
@@ -2673,6 +2889,18 @@ public class FileManager {
         private int size() {
             return fileMap.size();
         }
+
+        private int getMappedCount() {
+            int count = 0;
+            synchronized (fileMap) {
+                for (FileHandle fileHandle : fileMap.values()) {
+                    if (fileHandle.isMapped()) {
+                        count += 1;
+                    }
+                }
+            }
+            return count;
+        }
     }
 
     /**
@@ -2852,20 +3080,23 @@ public class FileManager {
              * enqueueWrite which can only ever be called while the Log Write
              * Latch is held.
              *
-             * NOTE: We believe the commented out second condition is safe
-             * to add to the code if we ever see contention with this call to
-             * dequeuePendingWrites against an fsync.  Here is the reasoning:
+             * The dequeuePendingWrites call is skipped when the queue is
+             * empty, since it would otherwise wait for an fsync in progress.
+             * The log writer thread enqueues writes so that it does not wait
+             * for an fsync, and it would always wait here for the first write
+             * to a new file.  Skipping the call is safe for this reason:
              *
              * queuedWritesPosition is changed in two places: (1) enqueueWrite1
              * where it is incremented, and (2) dequeuePendingWrites1 where it
              * is zeroed. Both of these places are proected by the queuedWrites
              * mutex.  The zero'ing (2) will only make the dequeue unnecessary
-             * so the extra commented out check below is safe since it will
-             * only result in eliminating an unnecessary dequeuePendingWrites
-             * call.
+             * so the check below is safe since it will only result in
+             * eliminating an unnecessary dequeuePendingWrites call.
              */
-            if (qwFileNum < fileNum /* && queuedWritesPosition > 0 */) {
-                dequeuePendingWrites();
+            if (qwFileNum < fileNum) {
+                if (queuedWritesPosition > 0) {
+                    dequeuePendingWrites();
+                }
                 qwFileNum = fileNum;
             }
 
@@ -398,6 +398,12 @@ public abstract class FileReader {
                      * be returned.  Note that some entries, although targeted
                      * and read, are not returned.
                      */
+                    if (currentEntryHeader.isCompressed() &&
+                        decompressTargetEntries()) {
+                        dataBuffer = envImpl.getLogManager().decompress(
+                            currentEntryHeader, dataBuffer);
+                    }
+
                     if (processEntry(dataBuffer)) {
                         foundEntry = true;
                         nRead++;
@@ -913,6 +919,17 @@ public abstract class FileReader {
         return true;
     }
 
+    /**
+     * Returns whether compressed target entries are decompressed before they
+     * are passed to processEntry.  Readers that only skip over the entry data
+     * may override this method to return false, in which case processEntry
+     * is passed the compressed item and the header item size is the size of
+     * the compressed item.
+     */
+    protected boolean decompressTargetEntries() {
+        return true;
+    }
+
     /**
      * Each file reader implements this method to process the entry data.
      *
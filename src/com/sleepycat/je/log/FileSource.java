@@ -57,7 +57,7 @@ class FileSource implements LogSource {
 
     private final RandomAccessFile file;
     private final int readBufferSize;
-    private final FileManager fileManager;
+    final FileManager fileManager;
     private final long fileNum;
     private final int logVersion;
 
@@ -89,7 +89,7 @@ class FileSource implements LogSource {
 
         /* Fill up buffer from file. */
         ByteBuffer destBuf = ByteBuffer.allocate(readBufferSize);
-        fileManager.readFromFile(file, destBuf, fileOffset, fileNum);
+        readFromFile(destBuf, fileOffset);
 
         assert EnvironmentImpl.maybeForceYield();
 
@@ -105,7 +105,7 @@ class FileSource implements LogSource {
 
         /* Fill up buffer from file. */
         ByteBuffer destBuf = ByteBuffer.allocate(numBytes);
-        fileManager.readFromFile(file, destBuf, fileOffset, fileNum);
+        readFromFile(destBuf, fileOffset);
 
         assert EnvironmentImpl.maybeForceYield();
 
@@ -118,6 +118,14 @@ class FileSource implements LogSource {
         return destBuf;
     }
 
+    /**
+     * Reads bytes at the given file offset into the buffer, starting at the
+     * buffer position and ending at its limit or the end of the file.
+     */
+    void readFromFile(ByteBuffer destBuf, long fileOffset) {
+        fileManager.readFromFile(file, destBuf, fileOffset, fileNum);
+    }
+
     public int getLogVersion() {
         return logVersion;
     }
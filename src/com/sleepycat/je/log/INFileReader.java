@@ -289,8 +289,7 @@ public class INFileReader extends FileReader {
             !LogEntryType.LOG_FILE_HEADER.equals(fromLogType)) {
             tracker.countNewLogEntry(getLastLsn(),
                                      fromLogType,
-                                     currentEntryHeader.getSize() +
-                                     currentEntryHeader.getItemSize(),
+                                     currentEntryHeader.getEntrySize(),
                                      null); // DatabaseId
         }
 
@@ -363,8 +362,7 @@ public class INFileReader extends FileReader {
             fromLogType.equals(LogEntryType.LOG_BIN_DELTA) ||
             fromLogType.equals(LogEntryType.LOG_OLD_BIN_DELTA)) {
             tracker.countNewLogEntry(getLastLsn(), fromLogType,
-                                     currentEntryHeader.getSize() +
-                                     currentEntryHeader.getItemSize(),
+                                     currentEntryHeader.getEntrySize(),
                                      targetLogEntry.getDbId());
         }
 
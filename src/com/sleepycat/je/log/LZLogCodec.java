@@ -0,0 +1,279 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import java.util.zip.DataFormatException;
+
+/**
+ * A fast byte-oriented LZ77 LogCodec, using the LZ4 block format.  It trades
+ * compression ratio for speed, and is the codec of choice when compression
+ * should not add noticeably to the cost of logging.
+ *
+ * The compressed data is a sequence of tokens.  Each token byte holds a
+ * literal length in its high nibble and a match length (minus MIN_MATCH) in
+ * its low nibble, where the value 15 means that the length continues in
+ * following bytes, each adding up to 255.  The token is followed by the
+ * literal bytes and then by a two byte little-endian match offset.  The last
+ * sequence has literals only.  Matches are found using a hash table of four
+ * byte sequences, and are limited to a 64K window.
+ */
+class LZLogCodec extends LogCodec {
+
+    private static final int MIN_MATCH = 4;
+
+    /* The last LAST_LITERALS bytes of the input are always literals. */
+    private static final int LAST_LITERALS = 5;
+
+    /* A match may not start within MF_LIMIT bytes of the end. */
+    private static final int MF_LIMIT = 12;
+
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    private static final int HASH_LOG = 12;
+    private static final int HASH_SHIFT = (MIN_MATCH * 8) - HASH_LOG;
+
+    private static final int RUN_MASK = 0xF;
+
+    LZLogCodec() {
+        super(LZ_ID, "LZ");
+    }
+
+    @Override
+    public int maxCompressedLength(int srcLen) {
+        return srcLen + (srcLen / 255) + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen,
+                        byte[] dest, int destOff) {
+
+        final int srcEnd = srcOff + srcLen;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+        final int mfLimit = srcEnd - MF_LIMIT;
+
+        int srcPos = srcOff;
+        int anchor = srcOff;
+        int destPos = destOff;
+
+        if (srcLen > MF_LIMIT) {
+
+            /*
+             * Positions are stored relative to srcOff, plus one so that zero
+             * means the slot is empty.
+             */
+            final int[] hashTable = new int[1 << HASH_LOG];
+
+            while (srcPos < mfLimit) {
+                final int seq = readInt(src, srcPos);
+                final int hash = hash(seq);
+                final int ref = hashTable[hash] - 1 + srcOff;
+                hashTable[hash] = srcPos - srcOff + 1;
+
+                if (ref < srcOff ||
+                    srcPos - ref > MAX_OFFSET ||
+                    readInt(src, ref) != seq) {
+                    srcPos += 1;
+                    continue;
+                }
+
+                int matchLen = MIN_MATCH;
+                while (srcPos + matchLen < matchLimit &&
+                       src[ref + matchLen] == src[srcPos + matchLen]) {
+                    matchLen += 1;
+                }
+
+                destPos = writeSequence(src, anchor, srcPos - anchor,
+                                        srcPos - ref, matchLen,
+                                        dest, destPos);
+                srcPos += matchLen;
+                anchor = srcPos;
+            }
+        }
+
+        /* Write the remaining literals as the last sequence. */
+        final int litLen = srcEnd - anchor;
+        destPos = writeLiterals(src, anchor, litLen, 0, dest, destPos);
+        return destPos - destOff;
+    }
+
+    private static int writeSequence(byte[] src,
+                                     int litOff,
+                                     int litLen,
+                                     int offset,
+                                     int matchLen,
+                                     byte[] dest,
+                                     int destPos) {
+
+        final int matchCode = matchLen - MIN_MATCH;
+        destPos = writeLiterals(src, litOff, litLen,
+                                Math.min(matchCode, RUN_MASK),
+                                dest, destPos);
+
+        dest[destPos++] = (byte) offset;
+        dest[destPos++] = (byte) (offset >>> 8);
+
+        if (matchCode >= RUN_MASK) {
+            destPos = writeLength(matchCode - RUN_MASK, dest, destPos);
+        }
+        return destPos;
+    }
+
+    /**
+     * Writes the token, literal length and literal bytes of a sequence.  The
+     * low nibble of the token is given by matchToken.
+     */
+    private static int writeLiterals(byte[] src,
+                                     int litOff,
+                                     int litLen,
+                                     int matchToken,
+                                     byte[] dest,
+                                     int destPos) {
+
+        if (litLen >= RUN_MASK) {
+            dest[destPos++] = (byte) ((RUN_MASK << 4) | matchToken);
+            destPos = writeLength(litLen - RUN_MASK, dest, destPos);
+        } else {
+            dest[destPos++] = (byte) ((litLen << 4) | matchToken);
+        }
+        System.arraycopy(src, litOff, dest, destPos, litLen);
+        return destPos + litLen;
+    }
+
+    private static int writeLength(int len, byte[] dest, int destPos) {
+        while (len >= 0xFF) {
+            dest[destPos++] = (byte) 0xFF;
+            len -= 0xFF;
+        }
+        dest[destPos++] = (byte) len;
+        return destPos;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen,
+                           byte[] dest, int destOff, int destLen)
+        throws DataFormatException {
+
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + destLen;
+        int srcPos = srcOff;
+        int destPos = destOff;
+
+        try {
+            while (true) {
+                final int token = src[srcPos++] & 0xFF;
+
+                /* Copy literals. */
+                int litLen = token >>> 4;
+                if (litLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[srcPos++] & 0xFF;
+                        litLen += b;
+                    } while (b == 0xFF);
+                }
+                if (litLen > srcEnd - srcPos || litLen > destEnd - destPos) {
+                    throw new DataFormatException
+                        ("Literal length " + litLen + " exceeds bounds");
+                }
+                System.arraycopy(src, srcPos, dest, destPos, litLen);
+                srcPos += litLen;
+                destPos += litLen;
+
+                /* The last sequence has no match. */
+                if (srcPos == srcEnd) {
+                    break;
+                }
+
+                /* Copy the match, which may overlap its output. */
+                if (srcEnd - srcPos < 2) {
+                    throw new DataFormatException("Truncated match offset");
+                }
+                final int offset =
+                    (src[srcPos] & 0xFF) | ((src[srcPos + 1] & 0xFF) << 8);
+                srcPos += 2;
+                int ref = destPos - offset;
+                if (offset == 0 || ref < destOff) {
+                    throw new DataFormatException
+                        ("Invalid match offset " + offset);
+                }
+
+                int matchLen = token & RUN_MASK;
+                if (matchLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[srcPos++] & 0xFF;
+                        matchLen += b;
+                    } while (b == 0xFF);
+                }
+                matchLen += MIN_MATCH;
+                if (matchLen > destEnd - destPos) {
+                    throw new DataFormatException
+                        ("Match length " + matchLen + " exceeds bounds");
+                }
+                for (int i = 0; i < matchLen; i += 1) {
+                    dest[destPos++] = dest[ref++];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new DataFormatException("Truncated compressed data");
+        }
+
+        if (destPos != destEnd) {
+            throw new DataFormatException
+                ("Decompressed " + (destPos - destOff) + " bytes, expected " +
+                 destLen);
+        }
+    }
+
+    private static int readInt(byte[] buf, int off) {
+        return (buf[off] & 0xFF) |
+               ((buf[off + 1] & 0xFF) << 8) |
+               ((buf[off + 2] & 0xFF) << 16) |
+               ((buf[off + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int seq) {
+        return (seq * -1640531535) >>> HASH_SHIFT;
+    }
+}
@@ -292,6 +292,14 @@ public class LastFileReader extends FileReader {
         }
     }
 
+    /**
+     * The entry data is skipped, so compressed entries are not decompressed.
+     */
+    @Override
+    protected boolean decompressTargetEntries() {
+        return false;
+    }
+
     /**
      * Validate the checksum on each entry, see if we should remember the LSN
      * of this entry.
@@ -68,6 +68,11 @@ import com.sleepycat.je.utilint.DbLsn;
  * pin count is decremented without holding the latch.
  * Holding the readLatch will prevent the pin count from
  * being incremented.
+ *
+ * Data is copied into an allocated segment without holding any latch, and
+ * the decrement of the pin count publishes the copied data.  Any thread that
+ * reads the buffer contents must therefore first observe a zero pin count,
+ * which is done by waitForZeroAndLatch.
  */
 public class LogBuffer implements LogSource {
 
@@ -148,19 +153,28 @@ public class LogBuffer implements LogSource {
 
         readLatch.acquireExclusive();
         try {
-            if (lastLsn != DbLsn.NULL_LSN) {
-                assert (DbLsn.compareTo(lsn, lastLsn) > 0):
-                    "lsn=" + lsn + " lastlsn=" + lastLsn;
-            }
-            lastLsn = lsn;
-            if (firstLsn == DbLsn.NULL_LSN) {
-                firstLsn = lsn;
-            }
+            registerLsnLatched(lsn);
         } finally {
             readLatch.release();
         }
     }
 
+    /**
+     * Same as registerLsn but called with the buffer latched, so that a
+     * segment can be allocated and its LSN registered with a single latch
+     * acquisition.
+     */
+    void registerLsnLatched(long lsn) {
+        if (lastLsn != DbLsn.NULL_LSN) {
+            assert (DbLsn.compareTo(lsn, lastLsn) > 0):
+                "lsn=" + lsn + " lastlsn=" + lastLsn;
+        }
+        lastLsn = lsn;
+        if (firstLsn == DbLsn.NULL_LSN) {
+            firstLsn = lsn;
+        }
+    }
+
     /**
      * Check capacity of buffer. Assumes that the log write latch is held.
      * @return true if this buffer can hold this many more bytes.
@@ -48,11 +48,17 @@ import static com.sleepycat.je.log.LogStatDefinition.LBFP_LOG_BUFFERS;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_MISS;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_NOT_RESIDENT;
 import static com.sleepycat.je.log.LogStatDefinition.LBFP_NO_FREE_BUFFER;
+import static com.sleepycat.je.log.LogStatDefinition.LBFP_WRITER_THREAD_WRITES;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.EnvironmentFailureException;
@@ -65,8 +71,10 @@ import com.sleepycat.je.latch.LatchFactory;
 import com.sleepycat.je.utilint.AtomicLongStat;
 import com.sleepycat.je.utilint.DbLsn;
 import com.sleepycat.je.utilint.IntStat;
+import com.sleepycat.je.utilint.LoggerUtils;
 import com.sleepycat.je.utilint.LongStat;
 import com.sleepycat.je.utilint.StatGroup;
+import com.sleepycat.je.utilint.StoppableThreadFactory;
 
 /**
  * LogBufferPool manages a circular pool of LogBuffers.
@@ -103,6 +111,23 @@ import com.sleepycat.je.utilint.StatGroup;
  * The thread attempting to access the log buffer for reading may be delayed.
  * The worst case is when the reader has to wait until the buffer
  * is filled (the pin count would be zero).
+ *
+ * Dirty buffers are written by writeDirty, which is serialized by the
+ * writeMutex so that buffers are written in LSN order. The bufferPoolLatch is
+ * not held while a buffer is written; a buffer stays at the head of the dirty
+ * list, and so cannot be reused, until its write is complete. If
+ * LOG_USE_WRITER_THREAD is set, threads that switch to a new buffer while
+ * logging without a flush hand the dirty buffers to a writer thread rather
+ * than writing them. Threads that need their entries written still call
+ * writeDirty, which waits for any write in progress and writes the rest.
+ *
+ * The writer thread writes with flushRequired=false, so a write that would
+ * wait for an fsync in progress is placed on the FileManager write queue
+ * instead. Otherwise the writer would hold the writeMutex for the duration of
+ * the fsync, and a logging thread that finds the pool full while holding the
+ * log write latch would wait for the fsync too. A thread that needs its
+ * entries written to the file, such as a WRITE_NO_SYNC committer, calls
+ * writeDirty with flushRequired=true, which also writes the queued writes.
  */
 class LogBufferPool {
     private static final String DEBUG_NAME = LogBufferPool.class.getName();
@@ -139,6 +164,24 @@ class LogBufferPool {
 
     private final boolean runInMemory;
 
+    /*
+     * Serializes the writing of dirty buffers. The writeMutex is taken before
+     * the bufferPoolLatch, and after the log write latch when both are held.
+     */
+    private final Object writeMutex = new Object();
+
+    /*
+     * Single thread pool used to write dirty buffers in the background when
+     * LOG_USE_WRITER_THREAD is set, or null. writeScheduled is true while a
+     * write task is queued but has not yet started.
+     */
+    private final ThreadPoolExecutor writerPool;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private final AtomicLongStat nWriterThreadWrites;
+
+    /* Maximum time a writer thread stays alive without work. */
+    private static final long WRITER_THREAD_KEEP_ALIVE_MS = 60 * 1000;
+
     /*
      * bufferPoolLatch synchronizes access and changes to the buffer pool.
      * Related latches are the log write latch in LogManager and the read
@@ -191,6 +234,22 @@ class LogBufferPool {
         logBuffers = new IntStat(stats, LBFP_LOG_BUFFERS);
         nBufferBytes = new LongStat(stats, LBFP_BUFFER_BYTES);
         nNoFreeBuffer = new LongStat(stats, LBFP_NO_FREE_BUFFER);
+        nWriterThreadWrites =
+            new AtomicLongStat(stats, LBFP_WRITER_THREAD_WRITES);
+
+        if (configManager.getBoolean(
+                EnvironmentParams.LOG_USE_WRITER_THREAD) &&
+            !runInMemory && !envImpl.isReadOnly()) {
+            writerPool = new ThreadPoolExecutor(
+                1, 1, WRITER_THREAD_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new StoppableThreadFactory(
+                    envImpl, "JELogWriter",
+                    LoggerUtils.getLogger(getClass())));
+            writerPool.allowCoreThreadTimeOut(true);
+        } else {
+            writerPool = null;
+        }
     }
 
     final int getLogBufferSize() {
@@ -263,13 +322,15 @@ class LogBufferPool {
          * allocating new buffers; it is not used as the size of the
          * currentWriteBuffer.
          */
-        bufferPoolLatch.acquireExclusive();
-        bufferPool = newPool;
-        logBufferSize = newBufferSize;
-        /* Current buffer is the active buffer that writes go into. */
-        currentWriteBuffer = bufferPool.getFirst();
-        currentWriteBufferIndex = 0;
-        bufferPoolLatch.release();
+        synchronized (writeMutex) {
+            bufferPoolLatch.acquireExclusive();
+            bufferPool = newPool;
+            logBufferSize = newBufferSize;
+            /* Current buffer is the active buffer that writes go into. */
+            currentWriteBuffer = bufferPool.getFirst();
+            currentWriteBufferIndex = 0;
+            bufferPoolLatch.release();
+        }
     }
 
     /**
@@ -390,35 +451,112 @@ class LogBufferPool {
     }
 
     /**
-     * Writes the dirty log buffers.
+     * Writes the dirty log buffers. If another thread is writing dirty
+     * buffers, waits for it to finish and then writes any buffers that are
+     * still dirty, so that all buffers that were dirty when this method was
+     * called have been written when it returns.
+     *
+     * When flushRequired is true, the FileManager write queue is also written
+     * to the file before returning, since buffers written earlier by the
+     * writer thread or by another thread may have been queued.
+     *
      * @param flushRequired true then data is written to file otherwise
      *        the data may be placed on the FileManager WriteQueue.
+     * @return the number of buffers written by this thread.
      */
-    void writeDirty(boolean flushRequired) {
-        bufferPoolLatch.acquireExclusive();
-        try {
-            if (dirtyStart < 0) {
-                return;
-            }
-            boolean process = true;
-            do {
-                LogBuffer lb = bufferPool.get(dirtyStart);
+    int writeDirty(boolean flushRequired) {
+        int nWritten = 0;
+        synchronized (writeMutex) {
+            while (true) {
+                final LogBuffer lb;
+                bufferPoolLatch.acquireExclusive();
+                try {
+                    if (dirtyStart < 0) {
+                        break;
+                    }
+                    lb = bufferPool.get(dirtyStart);
+                } finally {
+                    bufferPoolLatch.release();
+                }
+
+                /*
+                 * The buffer cannot be reused while it is at the head of the
+                 * dirty list, so the bufferPoolLatch need not be held while
+                 * it is written.
+                 */
                 lb.waitForZeroAndLatch();
                 try {
                     writeBufferToFile(lb, flushRequired);
                 } finally {
                     lb.release();
                 }
-                if (dirtyStart == dirtyEnd) {
-                    process = false;
-                } else {
-                    dirtyStart = getNextSlot(dirtyStart);
+                nWritten += 1;
+
+                bufferPoolLatch.acquireExclusive();
+                try {
+                    if (dirtyStart == dirtyEnd) {
+                        dirtyStart = -1;
+                        dirtyEnd = -1;
+                    } else {
+                        dirtyStart = getNextSlot(dirtyStart);
+                    }
+                } finally {
+                    bufferPoolLatch.release();
                 }
-            } while (process);
-            dirtyStart = -1;
-            dirtyEnd = -1;
-        } finally {
-            bufferPoolLatch.releaseIfOwner();
+            }
+
+            if (flushRequired && !runInMemory) {
+                fileManager.flushWriteQueue();
+            }
+        }
+        return nWritten;
+    }
+
+    /**
+     * Hands the dirty buffers to the writer thread, if one is configured.
+     * Called after switching to a new write buffer, without the log write
+     * latch held.
+     *
+     * @return false if there is no writer thread, in which case the caller
+     * should write the dirty buffers itself.
+     */
+    boolean scheduleWriteDirty() {
+        if (writerPool == null) {
+            return false;
+        }
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writerPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        writeScheduled.set(false);
+                        nWriterThreadWrites.add(
+                            writeDirty(false /*flushRequired*/));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                /* The writer has been shut down. */
+                writeScheduled.set(false);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the writer thread after it writes any buffers handed to it. The
+     * thread is not interrupted, because interrupting a thread during a
+     * FileChannel write closes the channel.
+     */
+    void shutdownWriter() {
+        if (writerPool == null) {
+            return;
+        }
+        writerPool.shutdown();
+        try {
+            writerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            /* Give up; the log is flushed by the caller in any case. */
         }
     }
 
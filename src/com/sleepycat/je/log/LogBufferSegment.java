@@ -68,14 +68,16 @@ class LogBufferSegment {
     public void put(ByteBuffer dataToCopy) {
 
         /*
-         * The acquisition of the log buffer latch is
-         * done to guarantee the java happens-before
-         * semantic. There is no other reason to take the
-         * latch here.
+         * The log buffer latch is not taken here, so that concurrent writers
+         * copy into their segments in parallel and do not block the thread
+         * holding the log write latch, which takes the buffer latch to
+         * allocate the next segment.  The happens-before relation needed by
+         * readers and by the thread that writes the buffer to disk is
+         * provided by the pin count: free() is a volatile write that follows
+         * the copy, and those threads only access the buffer contents after
+         * observing a zero pin count in LogBuffer.waitForZeroAndLatch.
          */
-        logBuffer.latchForWrite();
         data.put(dataToCopy);
-        logBuffer.release();
         logBuffer.free();
     }
 }
@@ -0,0 +1,157 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import java.util.zip.DataFormatException;
+
+/**
+ * A block compression codec for log entry items.  Each codec has a one byte
+ * id that is stored with every compressed item, so the set of ids is part of
+ * the log format: ids may be added, but an existing id may never be reused
+ * or removed.
+ *
+ * Codecs are also used to compress off-heap cache blocks, which is why this
+ * class is public.
+ *
+ * @see LogCompressor
+ */
+public abstract class LogCodec {
+
+    /* Persistent codec ids. */
+    static final byte NONE_ID = 0;
+    static final byte LZ_ID = 1;
+    static final byte DEFLATE_ID = 2;
+
+    /* Names used in the je.log.compression parameter. */
+    static final String NONE_NAME = "NONE";
+
+    private static final LogCodec[] CODECS = {
+        null,
+        new LZLogCodec(),
+        new DeflateLogCodec(),
+    };
+
+    private final byte id;
+    private final String name;
+
+    LogCodec(byte id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the largest number of bytes that compress may output for an
+     * input of the given length.
+     */
+    public abstract int maxCompressedLength(int srcLen);
+
+    /**
+     * Compresses srcLen bytes of src, starting at srcOff, into dest starting
+     * at destOff.  The dest array must have room for at least
+     * maxCompressedLength(srcLen) bytes.
+     *
+     * @return the number of bytes written to dest.
+     */
+    public abstract int compress(byte[] src, int srcOff, int srcLen,
+                                 byte[] dest, int destOff);
+
+    /**
+     * Decompresses srcLen bytes of src, starting at srcOff, into exactly
+     * destLen bytes of dest starting at destOff.
+     *
+     * @throws DataFormatException if the compressed data is invalid or does
+     * not decompress to exactly destLen bytes.
+     */
+    public abstract void decompress(byte[] src, int srcOff, int srcLen,
+                                    byte[] dest, int destOff, int destLen)
+        throws DataFormatException;
+
+    /**
+     * Returns the codec with the given persistent id, or null if the id is
+     * unknown.
+     */
+    public static LogCodec getCodec(int id) {
+        if (id <= NONE_ID || id >= CODECS.length) {
+            return null;
+        }
+        return CODECS[id];
+    }
+
+    /**
+     * Returns the codec with the given name, ignoring case, or null for
+     * NONE.
+     *
+     * @throws IllegalArgumentException if the name is not NONE or the name of
+     * a codec.
+     */
+    public static LogCodec getCodec(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException
+                ("Log compression codec name may not be null");
+        }
+        if (NONE_NAME.equalsIgnoreCase(name)) {
+            return null;
+        }
+        for (LogCodec codec : CODECS) {
+            if (codec != null && codec.name.equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException
+            ("Unknown log compression codec: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
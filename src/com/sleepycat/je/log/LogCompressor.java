@@ -0,0 +1,326 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSED_ENTRIES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_INPUT_BYTES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_NANOS;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_COMPRESSION_OUTPUT_BYTES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_DECOMPRESSED_ENTRIES;
+import static com.sleepycat.je.log.LogStatDefinition.LOGMGR_DECOMPRESSION_NANOS;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.dbi.DatabaseImpl;
+import com.sleepycat.je.dbi.DbConfigManager;
+import com.sleepycat.je.utilint.AtomicLongStat;
+import com.sleepycat.je.utilint.StatGroup;
+
+/**
+ * Compresses log entry items when they are marshalled for writing, and
+ * decompresses them when they are read, according to the je.log.compression,
+ * je.log.compressionEntryTypes and je.log.compressionMinSize parameters and
+ * the per-database DatabaseConfig.setLogCompression setting.
+ *
+ * A compressed entry has the LogEntryHeader COMPRESSED flag set, and its item
+ * has the following layout:
+ *
+ * codec id - 1 byte, see LogCodec
+ * uncompressed item size - packed int
+ * compressed item - remainder of the item
+ *
+ * The header item size is the size of the compressed item, and the checksum
+ * covers the compressed bytes, so the log can be traversed and verified
+ * without decompressing.  Entries are decompressed only when they are
+ * deserialized, by LogManager fetches and FileReaders.
+ *
+ * Only entries that are marshalled outside the log write latch and are not
+ * part of the replication stream are compressed: the replication stream
+ * transfers items without their entry header flags, so replicated entries are
+ * always written uncompressed.  An entry is written uncompressed when
+ * compression does not make it smaller.
+ */
+public class LogCompressor {
+
+    /* Entry type categories for je.log.compressionEntryTypes. */
+    static final String LN_CATEGORY = "LN";
+    static final String BIN_CATEGORY = "BIN";
+    static final String IN_CATEGORY = "IN";
+
+    /* The codec used for writing, or null if compression is disabled. */
+    private final LogCodec codec;
+    private final int minSize;
+    private final boolean compressLNs;
+    private final boolean compressBINs;
+    private final boolean compressINs;
+
+    /*
+     * These stats are updated outside the log write latch, by concurrent
+     * writers and readers.
+     */
+    private final AtomicLongStat nCompressedEntries;
+    private final AtomicLongStat nCompressionInputBytes;
+    private final AtomicLongStat nCompressionOutputBytes;
+    private final AtomicLongStat compressionNanos;
+    private final AtomicLongStat nDecompressedEntries;
+    private final AtomicLongStat decompressionNanos;
+
+    LogCompressor(DbConfigManager configManager, StatGroup stats) {
+        codec = LogCodec.getCodec
+            (configManager.get(EnvironmentParams.LOG_COMPRESSION));
+        minSize = configManager.getInt
+            (EnvironmentParams.LOG_COMPRESSION_MIN_SIZE);
+        final boolean[] categories = parseEntryTypes
+            (configManager.get(EnvironmentParams.LOG_COMPRESSION_ENTRY_TYPES));
+        compressLNs = categories[0];
+        compressBINs = categories[1];
+        compressINs = categories[2];
+
+        nCompressedEntries =
+            new AtomicLongStat(stats, LOGMGR_COMPRESSED_ENTRIES);
+        nCompressionInputBytes =
+            new AtomicLongStat(stats, LOGMGR_COMPRESSION_INPUT_BYTES);
+        nCompressionOutputBytes =
+            new AtomicLongStat(stats, LOGMGR_COMPRESSION_OUTPUT_BYTES);
+        compressionNanos =
+            new AtomicLongStat(stats, LOGMGR_COMPRESSION_NANOS);
+        nDecompressedEntries =
+            new AtomicLongStat(stats, LOGMGR_DECOMPRESSED_ENTRIES);
+        decompressionNanos =
+            new AtomicLongStat(stats, LOGMGR_DECOMPRESSION_NANOS);
+    }
+
+    /**
+     * Validates the value of je.log.compression, the name of a codec or NONE.
+     *
+     * @throws IllegalArgumentException if the codec name is unknown.
+     */
+    public static void validateCodec(String value) {
+        LogCodec.getCodec(value);
+    }
+
+    /**
+     * Parses the value of je.log.compressionEntryTypes, a comma separated
+     * list of entry type categories.
+     *
+     * @return an array of three booleans: whether LNs, BINs and upper INs are
+     * compressed.
+     *
+     * @throws IllegalArgumentException if a category is unknown.
+     */
+    public static boolean[] parseEntryTypes(String value) {
+        final boolean[] categories = new boolean[3];
+        if (value == null) {
+            throw new IllegalArgumentException
+                ("Log compression entry types may not be null");
+        }
+        for (String token : value.split(",")) {
+            token = token.trim();
+            if (token.length() == 0) {
+                continue;
+            }
+            if (LN_CATEGORY.equalsIgnoreCase(token)) {
+                categories[0] = true;
+            } else if (BIN_CATEGORY.equalsIgnoreCase(token)) {
+                categories[1] = true;
+            } else if (IN_CATEGORY.equalsIgnoreCase(token)) {
+                categories[2] = true;
+            } else {
+                throw new IllegalArgumentException
+                    ("Unknown log compression entry type: " + token +
+                     ", must be one of " + LN_CATEGORY + ", " +
+                     BIN_CATEGORY + " or " + IN_CATEGORY);
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Returns whether entries of the given type, for the given database, are
+     * to be compressed when they are not part of the replication stream.
+     * Entries for internal databases are never compressed.
+     */
+    boolean isCompressible(LogEntryType entryType, DatabaseImpl db) {
+        if (codec == null ||
+            db == null ||
+            db.isInternalDb() ||
+            !db.getLogCompression()) {
+            return false;
+        }
+        if (entryType.isUserLNType()) {
+            return compressLNs;
+        }
+        if (LogEntryType.LOG_BIN.equals(entryType) ||
+            LogEntryType.LOG_BIN_DELTA.equals(entryType)) {
+            return compressBINs;
+        }
+        if (LogEntryType.LOG_IN.equals(entryType)) {
+            return compressINs;
+        }
+        return false;
+    }
+
+    /**
+     * Compresses the item of a marshalled entry, if it is large enough and
+     * compression makes it smaller.
+     *
+     * @param header the header of the entry, which is updated to describe
+     * the compressed item if the entry is compressed.
+     *
+     * @param entryBuffer the marshalled entry, with the header written but
+     * without the post-marshalling info, positioned at zero and with its
+     * limit at the end of the entry.
+     *
+     * @return the entryBuffer if the entry was not compressed, or a new
+     * buffer with the same positioning containing the compressed entry.
+     */
+    ByteBuffer compress(LogEntryHeader header, ByteBuffer entryBuffer) {
+
+        if (header.isVariableLength()) {
+            return entryBuffer;
+        }
+
+        final int itemSize = header.getItemSize();
+        if (itemSize < minSize) {
+            return entryBuffer;
+        }
+
+        final long startTime = System.nanoTime();
+
+        final int headerSize = header.getSize();
+        final int prefixSize = 1 + LogUtils.getPackedIntLogSize(itemSize);
+        final byte[] dest = new byte[headerSize + prefixSize +
+                                     codec.maxCompressedLength(itemSize)];
+
+        final int compressedSize = codec.compress
+            (entryBuffer.array(), entryBuffer.arrayOffset() + headerSize,
+             itemSize, dest, headerSize + prefixSize);
+
+        final int storedItemSize = prefixSize + compressedSize;
+
+        nCompressionInputBytes.add(itemSize);
+
+        if (storedItemSize >= itemSize) {
+            nCompressionOutputBytes.add(itemSize);
+            compressionNanos.add(System.nanoTime() - startTime);
+            return entryBuffer;
+        }
+
+        header.setCompressed(storedItemSize);
+
+        final ByteBuffer destBuffer = ByteBuffer.wrap(dest);
+        header.writeToLog(destBuffer);
+        destBuffer.put(codec.getId());
+        LogUtils.writePackedInt(destBuffer, itemSize);
+        destBuffer.position(0);
+        destBuffer.limit(headerSize + storedItemSize);
+
+        nCompressedEntries.increment();
+        nCompressionOutputBytes.add(storedItemSize);
+        compressionNanos.add(System.nanoTime() - startTime);
+
+        return destBuffer;
+    }
+
+    /**
+     * Decompresses the item of a compressed entry.  The checksum of the
+     * entry should be validated before calling this method.
+     *
+     * @param header the header of the entry, which is updated so that
+     * getItemSize returns the size of the decompressed item.
+     *
+     * @param entryBuffer a buffer positioned at the start of the compressed
+     * item.  On return it is positioned at the end of the item.
+     *
+     * @return a new buffer positioned at the start of the decompressed item,
+     * with its limit at the end of the item.
+     */
+    ByteBuffer decompress(LogEntryHeader header, ByteBuffer entryBuffer)
+        throws ChecksumException {
+
+        assert header.isCompressed();
+
+        final long startTime = System.nanoTime();
+
+        final int itemStart = entryBuffer.position();
+        final int storedItemSize = header.getItemSize();
+
+        final int codecId = entryBuffer.get();
+        final LogCodec readCodec = LogCodec.getCodec(codecId);
+        if (readCodec == null) {
+            throw new ChecksumException
+                ("Unknown log compression codec id: " + codecId);
+        }
+
+        final int itemSize = LogUtils.readPackedInt(entryBuffer);
+        final int compressedSize =
+            storedItemSize - (entryBuffer.position() - itemStart);
+        if (itemSize < 0 || compressedSize < 0) {
+            throw new ChecksumException
+                ("Invalid compressed log entry, itemSize=" + itemSize +
+                 " storedItemSize=" + storedItemSize);
+        }
+
+        final byte[] dest = new byte[itemSize];
+        try {
+            readCodec.decompress
+                (entryBuffer.array(),
+                 entryBuffer.arrayOffset() + entryBuffer.position(),
+                 compressedSize, dest, 0, itemSize);
+        } catch (DataFormatException e) {
+            throw new ChecksumException
+                ("Invalid compressed log entry, codec=" + readCodec, e);
+        }
+
+        entryBuffer.position(itemStart + storedItemSize);
+        header.setDecompressed(itemSize);
+
+        nDecompressedEntries.increment();
+        decompressionNanos.add(System.nanoTime() - startTime);
+
+        return ByteBuffer.wrap(dest);
+    }
+}
@@ -84,6 +84,12 @@ public class LogEntryHeader {
      * that a VLSN is present.  For all versions, if the replicated bit is set
      * then a VLSN is always present. [#19476]
      *
+     * The COMPRESSED bit is set when the item has been compressed by the
+     * LogCompressor, and is only defined for log version 12+.  The item size
+     * and checksum are those of the compressed item, so the entry can be
+     * skipped and validated without decompressing it.  See LogCompressor for
+     * the layout of a compressed item.
+     *
      *                    first version of        migrated LN
      *                    a replicated LN
      *                    ---------------         -----------
@@ -127,6 +133,7 @@ public class LogEntryHeader {
     private static final byte INVISIBLE = (byte) 0x10;
     private static final byte IGNORE_INVISIBLE = ~INVISIBLE;
     private static final byte VLSN_PRESENT = (byte) 0x08;
+    private static final byte COMPRESSED = (byte) 0x04;
     /* Flags stored in version byte for logVersion 6 and below.*/
     private static final byte VERSION_6_FLAGS =
         PROVISIONAL_ALWAYS_MASK |
@@ -140,9 +147,16 @@ public class LogEntryHeader {
     private long checksumVal;   // stored in 4 bytes as an unsigned int
     private final byte entryType;
     private long prevOffset;
-    private final int itemSize;
+    private int itemSize;
     private VLSN vlsn;
 
+    /*
+     * The size of the item as stored in the log.  This differs from itemSize
+     * only after a compressed item has been decompressed, at which point
+     * itemSize is the size of the decompressed item.
+     */
+    private int storedItemSize;
+
     /*
      * Prior to log version 6, a type-specific version was stored in each
      * entry, and was packed together with the flags in a single byte.
@@ -172,6 +186,7 @@ public class LogEntryHeader {
     private boolean replicated;
     private boolean invisible;
     private boolean vlsnPresent;
+    private boolean compressed;
 
     /**
      * For reading a log entry.
@@ -229,6 +244,7 @@ public class LogEntryHeader {
         if (itemSize < 0) {
             throw new ChecksumException("Read invalid item size: " + itemSize);
         }
+        storedItemSize = itemSize;
     }
 
     /**
@@ -242,6 +258,7 @@ public class LogEntryHeader {
         entryType = logEntryType.getTypeNum();
         entryVersion = LogEntryType.LOG_VERSION;
         this.itemSize = entry.getSize();
+        storedItemSize = itemSize;
         this.provisional = provisional;
 
         assert (!((!logEntryType.isReplicationPossible()) &&
@@ -280,6 +297,7 @@ public class LogEntryHeader {
         this.entryType = entryType;
         this.entryVersion = entryVersion;
         this.itemSize = itemSize;
+        storedItemSize = itemSize;
         this.vlsn = vlsn;
         replicated = true;
         vlsnPresent = true;
@@ -297,6 +315,9 @@ public class LogEntryHeader {
         replicated = ((entryFlags & REPLICATED_MASK) != 0);
         invisible = ((entryFlags & INVISIBLE) != 0);
         vlsnPresent = ((entryFlags & VLSN_PRESENT) != 0) || replicated;
+        compressed =
+            entryVersion >= LogEntryType.LOG_VERSION_COMPRESSION &&
+            ((entryFlags & COMPRESSED) != 0);
     }
 
     /**
@@ -323,12 +344,42 @@ public class LogEntryHeader {
         return prevOffset;
     }
 
+    /**
+     * Returns the size of the item.  For a compressed entry this is the size
+     * of the compressed item in the log, until the item is decompressed, and
+     * the size of the decompressed item afterwards.
+     */
     public int getItemSize() {
         return itemSize;
     }
 
+    /**
+     * Returns the size of the entry in the log, including the header.
+     */
     public int getEntrySize() {
-        return getSize() + getItemSize();
+        return getSize() + storedItemSize;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Called by LogCompressor when an item is compressed for writing, before
+     * the header is written.
+     */
+    void setCompressed(int compressedItemSize) {
+        compressed = true;
+        itemSize = compressedItemSize;
+        storedItemSize = compressedItemSize;
+    }
+
+    /**
+     * Called by LogCompressor after an item is decompressed for reading, so
+     * that getItemSize returns the size of the item that is deserialized.
+     */
+    void setDecompressed(int decompressedItemSize) {
+        itemSize = decompressedItemSize;
     }
 
     public VLSN getVLSN() {
@@ -414,6 +465,9 @@ public class LogEntryHeader {
         if (vlsnPresent) {
             flags |= VLSN_PRESENT;
         }
+        if (compressed) {
+            flags |= COMPRESSED;
+        }
         entryBuffer.put(flags);
 
         /*
@@ -520,6 +574,10 @@ public class LogEntryHeader {
             sb.append(" isInvisible=\"1\"");
         }
 
+        if (isCompressed()) {
+            sb.append(" isCompressed=\"1\"");
+        }
+
         sb.append(" prev=\"0x").append(Long.toHexString(prevOffset));
         if (verbose) {
             sb.append("\" size=\"").append(itemSize);
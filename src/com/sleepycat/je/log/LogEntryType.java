@@ -194,8 +194,21 @@ public class LogEntryType {
      * embedded records.
      *
      * Added LOG_IMMUTABLE_FILE entry type.
+     *
+     * Version 12
+     * ----------
+     *
+     * Added the COMPRESSED entry header flag.  The item of a compressed entry
+     * is stored in the LogCompressor format.  Replicated entries are never
+     * compressed, so the replicated format is unchanged.
+     */
+    public static final int LOG_VERSION = 12;
+
+    /**
+     * The earliest log version in which the COMPRESSED entry header flag may
+     * be set.
      */
-    public static final int LOG_VERSION = 11;
+    public static final int LOG_VERSION_COMPRESSION = 12;
 
     public static final int FIRST_LOG_VERSION = 1;
 
@@ -213,13 +226,14 @@ public class LogEntryType {
      * understood by an earlier software version.  This field is needed to
      * account for cases where log entry format changes only apply to
      * non-replicable entries, or only to the local, not replicated, form of
-     * replicable entries, the as was the case for log versions 9, 10, and 11.
+     * replicable entries, the as was the case for log versions 9, 10, 11 and
+     * 12.
      */
     /*
      * TODO: Modify the requirements for writing replicable log entries in the
      * the previous format to account for the fact that there is a gap in the
      * numbering, since no replicable entry classes had format changes to their
-     * replicable output format for log versions 9, 10, or 11.  Make this
+     * replicable output format for log versions 9, 10, 11 or 12.  Make this
      * change the next time the replicable format of a replicable log entry is
      * modified.
      */
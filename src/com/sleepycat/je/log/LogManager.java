@@ -87,7 +87,12 @@ import com.sleepycat.je.utilint.VLSN;
  * The writing of data to the log is serialized via the logWriteMutex.
  * Typically space is allocated under the LWL. The client computes
  * the checksum and copies the data into the log buffer (not holding
- * the LWL).
+ * the LWL or the log buffer latch).
+ *
+ * The LWL is acquired once per logged entry. Only the work that must be done
+ * in log order is done while holding it: LSN assignment, utilization counting
+ * (including the obsolete info passed in LogParams), VLSN assignment and
+ * reserving a segment in the current log buffer.
  */
 public class LogManager {
 
@@ -126,6 +131,9 @@ public class LogManager {
     /* The location of the next entry to be written to the log. */
     private final LSNStat endOfLog;
 
+    /* Compresses and decompresses log entry items. */
+    private final LogCompressor compressor;
+
     /*
      * Used to determine if we switched log buffers. For
      * NOSYNC durability, if we switched log buffers,
@@ -185,6 +193,7 @@ public class LogManager {
         nRepeatFaultReads = new LongStat(stats, LOGMGR_REPEAT_FAULT_READS);
         nTempBufferWrites = new LongStat(stats, LOGMGR_TEMP_BUFFER_WRITES);
         endOfLog = new LSNStat(stats, LOGMGR_END_OF_LOG);
+        compressor = new LogCompressor(configManager, stats);
     }
 
     public boolean getChecksumOnRead() {
@@ -344,6 +353,12 @@ public class LogManager {
                 item.header = new LogEntryHeader(
                     logEntry, params.provisional, params.repContext);
                 item.buffer = marshallIntoBuffer(item.header, logEntry);
+
+                if (compressor.isCompressible(logEntry.getLogType(),
+                                              params.nodeDb)) {
+                    item.buffer =
+                        compressor.compress(item.header, item.buffer);
+                }
             }
 
             logItem(item, params);
@@ -360,9 +375,12 @@ public class LogManager {
                  * This is done for NOSYNC durability so those types
                  * of transactions won't fill all the log buffers thus
                  * forcing to have to write the buffers under the
-                 * log write latch.
+                 * log write latch. If there is a writer thread, it
+                 * writes the buffers instead.
                  */
-                logBufferPool.writeDirty(false);
+                if (!logBufferPool.scheduleWriteDirty()) {
+                    logBufferPool.writeDirty(false);
+                }
             }
             TestHookExecute.doHookIfSet(flushHook);
 
@@ -449,9 +467,6 @@ public class LogManager {
                 item.buffer, lwi.fileOffset, lwi.vlsn);
             lwi.lbs.put(item.buffer);
         }
-
-        /* Update obsolete info under the LWL */
-        updateObsolete(params, tracker);
     }
 
     /**
@@ -479,8 +494,16 @@ public class LogManager {
             envImpl.checkIfInvalid();
 
             try {
-                return serialLogWork(
+                final LogWriteInfo lwi = serialLogWork(
                     item, params, forceNewLogFile, flushRequired, tracker);
+
+                /*
+                 * Update obsolete info while we hold the LWL, rather than
+                 * acquiring it a second time after copying the entry.
+                 */
+                updateObsoleteLatched(params, tracker);
+
+                return lwi;
             } catch (EnvironmentFailureException e) {
 
                 /*
@@ -531,7 +554,6 @@ public class LogManager {
         UtilizationTracker tracker)
         throws IOException {
 
-        boolean usedTemporaryBuffer = false;
         int entrySize;
         long fileOffset;
         LogBufferSegment useBuffer;
@@ -598,7 +620,6 @@ public class LogManager {
         }
 
         boolean flippedFile = fileManager.bumpLsn(entrySize);
-        usedTemporaryBuffer = false;
 
         final long currentLsn = fileManager.getLastUsedLsn();
 
@@ -677,7 +698,15 @@ public class LogManager {
         try {
             useBuffer = lastLogBuffer.allocate(entrySize);
 
-            if (useBuffer == null) {
+            if (useBuffer != null) {
+
+                /*
+                 * Set the lsn for the log buffer before giving up the lwl,
+                 * while we hold the buffer latch for the allocation. Readers
+                 * will have to wait until pincount is zero to access data.
+                 */
+                lastLogBuffer.registerLsnLatched(currentLsn);
+            } else {
                 /* Add checksum, prev offset, and VLSN to the entry. */
                 item.buffer = item.header.addPostMarshallingInfo(
                     item.buffer, fileOffset, vlsn);
@@ -686,7 +715,6 @@ public class LogManager {
                     new LogBuffer(item.buffer, currentLsn),
                     flushRequired);
 
-                usedTemporaryBuffer = true;
                 assert lastLogBuffer.getDataBuffer().position() == 0;
                 nTempBufferWrites.increment();
             }
@@ -694,14 +722,6 @@ public class LogManager {
             lastLogBuffer.release();
         }
 
-        /*
-         * Set the lsn for the log buffer before giving up the lwl.
-         * Readers will have to wait until pincount is zero to access data
-         */
-        if (!usedTemporaryBuffer) {
-            lastLogBuffer.registerLsn(currentLsn);
-        }
-
         /*
          * If the txn is not null, the first entry is an LN. Update the txn
          * with info about the latest LSN. Note that this has to happen
@@ -717,6 +737,18 @@ public class LogManager {
                 null : new LogWriteInfo(useBuffer, vlsn, fileOffset));
     }
 
+    /**
+     * Decompresses the item of a compressed entry that was read by a
+     * FileReader.
+     *
+     * @see LogCompressor#decompress
+     */
+    ByteBuffer decompress(LogEntryHeader header, ByteBuffer entryBuffer)
+        throws ChecksumException {
+
+        return compressor.decompress(header, entryBuffer);
+    }
+
     /**
      * Serialize a loggable object into this buffer.
      */
@@ -978,6 +1010,10 @@ public class LogManager {
                 validator.validate(header.getChecksum(), lsn);
             }
 
+            if (header.isCompressed()) {
+                entryBuffer = compressor.decompress(header, entryBuffer);
+            }
+
             /*
              * If invisibleReadAllowed == false, we should not be fetching
              * an invisible log entry.
@@ -1218,6 +1254,14 @@ public class LogManager {
         logBufferPool.writeDirty(flushRequired);
     }
 
+    /**
+     * Stops the log writer thread, if any. Called when the environment is
+     * closed, before the final flush.
+     */
+    public void shutdownWriter() {
+        logBufferPool.shutdownWriter();
+    }
+
     public StatGroup loadStats(StatsConfig config)
         throws DatabaseException {
 
@@ -1275,21 +1319,34 @@ public class LogManager {
         LogParams params,
         UtilizationTracker tracker) {
 
+        if (params.packedObsoleteInfo == null &&
+            params.obsoleteWriteLockInfo == null) {
+            return;
+        }
+
         synchronized (logWriteMutex) {
+            updateObsoleteLatched(params, tracker);
+        }
+    }
 
-            /* Count other obsolete info under the log write latch. */
-            if (params.packedObsoleteInfo != null) {
-                params.packedObsoleteInfo.countObsoleteInfo(
-                    tracker, params.nodeDb);
-            }
+    /**
+     * Count other obsolete info. Must be called under the log write latch.
+     */
+    private void updateObsoleteLatched(
+        LogParams params,
+        UtilizationTracker tracker) {
 
-            if (params.obsoleteWriteLockInfo != null) {
-                for (WriteLockInfo info : params.obsoleteWriteLockInfo) {
-                    tracker.countObsoleteNode(info.getAbortLsn(),
-                                              null /*type*/,
-                                              info.getAbortLogSize(),
-                                              info.getDb());
-                }
+        if (params.packedObsoleteInfo != null) {
+            params.packedObsoleteInfo.countObsoleteInfo(
+                tracker, params.nodeDb);
+        }
+
+        if (params.obsoleteWriteLockInfo != null) {
+            for (WriteLockInfo info : params.obsoleteWriteLockInfo) {
+                tracker.countObsoleteNode(info.getAbortLsn(),
+                                          null /*type*/,
+                                          info.getAbortLogSize(),
+                                          info.getDb());
             }
         }
     }
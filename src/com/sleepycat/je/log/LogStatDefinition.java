@@ -165,6 +165,29 @@ public class LogStatDefinition {
                            "Number of write operations which would overflow " +
                            "the Write Queue and could not be queued.");
 
+    public static final StatDefinition FILEMGR_CONCURRENT_READS =
+        new StatDefinition("nConcurrentReads",
+                           "Number of positional file reads which were " +
+                           "started while at least one other positional " +
+                           "read was in progress.");
+
+    public static final StatDefinition FILEMGR_MAX_CONCURRENT_READS =
+        new StatDefinition("maxConcurrentReads",
+                           "Maximum number of positional file reads which " +
+                           "were in progress at the same time.");
+
+    public static final StatDefinition FILEMGR_MAPPED_READS =
+        new StatDefinition("nMappedReads",
+                           "Number of log entry fetches which were " +
+                           "satisfied by copying from a memory mapped log " +
+                           "file rather than reading the file.");
+
+    public static final StatDefinition FILEMGR_MAPPED_FILES =
+        new StatDefinition("nMappedFiles",
+                           "Number of files in the file cache which are " +
+                           "currently memory mapped.",
+                           StatType.CUMULATIVE);
+
     /* The following stat definitions are used in FSyncManager. */
     public static final StatDefinition FSYNCMGR_FSYNCS =
         new StatDefinition("nFSyncs",
@@ -218,6 +241,37 @@ public class LogStatDefinition {
                            "to the group commit time interval " +
                            "being exceeded.");
 
+    public static final StatDefinition GRPCMGR_GROUP_COMMIT_WAIT_TIME =
+        new StatDefinition("groupCommitWaitTime",
+                           "Total time in microseconds that group commit " +
+                           "leaders waited for more requests to join their " +
+                           "group before issuing the write or fsync.");
+
+    public static final StatDefinition GRPCMGR_GROUP_SIZE_1 =
+        new StatDefinition("nGroupCommitSize1",
+                           "Number of group commit writes or fsyncs that " +
+                           "were issued on behalf of a single request.");
+
+    public static final StatDefinition GRPCMGR_GROUP_SIZE_2_3 =
+        new StatDefinition("nGroupCommitSize2To3",
+                           "Number of group commit writes or fsyncs that " +
+                           "were issued on behalf of 2 to 3 requests.");
+
+    public static final StatDefinition GRPCMGR_GROUP_SIZE_4_7 =
+        new StatDefinition("nGroupCommitSize4To7",
+                           "Number of group commit writes or fsyncs that " +
+                           "were issued on behalf of 4 to 7 requests.");
+
+    public static final StatDefinition GRPCMGR_GROUP_SIZE_8_15 =
+        new StatDefinition("nGroupCommitSize8To15",
+                           "Number of group commit writes or fsyncs that " +
+                           "were issued on behalf of 8 to 15 requests.");
+
+    public static final StatDefinition GRPCMGR_GROUP_SIZE_16_PLUS =
+        new StatDefinition("nGroupCommitSize16Plus",
+                           "Number of group commit writes or fsyncs that " +
+                           "were issued on behalf of 16 or more requests.");
+
     /* The following stat definitions are used in LogManager. */
     public static final StatDefinition LOGMGR_REPEAT_FAULT_READS =
         new StatDefinition("nRepeatFaultReads",
@@ -240,6 +294,38 @@ public class LogStatDefinition {
                            "the log.",
                            StatType.CUMULATIVE);
 
+    public static final StatDefinition LOGMGR_COMPRESSED_ENTRIES =
+        new StatDefinition("nCompressedLogEntries",
+                           "Number of log entries written in compressed " +
+                           "form.");
+
+    public static final StatDefinition LOGMGR_COMPRESSION_INPUT_BYTES =
+        new StatDefinition("nLogCompressionInputBytes",
+                           "Number of log entry item bytes that were " +
+                           "compressed, including entries which were " +
+                           "written uncompressed because compression did " +
+                           "not reduce their size.");
+
+    public static final StatDefinition LOGMGR_COMPRESSION_OUTPUT_BYTES =
+        new StatDefinition("nLogCompressionOutputBytes",
+                           "Number of log entry item bytes written for the " +
+                           "entries counted by nLogCompressionInputBytes.");
+
+    public static final StatDefinition LOGMGR_COMPRESSION_NANOS =
+        new StatDefinition("logCompressionNanos",
+                           "Time spent compressing log entries, in " +
+                           "nanoseconds.");
+
+    public static final StatDefinition LOGMGR_DECOMPRESSED_ENTRIES =
+        new StatDefinition("nDecompressedLogEntries",
+                           "Number of compressed log entries which were " +
+                           "decompressed when read.");
+
+    public static final StatDefinition LOGMGR_DECOMPRESSION_NANOS =
+        new StatDefinition("logDecompressionNanos",
+                           "Time spent decompressing log entries, in " +
+                           "nanoseconds.");
+
     public static final StatDefinition LBFP_NO_FREE_BUFFER =
             new StatDefinition("nNoFreeBuffer",
                                "Number of requests to get a free buffer "+
@@ -266,4 +352,9 @@ public class LogStatDefinition {
                            "Total memory currently consumed by log buffers, " +
                            "in bytes.",
                            StatType.CUMULATIVE);
+
+    public static final StatDefinition LBFP_WRITER_THREAD_WRITES =
+        new StatDefinition("nWriterThreadWrites",
+                           "Number of log buffers written by the log " +
+                           "writer thread.");
 }
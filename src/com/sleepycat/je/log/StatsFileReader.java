@@ -111,6 +111,15 @@ public class StatsFileReader extends DumpFileReader {
         }
     }
 
+    /**
+     * Stats are collected for the entry sizes in the log, so compressed
+     * entries are not decompressed.
+     */
+    @Override
+    protected boolean decompressTargetEntries() {
+        return false;
+    }
+
     /**
      * This reader collects stats about the log entry.
      */
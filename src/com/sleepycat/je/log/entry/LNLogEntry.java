@@ -832,6 +832,15 @@ public class LNLogEntry<T extends LN> extends BaseReplicableEntry<T> {
         return key;
     }
 
+    /**
+     * Returns the key as it was logged, or null if the entry has an old format
+     * key that postFetchInit may need to convert. Unlike getKey, may be called
+     * before postFetchInit and does not change the entry.
+     */
+    public byte[] getLoggedKey() {
+        return (dupStatus == DupStatus.NEED_CONVERSION) ? null : key;
+    }
+
     public byte[] getData() {
         return ln.getData();
     }
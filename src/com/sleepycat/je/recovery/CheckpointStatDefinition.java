@@ -78,6 +78,18 @@ public class CheckpointStatDefinition {
                            "Accumulated number of Delta INs flushed to the " +
                            "log.");
 
+    public static final StatDefinition CKPT_PACED_FLUSH_SLEEPS =
+        new StatDefinition("nPacedFlushSleeps",
+                           "Number of times the checkpointer slept to " +
+                           "spread the flushing of dirty INs over the " +
+                           "checkpoint interval.");
+
+    public static final StatDefinition CKPT_PACED_FLUSH_SLEEP_TIME =
+        new StatDefinition("pacedFlushSleepTime",
+                           "Accumulated time in milliseconds that the " +
+                           "checkpointer slept to spread the flushing of " +
+                           "dirty INs over the checkpoint interval.");
+
     public static final StatDefinition CKPT_LAST_CKPT_INTERVAL =
         new StatDefinition("lastCheckpointInterval",
                            "Byte length from last checkpoint start to the " +
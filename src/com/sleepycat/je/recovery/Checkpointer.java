@@ -51,6 +51,8 @@ import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_LAST_CKPTI
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_LAST_CKPT_END;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_LAST_CKPT_INTERVAL;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_LAST_CKPT_START;
+import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEPS;
+import static com.sleepycat.je.recovery.CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEP_TIME;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.GROUP_DESC;
 import static com.sleepycat.je.recovery.CheckpointStatDefinition.GROUP_NAME;
 
@@ -58,6 +60,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import com.sleepycat.je.CacheMode;
@@ -65,6 +74,7 @@ import com.sleepycat.je.CheckpointConfig;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.EnvironmentMutableConfig;
 import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.ThreadInterruptedException;
 import com.sleepycat.je.cleaner.Cleaner;
 import com.sleepycat.je.cleaner.FileSelector.CheckpointStartCleanerState;
 import com.sleepycat.je.config.EnvironmentParams;
@@ -93,6 +103,7 @@ import com.sleepycat.je.utilint.LSNStat;
 import com.sleepycat.je.utilint.LoggerUtils;
 import com.sleepycat.je.utilint.LongStat;
 import com.sleepycat.je.utilint.StatGroup;
+import com.sleepycat.je.utilint.StoppableThreadFactory;
 import com.sleepycat.je.utilint.TestHook;
 import com.sleepycat.je.utilint.TestHookExecute;
 import com.sleepycat.je.utilint.VLSN;
@@ -390,6 +401,21 @@ import com.sleepycat.je.utilint.VLSN;
  * we do not use special rules when an IN is evicted.  Since concurrent
  * eviction and checkpointing are supported in JE 4.1, the above rules apply to
  * EVICT_BIN as well as all other types of eviction.
+ *
+ * Paced Flushing
+ * --------------
+ * When je.checkpointer.flushSpreadPercent is non-zero, a checkpoint started
+ * by the daemon does not flush the dirty set as fast as possible.  Instead,
+ * after each IN is flushed, the FlushPacer compares the fraction of the dirty
+ * map that has been flushed (DirtyINMap.getFlushProgress) with the fraction
+ * of the flush budget that has been consumed, where the budget is the given
+ * percentage of the log size interval, or of the time since the prior
+ * checkpoint, whichever is consumed first.  If flushing is ahead, the
+ * checkpointer sleeps.  This trickles dirty INs out at the rate the log is
+ * growing, rather than in a burst at the start of each interval.  The rules
+ * above are unaffected, since they do not depend on how long it takes to
+ * flush the dirty set; a longer checkpoint only means that more of the log
+ * follows CkptStart and must be processed if we crash before CkptEnd.
  */
 public class Checkpointer extends DaemonThread implements EnvConfigObserver {
 
@@ -420,6 +446,28 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
     /* Configured to true to minimize checkpoint duration. */
     private boolean highPriority;
 
+    /*
+     * Percentage of the checkpoint interval over which daemon checkpoints
+     * spread IN flushing, or zero to flush as quickly as possible.
+     */
+    private int flushSpreadPercent;
+
+    /* Upper bound on a single pacing sleep, so that log growth is noticed. */
+    private static final long MAX_PACING_SLEEP_MS = 100;
+
+    /*
+     * Threads used, in addition to the checkpointer thread, to flush the
+     * nodes at each level concurrently, or null if
+     * je.checkpointer.flushThreads is one.
+     */
+    private final ThreadPoolExecutor flushPool;
+
+    /* A level must have this many nodes per thread to flush in parallel. */
+    private static final int MIN_INS_PER_FLUSH_THREAD = 16;
+
+    /* Idle time before a flush pool thread exits. */
+    private static final long FLUSH_THREAD_KEEP_ALIVE_MS = 60 * 1000;
+
     private long nCheckpoints;
     private long lastCheckpointStart;
     private long lastCheckpointEnd;
@@ -451,6 +499,21 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
 
         checkpointDirtyMap = new DirtyINMap(envImpl);
 
+        final int nFlushThreads = envImpl.getConfigManager().getInt
+            (EnvironmentParams.CHECKPOINTER_FLUSH_THREADS);
+
+        if (nFlushThreads > 1) {
+            flushPool = new ThreadPoolExecutor(
+                nFlushThreads - 1, nFlushThreads - 1,
+                FLUSH_THREAD_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new StoppableThreadFactory(
+                    envImpl, "JECheckpointFlusher", logger));
+            flushPool.allowCoreThreadTimeOut(true);
+        } else {
+            flushPool = null;
+        }
+
         /* Initialize mutable properties and register for notifications. */
         envConfigUpdate(envImpl.getConfigManager(), null);
         envImpl.addConfigObserver(this);
@@ -463,6 +526,8 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
                                 EnvironmentMutableConfig ignore) {
         highPriority = cm.getBoolean
             (EnvironmentParams.CHECKPOINTER_HIGH_PRIORITY);
+        flushSpreadPercent = cm.getInt
+            (EnvironmentParams.CHECKPOINTER_FLUSH_SPREAD_PERCENT);
     }
 
     /**
@@ -556,17 +621,34 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
         new LongStat(stats, CKPT_FULL_IN_FLUSH, flushStats.nFullINFlush);
         new LongStat(stats, CKPT_FULL_BIN_FLUSH, flushStats.nFullBINFlush);
         new LongStat(stats, CKPT_DELTA_IN_FLUSH, flushStats.nDeltaINFlush);
+        new LongStat(stats, CKPT_PACED_FLUSH_SLEEPS,
+                     flushStats.nPacedFlushSleeps);
+        new LongStat(stats, CKPT_PACED_FLUSH_SLEEP_TIME,
+                     flushStats.pacedFlushSleepTime);
 
         if (config.getClear()) {
             nCheckpoints = 0;
             flushStats.nFullINFlush = 0;
             flushStats.nFullBINFlush = 0;
             flushStats.nDeltaINFlush = 0;
+            flushStats.nPacedFlushSleeps = 0;
+            flushStats.pacedFlushSleepTime = 0;
         }
 
         return stats;
     }
 
+    /**
+     * Stops the daemon thread and the flush pool threads.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (flushPool != null) {
+            flushPool.shutdown();
+        }
+    }
+
     public synchronized void clearEnv() {
         envImpl = null;
     }
@@ -590,7 +672,7 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
             return;
         }
 
-        doCheckpoint(CheckpointConfig.DEFAULT, "daemon");
+        doCheckpoint(CheckpointConfig.DEFAULT, "daemon", true /*paced*/);
     }
 
     /**
@@ -712,6 +794,16 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
      */
     public synchronized void doCheckpoint(CheckpointConfig config,
                                           String invokingSource) {
+        doCheckpoint(config, invokingSource, false /*paced*/);
+    }
+
+    /**
+     * @param paced is true if IN flushing may be spread over the checkpoint
+     * interval, according to je.checkpointer.flushSpreadPercent.
+     */
+    private synchronized void doCheckpoint(CheckpointConfig config,
+                                           String invokingSource,
+                                           boolean paced) {
         if (envImpl.isReadOnly()) {
             return;
         }
@@ -748,6 +840,14 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
 
         final boolean flushExtraLevel = !cleanerState.isEmpty();
 
+        /*
+         * The time since the prior checkpoint started is used to bound the
+         * duration of a paced flush, so it must be computed before resetting
+         * lastCheckpointMillis.
+         */
+        final long prevIntervalMillis = (lastCheckpointMillis == 0) ?
+            0 : (System.currentTimeMillis() - lastCheckpointMillis);
+
         lastCheckpointMillis = System.currentTimeMillis();
         flushStats.resetPerRunCounters();
 
@@ -819,9 +919,13 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
             TestHookExecute.doHookIfSet(beforeFlushHook);
 
             /* Flush IN nodes. */
+            final FlushPacer pacer = paced ?
+                createFlushPacer(checkpointStart, prevIntervalMillis) :
+                null;
+
             flushDirtyNodes(
                 envImpl, checkpointDirtyMap, checkpointStart, highPriority,
-                flushStats);
+                flushStats, pacer, flushPool);
 
             if (DirtyINMap.DIRTY_SET_DEBUG_TRACE) {
                 LoggerUtils.logMsg(
@@ -956,7 +1060,8 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
                 /* Write all dirtyINs out.*/
                 flushDirtyNodes(
                     envImpl, dirtyMap, DbLsn.NULL_LSN  /*ckptStart*/,
-                    false /*highPriority*/, fstats);
+                    false /*highPriority*/, fstats, null /*pacer*/,
+                    null /*flushPool*/);
 
                 /* Make changes durable. [#15254] */
                 if (flushLog) {
@@ -992,92 +1097,252 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
      * Note that all but the top level INs are logged provisionally. That's
      * because we don't need to process lower INs during recovery because the
      * higher INs will end up pointing at them.
+     *
+     * If pacer is non-null, it is called after each IN is flushed and may
+     * sleep to spread the flushing over the checkpoint interval.
+     *
+     * If flushPool is non-null and flushing is not paced, the nodes at each
+     * level are flushed concurrently using the pool's threads along with the
+     * calling thread.  Levels are still flushed in ascending order: a level
+     * is not started until every node at the prior level has been flushed.
      */
     private static void flushDirtyNodes(EnvironmentImpl envImpl,
                                         DirtyINMap dirtyMap,
                                         long checkpointStart,
                                         boolean highPriority,
-                                        FlushStats fstats) {
+                                        FlushStats fstats,
+                                        FlushPacer pacer,
+                                        ThreadPoolExecutor flushPool) {
+
+        while (dirtyMap.getNumLevels() > 0) {
+
+            /*
+             * Work on one level's worth of nodes in ascending level order.
+             */
+            final Integer currentLevel = dirtyMap.getLowestLevelSet();
+            final int currentLevelVal = currentLevel;
+
+            /*
+             * Flush MapLNs just prior to flushing the first level of the
+             * mapping tree.  Only flush a database if it has not already
+             * been flushed since checkpoint start.
+             */
+            if (currentLevelVal == IN.DBMAP_LEVEL) {
+                dirtyMap.flushMapLNs(checkpointStart);
+            }
+
+            /*
+             * Flush the nodes at the current level, using multiple threads
+             * only when there are enough nodes to make it worthwhile.
+             */
+            final int nThreads = (flushPool == null || pacer != null) ?
+                1 :
+                Math.min(flushPool.getMaximumPoolSize() + 1,
+                         dirtyMap.getNumEntries(currentLevel) /
+                         MIN_INS_PER_FLUSH_THREAD);
+
+            if (nThreads > 1) {
+                flushLevelInParallel(
+                    envImpl, dirtyMap, currentLevel, highPriority, fstats,
+                    flushPool, nThreads);
+            } else {
+                flushLevel(
+                    envImpl, dirtyMap, currentLevel, highPriority, fstats,
+                    pacer, null /*abort*/);
+            }
+
+            /* We're done with this level. */
+            dirtyMap.removeLevel(currentLevel);
+        }
+
+        /*
+         * Do not flush FileSummaryLNs/MapLNs (do not call
+         * UtilizationProfile.flushLocalTracker) here because that flushing is
+         * already done by the checkpoint.
+         */
+    }
+
+    /**
+     * Removes and flushes nodes at the given level until none are left, or
+     * until abort is set by another thread flushing the same level.
+     */
+    private static void flushLevel(EnvironmentImpl envImpl,
+                                   DirtyINMap dirtyMap,
+                                   Integer currentLevel,
+                                   boolean highPriority,
+                                   FlushStats fstats,
+                                   FlushPacer pacer,
+                                   AtomicBoolean abort) {
 
         final DbTree dbTree = envImpl.getDbTree();
-        final Map<DatabaseId, DatabaseImpl> dbCache = new HashMap<DatabaseId, DatabaseImpl>();
+        final Map<DatabaseId, DatabaseImpl> dbCache = new HashMap<>();
+        final int currentLevelVal = currentLevel;
 
         try {
-            while (dirtyMap.getNumLevels() > 0) {
+            while (abort == null || !abort.get()) {
+                final CheckpointReference targetRef =
+                    dirtyMap.removeNextNode(currentLevel);
 
-                /*
-                 * Work on one level's worth of nodes in ascending level order.
-                 */
-                final Integer currentLevel = dirtyMap.getLowestLevelSet();
-                final int currentLevelVal = currentLevel;
+                if (targetRef == null) {
+                    break;
+                }
 
                 /*
-                 * Flush MapLNs just prior to flushing the first level of the
-                 * mapping tree.  Only flush a database if it has not already
-                 * been flushed since checkpoint start.
+                 * Check to make sure the DB was not deleted after putting
+                 * it in the dirty map, and prevent the DB from being
+                 * deleted while we're working with it.
                  */
-                if (currentLevelVal == IN.DBMAP_LEVEL) {
-                    dirtyMap.flushMapLNs(checkpointStart);
-                }
+                final DatabaseImpl db = dbTree.getDb(
+                    targetRef.dbId, -1 /*lockTimeout*/, dbCache);
 
-                /* Flush the nodes at the current level. */
-                while (true) {
-                    final CheckpointReference targetRef =
-                        dirtyMap.removeNextNode(currentLevel);
+                if (db != null && !db.isDeleted()) {
 
-                    if (targetRef == null) {
-                        break;
-                    }
+                    /* Flush if we're below maxFlushLevel. */
+                    final int maxFlushLevel =
+                        dirtyMap.getHighestFlushLevel(db);
 
-                    /*
-                     * Check to make sure the DB was not deleted after putting
-                     * it in the dirty map, and prevent the DB from being
-                     * deleted while we're working with it.
-                     */
-                    final DatabaseImpl db = dbTree.getDb(
-                        targetRef.dbId, -1 /*lockTimeout*/, dbCache);
-
-                    if (db != null && !db.isDeleted()) {
-
-                        /* Flush if we're below maxFlushLevel. */
-                        final int maxFlushLevel =
-                            dirtyMap.getHighestFlushLevel(db);
+                    if (currentLevelVal <= maxFlushLevel) {
 
-                        if (currentLevelVal <= maxFlushLevel) {
+                        flushIN(
+                            db, targetRef, dirtyMap, maxFlushLevel,
+                            highPriority, fstats, true /*allowLogSubtree*/);
 
-                            flushIN(
-                                db, targetRef, dirtyMap, maxFlushLevel,
-                                highPriority, fstats, true /*allowLogSubtree*/);
+                        /*
+                         * Sleep if background read/write limit was
+                         * exceeded.
+                         */
+                        envImpl.sleepAfterBackgroundIO();
 
-                            /*
-                             * Sleep if background read/write limit was
-                             * exceeded.
-                             */
-                            envImpl.sleepAfterBackgroundIO();
+                        /* Sleep if flushing is ahead of log growth. */
+                        if (pacer != null) {
+                            pacer.pace(dirtyMap, dbCache);
                         }
                     }
-
-                    /* 
-                     * If the environment was invalidated by other activity,
-                     * get out of this loop, and re-throw the invalidating
-                     * exception to indicate that the checkpoint did not
-                     * succeed.
-                     */
-                    envImpl.checkIfInvalid();
                 }
 
-                /* We're done with this level. */
-                dirtyMap.removeLevel(currentLevel);
+                /* 
+                 * If the environment was invalidated by other activity,
+                 * get out of this loop, and re-throw the invalidating
+                 * exception to indicate that the checkpoint did not
+                 * succeed.
+                 */
+                envImpl.checkIfInvalid();
             }
         } finally {
             dbTree.releaseDbs(dbCache);
         }
+    }
 
-        /*
-         * Do not flush FileSummaryLNs/MapLNs (do not call
-         * UtilizationProfile.flushLocalTracker) here because that flushing is
-         * already done by the checkpoint.
-         */
+    /**
+     * Flushes the nodes at the given level using nThreads threads: the
+     * calling thread and (nThreads - 1) threads from the flushPool.
+     *
+     * This is safe because flushIN coordinates with other flushes of the
+     * same subtree via the parent latch, exactly as it coordinates with
+     * concurrent eviction and splits. A thread that flushes a child adds the
+     * parent to the dirty map, logs the child and updates the parent slot
+     * while holding the parent latch, so the parent is either logged after
+     * the slot is updated or is added to the dirty map again and logged when
+     * the next level is flushed.
+     *
+     * Each thread accumulates its own FlushStats, which are added to fstats
+     * when the thread is finished. If any thread fails, the others stop
+     * after their current node and the first failure is rethrown, but only
+     * after all threads are finished with the dirty map.
+     */
+    private static void flushLevelInParallel(final EnvironmentImpl envImpl,
+                                             final DirtyINMap dirtyMap,
+                                             final Integer currentLevel,
+                                             final boolean highPriority,
+                                             final FlushStats fstats,
+                                             final ThreadPoolExecutor pool,
+                                             final int nThreads) {
+
+        final AtomicBoolean abort = new AtomicBoolean(false);
+        final List<Future<?>> futures = new ArrayList<>(nThreads - 1);
+
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                flushLevelTask(
+                    envImpl, dirtyMap, currentLevel, highPriority, fstats,
+                    abort);
+            }
+        };
+
+        try {
+            for (int i = 1; i < nThreads; i += 1) {
+                futures.add(pool.submit(task));
+            }
+        } catch (RejectedExecutionException e) {
+            /* The pool is shut down; continue with the threads we have. */
+        }
+
+        Throwable failure = null;
+        InterruptedException interrupt = null;
+
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    /* Stop the other threads, but wait for them to finish. */
+                    abort.set(true);
+                    interrupt = e;
+                }
+            }
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            /* Tasks are Runnables, so the failure is unchecked. */
+            throw (RuntimeException) failure;
+        }
+        if (interrupt != null) {
+            throw new ThreadInterruptedException(envImpl, interrupt);
+        }
+    }
+
+    /**
+     * The body of each thread used by flushLevelInParallel.
+     */
+    private static void flushLevelTask(EnvironmentImpl envImpl,
+                                       DirtyINMap dirtyMap,
+                                       Integer currentLevel,
+                                       boolean highPriority,
+                                       FlushStats fstats,
+                                       AtomicBoolean abort) {
+
+        final FlushStats threadStats = new FlushStats();
+        boolean success = false;
+
+        try {
+            flushLevel(
+                envImpl, dirtyMap, currentLevel, highPriority, threadStats,
+                null /*pacer*/, abort);
+            success = true;
+        } finally {
+            if (!success) {
+                abort.set(true);
+            }
+            synchronized (fstats) {
+                fstats.add(threadStats);
+            }
+        }
     }
 
     /**
@@ -1625,6 +1890,131 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
         }
     }
 
+    /**
+     * Returns a pacer for flushing the dirty INs of a daemon checkpoint, or
+     * null if flushing should not be paced.  Pacing requires a bound on its
+     * duration: when the prior checkpoint time is unknown (the first
+     * checkpoint after opening the environment), flushing is not paced.
+     *
+     * @param prevIntervalMillis the time between the start of the prior
+     * checkpoint and the start of this one, or zero if unknown.
+     */
+    private FlushPacer createFlushPacer(long checkpointStart,
+                                        long prevIntervalMillis) {
+
+        final int percent = flushSpreadPercent;
+
+        if (percent == 0 || highPriority) {
+            return null;
+        }
+
+        final long timeInterval =
+            (this.timeInterval != 0) ? this.timeInterval : prevIntervalMillis;
+
+        final long maxMillis = (timeInterval * percent) / 100;
+
+        if (maxMillis <= 0) {
+            return null;
+        }
+
+        final long maxBytes = (logSizeBytesInterval * percent) / 100;
+
+        return new FlushPacer(checkpointStart, maxBytes, maxMillis);
+    }
+
+    /**
+     * Spreads the flushing of a checkpoint's dirty INs over part of the
+     * checkpoint interval.  After each IN is flushed, the fraction of the
+     * dirty map that has been flushed is compared to the fraction of the
+     * flush budget that has been consumed, and the checkpointer sleeps while
+     * flushing is ahead.  The budget is consumed either by log growth since
+     * CkptStart, which ties the flush rate to the application's write rate,
+     * or by elapsed time, which guarantees that the checkpoint completes
+     * when the application stops writing.
+     */
+    private class FlushPacer {
+
+        private final long startLsn;
+        private final long startMillis;
+        private final long maxBytes;
+        private final long maxMillis;
+
+        /**
+         * @param maxBytes log growth after which flushing should be complete,
+         * or zero to pace by time only.
+         *
+         * @param maxMillis elapsed time after which flushing should be
+         * complete, must be greater than zero.
+         */
+        FlushPacer(long startLsn, long maxBytes, long maxMillis) {
+            this.startLsn = startLsn;
+            this.maxBytes = maxBytes;
+            this.maxMillis = maxMillis;
+            startMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Sleeps until the consumed budget catches up with the flush
+         * progress. Returns early if the environment is closing, the daemon
+         * is shutting down, or high priority checkpoints are configured.
+         *
+         * Before sleeping, the databases in dbCache are released and the
+         * cache is cleared, since a database remove or truncate waits until
+         * the database is no longer in use, and a paced flush may sleep for a
+         * large part of the checkpoint interval.
+         */
+        void pace(DirtyINMap dirtyMap,
+                  Map<DatabaseId, DatabaseImpl> dbCache) {
+
+            final double progress = dirtyMap.getFlushProgress();
+
+            while (!envImpl.isClosing() &&
+                   !isShutdownRequested() &&
+                   !highPriority) {
+
+                final long elapsed =
+                    System.currentTimeMillis() - startMillis;
+
+                double consumed = ((double) elapsed) / maxMillis;
+
+                if (maxBytes > 0) {
+                    final long bytes = DbLsn.getNoCleaningDistance(
+                        envImpl.getFileManager().getNextLsn(), startLsn,
+                        logFileMax);
+
+                    consumed = Math.max(consumed, ((double) bytes) / maxBytes);
+                }
+
+                if (progress <= consumed) {
+                    return;
+                }
+
+                if (!dbCache.isEmpty()) {
+                    envImpl.getDbTree().releaseDbs(dbCache);
+                    dbCache.clear();
+                }
+
+                /*
+                 * Sleep until the time budget alone would let us proceed, but
+                 * wake periodically to check log growth.
+                 */
+                final long sleepMs = Math.max(1, Math.min(
+                    MAX_PACING_SLEEP_MS,
+                    ((long) (progress * maxMillis)) - elapsed));
+
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                flushStats.nPacedFlushSleeps++;
+                flushStats.pacedFlushSleepTime += sleepMs;
+            }
+        }
+    }
+
     /**
      * A struct to hold log flushing stats for checkpoint and database sync.
      */
@@ -1636,11 +2026,23 @@ public class Checkpointer extends DaemonThread implements EnvConfigObserver {
         public long nFullINFlushThisRun;
         public long nFullBINFlushThisRun;
         public long nDeltaINFlushThisRun;
+        public long nPacedFlushSleeps;
+        public long pacedFlushSleepTime;
 
         /* For future addition to stats:
            private int nAlreadyEvictedThisRun;
         */
 
+        /* Add the counters accumulated by a flush thread. */
+        void add(FlushStats other) {
+            nFullINFlush += other.nFullINFlush;
+            nFullBINFlush += other.nFullBINFlush;
+            nDeltaINFlush += other.nDeltaINFlush;
+            nFullINFlushThisRun += other.nFullINFlushThisRun;
+            nFullBINFlushThisRun += other.nFullBINFlushThisRun;
+            nDeltaINFlushThisRun += other.nDeltaINFlushThisRun;
+        }
+
         /* Reset per-run counters. */
         void resetPerRunCounters() {
             nFullINFlushThisRun = 0;
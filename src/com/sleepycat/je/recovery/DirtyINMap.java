@@ -99,6 +99,7 @@ class DirtyINMap {
                             Pair<Map<Long, CheckpointReference>,
                                  Map<Long, CheckpointReference>>> levelMap;
     private int numEntries;
+    private long numRemoved;
     private final Set<DatabaseId> mapLNsToFlush;
     private final Map<DatabaseImpl, Integer> highestFlushLevels;
 
@@ -119,6 +120,7 @@ class DirtyINMap {
         this.envImpl = envImpl;
         levelMap = new TreeMap<>();
         numEntries = 0;
+        numRemoved = 0;
         mapLNsToFlush = new HashSet<DatabaseId>();
         highestFlushLevels = new IdentityHashMap<DatabaseImpl, Integer>();
         ckptState = CkptState.NONE;
@@ -248,6 +250,7 @@ class DirtyINMap {
         mapLNsToFlush.clear();
         highestFlushLevels.clear();
         numEntries = 0;
+        numRemoved = 0;
         ckptState = CkptState.NONE;
     }
 
@@ -675,6 +678,7 @@ class DirtyINMap {
         if (lsn != DbLsn.NULL_LSN) {
             final CheckpointReference ref = lsnMap.remove(lsn);
             if (ref != null) {
+                entryRemoved();
                 return ref;
             }
         }
@@ -682,6 +686,7 @@ class DirtyINMap {
         if (nodeId >= 0) {
             final CheckpointReference ref = nodeMap.remove(nodeId);
             if (ref != null) {
+                entryRemoved();
                 return ref;
             }
         }
@@ -715,9 +720,22 @@ class DirtyINMap {
         assert iter.hasNext();
         final CheckpointReference ref = iter.next().getValue();
         iter.remove();
+        entryRemoved();
         return ref;
     }
 
+    /**
+     * Updates the counters and memory budget after a reference is removed,
+     * so that the map's bookkeeping reflects the flushing done so far rather
+     * than only the size of the map when it was filled.
+     */
+    private synchronized void entryRemoved() {
+        numEntries--;
+        numRemoved++;
+        envImpl.getMemoryBudget().updateAdminMemoryUsage(
+            0 - MemoryBudget.CHECKPOINT_REFERENCE_SIZE);
+    }
+
     /**
      * If the given IN is a BIN for the ID mapping database, saves all
      * dirty/temp MapLNs contained in it.
@@ -829,6 +847,32 @@ class DirtyINMap {
         return numEntries;
     }
 
+    /**
+     * Returns the number of references remaining at the given level.
+     */
+    synchronized int getNumEntries(Integer level) {
+        final Pair<Map<Long, CheckpointReference>,
+                   Map<Long, CheckpointReference>> pairOfMaps =
+            levelMap.get(level);
+
+        if (pairOfMaps == null) {
+            return 0;
+        }
+
+        return pairOfMaps.first().size() + pairOfMaps.second().size();
+    }
+
+    /**
+     * Returns the fraction of the references added to the map that have been
+     * removed (flushed, or found to be obsolete) so far, from 0 to 1.  The
+     * denominator includes parents added as flushing cascades up the tree,
+     * so the fraction may decrease slightly when a level is added.
+     */
+    synchronized double getFlushProgress() {
+        final long total = numRemoved + numEntries;
+        return (total == 0) ? 1.0 : ((double) numRemoved) / total;
+    }
+
     private void traceDirtySet() {
         assert DIRTY_SET_DEBUG_TRACE;
 
@@ -46,12 +46,15 @@ package com.sleepycat.je.recovery;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -64,6 +67,7 @@ import com.sleepycat.je.DbInternal;
 import com.sleepycat.je.EnvironmentFailureException;
 import com.sleepycat.je.RecoveryProgress;
 import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.ThreadInterruptedException;
 import com.sleepycat.je.TransactionConfig;
 import com.sleepycat.je.cleaner.RecoveryUtilizationTracker;
 import com.sleepycat.je.config.EnvironmentParams;
@@ -261,6 +265,7 @@ public class RecoveryManager {
 
     private final EnvironmentImpl envImpl;
     private final int readBufferSize;
+    private final int nRedoThreads;
     private final RecoveryInfo info;                // stat info
     /* Committed txn ID to Commit LSN */
     private final Map<Long, Long> committedTxnIds;
@@ -303,6 +308,7 @@ public class RecoveryManager {
         DbConfigManager cm = env.getConfigManager();
         readBufferSize =
             cm.getInt(EnvironmentParams.LOG_ITERATOR_READ_SIZE);
+        nRedoThreads = cm.getInt(EnvironmentParams.ENV_RECOVERY_THREADS);
         committedTxnIds = new HashMap<Long, Long>();
         abortedTxnIds = new HashSet<Long>();
         preparedTxns = new HashMap<Long, PreparedTxn>();
@@ -741,7 +747,8 @@ public class RecoveryManager {
             mapLNSet.clear();
             mapLNSet.add(LogEntryType.LOG_MAPLN);
 
-            redoLNs(mapLNSet, startupTracker.getCounter(Phase.REDO_MAP_LNS));
+            redoLNs(mapLNSet, 1 /*nThreads*/,
+                    startupTracker.getCounter(Phase.REDO_MAP_LNS));
 
             startupTracker.stop(Phase.REDO_MAP_LNS);
 
@@ -806,7 +813,8 @@ public class RecoveryManager {
             lnSet.add(LogEntryType.LOG_NAMELN);
             lnSet.add(LogEntryType.LOG_FILESUMMARYLN);
 
-            redoLNs(lnSet, startupTracker.getCounter(Phase.REDO_LNS));
+            redoLNs(lnSet, nRedoThreads,
+                    startupTracker.getCounter(Phase.REDO_LNS));
 
             startupTracker.stop(Phase.REDO_LNS);
 
@@ -1899,9 +1907,13 @@ public class RecoveryManager {
      *  - all committed LNs
      *  - all prepared LNs
      *  - all uncommitted, replicated LNs on a replicated node.
+     *
+     * If nThreads is greater than one, the log is still read by this thread,
+     * but the Btree changes are applied by a RedoThreadPool.
      */
     private void redoLNs(
         Set<LogEntryType> lnTypes, 
+        int nThreads,
         StartupTracker.Counter counter)
         throws DatabaseException {
 
@@ -1942,7 +1954,12 @@ public class RecoveryManager {
         DbTree dbMapTree = envImpl.getDbTree();
         TreeLocation location = new TreeLocation();
 
+        RedoThreadPool redoPool = null;
+
         try {
+            if (nThreads > 1) {
+                redoPool = new RedoThreadPool(nThreads);
+            }
 
             /*
              * Iterate over the target LNs and construct in-memory tree.
@@ -1975,10 +1992,12 @@ public class RecoveryManager {
                 if (db == null) {
                     counter.incNumDeleted();
 
-                    tracker.countObsoleteIfUncounted(
-                        logrecLsn, logrecLsn, null, 
-                        reader.getLastEntrySize(), dbId,
-                        false/*trackOffset*/);
+                    synchronized (tracker) {
+                        tracker.countObsoleteIfUncounted(
+                            logrecLsn, logrecLsn, null, 
+                            reader.getLastEntrySize(), dbId,
+                            false/*trackOffset*/);
+                    }
                     
                     continue;
                 }
@@ -1989,17 +2008,248 @@ public class RecoveryManager {
 
                     counter.incNumProcessed();
 
-                    redoOneLN(
-                        reader, logrec, logrecLsn, dbId, db, eligible, location);
+                    if (redoPool == null) {
+                        redoOneLN(
+                            reader, logrec, logrecLsn, dbId, db, eligible,
+                            location);
+                    } else {
+                        prepareRedo(reader, logrec, logrecLsn, dbId, db,
+                                    eligible);
+
+                        /*
+                         * The reader reuses its LNLogEntry, so the worker
+                         * gets a copy.  The worker releases the db.
+                         */
+                        redoPool.submit(new RedoTask(
+                            (LNLogEntry<?>) logrec.clone(), logrecLsn,
+                            reader.getLastEntrySize(), db, eligible));
+                        db = null;
+                    }
                 } finally {
-                    dbMapTree.releaseDb(db);
+                    if (db != null) {
+                        dbMapTree.releaseDb(db);
+                    }
                 }
             }
 
+            if (redoPool != null) {
+                final RedoThreadPool pool = redoPool;
+                redoPool = null;
+                pool.finish();
+            }
+
             counter.setRepeatIteratorReads(reader.getNRepeatIteratorReads());
 
+        } catch (RedoFailure e) {
+            rethrowRedoFailure(e);
         } catch (Exception e) {
             traceAndThrowException(reader.getLastLsn(), "redoLns", e);
+        } finally {
+            if (redoPool != null) {
+                redoPool.abandon();
+            }
+        }
+    }
+
+    private void rethrowRedoFailure(RedoFailure e)
+        throws DatabaseException {
+
+        if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        traceAndThrowException(e.lsn, "redoLns", (Exception) e.getCause());
+    }
+
+    /**
+     * Thrown by RedoThreadPool when a worker thread failed to redo an LN.
+     */
+    @SuppressWarnings("serial")
+    private static class RedoFailure extends Exception {
+
+        final long lsn;
+
+        RedoFailure(long lsn, Throwable cause) {
+            super(cause);
+            this.lsn = lsn;
+        }
+    }
+
+    /**
+     * An LN that is queued for redo by a RedoThreadPool.
+     */
+    private static class RedoTask {
+
+        /* Marks the end of the work for a RedoThread. */
+        static final RedoTask END = new RedoTask(null, DbLsn.NULL_LSN, 0,
+                                                 null, null);
+
+        final LNLogEntry<?> logrec;
+        final long logrecLsn;
+        final int logrecSize;
+        final DatabaseImpl db;
+        final RedoEligible eligible;
+
+        RedoTask(LNLogEntry<?> logrec,
+                 long logrecLsn,
+                 int logrecSize,
+                 DatabaseImpl db,
+                 RedoEligible eligible) {
+            this.logrec = logrec;
+            this.logrecLsn = logrecLsn;
+            this.logrecSize = logrecSize;
+            this.db = db;
+            this.eligible = eligible;
+        }
+    }
+
+    /**
+     * Applies LN redo to the Btree using multiple threads, while the log is
+     * read by the recovery thread.
+     *
+     * Redo is not commutative for a given record: the slot LSN comparison
+     * in redo() does not prevent an older insertion from being applied after
+     * a newer deletion that found no slot.  Each LN is therefore assigned to
+     * a thread by its database and key, and each thread applies its LNs in the
+     * order they were submitted, which is log order.  When a database has a
+     * custom comparator, keys that are not byte-equal may still refer to the
+     * same record, so all LNs of such a database are assigned to one thread.
+     *
+     * LNs for different records are applied concurrently.  Btree operations
+     * are latched as during normal operation, and utilization tracking is
+     * synchronized on the tracker.  Everything that depends on the log order
+     * across records, such as relocking the LNs of resurrected txns, is done
+     * by the recovery thread in prepareRedo before the LN is submitted.
+     */
+    private class RedoThreadPool {
+
+        /* Bounds the number of LNs read ahead of the redo threads. */
+        private static final int QUEUE_SIZE = 1000;
+
+        private final List<RedoThread> threads;
+        private volatile RedoFailure failure;
+
+        RedoThreadPool(int nThreads) {
+            threads = new ArrayList<RedoThread>(nThreads);
+            for (int i = 0; i < nThreads; i += 1) {
+                final RedoThread thread = new RedoThread(
+                    "JERecoveryRedo-" + i + "-" + envImpl.getName());
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        void submit(RedoTask task)
+            throws RedoFailure {
+
+            checkFailure();
+
+            final DatabaseImpl db = task.db;
+            int hash = db.getId().hashCode();
+            if (db.getBtreeComparator() == null &&
+                db.getDuplicateComparator() == null) {
+                hash = (31 * hash) + Arrays.hashCode(task.logrec.getKey());
+            }
+            final int i = (hash & 0x7fffffff) % threads.size();
+
+            try {
+                threads.get(i).queue.put(task);
+            } catch (InterruptedException e) {
+                throw new ThreadInterruptedException(envImpl, e);
+            }
+        }
+
+        /**
+         * Waits for all submitted LNs to be redone and stops the threads.
+         */
+        void finish()
+            throws RedoFailure {
+
+            try {
+                for (final RedoThread thread : threads) {
+                    thread.queue.put(RedoTask.END);
+                }
+                for (final RedoThread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                throw new ThreadInterruptedException(envImpl, e);
+            }
+            checkFailure();
+        }
+
+        /**
+         * Stops the threads after a failure in the recovery thread.  Queued
+         * LNs are discarded, but their databases are released.
+         */
+        void abandon() {
+            if (failure == null) {
+                failure = new RedoFailure(
+                    DbLsn.NULL_LSN,
+                    new IllegalStateException("Redo abandoned"));
+            }
+            try {
+                finish();
+            } catch (RedoFailure e) {
+                /* Expected, the original exception is being thrown. */
+            } catch (RuntimeException e) {
+                LoggerUtils.traceAndLogException(
+                    envImpl, "RecoveryManager", "abandonRedo", "", e);
+            }
+        }
+
+        private void checkFailure()
+            throws RedoFailure {
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private class RedoThread extends Thread {
+
+            final BlockingQueue<RedoTask> queue =
+                new ArrayBlockingQueue<RedoTask>(QUEUE_SIZE);
+
+            private final TreeLocation location = new TreeLocation();
+
+            RedoThread(String name) {
+                super(name);
+                setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                final DbTree dbMapTree = envImpl.getDbTree();
+                while (true) {
+                    final RedoTask task;
+                    try {
+                        task = queue.take();
+                    } catch (InterruptedException e) {
+                        if (failure == null) {
+                            failure = new RedoFailure(
+                                DbLsn.NULL_LSN,
+                                new ThreadInterruptedException(envImpl, e));
+                        }
+                        return;
+                    }
+                    if (task == RedoTask.END) {
+                        return;
+                    }
+                    try {
+                        if (failure == null) {
+                            applyRedo(task.logrec, task.logrecLsn,
+                                      task.logrecSize, task.db,
+                                      task.eligible, location);
+                        }
+                    } catch (Throwable e) {
+                        if (failure == null) {
+                            failure = new RedoFailure(task.logrecLsn, e);
+                        }
+                    } finally {
+                        dbMapTree.releaseDb(task.db);
+                    }
+                }
+            }
         }
     }
 
@@ -2120,7 +2370,25 @@ public class RecoveryManager {
         TreeLocation location)
         throws DatabaseException {
 
-        int logrecSize = reader.getLastEntrySize();
+        prepareRedo(reader, logrec, logrecLsn, dbId, db, eligible);
+
+        applyRedo(logrec, logrecLsn, reader.getLastEntrySize(), db, eligible,
+                  location);
+    }
+
+    /*
+     * The part of redoOneLN that depends on the order of LNs in the log, and
+     * must be done by the recovery thread.
+     */
+    private void prepareRedo(
+        LNFileReader reader,
+        LNLogEntry<?> logrec,
+        long logrecLsn,
+        DatabaseId dbId,
+        DatabaseImpl db,
+        RedoEligible eligible)
+        throws DatabaseException {
+
         LN ln = logrec.getLN();
 
         ln.postFetchInit(db, logrecLsn);
@@ -2135,37 +2403,12 @@ public class RecoveryManager {
             relock(eligible.resurrectTxn, logrecLsn, logrec, db);
         }
 
-        long treeLsn = redo(
-            db, location, logrec, logrecLsn, logrecSize, eligible);
-
         /*
          * Add any db that we encounter LN's for because they'll be part of the
          * in-memory tree and therefore should be included in the INList build.
          */
         inListBuildDbIds.add(dbId);
 
-        /*
-         * Further processing of MapLNs:
-         * - For temporary DBs that are encountered as MapLNs, add them to the
-         *   set of databases to be removed.
-         * - For deleted MapLNs (truncated or removed DBs), redo utilization
-         *   counting by counting the entire database as obsolete.
-         */
-        MapLN mapLN = null;
-
-        if (ln instanceof MapLN) {
-
-            mapLN = (MapLN) ln;
-
-            if (mapLN.getDatabase().isTemporary()) {
-                tempDbIds.add(mapLN.getDatabase().getId());
-            }
-
-            if (mapLN.isDeleted()) {
-                mapLN.getDatabase().countObsoleteDb(tracker, logrecLsn);
-            }
-        }
-
         /**
          * For committed truncate/remove NameLNs, we expect a deleted MapLN
          * after it.  Maintain expectDeletedMapLNs to contain all DB IDs for
@@ -2193,6 +2436,48 @@ public class RecoveryManager {
                 }
             }
         }
+    }
+
+    /*
+     * The part of redoOneLN that applies the LN to the Btree and redoes its
+     * utilization info.  May be called by a RedoThreadPool thread, except for
+     * MapLNs.
+     */
+    private void applyRedo(
+        LNLogEntry<?> logrec,
+        long logrecLsn,
+        int logrecSize,
+        DatabaseImpl db,
+        RedoEligible eligible,
+        TreeLocation location)
+        throws DatabaseException {
+
+        LN ln = logrec.getLN();
+
+        long treeLsn = redo(
+            db, location, logrec, logrecLsn, logrecSize, eligible);
+
+        /*
+         * Further processing of MapLNs:
+         * - For temporary DBs that are encountered as MapLNs, add them to the
+         *   set of databases to be removed.
+         * - For deleted MapLNs (truncated or removed DBs), redo utilization
+         *   counting by counting the entire database as obsolete.
+         */
+        MapLN mapLN = null;
+
+        if (ln instanceof MapLN) {
+
+            mapLN = (MapLN) ln;
+
+            if (mapLN.getDatabase().isTemporary()) {
+                tempDbIds.add(mapLN.getDatabase().getId());
+            }
+
+            if (mapLN.isDeleted()) {
+                mapLN.getDatabase().countObsoleteDb(tracker, logrecLsn);
+            }
+        }
 
         boolean treeLsnIsImmediatelyObsolete = db.isLNImmediatelyObsolete();
         
@@ -2202,11 +2487,14 @@ public class RecoveryManager {
         }
 
         /* Redo utilization info */
-        redoUtilizationInfo(
-            logrec, reader.getLastEntrySize(), logrecLsn,
-            treeLsn, treeLsnIsImmediatelyObsolete, location.childLoggedSize,
-            eligible.commitLsn, eligible.isCommitted(),
-            db);
+        synchronized (tracker) {
+            redoUtilizationInfo(
+                logrec, logrecSize, logrecLsn,
+                treeLsn, treeLsnIsImmediatelyObsolete,
+                location.childLoggedSize,
+                eligible.commitLsn, eligible.isCommitted(),
+                db);
+        }
     }
 
     /*
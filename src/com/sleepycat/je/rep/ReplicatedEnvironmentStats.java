@@ -66,8 +66,11 @@ import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_GROUP_COMMIT
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_GROUP_COMMIT_MAX_EXCEEDED;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_GROUP_COMMIT_TIMEOUTS;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_GROUP_COMMIT_TXNS;
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.MAX_PREFETCH_PARALLELISM;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_LNS;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_NAME_LNS;
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_PREFETCH_LNS;
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_PREFETCH_SKIPPED;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.TOTAL_COMMIT_LAG_MS;
 import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.TOTAL_COMMIT_PROCESSING_NANOS;
 import static com.sleepycat.je.rep.impl.node.ReplicaStatDefinition.N_LAG_CONSISTENCY_WAITS;
@@ -633,6 +636,38 @@ public class ReplicatedEnvironmentStats implements Serializable {
         return replayStats.getLong(N_LNS);
     }
 
+    /**
+     * The number of data records whose BIN was read into the cache by a
+     * prefetch thread before the record was replayed.
+     *
+     * @see ReplicationConfig#REPLAY_PREFETCH_THREADS
+     */
+    public long getNReplayPrefetchLNs() {
+        return replayStats.getLong(N_PREFETCH_LNS);
+    }
+
+    /**
+     * The number of data records that were not prefetched, because the
+     * prefetch threads were falling behind or because the record's database
+     * was not yet available to them.
+     *
+     * @see ReplicationConfig#REPLAY_PREFETCH_THREADS
+     */
+    public long getNReplayPrefetchSkipped() {
+        return replayStats.getLong(N_PREFETCH_SKIPPED);
+    }
+
+    /**
+     * The maximum number of prefetch threads that were busy at the same
+     * time, that is, the degree of parallelism achieved when reading the
+     * BINs needed by replay.
+     *
+     * @see ReplicationConfig#REPLAY_PREFETCH_THREADS
+     */
+    public long getMaxReplayPrefetchParallelism() {
+        return replayStats.getLong(MAX_PREFETCH_PARALLELISM);
+    }
+
     /**
      * The total elapsed time in milliseconds spent replaying committed and
      * aborted transactions.
@@ -408,6 +408,45 @@ public class ReplicationConfig extends ReplicationMutableConfig
     public static final String REPLAY_TXN_LOCK_TIMEOUT =
         EnvironmentParams.REP_PARAM_PREFIX + "replayTxnLockTimeout";
 
+    /**
+     * The number of threads used by a replica to fetch the Btree nodes needed
+     * by replicated operations ahead of their replay.
+     * <p>
+     * Replicated operations are applied by a single replay thread, so that
+     * the replica's log is written in the same VLSN order as the master's
+     * and commit acknowledgments are returned in commit order.  When the
+     * BINs referenced by the incoming operations are not in cache, that
+     * thread spends most of its time waiting for random reads.  The prefetch
+     * threads read those BINs into the cache in parallel, while the
+     * operations are waiting in the replay queue, so that the replay thread
+     * finds them resident.  Prefetching takes no locks and has no effect on
+     * the outcome of replay.  The degree of parallelism achieved is reported
+     * by the {@link ReplicatedEnvironmentStats#getMaxReplayPrefetchParallelism}
+     * statistic.
+     * <p>
+     * Prefetching only helps when replay waits for reads from the storage
+     * device.  When the log fits in the file system cache, the prefetch
+     * threads compete with the replay thread for CPU and may reduce replay
+     * throughput.
+     * <p>
+     * A value of zero, the default, disables prefetching.
+     *
+     * <p><table border="1">
+     * <tr><td>Name</td><td>Type</td><td>Mutable</td>
+     * <td>Default</td><td>Minimum</td><td>Maximum</td></tr>
+     * <tr>
+     * <td>{@value}</td>
+     * <td>Int</td>
+     * <td>No</td>
+     * <td>0</td>
+     * <td>0</td>
+     * <td>64</td>
+     * </tr>
+     * </table></p>
+     */
+    public static final String REPLAY_PREFETCH_THREADS =
+        EnvironmentParams.REP_PARAM_PREFIX + "replayPrefetchThreads";
+
     /**
      * The maximum number of <i>most recently used</i> database handles that
      * are kept open during the replay of the replication stream.
@@ -261,6 +261,17 @@ public class RepParams {
                                 false,             // mutable
                                 true);             // forReplication
 
+    /**
+     * @see ReplicationConfig#REPLAY_PREFETCH_THREADS
+     */
+    public static final IntConfigParam REPLAY_PREFETCH_THREADS =
+        new IntConfigParam(ReplicationConfig.REPLAY_PREFETCH_THREADS,
+                           0,                  // min
+                           64,                 // max
+                           0,                  // default
+                           false,              // mutable
+                           true);              // forReplication
+
     /**
      * @see ReplicationConfig#ENV_SETUP_TIMEOUT
      */
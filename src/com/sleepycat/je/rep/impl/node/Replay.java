@@ -260,6 +260,12 @@ public class Replay {
      */
     private final long replayLoggingThresholdNs;
 
+    /**
+     * Reads the BINs needed by queued LNs ahead of their replay, if
+     * RepParams.REPLAY_PREFETCH_THREADS is non-zero.
+     */
+    private final ReplayPrefetcher prefetcher;
+
     /**
      * State that is reinitialized by the reinit() method each time a replay
      * loop is started with a new feeder.
@@ -369,6 +375,12 @@ public class Replay {
 
         replayLoggingThresholdNs = MILLISECONDS.toNanos(configManager.
            getDuration(RepParams.REPLAY_LOGGING_THRESHOLD));
+
+        prefetcher = new ReplayPrefetcher(
+            repImpl,
+            configManager.getInt(RepParams.REPLAY_PREFETCH_THREADS),
+            configManager.getInt(RepParams.REPLICA_MESSAGE_QUEUE_SIZE),
+            statistics);
     }
 
     public BlockingQueue<Long> getOutputQueue() {
@@ -386,6 +398,10 @@ public class Replay {
         return nMessageQueueOverflows;
     }
 
+    ReplayPrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
     /**
      * Actions that must be taken before the recovery checkpoint, whether
      * the environment is read/write or read/only.
@@ -0,0 +1,333 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.rep.impl.node;
+
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.MAX_PREFETCH_PARALLELISM;
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_PREFETCH_LNS;
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_PREFETCH_SKIPPED;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.dbi.DatabaseId;
+import com.sleepycat.je.dbi.DatabaseImpl;
+import com.sleepycat.je.dbi.DbTree;
+import com.sleepycat.je.dbi.EnvironmentImpl;
+import com.sleepycat.je.log.entry.LNLogEntry;
+import com.sleepycat.je.log.entry.LogEntry;
+import com.sleepycat.je.log.entry.NameLNLogEntry;
+import com.sleepycat.je.rep.stream.Protocol;
+import com.sleepycat.je.tree.BIN;
+import com.sleepycat.je.utilint.AtomicLongStat;
+import com.sleepycat.je.utilint.LoggerUtils;
+import com.sleepycat.je.utilint.LongMaxStat;
+import com.sleepycat.je.utilint.StatGroup;
+import com.sleepycat.je.utilint.StoppableThread;
+
+/**
+ * Reads the BINs needed by incoming replicated LNs into the cache, using a
+ * pool of threads, before the LNs are replayed.
+ *
+ * The Replay itself must remain single threaded: the replica's log must be
+ * written in the VLSN order of the replication stream, since syncup,
+ * rollback and a future Feeder on this node all scan it in that order, and
+ * commit acknowledgments must be sent in commit order. What can be done in
+ * parallel is the part of replaying an LN that dominates when the data set
+ * does not fit in cache: the random reads of the BINs on the path to its
+ * key. The network thread hands each LN to a prefetch thread when it places
+ * the message in the replay queue, and the prefetch thread searches the tree
+ * for the LN's key while the message waits its turn. When the ReplayThread
+ * gets to it, it normally finds the BIN resident.
+ *
+ * Prefetching takes no locks, so prefetch threads cannot conflict with each
+ * other or with the replay thread, and an LN can be given to any of them. A
+ * prefetch is only a hint: it is skipped when the prefetch threads are
+ * behind, or when the LN's database cannot be obtained without waiting,
+ * e.g., because it is being created by a txn that has not yet committed.
+ *
+ * The network thread copies the database ID and key of the LN into an
+ * immutable PrefetchKey, so the prefetch threads never touch the log entry,
+ * which is owned by the ReplayThread once it is placed in the replay queue.
+ */
+class ReplayPrefetcher {
+
+    /* The queue poll interval used to check for shutdown, 100 ms. */
+    private static final long QUEUE_POLL_INTERVAL_NS = 100000000L;
+
+    private final EnvironmentImpl envImpl;
+    private final Logger logger;
+    private final int nThreads;
+    private final int queueSize;
+
+    /* The threads, non-null only while the replica loop is running. */
+    private volatile PrefetchThread[] threads;
+
+    /* Used to hand out LNs to the threads in round-robin order. */
+    private int nextThread;
+
+    /* The number of threads currently processing an LN. */
+    private final AtomicInteger nActive = new AtomicInteger();
+
+    private final AtomicLongStat nPrefetchLNs;
+    private final AtomicLongStat nPrefetchSkipped;
+    private final LongMaxStat maxPrefetchParallelism;
+
+    ReplayPrefetcher(EnvironmentImpl envImpl,
+                     int nThreads,
+                     int queueSize,
+                     StatGroup statistics) {
+        this.envImpl = envImpl;
+        this.nThreads = nThreads;
+        this.queueSize = queueSize;
+        logger = LoggerUtils.getLogger(getClass());
+        nPrefetchLNs = new AtomicLongStat(statistics, N_PREFETCH_LNS);
+        nPrefetchSkipped = new AtomicLongStat(statistics, N_PREFETCH_SKIPPED);
+        maxPrefetchParallelism =
+            new LongMaxStat(statistics, MAX_PREFETCH_PARALLELISM);
+    }
+
+    /**
+     * Starts the prefetch threads. Called when the replica loop starts.
+     */
+    void start() {
+        if (nThreads == 0) {
+            return;
+        }
+        final PrefetchThread[] newThreads = new PrefetchThread[nThreads];
+        for (int i = 0; i < nThreads; i += 1) {
+            newThreads[i] = new PrefetchThread(i);
+            newThreads[i].start();
+        }
+        threads = newThreads;
+    }
+
+    /**
+     * Stops the prefetch threads and discards any pending prefetches. Called
+     * when the replica loop exits.
+     *
+     * The threads are never interrupted, since an interrupt during a read
+     * would close the log file channel. They check for shutdown between
+     * prefetches, so the wait is bounded by the time to read one BIN.
+     */
+    void shutdown() {
+        final PrefetchThread[] oldThreads = threads;
+        if (oldThreads == null) {
+            return;
+        }
+        threads = null;
+        for (PrefetchThread thread : oldThreads) {
+            thread.shutdownThread(logger);
+        }
+    }
+
+    /**
+     * Hands the LN in a replication stream entry, if any, to one of the
+     * prefetch threads. Only called by the thread that reads the stream from
+     * the network, before the entry is placed in the replay queue. Never
+     * blocks.
+     */
+    void submit(Protocol.Entry entry) {
+        final PrefetchThread[] currentThreads = threads;
+        if (currentThreads == null) {
+            return;
+        }
+        final LogEntry logEntry = entry.getWireRecord().getLogEntry();
+        if (!(logEntry instanceof LNLogEntry) ||
+            (logEntry instanceof NameLNLogEntry)) {
+            return;
+        }
+        final LNLogEntry<?> lnEntry = (LNLogEntry<?>) logEntry;
+
+        /*
+         * The key of an old format entry in a duplicates DB is only known
+         * after postFetchInit, which is left to the ReplayThread.
+         */
+        final byte[] key = lnEntry.getLoggedKey();
+        if (key == null) {
+            nPrefetchSkipped.increment();
+            return;
+        }
+        submit(lnEntry.getDbId().getId(), Arrays.copyOf(key, key.length));
+    }
+
+    /**
+     * Hands a key to one of the prefetch threads. The caller must not modify
+     * the key afterwards. Never blocks.
+     */
+    void submit(long dbId, byte[] key) {
+        final PrefetchThread[] currentThreads = threads;
+        if (currentThreads == null) {
+            return;
+        }
+        final PrefetchThread thread = currentThreads[nextThread];
+        nextThread = (nextThread + 1) % currentThreads.length;
+        if (!thread.queue.offer(new PrefetchKey(dbId, key))) {
+            nPrefetchSkipped.increment();
+        }
+    }
+
+    /**
+     * Searches the tree for the LN's key, leaving the BIN in cache.
+     */
+    private void prefetch(PrefetchKey prefetchKey) {
+
+        final DbTree dbTree = envImpl.getDbTree();
+        final DatabaseImpl dbImpl =
+            dbTree.getDbNoWait(new DatabaseId(prefetchKey.dbId));
+        if (dbImpl == null) {
+            nPrefetchSkipped.increment();
+            return;
+        }
+
+        try {
+            if (dbImpl.isDeleted()) {
+                nPrefetchSkipped.increment();
+                return;
+            }
+            final byte[] key = prefetchKey.key;
+
+            final BIN bin = dbImpl.getTree().search(key, CacheMode.DEFAULT);
+            if (bin == null) {
+                /* Empty tree. */
+                return;
+            }
+            try {
+
+                /* Do what the replay's search would do with a BIN-delta. */
+                if (bin.isBINDelta() &&
+                    bin.findEntry(key, false, true /*exact*/) < 0 &&
+                    bin.mayHaveKeyInFullBin(key)) {
+                    bin.mutateToFullBIN();
+                }
+            } finally {
+                bin.releaseLatch();
+            }
+            nPrefetchLNs.increment();
+        } finally {
+            dbTree.releaseDb(dbImpl);
+        }
+    }
+
+    /**
+     * The database ID and key of an LN to prefetch.
+     */
+    private static class PrefetchKey {
+
+        final long dbId;
+        final byte[] key;
+
+        PrefetchKey(long dbId, byte[] key) {
+            this.dbId = dbId;
+            this.key = key;
+        }
+    }
+
+    private class PrefetchThread extends StoppableThread {
+
+        private final BlockingQueue<PrefetchKey> queue;
+
+        private volatile boolean shutdownRequested = false;
+
+        PrefetchThread(int id) {
+            super(ReplayPrefetcher.this.envImpl,
+                  "ReplayPrefetchThread-" + id);
+            queue = new ArrayBlockingQueue<PrefetchKey>(queueSize);
+        }
+
+        @Override
+        protected int initiateSoftShutdown() {
+            shutdownRequested = true;
+            /* Wait indefinitely; see ReplayPrefetcher.shutdown. */
+            return 0;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdownRequested && envImpl.isValid()) {
+
+                    final PrefetchKey prefetchKey =
+                        queue.poll(QUEUE_POLL_INTERVAL_NS,
+                                   TimeUnit.NANOSECONDS);
+                    if (prefetchKey == null) {
+                        continue;
+                    }
+
+                    final int active = nActive.incrementAndGet();
+                    try {
+                        synchronized (maxPrefetchParallelism) {
+                            maxPrefetchParallelism.setMax(active);
+                        }
+                        prefetch(prefetchKey);
+                    } finally {
+                        nActive.decrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                /* Exit quietly; prefetching is optional. */
+            } catch (RuntimeException e) {
+
+                /*
+                 * A failure here does not affect replay, which will report
+                 * any real problem with the environment.
+                 */
+                LoggerUtils.info(logger, envImpl,
+                                 getName() + " exiting with exception: " + e);
+            } finally {
+                queue.clear();
+            }
+        }
+
+        @Override
+        protected Logger getLogger() {
+            return logger;
+        }
+    }
+}
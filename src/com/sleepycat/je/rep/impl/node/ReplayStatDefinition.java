@@ -115,6 +115,22 @@ public class ReplayStatDefinition {
     public static StatDefinition N_NAME_LNS =
         new StatDefinition("nNameLNs", "Number of Name LNs.");
 
+    public static StatDefinition N_PREFETCH_LNS =
+        new StatDefinition("nPrefetchLNs",
+                           "Number of LNs whose BIN was fetched by a " +
+                           "prefetch thread ahead of replay.");
+
+    public static StatDefinition N_PREFETCH_SKIPPED =
+        new StatDefinition("nPrefetchSkipped",
+                           "Number of LNs that were not prefetched because " +
+                           "the prefetch queue was full or the database " +
+                           "was not available.");
+
+    public static StatDefinition MAX_PREFETCH_PARALLELISM =
+        new StatDefinition("maxPrefetchParallelism",
+                           "Maximum number of prefetch threads that were " +
+                           "busy at the same time.");
+
     public static StatDefinition N_ELAPSED_TXN_TIME =
         new StatDefinition("nElapsedTxnTime",
                            "The elapsed time in ms, spent" +
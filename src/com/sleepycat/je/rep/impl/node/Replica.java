@@ -578,6 +578,8 @@ public class Replica {
 
         final ReplayThread replayThread = new ReplayThread();
         replayThread.start();
+        final ReplayPrefetcher prefetcher = replay.getPrefetcher();
+        prefetcher.start();
         long maxPending = 0;
 
         try {
@@ -588,6 +590,10 @@ public class Replica {
                     return;
                 }
 
+                if (message.getOp() == Protocol.ENTRY) {
+                    prefetcher.submit((Protocol.Entry) message);
+                }
+
                 while (!replayQueue.
                         offer(message,
                               ReplayThread.QUEUE_POLL_INTERVAL_NS,
@@ -640,6 +646,8 @@ public class Replica {
                 replayThread.exitRequest = ReplayExitType.IMMEDIATE;
                 replayThread.join();
 
+                prefetcher.shutdown();
+
                 replicaOutputThread.shutdownThread(logger);
                 replicaOutputThread = null;
             }
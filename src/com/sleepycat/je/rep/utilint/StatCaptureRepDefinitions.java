@@ -87,7 +87,10 @@ public class StatCaptureRepDefinitions extends StatCaptureDefinitions {
         ReplayStatDefinition.N_GROUP_COMMIT_TIMEOUTS,
         ReplayStatDefinition.N_GROUP_COMMIT_MAX_EXCEEDED,
         ReplayStatDefinition.N_GROUP_COMMIT_TXNS,
-        ReplayStatDefinition.N_GROUP_COMMITS
+        ReplayStatDefinition.N_GROUP_COMMITS,
+        ReplayStatDefinition.N_PREFETCH_LNS,
+        ReplayStatDefinition.N_PREFETCH_SKIPPED,
+        ReplayStatDefinition.MAX_PREFETCH_PARALLELISM
         };
 
     private static StatDefinition[] replicaStats = {
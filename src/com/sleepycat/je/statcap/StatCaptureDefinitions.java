@@ -100,6 +100,16 @@ public class StatCaptureDefinitions {
         CleanerStatDefinition.CLEANER_REPEAT_ITERATOR_READS,
         CleanerStatDefinition.CLEANER_TOTAL_LOG_SIZE,
         CleanerStatDefinition.CLEANER_LAST_KNOWN_UTILIZATION,
+        CleanerStatDefinition.CLEANER_PACING_BYTES_RATE,
+        CleanerStatDefinition.CLEANER_PACING_LN_RATE,
+        CleanerStatDefinition.CLEANER_PACING_LATENCY,
+        CleanerStatDefinition.CLEANER_PACING_LATENCY_THROTTLES,
+        CleanerStatDefinition.CLEANER_PACING_DISK_OVERRIDES,
+        CleanerStatDefinition.CLEANER_PACING_GROWTH_FLOORS,
+        CleanerStatDefinition.CLEANER_PACING_SLEEP_TIME,
+        CleanerStatDefinition.CLEANER_READ_AHEAD_FILES,
+        CleanerStatDefinition.CLEANER_READ_AHEAD_BYTES,
+        CleanerStatDefinition.CLEANER_AGE_WEIGHTED_SELECTIONS,
     };
     private static StatDefinition[] dbiStats = {
         DbiStatDefinition.MB_SHARED_CACHE_TOTAL_BYTES,
@@ -182,8 +192,14 @@ public class StatCaptureDefinitions {
         OffHeapStatDefinition.CACHED_BINS,
         OffHeapStatDefinition.CACHED_BIN_DELTAS,
         OffHeapStatDefinition.TOTAL_BYTES,
+        OffHeapStatDefinition.ALLOCATED_BYTES,
         OffHeapStatDefinition.TOTAL_BLOCKS,
         OffHeapStatDefinition.LRU_SIZE,
+        OffHeapStatDefinition.COMPRESSION_INPUT_BYTES,
+        OffHeapStatDefinition.COMPRESSION_OUTPUT_BYTES,
+        OffHeapStatDefinition.COMPRESSION_NANOS,
+        OffHeapStatDefinition.DECOMPRESSIONS,
+        OffHeapStatDefinition.DECOMPRESSION_NANOS,
     };
 
     private static StatDefinition[] inCompStats = {
@@ -221,6 +237,10 @@ public class StatCaptureDefinitions {
         LogStatDefinition.FILEMGR_WRITES_FROM_WRITEQUEUE,
         LogStatDefinition.FILEMGR_WRITEQUEUE_OVERFLOW,
         LogStatDefinition.FILEMGR_WRITEQUEUE_OVERFLOW_FAILURES,
+        LogStatDefinition.FILEMGR_CONCURRENT_READS,
+        LogStatDefinition.FILEMGR_MAX_CONCURRENT_READS,
+        LogStatDefinition.FILEMGR_MAPPED_READS,
+        LogStatDefinition.FILEMGR_MAPPED_FILES,
         LogStatDefinition.FSYNCMGR_FSYNCS,
         LogStatDefinition.FSYNCMGR_FSYNC_REQUESTS,
         LogStatDefinition.FSYNCMGR_TIMEOUTS,
@@ -230,14 +250,27 @@ public class StatCaptureDefinitions {
         LogStatDefinition.GRPCMGR_N_GROUP_COMMIT_WAITS,
         LogStatDefinition.GRPCMGR_N_LOG_INTERVAL_EXCEEDED,
         LogStatDefinition.GRPCMGR_N_LOG_MAX_GROUP_COMMIT,
+        LogStatDefinition.GRPCMGR_GROUP_COMMIT_WAIT_TIME,
+        LogStatDefinition.GRPCMGR_GROUP_SIZE_1,
+        LogStatDefinition.GRPCMGR_GROUP_SIZE_2_3,
+        LogStatDefinition.GRPCMGR_GROUP_SIZE_4_7,
+        LogStatDefinition.GRPCMGR_GROUP_SIZE_8_15,
+        LogStatDefinition.GRPCMGR_GROUP_SIZE_16_PLUS,
         LogStatDefinition.LOGMGR_REPEAT_FAULT_READS,
         LogStatDefinition.LOGMGR_TEMP_BUFFER_WRITES,
         LogStatDefinition.LOGMGR_END_OF_LOG,
+        LogStatDefinition.LOGMGR_COMPRESSED_ENTRIES,
+        LogStatDefinition.LOGMGR_COMPRESSION_INPUT_BYTES,
+        LogStatDefinition.LOGMGR_COMPRESSION_OUTPUT_BYTES,
+        LogStatDefinition.LOGMGR_COMPRESSION_NANOS,
+        LogStatDefinition.LOGMGR_DECOMPRESSED_ENTRIES,
+        LogStatDefinition.LOGMGR_DECOMPRESSION_NANOS,
         LogStatDefinition.LBFP_NO_FREE_BUFFER,
         LogStatDefinition.LBFP_NOT_RESIDENT,
         LogStatDefinition.LBFP_MISS,
         LogStatDefinition.LBFP_LOG_BUFFERS,
-        LogStatDefinition.LBFP_BUFFER_BYTES
+        LogStatDefinition.LBFP_BUFFER_BYTES,
+        LogStatDefinition.LBFP_WRITER_THREAD_WRITES
     };
 
     private static StatDefinition[] checkpointStats = {
@@ -246,6 +279,8 @@ public class StatCaptureDefinitions {
         CheckpointStatDefinition.CKPT_FULL_IN_FLUSH,
         CheckpointStatDefinition.CKPT_FULL_BIN_FLUSH,
         CheckpointStatDefinition.CKPT_DELTA_IN_FLUSH,
+        CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEPS,
+        CheckpointStatDefinition.CKPT_PACED_FLUSH_SLEEP_TIME,
         CheckpointStatDefinition.CKPT_LAST_CKPT_INTERVAL,
         CheckpointStatDefinition.CKPT_LAST_CKPT_START,
         CheckpointStatDefinition.CKPT_LAST_CKPT_END
@@ -0,0 +1,152 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+package com.sleepycat.je.tree;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.sleepycat.je.CacheMode;
+
+/**
+ * A cache of the BINs found by recent point searches, used by Tree.search to
+ * skip the descent through the upper INs when a key is searched repeatedly.
+ * Each slot holds the last BIN found for the keys that hash to it.
+ *
+ * No latch is held on the upper INs, so a BIN taken from the cache may since
+ * have been split, evicted or deleted.  After latching the BIN, it is used
+ * only if it is still in the INList and the key falls between its first and
+ * last keys.  A node is removed from the INList, with its latch held,
+ * whenever it is detached from the tree, so a resident BIN is still attached.
+ * And because the BINs of a tree cover disjoint key ranges, a BIN that
+ * contains keys on both sides of the search key is the BIN that covers it.
+ * This is the same reasoning used by IN.fetchIN when a slot moves while the
+ * parent is unlatched.
+ *
+ * BIN-deltas are not used, since they do not contain all the keys in their
+ * range.  A BIN whose check fails is cleared from its slot.
+ *
+ * The slots hold weak references, so that the cache never keeps a BIN that
+ * was evicted or detached from the tree reachable.  Such BINs are no longer
+ * counted by the MemoryBudget, and a strong reference could retain up to one
+ * BIN per slot outside the cache budget.  The references themselves are small
+ * and are replaced only when a search finds a different BIN for a slot.
+ */
+final class BINFingerCache {
+
+    private final AtomicReferenceArray<WeakReference<BIN>> bins;
+    private final int mask;
+
+    /**
+     * @param size the number of slots, rounded up to a power of two.
+     */
+    BINFingerCache(int size) {
+        final int nSlots =
+            (size <= 1) ? 1 : (Integer.highestOneBit(size - 1) << 1);
+        bins = new AtomicReferenceArray<WeakReference<BIN>>(nSlots);
+        mask = nSlots - 1;
+    }
+
+    /**
+     * Returns the cached BIN that covers the given key, latched exclusively
+     * and with the LRU updated according to cacheMode, or null if there is
+     * no such BIN in the cache.
+     */
+    BIN get(byte[] key, CacheMode cacheMode) {
+
+        final int slot = getSlot(key);
+        final WeakReference<BIN> ref = bins.get(slot);
+
+        if (ref == null) {
+            return null;
+        }
+
+        final BIN bin = ref.get();
+
+        if (bin == null) {
+            bins.compareAndSet(slot, ref, null);
+            return null;
+        }
+
+        bin.latchNoUpdateLRU();
+
+        if (bin.getInListResident() &&
+            !bin.isBINDelta() &&
+            bin.getNEntries() > 0 &&
+            bin.isKeyInBounds(key)) {
+
+            bin.updateLRU(cacheMode);
+            return bin;
+        }
+
+        bin.releaseLatch();
+        bins.compareAndSet(slot, ref, null);
+        return null;
+    }
+
+    /**
+     * Records the BIN found by a search for the given key.
+     */
+    void put(byte[] key, BIN bin) {
+        final int slot = getSlot(key);
+        final WeakReference<BIN> ref = bins.get(slot);
+
+        if (ref == null || ref.get() != bin) {
+            bins.lazySet(slot, new WeakReference<BIN>(bin));
+        }
+    }
+
+    /**
+     * Returns the number of slots, for testing.
+     */
+    int getSize() {
+        return bins.length();
+    }
+
+    private int getSlot(byte[] key) {
+        int hash = 1;
+        for (final byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -658,6 +658,23 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
     }
 
     /* For unit testing. */
+    /**
+     * Returns a stamp for reading this node optimistically without latching
+     * it, or zero if that is not possible, e.g., because it is latched
+     * exclusively or is a BIN.  See SharedLatch.getOptimisticStamp.
+     */
+    final long getOptimisticStamp() {
+        return latch.getOptimisticStamp();
+    }
+
+    /**
+     * Returns whether this node has not been latched exclusively since the
+     * given stamp was returned by getOptimisticStamp.
+     */
+    final boolean validateOptimisticStamp(long stamp) {
+        return latch.validateOptimisticStamp(stamp);
+    }
+
     public final int getLatchNWaiters() {
         return latch.getNWaiters();
     }
@@ -1464,7 +1481,7 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
          * Only compute key prefix if prefixing is enabled and there's an
          * existing prefix.
          */
-        if (databaseImpl.getKeyPrefixing() && keyPrefix != null) {
+        if (isKeyPrefixingEnabled() && keyPrefix != null) {
 
             int newPrefixLen = Key.getKeyPrefixLength(
                 keyPrefix, keyPrefix.length, key);
@@ -1500,8 +1517,9 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
         } else if (keyPrefix != null) {
 
             /*
-             * Key prefixing has been turned off on this database, but there
-             * are existing prefixes. Remove prefixes for this IN.
+             * Key prefixing has been turned off on this database (or for
+             * upper INs), but there are existing prefixes. Remove prefixes
+             * for this IN.
              */
             recalcSuffixes(null, key, data, idx);
             return true;
@@ -1576,14 +1594,30 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
         recalcSuffixes(computeKeyPrefix(-1), null, null, -1);
     }
 
+    /*
+     * Returns whether key prefixing is used for this IN. It is used when
+     * configured for the database, and is also used automatically for upper
+     * INs when je.tree.compactUpperINKeys is true. Upper INs are few, are
+     * modified only by splits and compression, and their keys often share
+     * long prefixes, so prefixing them is nearly always a win.
+     */
+    private boolean isKeyPrefixingEnabled() {
+        return databaseImpl.getKeyPrefixing() ||
+            (isUpperIN() && getEnv().getCompactUpperINKeys());
+    }
+
     /*
      * Computes a key prefix based on all the keys in 'this'.  Return null if
      * the IN is empty or prefixing is not enabled or there is no common
      * prefix for the keys.
+     *
+     * When prefixing is used automatically for an upper IN, rather than
+     * being configured for the database, null is also returned when the
+     * prefix is too short to pay for its own storage.
      */
     private byte[] computeKeyPrefix(int excludeIdx) {
 
-        if (!databaseImpl.getKeyPrefixing() || nEntries <= 1) {
+        if (!isKeyPrefixingEnabled() || nEntries <= 1) {
             return null;
         }
 
@@ -1638,6 +1672,12 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
             }
         }
 
+        if (!databaseImpl.getKeyPrefixing() &&
+            prefixLen * (nEntries - 1) <=
+            MemoryBudget.byteArraySize(prefixLen)) {
+            return null;
+        }
+
         byte[] ret = new byte[prefixLen];
         System.arraycopy(curPrefixKey, 0, ret, 0, prefixLen);
 
@@ -4144,6 +4184,40 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
         }
     }
 
+    /*
+     * Returns whether a split of this node may store a truncated separator
+     * key in the parent, rather than the full first key of the right-hand
+     * node. Only BIN splits are truncated, since the keys of upper INs are
+     * already separators, and only when keys are compared byte-by-byte.
+     */
+    private boolean useSeparatorKeys() {
+        return isBIN() &&
+            getEnv().getCompactUpperINKeys() &&
+            databaseImpl.getKeyComparator() == null &&
+            !databaseImpl.getSortedDuplicates();
+    }
+
+    /**
+     * Returns the shortest prefix of rightKey that is greater than leftKey,
+     * where leftKey is less than rightKey in unsigned byte order. Any key
+     * that sorts between the two, inclusive of rightKey, may be used to
+     * separate two nodes in their parent. The shortest one saves space in
+     * the upper INs and makes them more suitable for prefixing.
+     */
+    static byte[] computeSeparatorKey(byte[] leftKey, byte[] rightKey) {
+
+        final int len = Key.getKeyPrefixLength(
+            leftKey, leftKey.length, rightKey) + 1;
+
+        if (len >= rightKey.length) {
+            return rightKey;
+        }
+
+        final byte[] ret = new byte[len];
+        System.arraycopy(rightKey, 0, ret, 0, len);
+        return ret;
+    }
+
     final IN splitInternal(
         IN parent,
         int childIndex,
@@ -4193,6 +4267,15 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
         byte[] newIdKey = getKey(low);
         long parentLsn = DbLsn.NULL_LSN;
 
+        /*
+         * The key stored in the parent for the right-hand node. For a BIN
+         * it need not be a full key, only one that separates the two nodes.
+         */
+        final int rightIndex = (low == 0) ? high : low;
+        final byte[] separatorKey = useSeparatorKeys() ?
+            computeSeparatorKey(getKey(rightIndex - 1), getKey(rightIndex)) :
+            getKey(rightIndex);
+
         IN newSibling = createNewInstance(newIdKey, maxEntries, level);
 
         newSibling.latch(CacheMode.UNCHANGED);
@@ -4327,7 +4410,7 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
                     childIndex, newSibling, newSiblingLsn, newIdKey);
 
                 boolean inserted = parent.insertEntry(
-                    this, getKey(0), myNewLsn);
+                    this, separatorKey, myNewLsn);
                 assert inserted;
             } else {
 
@@ -4338,7 +4421,7 @@ public class IN extends Node implements Comparable<IN>, LatchContext {
                 parent.updateSplitSlot(childIndex, this, myNewLsn, getKey(0));
 
                 boolean inserted = parent.insertEntry(
-                    newSibling, newIdKey, newSiblingLsn);
+                    newSibling, separatorKey, newSiblingLsn);
                 assert inserted;
             }
 
@@ -42,12 +42,14 @@
  */
 package com.sleepycat.je.tree;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
 import com.sleepycat.je.dbi.DupKeyData;
 import com.sleepycat.je.dbi.MemoryBudget;
 import com.sleepycat.je.evictor.Evictor;
 import com.sleepycat.je.utilint.SizeofMarker;
+import com.sleepycat.util.PackedInteger;
 
 /**
  * The abstract class that defines the various formats used to represent
@@ -55,7 +57,7 @@ import com.sleepycat.je.utilint.SizeofMarker;
  * embedded records, where the actual key and the data portion of a record are
  * stored together as a single byte sequence.
  * 
- * There are currently two supported representations:
+ * There are currently four supported representations:
  * <ol>
  * <li>A default representation <code>Default</code> that's capable of holding
  * any set of keys.</li>
@@ -64,12 +66,21 @@ import com.sleepycat.je.utilint.SizeofMarker;
  * holding small keys (LTE 16 bytes) in length. If key prefixing is in use this
  * represents the unprefixed part of the key, since that's what is stored in
  * this array.</li>
+ * <li>
+ * A packed representation <code>Packed</code> that stores keys of any length
+ * contiguously in a single byte array, along with an array of per-slot
+ * offsets.</li>
+ * <li>
+ * A representation <code>FixedLong</code> for INs whose keys all have the
+ * same small length, such as the keys of a LongBinding or a sequence, which
+ * stores each key as one or two longs that are compared as primitives.</li>
  * </ol>
  * <p>
  * The choice of representation is made when an IN node is first read in from
- * the log. The <code>MaxKeySize</code> representation is only used when it is
- * more storage efficient than the default representation for the set of keys
- * currently associated with the IN.
+ * the log, and when it is compacted by a split or by the evictor. The
+ * other representations are only used when they are more storage efficient
+ * than the default representation for the set of keys currently associated
+ * with the IN.
  * <p>
  * Note that no attempt is currently made to optimize the storage
  * representation as keys are added to, or removed from, the
@@ -80,13 +91,18 @@ public abstract class INKeyRep
     extends INArrayRep<INKeyRep, INKeyRep.Type, byte[]> {
 
     /* The different representations for keys. */
-    public enum Type { DEFAULT, MAX_KEY_SIZE };
+    public enum Type { DEFAULT, MAX_KEY_SIZE, PACKED, FIXED_LONG };
 
     public INKeyRep() {
     }
 
     public abstract int length();
 
+    /**
+     * Returns the length of the key at idx, or -1 if the slot has a null key.
+     */
+    abstract int getKeyLength(int idx);
+
     /**
      * Returns true if the key bytes mem usage is accounted for internally
      * here, or false if each key has a separate byte array and its mem usage
@@ -107,12 +123,168 @@ public abstract class INKeyRep
         int idx,
         boolean embeddedData);
 
-    public abstract int compareKeys(
+    /**
+     * Compares the search key to the key at idx, which is the given prefix
+     * followed by the suffix stored in this rep. Unless a comparator is used,
+     * the prefix is compared here and the rest of the search key is compared
+     * to the suffix by compareSuffixes.
+     */
+    public final int compareKeys(
         byte[] searchKey,
         byte[] prefix,
         int idx,
         boolean embeddedData,
-        Comparator<byte[]> comparator);
+        Comparator<byte[]> comparator) {
+
+        if (comparator != null) {
+            byte[] myKey = getFullKey(prefix, idx, embeddedData);
+            return Key.compareKeys(searchKey, myKey, comparator);
+        }
+
+        if (prefix == null || prefix.length == 0) {
+            return compareSuffixes(
+                searchKey, 0, searchKey.length, idx, embeddedData);
+        }
+
+        /*
+         * A search key that is shorter than the prefix is less than every key
+         * in the IN, or differs from all of them in the prefix. A search key
+         * equal to the prefix must still be compared to the suffix, which may
+         * be empty.
+         */
+        if (searchKey.length < prefix.length) {
+            return Key.compareUnsignedBytes(
+                searchKey, 0, searchKey.length, prefix, 0, prefix.length);
+        }
+
+        int cmp = Key.compareUnsignedBytes(
+            searchKey, 0, prefix.length, prefix, 0, prefix.length);
+
+        if (cmp != 0) {
+            return cmp;
+        }
+
+        return compareSuffixes(
+            searchKey, prefix.length, searchKey.length - prefix.length,
+            idx, embeddedData);
+    }
+
+    /**
+     * Compares the given part of the search key to the suffix stored for the
+     * key at idx, which is an empty key if the slot has a null key.
+     */
+    abstract int compareSuffixes(
+        byte[] searchKey,
+        int searchKeyOff,
+        int searchKeyLen,
+        int idx,
+        boolean embeddedData);
+
+    /**
+     * Chooses the most compact of the FixedLong, MaxKeySize, Packed and
+     * current representations for the current set of keys. Since all the keys
+     * must be examined to make the decision, there is a reasonable cost to the
+     * method and it should not be invoked indiscriminately.
+     *
+     * @return this, or the new representation if it is smaller.
+     */
+    INKeyRep compactKeys(IN parent) {
+
+        final int compactMaxKeyLength = parent.getCompactMaxKeyLength();
+        if (compactMaxKeyLength <= 0) {
+            return this;
+        }
+
+        final int capacity = length();
+        int keyCount = 0;
+        int minKeyLength = Integer.MAX_VALUE;
+        int maxKeyLength = 0;
+        long keyBytes = 0;
+        int packedBytes = 0;
+
+        for (int i = 0; i < capacity; i++) {
+            final int len = getKeyLength(i);
+            if (len < 0) {
+                continue;
+            }
+            keyCount++;
+            minKeyLength = Math.min(minKeyLength, len);
+            maxKeyLength = Math.max(maxKeyLength, len);
+            keyBytes += MemoryBudget.byteArraySize(len);
+            packedBytes += Packed.getStorageLength(len);
+        }
+
+        if (keyCount == 0) {
+            return this;
+        }
+
+        long currentSize = calculateMemorySize();
+        if (!accountsForKeyByteMemUsage()) {
+            currentSize += keyBytes;
+        }
+
+        Type bestType = null;
+        long bestSize = currentSize;
+
+        if (minKeyLength == maxKeyLength &&
+            maxKeyLength > 0 &&
+            maxKeyLength <= FixedLong.MAX_KEY_LENGTH &&
+            maxKeyLength <= compactMaxKeyLength) {
+
+            final long size =
+                FixedLong.calculateMemorySize(capacity, maxKeyLength);
+            if (size < bestSize) {
+                bestType = Type.FIXED_LONG;
+                bestSize = size;
+            }
+        }
+
+        if (capacity <= MaxKeySize.MAX_KEYS &&
+            maxKeyLength <= compactMaxKeyLength) {
+
+            final long size =
+                MaxKeySize.calculateMemorySize(capacity, maxKeyLength);
+            if (size < bestSize) {
+                bestType = Type.MAX_KEY_SIZE;
+                bestSize = size;
+            }
+        }
+
+        final long packedSize =
+            Packed.calculateMemorySize(capacity, packedBytes);
+        if (packedSize < bestSize) {
+            bestType = Type.PACKED;
+            bestSize = packedSize;
+        }
+
+        if (bestType == null) {
+            return this;
+        }
+
+        switch (bestType) {
+        case FIXED_LONG:
+            return compactTo(
+                new FixedLong(capacity, (byte) maxKeyLength), parent);
+        case MAX_KEY_SIZE:
+            return compactTo(
+                new MaxKeySize(capacity, (short) maxKeyLength), parent);
+        case PACKED:
+            return compactTo(new Packed(capacity, packedBytes), parent);
+        default:
+            throw new IllegalStateException(bestType.toString());
+        }
+    }
+
+    private INKeyRep compactTo(INKeyRep newRep, IN parent) {
+
+        for (int i = 0; i < length(); i++) {
+            INKeyRep rep = newRep.set(i, get(i), null);
+            assert rep == newRep; /* Rep remains unchanged. */
+        }
+
+        noteRepChange(newRep, parent);
+        return newRep;
+    }
 
     /**
      * The default representation that's capable of storing keys of any size.
@@ -139,6 +311,11 @@ public abstract class INKeyRep
             return keys.length;
         }
 
+        @Override
+        int getKeyLength(int idx) {
+            return (keys[idx] == null) ? -1 : keys[idx].length;
+        }
+
         @Override
         public INKeyRep set(int idx, byte[] key, IN parent) {
             keys[idx] = key;
@@ -226,50 +403,7 @@ public abstract class INKeyRep
         }
 
         @Override
-        public int compareKeys(
-            byte[] searchKey,
-            byte[] prefix,
-            int idx,
-            boolean embeddedData,
-            Comparator<byte[]> comparator)
-        {
-            if (comparator != null) {
-                byte[] myKey = getFullKey(prefix, idx, embeddedData);
-                return  Key.compareKeys(searchKey, myKey, comparator);
-            }
-
-            int cmp = 0;
-
-            if (prefix == null || prefix.length == 0) {
-
-                return compareSuffixes(
-                    searchKey, 0, searchKey.length, idx, embeddedData);
-            }
-
-            if (searchKey.length <= prefix.length) {
-
-                return Key.compareUnsignedBytes(
-                    searchKey, 0, searchKey.length,
-                    prefix, 0, searchKey.length);
-            }
-
-            cmp = Key.compareUnsignedBytes(
-                searchKey, 0, prefix.length, prefix, 0, prefix.length);
-
-            if (cmp == 0) {
-
-                int searchKeyOffset = prefix.length;
-                int searchKeyLen = searchKey.length - prefix.length;
-
-                return compareSuffixes(
-                    searchKey, searchKeyOffset, searchKeyLen,
-                    idx, embeddedData);
-            }
-
-            return cmp;
-        }
-
-        private int compareSuffixes(
+        int compareSuffixes(
             byte[] searchKey,
             int searchKeyOff,
             int searchKeyLen,
@@ -300,69 +434,12 @@ public abstract class INKeyRep
         }
 
         /**
-         * Evolves to the MaxKeySize representation if that is more efficient
-         * for the current set of keys. Note that since all the keys must be
-         * examined to make the decision, there is a reasonable cost to the
-         * method and it should not be invoked indiscriminately.
+         * Evolves to the MaxKeySize or Packed representation if either is
+         * more efficient for the current set of keys.
          */
         @Override
         public INKeyRep compact(IN parent) {
-
-            if (keys.length > MaxKeySize.MAX_KEYS) {
-                return this;
-            }
-
-            final int compactMaxKeyLength = parent.getCompactMaxKeyLength();
-            if (compactMaxKeyLength <= 0) {
-                return this;
-            }
-
-            int keyCount = 0;
-            int maxKeyLength = 0;
-            int defaultKeyBytes = 0;
-
-            for (byte[] key : keys) {
-                if (key != null) {
-                    keyCount++;
-                    if (key.length > maxKeyLength) {
-                        maxKeyLength = key.length;
-                        if (maxKeyLength > compactMaxKeyLength) {
-                            return this;
-                        }
-                    }
-                    defaultKeyBytes += MemoryBudget.byteArraySize(key.length);
-                }
-            }
-
-            if (keyCount == 0) {
-                return this;
-            }
-
-            long defaultSizeWithKeys = calculateMemorySize() + defaultKeyBytes;
-
-            if (defaultSizeWithKeys >
-                MaxKeySize.calculateMemorySize(keys.length, maxKeyLength)) {
-                return compactToMaxKeySizeRep(maxKeyLength, parent);
-            }
-
-            return this;
-        }
-
-        private MaxKeySize compactToMaxKeySizeRep(
-            int maxKeyLength,
-            IN parent) {
-            
-            MaxKeySize newRep =
-                new MaxKeySize(keys.length, (short) maxKeyLength);
-
-            for (int i = 0; i < keys.length; i++) {
-                INKeyRep rep = newRep.set(i, keys[i], parent);
-                assert rep == newRep; /* Rep remains unchanged. */
-            }
-
-            noteRepChange(newRep, parent);
-
-            return newRep;
+            return compactKeys(parent);
         }
 
         @Override
@@ -463,6 +540,12 @@ public abstract class INKeyRep
             return keys.length / fixedKeyLen;
         }
 
+        @Override
+        int getKeyLength(int idx) {
+            final byte len = keys[idx * fixedKeyLen];
+            return (len == NULL_KEY) ? -1 : (len - Byte.MIN_VALUE);
+        }
+
         @Override
         public INKeyRep set(int idx, byte[] key, IN parent) {
 
@@ -616,49 +699,7 @@ public abstract class INKeyRep
         }
 
         @Override
-        public int compareKeys(
-            byte[] searchKey,
-            byte[] prefix,
-            int idx,
-            boolean embeddedData,
-            Comparator<byte[]> comparator)
-        {
-            if (comparator != null) {
-                byte[] myKey = getFullKey(prefix, idx, embeddedData);
-                return  Key.compareKeys(searchKey, myKey, comparator);
-            }
-
-            int cmp = 0;
-
-            if (prefix == null || prefix.length == 0) {
-
-                return compareSuffixes(
-                    searchKey, 0, searchKey.length, idx, embeddedData);
-            }
-
-            if (searchKey.length <= prefix.length) {
-                return Key.compareUnsignedBytes(
-                    searchKey, 0, searchKey.length,
-                    prefix, 0, searchKey.length);
-            }
-
-            cmp = Key.compareUnsignedBytes(
-                searchKey, 0, prefix.length, prefix, 0, prefix.length);
-
-            if (cmp == 0) {
-
-                int searchKeyOff = prefix.length;
-                int searchKeyLen = searchKey.length - prefix.length;
-
-                return compareSuffixes(
-                    searchKey, searchKeyOff, searchKeyLen,
-                    idx, embeddedData);
-            }
-
-            return cmp;
-        }
-
-        private int compareSuffixes(
+        int compareSuffixes(
             byte[] searchKey,
             int searchKeyOff,
             int searchKeyLen,
@@ -708,7 +749,7 @@ public abstract class INKeyRep
                    MemoryBudget.byteArraySize(keys.length);
         }
 
-        private static long calculateMemorySize(int maxKeys, int maxKeySize) {
+        static long calculateMemorySize(int maxKeys, int maxKeySize) {
             return MemoryBudget.MAX_KEY_SIZE_KEYVALS_OVERHEAD +
                    MemoryBudget.byteArraySize(maxKeys *
                                               (maxKeySize + LENGTH_BYTES));
@@ -728,4 +769,623 @@ public abstract class INKeyRep
             }
         }
     }
+
+    /**
+     * The packed representation stores the keys of all slots, regardless of
+     * their length, contiguously in a single byte array (the arena). Each key
+     * is preceded by its length as a packed integer, and the slots refer to
+     * their keys by an offset into the arena. Compared to the Default
+     * representation, this saves the object overhead and the pointer for
+     * each key, and keeps the keys together in memory for binary searches.
+     *
+     * Keys are never updated in place, since a copy (as done for insertions
+     * and deletions) may leave two slots with the same offset. A new key is
+     * instead appended at the end of the arena; the space for the old key
+     * becomes garbage. When the arena is full, the live keys are copied to a
+     * new arena, leaving some room for later insertions. The garbage and the
+     * extra room are released when the IN is compacted.
+     *
+     * Unlike the MaxKeySize representation, the size of the representation
+     * changes as keys are set, and these changes are noted in the parent IN
+     * as they happen.
+     */
+    public static class Packed extends INKeyRep {
+
+        private static final int NULL_OFFSET = -1;
+
+        private byte[] arena;
+
+        /* The arena offset of the key for each slot, or NULL_OFFSET. */
+        private final int[] offsets;
+
+        /* The arena offset where the next key will be appended. */
+        private int end;
+
+        public Packed(int nodeMaxEntries, int arenaLength) {
+            arena = new byte[arenaLength];
+            offsets = new int[nodeMaxEntries];
+            Arrays.fill(offsets, NULL_OFFSET);
+        }
+
+        /* Only for use by Sizeof */
+        public Packed(@SuppressWarnings("unused") SizeofMarker marker) {
+            arena = null;
+            offsets = null;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.PACKED;
+        }
+
+        @Override
+        public int length() {
+            return offsets.length;
+        }
+
+        @Override
+        int getKeyLength(int idx) {
+            final int off = offsets[idx];
+            return (off == NULL_OFFSET) ?
+                -1 : PackedInteger.readInt(arena, off);
+        }
+
+        /* Returns the arena offset of the key bytes for a non-null slot. */
+        private int getKeyOffset(int idx) {
+            final int off = offsets[idx];
+            return off + PackedInteger.getReadIntLength(arena, off);
+        }
+
+        /* Returns the number of arena bytes used to store a key. */
+        static int getStorageLength(int keyLength) {
+            return PackedInteger.getWriteIntLength(keyLength) + keyLength;
+        }
+
+        @Override
+        public INKeyRep set(int idx, byte[] key, IN parent) {
+
+            offsets[idx] = NULL_OFFSET;
+
+            if (key == null) {
+                return this;
+            }
+
+            final int storageLength = getStorageLength(key.length);
+
+            if (end + storageLength > arena.length) {
+                repack(storageLength, parent);
+            }
+
+            offsets[idx] = end;
+            end = PackedInteger.writeInt(arena, end, key.length);
+            System.arraycopy(key, 0, arena, end, key.length);
+            end += key.length;
+
+            return this;
+        }
+
+        /**
+         * Copies the live keys to a new arena with room for at least
+         * extraBytes more, dropping the garbage left by earlier sets.
+         */
+        private void repack(int extraBytes, IN parent) {
+
+            int liveBytes = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                if (offsets[i] != NULL_OFFSET) {
+                    liveBytes += getStorageLength(getKeyLength(i));
+                }
+            }
+
+            final int newLength = liveBytes + extraBytes +
+                ((liveBytes + extraBytes) >> 2);
+
+            final byte[] newArena = new byte[newLength];
+            int newEnd = 0;
+
+            for (int i = 0; i < offsets.length; i++) {
+                final int off = offsets[i];
+                if (off == NULL_OFFSET) {
+                    continue;
+                }
+                final int storageLength =
+                    getStorageLength(PackedInteger.readInt(arena, off));
+                System.arraycopy(arena, off, newArena, newEnd, storageLength);
+                offsets[i] = newEnd;
+                newEnd += storageLength;
+            }
+
+            if (parent != null) {
+                parent.updateMemorySize(
+                    MemoryBudget.byteArraySize(arena.length),
+                    MemoryBudget.byteArraySize(newLength));
+            }
+
+            arena = newArena;
+            end = newEnd;
+        }
+
+        @Override
+        public INKeyRep set(int idx, byte[] key, byte[] data, IN parent) {
+
+            if (data == null || data.length == 0) {
+                return set(idx, key, parent);
+            }
+
+            byte[] twoPartKey = DupKeyData.combine(key, data);
+
+            return set(idx, twoPartKey, parent);
+        }
+
+        @Override
+        public INKeyRep setData(int idx, byte[] data, IN parent) {
+
+            /*
+             * TODO #21488: optimize this to avoid creation of new combined
+             * key, when possible.
+             */
+            return set(idx, getKey(idx, true), data, parent);
+        }
+
+        @Override
+        public byte[] get(int idx) {
+
+            if (offsets[idx] == NULL_OFFSET) {
+                return null;
+            }
+
+            final int len = getKeyLength(idx);
+            final byte[] info = new byte[len];
+            System.arraycopy(arena, getKeyOffset(idx), info, 0, len);
+            return info;
+        }
+
+        @Override
+        public byte[] getData(int idx) {
+
+            assert(offsets[idx] != NULL_OFFSET);
+
+            return DupKeyData.getData(
+                arena, getKeyOffset(idx), getKeyLength(idx));
+        }
+
+        @Override
+        public byte[] getKey(int idx, boolean embeddedData) {
+
+            if (offsets[idx] == NULL_OFFSET) {
+                assert(!embeddedData);
+                return Key.EMPTY_KEY;
+            }
+
+            final int keyOff = getKeyOffset(idx);
+            final int len = getKeyLength(idx);
+
+            if (embeddedData) {
+                return DupKeyData.getKey(arena, keyOff, len);
+            }
+
+            byte[] key = new byte[len];
+            System.arraycopy(arena, keyOff, key, 0, len);
+            return key;
+        }
+
+        @Override
+        public byte[] getFullKey(
+            byte[] prefix,
+            int idx,
+            boolean embeddedData) {
+
+            if (prefix == null || prefix.length == 0) {
+                return getKey(idx, embeddedData);
+            }
+
+            if (offsets[idx] == NULL_OFFSET) {
+                assert(!embeddedData);
+                return prefix;
+            }
+
+            final int keyOff = getKeyOffset(idx);
+            final int len = getKeyLength(idx);
+
+            int prefixLen = prefix.length;
+            int suffixLen;
+
+            if (embeddedData) {
+                suffixLen = DupKeyData.getKeyLength(arena, keyOff, len);
+            } else {
+                suffixLen = len;
+            }
+
+            byte[] key = new byte[suffixLen + prefixLen];
+            System.arraycopy(prefix, 0, key, 0, prefixLen);
+            System.arraycopy(arena, keyOff, key, prefixLen, suffixLen);
+            return key;
+        }
+
+        @Override
+        int compareSuffixes(
+            byte[] searchKey,
+            int searchKeyOff,
+            int searchKeyLen,
+            int idx,
+            boolean embeddedData) {
+
+            int myKeyOff = 0;
+            int myKeyLen = 0;
+
+            if (offsets[idx] != NULL_OFFSET) {
+
+                myKeyOff = getKeyOffset(idx);
+                myKeyLen = getKeyLength(idx);
+
+                if (embeddedData) {
+                    myKeyLen = DupKeyData.getKeyLength(
+                        arena, myKeyOff, myKeyLen);
+                }
+            } else {
+                assert(!embeddedData);
+            }
+
+            return Key.compareUnsignedBytes(
+                searchKey, searchKeyOff, searchKeyLen,
+                arena, myKeyOff, myKeyLen);
+        }
+
+        @Override
+        public INKeyRep copy(int from, int to, int n, IN parent) {
+            System.arraycopy(offsets, from, offsets, to, n);
+            return this;
+        }
+
+        /**
+         * Releases the garbage and extra room in the arena, or evolves to
+         * the MaxKeySize representation if that is more efficient.
+         */
+        @Override
+        public INKeyRep compact(IN parent) {
+            return compactKeys(parent);
+        }
+
+        @Override
+        public long calculateMemorySize() {
+            return MemoryBudget.PACKED_KEYVALS_OVERHEAD +
+                   MemoryBudget.byteArraySize(arena.length) +
+                   MemoryBudget.intArraySize(offsets.length);
+        }
+
+        static long calculateMemorySize(int maxKeys, int arenaLength) {
+            return MemoryBudget.PACKED_KEYVALS_OVERHEAD +
+                   MemoryBudget.byteArraySize(arenaLength) +
+                   MemoryBudget.intArraySize(maxKeys);
+        }
+
+        @Override
+        public boolean accountsForKeyByteMemUsage() {
+            return true;
+        }
+
+        @Override
+        void updateCacheStats(boolean increment, Evictor evictor) {
+            if (increment) {
+                evictor.getNINCompactKey().incrementAndGet();
+            } else {
+                evictor.getNINCompactKey().decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The representation for INs whose keys all have the same length, up to
+     * 16 bytes, such as the 8 byte keys of a LongBinding or a sequence. Each
+     * key is stored big-endian in one or two longs, padded with zero bytes,
+     * so that comparing the longs as unsigned values is the same as comparing
+     * the key bytes. The null keys are tracked in a separate bit set.
+     *
+     * A search key is compared a word at a time, as a primitive long, rather
+     * than a byte at a time. For 8 and 16 byte keys the representation also
+     * takes less memory than the MaxKeySize representation, which needs an
+     * extra length byte for each key. It is chosen automatically when it is
+     * the most compact representation for the keys, and mutates to the
+     * Default representation when a key with a different length is set.
+     */
+    public static class FixedLong extends INKeyRep {
+
+        public static final int MAX_KEY_LENGTH = 16;
+
+        /* The length of every non-null key. */
+        private final byte keyLength;
+
+        /* The number of longs used to store each key: 1 or 2. */
+        private final byte wordsPerKey;
+
+        private final long[] keys;
+
+        /* A set bit indicates that the slot has a null key. */
+        private final long[] nullKeys;
+
+        public FixedLong(int nodeMaxEntries, byte keyLength) {
+
+            assert keyLength > 0 && keyLength <= MAX_KEY_LENGTH;
+            this.keyLength = keyLength;
+            this.wordsPerKey = (byte) getWordsPerKey(keyLength);
+            this.keys = new long[nodeMaxEntries * wordsPerKey];
+            this.nullKeys = new long[getNullKeysLength(nodeMaxEntries)];
+            Arrays.fill(nullKeys, -1L);
+        }
+
+        /* Only for use by Sizeof */
+        public FixedLong(@SuppressWarnings("unused") SizeofMarker marker) {
+            keyLength = 0;
+            wordsPerKey = 0;
+            keys = null;
+            nullKeys = null;
+        }
+
+        private static int getWordsPerKey(int keyLength) {
+            return (keyLength + 7) >>> 3;
+        }
+
+        private static int getNullKeysLength(int nodeMaxEntries) {
+            return (nodeMaxEntries + 63) >>> 6;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.FIXED_LONG;
+        }
+
+        @Override
+        public int length() {
+            return keys.length / wordsPerKey;
+        }
+
+        private boolean isNull(int idx) {
+            return (nullKeys[idx >>> 6] & (1L << idx)) != 0;
+        }
+
+        private void setNull(int idx, boolean isNull) {
+            if (isNull) {
+                nullKeys[idx >>> 6] |= (1L << idx);
+            } else {
+                nullKeys[idx >>> 6] &= ~(1L << idx);
+            }
+        }
+
+        @Override
+        int getKeyLength(int idx) {
+            return isNull(idx) ? -1 : keyLength;
+        }
+
+        /**
+         * Returns the given word of a key, as stored in the keys array, with
+         * the bytes beyond the key length set to zero.
+         */
+        private static long getWord(byte[] key, int off, int len, int word) {
+
+            final int start = word << 3;
+            return Key.getWord(key, off + start, len - start);
+        }
+
+        @Override
+        public INKeyRep set(int idx, byte[] key, IN parent) {
+
+            if (key == null) {
+                setNull(idx, true);
+                return this;
+            }
+
+            if (key.length != keyLength) {
+                Default newRep = expandToDefaultRep(parent);
+                return newRep.set(idx, key, parent);
+            }
+
+            final int keyOff = idx * wordsPerKey;
+            for (int w = 0; w < wordsPerKey; w++) {
+                keys[keyOff + w] = getWord(key, 0, keyLength, w);
+            }
+            setNull(idx, false);
+
+            return this;
+        }
+
+        @Override
+        public INKeyRep set(int idx, byte[] key, byte[] data, IN parent) {
+
+            if (data == null || data.length == 0) {
+                return set(idx, key, parent);
+            }
+
+            byte[] twoPartKey = DupKeyData.combine(key, data);
+
+            return set(idx, twoPartKey, parent);
+        }
+
+        @Override
+        public INKeyRep setData(int idx, byte[] data, IN parent) {
+
+            /*
+             * TODO #21488: optimize this to avoid creation of new combined
+             * key, when possible.
+             */
+            return set(idx, getKey(idx, true), data, parent);
+        }
+
+        private Default expandToDefaultRep(IN parent) {
+
+            final int capacity = length();
+            final Default newRep = new Default(capacity);
+
+            for (int i = 0; i < capacity; i++) {
+                final byte[] k = get(i);
+                INKeyRep rep = newRep.set(i, k, parent);
+                assert rep == newRep; /* Rep remains unchanged. */
+            }
+
+            noteRepChange(newRep, parent);
+            return newRep;
+        }
+
+        @Override
+        public byte[] get(int idx) {
+
+            if (isNull(idx)) {
+                return null;
+            }
+
+            final byte[] key = new byte[keyLength];
+            final int keyOff = idx * wordsPerKey;
+
+            for (int i = 0; i < keyLength; i++) {
+                final long word = keys[keyOff + (i >>> 3)];
+                key[i] = (byte) (word >>> ((7 - (i & 7)) << 3));
+            }
+            return key;
+        }
+
+        @Override
+        public byte[] getData(int idx) {
+
+            assert(!isNull(idx));
+
+            final byte[] key = get(idx);
+            return DupKeyData.getData(key, 0, key.length);
+        }
+
+        @Override
+        public byte[] getKey(int idx, boolean embeddedData) {
+
+            if (isNull(idx)) {
+                assert(!embeddedData);
+                return Key.EMPTY_KEY;
+            }
+
+            final byte[] key = get(idx);
+
+            if (embeddedData) {
+                return DupKeyData.getKey(key, 0, key.length);
+            }
+
+            return key;
+        }
+
+        @Override
+        public byte[] getFullKey(
+            byte[] prefix,
+            int idx,
+            boolean embeddedData) {
+
+            if (prefix == null || prefix.length == 0) {
+                return getKey(idx, embeddedData);
+            }
+
+            if (isNull(idx)) {
+                assert(!embeddedData);
+                return prefix;
+            }
+
+            final byte[] suffix = getKey(idx, embeddedData);
+            final byte[] key = new byte[prefix.length + suffix.length];
+            System.arraycopy(prefix, 0, key, 0, prefix.length);
+            System.arraycopy(suffix, 0, key, prefix.length, suffix.length);
+            return key;
+        }
+
+        @Override
+        int compareSuffixes(
+            byte[] searchKey,
+            int searchKeyOff,
+            int searchKeyLen,
+            int idx,
+            boolean embeddedData) {
+
+            if (isNull(idx)) {
+                assert(!embeddedData);
+                return searchKeyLen;
+            }
+
+            if (embeddedData) {
+                final byte[] myKey = getKey(idx, true);
+                return Key.compareUnsignedBytes(
+                    searchKey, searchKeyOff, searchKeyLen,
+                    myKey, 0, myKey.length);
+            }
+
+            /*
+             * Both words are padded with zero bytes, so when they differ the
+             * unsigned comparison gives the order of the keys: a padding byte
+             * only differs from a key byte that is greater than it, and the
+             * key with the padding is the shorter one. When all words are
+             * equal, the key lengths decide.
+             */
+            final int keyOff = idx * wordsPerKey;
+
+            for (int w = 0; w < wordsPerKey; w++) {
+
+                final long searchWord =
+                    getWord(searchKey, searchKeyOff, searchKeyLen, w);
+                final long myWord = keys[keyOff + w];
+
+                if (searchWord != myWord) {
+                    return ((searchWord + Long.MIN_VALUE) <
+                            (myWord + Long.MIN_VALUE)) ? -1 : 1;
+                }
+            }
+
+            return searchKeyLen - keyLength;
+        }
+
+        @Override
+        public INKeyRep copy(int from, int to, int n, IN parent) {
+
+            System.arraycopy(keys, from * wordsPerKey,
+                             keys, to * wordsPerKey,
+                             n * wordsPerKey);
+
+            /* Copy the null bits in the direction that supports overlap. */
+            if (to < from) {
+                for (int i = 0; i < n; i++) {
+                    setNull(to + i, isNull(from + i));
+                }
+            } else {
+                for (int i = n - 1; i >= 0; i--) {
+                    setNull(to + i, isNull(from + i));
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public INKeyRep compact(@SuppressWarnings("unused") IN parent) {
+            /* It's as compact as it gets. */
+            return this;
+        }
+
+        @Override
+        public long calculateMemorySize() {
+            return MemoryBudget.FIXED_LONG_KEYVALS_OVERHEAD +
+                   MemoryBudget.longArraySize(keys.length) +
+                   MemoryBudget.longArraySize(nullKeys.length);
+        }
+
+        static long calculateMemorySize(int maxKeys, int keyLength) {
+            return MemoryBudget.FIXED_LONG_KEYVALS_OVERHEAD +
+                   MemoryBudget.longArraySize(
+                       maxKeys * getWordsPerKey(keyLength)) +
+                   MemoryBudget.longArraySize(getNullKeysLength(maxKeys));
+        }
+
+        @Override
+        public boolean accountsForKeyByteMemUsage() {
+            return true;
+        }
+
+        @Override
+        void updateCacheStats(boolean increment, Evictor evictor) {
+            if (increment) {
+                evictor.getNINCompactKey().incrementAndGet();
+            } else {
+                evictor.getNINCompactKey().decrementAndGet();
+            }
+        }
+    }
 }
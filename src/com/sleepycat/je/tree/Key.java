@@ -43,8 +43,13 @@
 
 package com.sleepycat.je.tree;
 
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Comparator;
 
+import sun.misc.Unsafe;
+
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.utilint.StringUtils;
 
@@ -59,6 +64,54 @@ import com.sleepycat.utilint.StringUtils;
  */
 public final class Key implements Comparable<Key> {
 
+    /*
+     * For benchmarking -- the je.wordKeyComparison system property may be
+     * used to disable word comparisons (see below), to measure their benefit
+     * with KeyCompareBenchmark in test/jmh:
+     *      ant -Djmh.benchmarks=KeyCompareBenchmark \
+     *          -Djmh.args="-jvmArgsAppend -Dje.wordKeyComparison=false" jmh
+     *
+     * Like je.forceKeyPrefixing, it is a static switch rather than an
+     * environment parameter, because key comparisons are not specific to an
+     * environment, and it is read once when this class is loaded. It should
+     * not be specified for an application.
+     */
+    private static final boolean wordKeyComparison =
+        !"false".equals(System.getProperty("je.wordKeyComparison"));
+
+    /*
+     * Unsafe is used by compareUnsignedBytes to read eight key bytes at a
+     * time, or is null if it is unavailable, if the platform may not support
+     * unaligned reads, or if wordKeyComparison is false, in which case keys
+     * are compared a byte at a time.
+     */
+    private static final Unsafe unsafe;
+    private static final long BYTE_ARRAY_OFFSET;
+    private static final boolean BIG_ENDIAN =
+        ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+    static {
+        Unsafe u = null;
+        final String arch = System.getProperty("os.arch");
+        if (wordKeyComparison &&
+            Arrays.asList("amd64", "x86_64", "x86", "i386", "aarch64",
+                          "ppc64le", "s390x").contains(arch)) {
+            try {
+                final Field field =
+                    Unsafe.class.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                u = (Unsafe) field.get(null);
+                if (Unsafe.ARRAY_BYTE_INDEX_SCALE != 1) {
+                    u = null;
+                }
+            } catch (Throwable e) {
+                u = null;
+            }
+        }
+        unsafe = u;
+        BYTE_ARRAY_OFFSET =
+            (u != null) ? Unsafe.ARRAY_BYTE_BASE_OFFSET : 0;
+    }
+
     public abstract static class DumpType {
 
         private String name;
@@ -253,6 +306,12 @@ public final class Key implements Comparable<Key> {
 
     /**
      * Compare using a default unsigned byte comparison.
+     *
+     * When Unsafe is available, eight bytes are compared at a time, and only
+     * the remaining bytes are compared individually. The result is the same
+     * as for a byte at a time comparison: the difference between the first
+     * unequal bytes, as unsigned values, or else the difference between the
+     * lengths.
      */
     public static int compareUnsignedBytes(byte[] key1,
                                            int off1,
@@ -260,9 +319,41 @@ public final class Key implements Comparable<Key> {
                                            byte[] key2,
                                            int off2,
                                            int len2) {
-        int limit = Math.min(len1, len2);
+        final int limit = Math.min(len1, len2);
+        int i = 0;
 
-        for (int i = 0; i < limit; i++) {
+        if (unsafe != null && limit >= 8) {
+
+            /* Unsafe does no bounds checking, so do it here. */
+            if (off1 < 0 || off1 + limit > key1.length ||
+                off2 < 0 || off2 + limit > key2.length) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+
+            final long base1 = BYTE_ARRAY_OFFSET + off1;
+            final long base2 = BYTE_ARRAY_OFFSET + off2;
+
+            for (; i + 8 <= limit; i += 8) {
+                long w1 = unsafe.getLong(key1, base1 + i);
+                long w2 = unsafe.getLong(key2, base2 + i);
+
+                if (w1 != w2) {
+                    if (!BIG_ENDIAN) {
+                        w1 = Long.reverseBytes(w1);
+                        w2 = Long.reverseBytes(w2);
+                    }
+
+                    /* Shift the first unequal byte to the low order byte. */
+                    final int shift =
+                        56 - (Long.numberOfLeadingZeros(w1 ^ w2) & ~7);
+
+                    return ((int) (w1 >>> shift) & 0xff) -
+                           ((int) (w2 >>> shift) & 0xff);
+                }
+            }
+        }
+
+        for (; i < limit; i++) {
             byte b1 = key1[i + off1];
             byte b2 = key2[i + off2];
             if (b1 == b2) {
@@ -280,6 +371,45 @@ public final class Key implements Comparable<Key> {
         return (len1 - len2);
     }
 
+    /**
+     * Returns len bytes of buf starting at off, or eight bytes if len is
+     * greater, as a big endian long. When len is less than eight the low
+     * order bytes are zero. Eight bytes are read at once when Unsafe is
+     * available, as in compareUnsignedBytes.
+     */
+    static long getWord(byte[] buf, int off, int len) {
+
+        if (unsafe != null && len >= 8) {
+
+            /* Unsafe does no bounds checking, so do it here. */
+            if (off < 0 || off + 8 > buf.length) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+
+            final long word = unsafe.getLong(buf, BYTE_ARRAY_OFFSET + off);
+            return BIG_ENDIAN ? word : Long.reverseBytes(word);
+        }
+
+        final int n = Math.min(len, 8);
+        long word = 0;
+
+        for (int i = 0; i < 8; i++) {
+            word <<= 8;
+            if (i < n) {
+                word |= buf[off + i] & 0xff;
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Returns whether compareUnsignedBytes compares eight bytes at a time.
+     * For testing.
+     */
+    static boolean isWordComparisonEnabled() {
+        return unsafe != null;
+    }
+
     /*
      * Return the length of the common prefix between 2 keys. The 1st key
      * consists of the first "a1Len" bytes of "key1". The second key is
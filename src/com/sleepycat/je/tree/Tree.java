@@ -201,6 +201,12 @@ public final class Tree implements Loggable {
     /* The number of latch upgrades from shared to exclusive required. */
     private LongStat relatchesRequired;
 
+    /*
+     * Cache of BINs found by point searches, created on first use when
+     * EnvironmentParams.TREE_BIN_FINGER_CACHE_SIZE is non-zero.
+     */
+    private volatile BINFingerCache binFingers;
+
     private final ThreadLocal<TreeWalkerStatsAccumulator> treeStatsAccumulatorTL =
         new ThreadLocal<TreeWalkerStatsAccumulator>();
 
@@ -1574,7 +1580,8 @@ public final class Tree implements Loggable {
         int index;
 
         if (splitsAllowed) {
-            bin = searchSplitsAllowed(key, cacheMode, null /*comparator*/);
+            bin = searchSplitsAllowed(
+                key, cacheMode, null /*comparator*/, null /*binBoundary*/);
         } else {
             bin = search(key, cacheMode);
         }
@@ -1649,6 +1656,19 @@ public final class Tree implements Loggable {
      * the BIN that is found or created, and the BIN is latched.
      */
     public BIN findBinForInsert(final byte[] key, final CacheMode cacheMode) {
+        return findBinForInsert(key, cacheMode, null);
+    }
+
+    /**
+     * Same as findBinForInsert(byte[], CacheMode), but if binBoundary is
+     * non-null, also returns information about whether the BIN is the first
+     * or last BIN in the database.  The information is valid while the BIN
+     * remains latched.
+     */
+    public BIN findBinForInsert(
+        final byte[] key,
+        final CacheMode cacheMode,
+        final BINBoundary binBoundary) {
 
         boolean rootLatchIsHeld = false;
         BIN bin = null;
@@ -1729,6 +1749,11 @@ public final class Tree implements Loggable {
                     rootLatch.release();
                     rootLatchIsHeld = false;
 
+                    if (binBoundary != null) {
+                        binBoundary.isLastBin = true;
+                        binBoundary.isFirstBin = true;
+                    }
+
                     break;
                 } else {
                     rootLatch.release();
@@ -1743,7 +1768,8 @@ public final class Tree implements Loggable {
                      * and delete the entire tree, so search may return with a
                      * null.
                      */
-                    bin = searchSplitsAllowed(key, cacheMode);
+                    bin = searchSplitsAllowed(
+                        key, cacheMode, null /*comparator*/, binBoundary);
 
                     if (bin == null) {
                         /* The tree was deleted by the INCompressor. */
@@ -1772,14 +1798,15 @@ public final class Tree implements Loggable {
      */
     public BIN searchSplitsAllowed(byte[] key, CacheMode cacheMode) {
 
-        return searchSplitsAllowed(key, cacheMode, null);
+        return searchSplitsAllowed(key, cacheMode, null, null);
     }
 
 
     private BIN searchSplitsAllowed(
         byte[] key,
         CacheMode cacheMode,
-        Comparator<byte[]> comparator) {
+        Comparator<byte[]> comparator,
+        BINBoundary binBoundary) {
         
         BIN insertTarget = null;
 
@@ -1855,7 +1882,7 @@ public final class Tree implements Loggable {
                 assert(rootINLatched);
                 
                 insertTarget = searchSplitsAllowed(
-                    rootIN, key, cacheMode, comparator);
+                    rootIN, key, cacheMode, comparator, binBoundary);
 
                 if (insertTarget == null) {
                     if (LatchSupport.TRACK_LATCHES) {
@@ -1888,7 +1915,8 @@ public final class Tree implements Loggable {
         IN rootIN,
         byte[] key,
         CacheMode cacheMode,
-        Comparator<byte[]> comparator)
+        Comparator<byte[]> comparator,
+        BINBoundary binBoundary)
         throws SplitRequiredException {
 
         assert(rootIN.isLatchOwner());
@@ -1906,6 +1934,11 @@ public final class Tree implements Loggable {
          * Search downward until we hit a node that needs a split. In that
          * case, retreat to the top of the tree and force splits downward.
          */        
+        if (binBoundary != null) {
+            binBoundary.isLastBin = true;
+            binBoundary.isFirstBin = true;
+        }
+
         try {
             do {
                 if (parent.getNEntries() == 0) {
@@ -1916,6 +1949,15 @@ public final class Tree implements Loggable {
                 index = parent.findEntry(key, false, false, comparator);
                 assert index >= 0;
 
+                if (binBoundary != null) {
+                    if (index != parent.getNEntries() - 1) {
+                        binBoundary.isLastBin = false;
+                    }
+                    if (index != 0) {
+                        binBoundary.isFirstBin = false;
+                    }
+                }
+
                 child = parent.fetchINWithNoLatch(index, key, cacheMode);
 
                 if (child == null) {
@@ -1952,6 +1994,11 @@ public final class Tree implements Loggable {
                         rootIN = forceSplit(key, cacheMode);
                         parent = rootIN;
 
+                        if (binBoundary != null) {
+                            binBoundary.isLastBin = true;
+                            binBoundary.isFirstBin = true;
+                        }
+
                         assert(rootIN.isLatchOwner());
                         if (!rootIN.isRoot()) {
                             throw EnvironmentFailureException.unexpectedState(
@@ -2309,12 +2356,6 @@ public final class Tree implements Loggable {
         CacheMode cacheMode,
         Comparator<byte[]> comparator) {
 
-        IN rootIN = getRootIN(cacheMode);
-
-        if (rootIN == null) {
-            return null;
-        }
-
         assert ((searchType != SearchType.LEFT &&
                  searchType != SearchType.RIGHT) || key == null);
 
@@ -2323,20 +2364,61 @@ public final class Tree implements Loggable {
             binBoundary.isFirstBin = true;
         }
 
-        boolean success = false;
-        int index;
-        IN parent = rootIN;
-        IN child = null;
-
         TreeWalkerStatsAccumulator treeStatsAccumulator =
             getTreeStatsAccumulator();
 
-        try {
+        IN parent = null;
+
+        /*
+         * A point search may use the BIN found by an earlier search for the
+         * same key.  Searches that need the BIN boundary or that use their
+         * own comparator always descend from the root.
+         */
+        final BINFingerCache fingers =
+            (searchType == SearchType.NORMAL &&
+             binBoundary == null &&
+             comparator == null &&
+             treeStatsAccumulator == null) ?
+            getBINFingerCache() : null;
+
+        if (fingers != null) {
+            final BIN bin = fingers.get(key, cacheMode);
+            if (bin != null) {
+                return bin;
+            }
+        }
+
+        if (treeStatsAccumulator == null &&
+            comparator == null &&
+            database.getKeyComparator() == null &&
+            database.getEnv().getOptimisticTreeReads()) {
+
+            parent = searchOptimistic(key, searchType, binBoundary, cacheMode);
+
+            if (parent == null && binBoundary != null) {
+                binBoundary.isLastBin = true;
+                binBoundary.isFirstBin = true;
+            }
+        }
+
+        if (parent == null) {
+            parent = getRootIN(cacheMode);
+
+            if (parent == null) {
+                return null;
+            }
+
             if (treeStatsAccumulator != null) {
                 parent.accumulateStats(treeStatsAccumulator);
             }
+        }
 
-            do {
+        boolean success = false;
+        int index;
+        IN child = null;
+
+        try {
+            while (!parent.isBIN()) {
                 if (parent.getNEntries() == 0) {
                     throw EnvironmentFailureException.unexpectedState(
                         "Upper IN with 0 entries");
@@ -2388,8 +2470,11 @@ public final class Tree implements Loggable {
                 parent.releaseLatch();
                 parent = child;
                 child = null;
+            }
 
-            } while (!parent.isBIN());
+            if (fingers != null && !parent.isBINDelta()) {
+                fingers.put(key, (BIN) parent);
+            }
 
             success = true;
             return (BIN)parent;
@@ -2420,6 +2505,169 @@ public final class Tree implements Loggable {
         }
     }
 
+    /**
+     * Returns the BIN finger cache, creating it if needed, or null if it is
+     * disabled.  It is created lazily because the environment's params are
+     * not yet initialized when the trees of the internal databases are
+     * created.  Creating it twice in a race is harmless.
+     */
+    BINFingerCache getBINFingerCache() {
+
+        BINFingerCache fingers = binFingers;
+
+        if (fingers == null) {
+            final int size = database.getEnv().getBINFingerCacheSize();
+            if (size == 0) {
+                return null;
+            }
+            fingers = new BINFingerCache(size);
+            binFingers = fingers;
+        }
+
+        return fingers;
+    }
+
+    /**
+     * Performs the upper levels of a search without latching the upper INs.
+     * Instead, an optimistic stamp is validated for each IN after reading it
+     * (see SharedLatch.getOptimisticStamp).  Every search passes through the
+     * root and the other upper INs, so with many threads, latching them
+     * causes contention on their latches even when they are latched shared.
+     *
+     * The descent stops at the first node that must be latched: a BIN, which
+     * cannot be read optimistically, or an upper IN that is currently
+     * latched exclusively by another thread.  That node is returned latched,
+     * as if it had been latched by the search loop, and the caller continues
+     * the search from there.
+     *
+     * Null is returned, with no latches held, if a stamp cannot be validated,
+     * or if a child is not resident or an IN was fetched cold.  The caller
+     * must then reset the binBoundary and search from the root with latch
+     * coupling, which also takes care of fetching and of updating the LRU.
+     *
+     * Because an IN is read without a latch, findEntry may see it in an
+     * inconsistent state while another thread changes it, and may throw a
+     * runtime exception or, when assertions are enabled, an AssertionError.
+     * Such a failure is treated as a validation failure if the stamp is no
+     * longer valid, and is rethrown otherwise.  This method
+     * must not be used with a custom key comparator, which could be called
+     * with inconsistent keys.
+     */
+    private IN searchOptimistic(
+        byte[] key,
+        SearchType searchType,
+        BINBoundary binBoundary,
+        CacheMode cacheMode) {
+
+        final ChildReference rootRef = root;
+
+        if (rootRef == null) {
+            return null;
+        }
+
+        IN parent = (IN) rootRef.getTarget();
+
+        if (parent == null) {
+            return null;
+        }
+
+        long parentStamp = parent.getOptimisticStamp();
+
+        /*
+         * A root split latches the old root exclusively before replacing it,
+         * so if the node is still the root after getting its stamp, a valid
+         * stamp means that it covers the entire key range.
+         */
+        if (parentStamp == 0 ||
+            root != rootRef ||
+            rootRef.getTarget() != parent) {
+            return null;
+        }
+
+        while (true) {
+
+            final IN child;
+            final long childStamp;
+
+            try {
+                if (parent.getFetchedCold()) {
+                    return null;
+                }
+
+                final int nEntries = parent.getNEntries();
+                final int index;
+
+                if (searchType == SearchType.NORMAL) {
+                    index = parent.findEntry(key, false, false);
+                } else if (searchType == SearchType.LEFT) {
+                    index = 0;
+                } else if (searchType == SearchType.RIGHT) {
+                    index = nEntries - 1;
+                } else {
+                    return null;
+                }
+
+                if (index < 0 || index >= nEntries) {
+                    return null;
+                }
+
+                if (binBoundary != null) {
+                    if (index != nEntries - 1) {
+                        binBoundary.isLastBin = false;
+                    }
+                    if (index != 0) {
+                        binBoundary.isFirstBin = false;
+                    }
+                }
+
+                child = (IN) parent.getTarget(index);
+
+                if (child == null) {
+                    return null;
+                }
+
+                childStamp = child.isBIN() ? 0 : child.getOptimisticStamp();
+
+            } catch (RuntimeException | AssertionError e) {
+                if (parent.validateOptimisticStamp(parentStamp)) {
+                    throw e;
+                }
+                /* Parent was changed while we were reading it. */
+                return null;
+            }
+
+            if (childStamp == 0) {
+
+                /*
+                 * Latch the child as the search loop would.  Then check that
+                 * it was still the child for the key when it was latched,
+                 * after which latch coupling protects it as usual.
+                 */
+                child.latchShared(cacheMode);
+
+                if (!parent.validateOptimisticStamp(parentStamp)) {
+                    child.releaseLatch();
+                    return null;
+                }
+
+                return child;
+            }
+
+            /*
+             * The child and its stamp were read from a consistent parent, so
+             * the child was attached when its stamp was obtained.  Detaching
+             * it later requires latching it exclusively, which invalidates
+             * its stamp.
+             */
+            if (!parent.validateOptimisticStamp(parentStamp)) {
+                return null;
+            }
+
+            parent = child;
+            parentStamp = childStamp;
+        }
+    }
+
     /*
      * Search for the given key in the subtree rooted at the given parent IN.
      * The search descends until the given target level, and the IN that
@@ -75,17 +75,17 @@ public class DummyLockManager extends LockManager {
     }
 
     @Override
-    public Set<LockInfo> getOwners(Long lsn) {
+    public Set<LockInfo> getOwners(long lsn) {
         return superiorLockManager.getOwners(lsn);
     }
 
     @Override
-    public LockType getOwnedLockType(Long lsn, Locker locker) {
+    public LockType getOwnedLockType(long lsn, Locker locker) {
         return superiorLockManager.getOwnedLockType(lsn, locker);
     }
     
     @Override
-    public boolean isLockUncontended(Long lsn) {
+    public boolean isLockUncontended(long lsn) {
         return superiorLockManager.isLockUncontended(lsn);
     }
 
@@ -93,7 +93,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#lookupLock
      */
     @Override
-    Lock lookupLock(Long lsn)
+    Lock lookupLock(long lsn)
         throws DatabaseException {
 
         Lock ret = superiorLockManager.lookupLock(lsn);
@@ -104,7 +104,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#attemptLock
      */
     @Override
-    LockAttemptResult attemptLock(Long lsn,
+    LockAttemptResult attemptLock(long lsn,
                                   Locker locker,
                                   LockType type,
                                   boolean nonBlockingRequest,
@@ -186,7 +186,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#isLocked
      */
     @Override
-    boolean isLocked(Long lsn)
+    boolean isLocked(long lsn)
         throws DatabaseException {
 
         return superiorLockManager.isLocked(lsn);
@@ -196,7 +196,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#isOwner
      */
     @Override
-    boolean isOwner(Long lsn, Locker locker, LockType type)
+    boolean isOwner(long lsn, Locker locker, LockType type)
         throws DatabaseException {
 
         return superiorLockManager.isOwner(lsn, locker, type);
@@ -206,7 +206,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#isWaiter
      */
     @Override
-    boolean isWaiter(Long lsn, Locker locker)
+    boolean isWaiter(long lsn, Locker locker)
         throws DatabaseException {
 
         return superiorLockManager.isWaiter(lsn, locker);
@@ -216,7 +216,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#nWaiters
      */
     @Override
-    int nWaiters(Long lsn)
+    int nWaiters(long lsn)
         throws DatabaseException {
 
         return superiorLockManager.nWaiters(lsn);
@@ -226,7 +226,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#nOwners
      */
     @Override
-    int nOwners(Long lsn)
+    int nOwners(long lsn)
         throws DatabaseException {
 
         return superiorLockManager.nOwners(lsn);
@@ -236,7 +236,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#getWriterOwnerLocker
      */
     @Override
-    Locker getWriteOwnerLocker(Long lsn)
+    Locker getWriteOwnerLocker(long lsn)
         throws DatabaseException {
 
         return superiorLockManager.getWriteOwnerLocker(lsn);
@@ -246,7 +246,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#validateOwnership
      */
     @Override
-    boolean validateOwnership(Long lsn,
+    boolean validateOwnership(long lsn,
                               Locker locker,
                               LockType type,
                               boolean flushFromWaiters,
@@ -264,7 +264,7 @@ public class DummyLockManager extends LockManager {
      * @see LockManager#stealLock
      */
     @Override
-    public LockAttemptResult stealLock(Long lsn,
+    public LockAttemptResult stealLock(long lsn,
                                           Locker locker,
                                           LockType lockType)
         throws DatabaseException {
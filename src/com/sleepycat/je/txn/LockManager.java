@@ -56,7 +56,6 @@ import static com.sleepycat.je.txn.LockStatDefinition.LOCK_WRITE_LOCKS;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -100,21 +99,19 @@ import com.sleepycat.je.utilint.TinyHashSet;
 public abstract class LockManager implements EnvConfigObserver {
 
     /*
-     * The total memory cost for a lock is the Lock object, plus its entry and
-     * key in the lock hash table.
+     * The total memory cost for a lock is the Lock object, plus its entry in
+     * the lock table.
      *
      * The addition and removal of Lock objects, and the corresponding cost of
-     * their hashmap entry and key are tracked through the LockManager.
+     * their lock table entry are tracked through the LockManager.
      */
     static final long TOTAL_LOCKIMPL_OVERHEAD =
         MemoryBudget.LOCKIMPL_OVERHEAD +
-        MemoryBudget.HASHMAP_ENTRY_OVERHEAD +
-        MemoryBudget.LONG_OVERHEAD;
+        LockTable.ENTRY_OVERHEAD;
 
     static final long TOTAL_THINLOCKIMPL_OVERHEAD =
         MemoryBudget.THINLOCKIMPL_OVERHEAD +
-        MemoryBudget.HASHMAP_ENTRY_OVERHEAD +
-        MemoryBudget.LONG_OVERHEAD;
+        LockTable.ENTRY_OVERHEAD;
 
     private static final long REMOVE_TOTAL_LOCKIMPL_OVERHEAD =
         0 - TOTAL_LOCKIMPL_OVERHEAD;
@@ -135,7 +132,7 @@ public abstract class LockManager implements EnvConfigObserver {
 
     int nLockTables = 1;
     Latch[] lockTableLatches;
-    private final Map<Long,Lock>[] lockTables;          // keyed by LSN
+    private final LockTable[] lockTables;          // keyed by LSN
     private final boolean oldLockExceptions;
     private final EnvironmentImpl envImpl;
     private final MemoryBudget memoryBudget;
@@ -165,22 +162,21 @@ public abstract class LockManager implements EnvConfigObserver {
      */
     private final Map<Thread, TinyHashSet<ThreadLocker>> threadLockers;
 
-    /*
-     * @SuppressWarnings is used to stifle a type safety complaint about the
-     * assignment of lockTables = new Map[nLockTables]. There's no way to
-     * specify the type of the array.
-     */
-    @SuppressWarnings("unchecked")
     public LockManager(EnvironmentImpl envImpl) {
 
         DbConfigManager configMgr = envImpl.getConfigManager();
-        nLockTables = configMgr.getInt(EnvironmentParams.N_LOCK_TABLES);
+        if (configMgr.isSpecified(EnvironmentParams.N_LOCK_TABLES)) {
+            nLockTables = configMgr.getInt(EnvironmentParams.N_LOCK_TABLES);
+        } else {
+            nLockTables = getDefaultLockTables
+                (Runtime.getRuntime().availableProcessors());
+        }
         oldLockExceptions =
             configMgr.getBoolean(EnvironmentParams.LOCK_OLD_LOCK_EXCEPTIONS);
-        lockTables = new Map[nLockTables];
+        lockTables = new LockTable[nLockTables];
         lockTableLatches = new Latch[nLockTables];
         for (int i = 0; i < nLockTables; i++) {
-            lockTables[i] = new HashMap<Long,Lock>();
+            lockTables[i] = new LockTable();
             lockTableLatches[i] = LatchFactory.createExclusiveLatch(
                 envImpl, "Lock Table " + i, true /*collectStats*/);
         }
@@ -221,9 +217,31 @@ public abstract class LockManager implements EnvConfigObserver {
         lockTableDump = enable;
     }
 
-    int getLockTableIndex(Long lsn) {
-        return (((int) lsn.longValue()) & 0x7fffffff) %
-            nLockTables;
+    /**
+     * Returns the number of lock tables used when je.lock.nLockTables is not
+     * specified: the smallest prime that is at least twice the number of
+     * processors, so that contention on the lock table latches scales with
+     * the number of threads that can run at once. A single processor needs
+     * only one table.
+     */
+    static int getDefaultLockTables(int nProcessors) {
+        if (nProcessors <= 1) {
+            return 1;
+        }
+        int n = 2 * nProcessors;
+        while (!isPrime(n)) {
+            n += 1;
+        }
+        return n;
+    }
+
+    private static boolean isPrime(int n) {
+        for (int i = 2; i * i <= n; i += 1) {
+            if (n % i == 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     int getLockTableIndex(long lsn) {
@@ -313,10 +331,8 @@ public abstract class LockManager implements EnvConfigObserver {
                                        DatabaseImpl database)
         throws DeadlockException, DatabaseException {
 
-        Long nid = Long.valueOf(lsn);
-
         LockAttemptResult result = attemptLock(
-            nid, locker, type, nonBlockingRequest, jumpAheadOfWaiters);
+            lsn, locker, type, nonBlockingRequest, jumpAheadOfWaiters);
 
         /* If we got the lock or a non-blocking lock was denied, return. */
         if (result.success ||
@@ -347,12 +363,12 @@ public abstract class LockManager implements EnvConfigObserver {
              * actually get any txn timeouts.
              */
             if (locker.isTimedOut()) {
-                if (validateOwnership(nid, locker, type,
+                if (validateOwnership(lsn, locker, type,
                                       !isImportunate,
                                       memoryBudget)) {
                     doWait = false;
                 } else if (isImportunate) {
-                    result = stealLock(nid, locker, type);
+                    result = stealLock(lsn, locker, type);
                     if (result.success) {
                         doWait = false;
                     } else {
@@ -392,7 +408,7 @@ public abstract class LockManager implements EnvConfigObserver {
                  * lock from both the waiters and owners while under the
                  * lock table latch.  See SR 10103.
                  */
-                if (validateOwnership(nid, locker, type,
+                if (validateOwnership(lsn, locker, type,
                                       (lockerTimedOut ||
                                       thisLockTimedOut ||
                                       isRestart) &&
@@ -400,7 +416,7 @@ public abstract class LockManager implements EnvConfigObserver {
                                       memoryBudget)) {
                     break;
                 } else if (isImportunate) {
-                    result = stealLock(nid, locker, type);
+                    result = stealLock(lsn, locker, type);
                     if (result.success) {
                         break;
                     } else {
@@ -441,7 +457,7 @@ public abstract class LockManager implements EnvConfigObserver {
          * lockers, since an existing lock (acquired via a release) will not be
          * added to the locker by attemptLock. [#16879]
          */
-        locker.addLock(nid, type, result.lockGrant);
+        locker.addLock(lsn, type, result.lockGrant);
 
         return result.lockGrant;
     }
@@ -451,11 +467,11 @@ public abstract class LockManager implements EnvConfigObserver {
      * this method returns, there is nothing to prevent these lockers from
      * releasing the lock or being closed.
      */
-    public abstract Set<LockInfo> getOwners(Long lsn);
+    public abstract Set<LockInfo> getOwners(long lsn);
 
-    Set<LockInfo> getOwnersInternal(Long lsn, int lockTableIndex) {
+    Set<LockInfo> getOwnersInternal(long lsn, int lockTableIndex) {
         /* Get the target lock. */
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
         if (useLock == null) {
             return null;
@@ -467,13 +483,13 @@ public abstract class LockManager implements EnvConfigObserver {
      * Returns the LockType if the given locker owns a lock on the given node,
      * or null if the lock is not owned.
      */
-    public abstract LockType getOwnedLockType(Long lsn, Locker locker);
+    public abstract LockType getOwnedLockType(long lsn, Locker locker);
 
-    LockType getOwnedLockTypeInternal(Long lsn,
+    LockType getOwnedLockTypeInternal(long lsn,
                                       Locker locker,
                                       int lockTableIndex) {
         /* Get the target lock. */
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
         if (useLock == null) {
             return null;
@@ -481,11 +497,11 @@ public abstract class LockManager implements EnvConfigObserver {
         return useLock.getOwnedLockType(locker);
     }
 
-    public abstract boolean isLockUncontended(Long lsn);
+    public abstract boolean isLockUncontended(long lsn);
 
-    boolean isLockUncontendedInternal(Long lsn, int lockTableIndex) {
+    boolean isLockUncontendedInternal(long lsn, int lockTableIndex) {
         /* Get the target lock. */
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
         if (useLock == null) {
             return true;
@@ -494,24 +510,24 @@ public abstract class LockManager implements EnvConfigObserver {
                useLock.nOwners() == 0;
     }
 
-    abstract Lock lookupLock(Long lsn)
+    abstract Lock lookupLock(long lsn)
         throws DatabaseException;
 
-    Lock lookupLockInternal(Long lsn, int lockTableIndex) {
+    Lock lookupLockInternal(long lsn, int lockTableIndex) {
         /* Get the target lock. */
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
         return useLock;
     }
 
-    abstract LockAttemptResult attemptLock(Long lsn,
+    abstract LockAttemptResult attemptLock(long lsn,
                                            Locker locker,
                                            LockType type,
                                            boolean nonBlockingRequest,
                                            boolean jumpAheadOfWaiters)
         throws DatabaseException;
 
-    LockAttemptResult attemptLockInternal(Long lsn,
+    LockAttemptResult attemptLockInternal(long lsn,
                                           Locker locker,
                                           LockType type,
                                           boolean nonBlockingRequest,
@@ -522,7 +538,7 @@ public abstract class LockManager implements EnvConfigObserver {
         nRequests.increment();
 
         /* Get the target lock. */
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
         if (useLock == null) {
             useLock = new ThinLockImpl();
@@ -812,11 +828,8 @@ public abstract class LockManager implements EnvConfigObserver {
     Set<Locker> releaseAndFindNotifyTargetsInternal(long lsn,
                                                     Locker locker,
                                                     int lockTableIndex) {
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock useLock = lockTable.get(lsn);
-        if (useLock == null) {
-            useLock = lockTable.get(Long.valueOf(lsn));
-        }
 
         if (useLock == null) {
             /* Lock doesn't exist. */
@@ -859,8 +872,8 @@ public abstract class LockManager implements EnvConfigObserver {
      * Do the real work of demote.
      */
     void demoteInternal(long lsn, Locker locker, int lockTableIndex) {
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
-        Lock useLock = lockTable.get(Long.valueOf(lsn));
+        LockTable lockTable = lockTables[lockTableIndex];
+        Lock useLock = lockTable.get(lsn);
         /* Lock may or may not be currently held. */
         if (useLock != null) {
             useLock.demote(locker);
@@ -879,15 +892,15 @@ public abstract class LockManager implements EnvConfigObserver {
      * @return true if any transaction holds any lock on the LSN. false
      * if no lock is held by any transaction.
      */
-    abstract boolean isLocked(Long lsn)
+    abstract boolean isLocked(long lsn)
         throws DatabaseException;
 
     /**
      * Do the real work of isLocked.
      */
-    boolean isLockedInternal(Long lsn, int lockTableIndex) {
+    boolean isLockedInternal(long lsn, int lockTableIndex) {
 
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock entry = lockTable.get(lsn);
         if (entry == null) {
             return false;
@@ -901,18 +914,18 @@ public abstract class LockManager implements EnvConfigObserver {
      *
      * This method is only used by unit tests.
      */
-    abstract boolean isOwner(Long lsn, Locker locker, LockType type)
+    abstract boolean isOwner(long lsn, Locker locker, LockType type)
         throws DatabaseException;
 
     /**
      * Do the real work of isOwner.
      */
-    boolean isOwnerInternal(Long lsn,
+    boolean isOwnerInternal(long lsn,
                             Locker locker,
                             LockType type,
                             int lockTableIndex) {
 
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock entry = lockTable.get(lsn);
         if (entry == null) {
             return false;
@@ -926,17 +939,17 @@ public abstract class LockManager implements EnvConfigObserver {
      *
      * This method is only used by unit tests.
      */
-    abstract boolean isWaiter(Long lsn, Locker locker)
+    abstract boolean isWaiter(long lsn, Locker locker)
         throws DatabaseException;
 
     /**
      * Do the real work of isWaiter.
      */
-    boolean isWaiterInternal(Long lsn,
+    boolean isWaiterInternal(long lsn,
                              Locker locker,
                              int lockTableIndex) {
 
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock entry = lockTable.get(lsn);
         if (entry == null) {
             return false;
@@ -948,15 +961,15 @@ public abstract class LockManager implements EnvConfigObserver {
     /**
      * Return the number of waiters for this lock.
      */
-    abstract int nWaiters(Long lsn)
+    abstract int nWaiters(long lsn)
         throws DatabaseException;
 
     /**
      * Do the real work of nWaiters.
      */
-    int nWaitersInternal(Long lsn, int lockTableIndex) {
+    int nWaitersInternal(long lsn, int lockTableIndex) {
 
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock entry = lockTable.get(lsn);
         if (entry == null) {
             return -1;
@@ -968,15 +981,15 @@ public abstract class LockManager implements EnvConfigObserver {
     /**
      * Return the number of owners of this lock.
      */
-    abstract int nOwners(Long lsn)
+    abstract int nOwners(long lsn)
         throws DatabaseException;
 
     /**
      * Do the real work of nWaiters.
      */
-    int nOwnersInternal(Long lsn, int lockTableIndex) {
+    int nOwnersInternal(long lsn, int lockTableIndex) {
 
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock entry = lockTable.get(lsn);
         if (entry == null) {
             return -1;
@@ -988,14 +1001,14 @@ public abstract class LockManager implements EnvConfigObserver {
     /**
      * @return the transaction that owns the write lock for this
      */
-    abstract Locker getWriteOwnerLocker(Long lsn)
+    abstract Locker getWriteOwnerLocker(long lsn)
         throws DatabaseException;
 
     /**
      * Do the real work of getWriteOwnerLocker.
      */
-    Locker getWriteOwnerLockerInternal(Long lsn, int lockTableIndex) {
-        Map<Long,Lock> lockTable = lockTables[lockTableIndex];
+    Locker getWriteOwnerLockerInternal(long lsn, int lockTableIndex) {
+        LockTable lockTable = lockTables[lockTableIndex];
         Lock lock = lockTable.get(lsn);
         if (lock == null) {
             return null;
@@ -1015,7 +1028,7 @@ public abstract class LockManager implements EnvConfigObserver {
      * ownership and when we flush any waiters (SR #10103)
      * @return true if you are the owner.
      */
-    abstract boolean validateOwnership(Long lsn,
+    abstract boolean validateOwnership(long lsn,
                                        Locker locker,
                                        LockType type,
                                        boolean flushFromWaiters,
@@ -1025,7 +1038,7 @@ public abstract class LockManager implements EnvConfigObserver {
     /*
      * Do the real work of validateOwnershipInternal.
      */
-    boolean validateOwnershipInternal(Long lsn,
+    boolean validateOwnershipInternal(long lsn,
                                       Locker locker,
                                       LockType type,
                                       boolean flushFromWaiters,
@@ -1044,12 +1057,12 @@ public abstract class LockManager implements EnvConfigObserver {
         return false;
     }
 
-    public abstract LockAttemptResult stealLock(Long lsn,
+    public abstract LockAttemptResult stealLock(long lsn,
                                                    Locker locker,
                                                    LockType lockType)
         throws DatabaseException;
 
-    protected LockAttemptResult stealLockInternal(Long lsn,
+    protected LockAttemptResult stealLockInternal(long lsn,
                                                   Locker locker,
                                                   LockType lockType,
                                                   int lockTableIndex)
@@ -1197,7 +1210,7 @@ public abstract class LockManager implements EnvConfigObserver {
         IntStat readLocks = new IntStat(oneTable, LOCK_READ_LOCKS);
         IntStat writeLocks = new IntStat(oneTable, LOCK_WRITE_LOCKS);
 
-        Map<Long, Lock> lockTable = lockTables[i];
+        LockTable lockTable = lockTables[i];
         totalLocks.add(lockTable.size());
 
         for (Lock lock : lockTable.values()) {
@@ -1241,20 +1254,15 @@ public abstract class LockManager implements EnvConfigObserver {
     }
 
     private void dumpToStringNoLatch(StringBuilder sb, int whichTable) {
-        Map<Long,Lock> lockTable = lockTables[whichTable];
-        Iterator<Map.Entry<Long,Lock>> entries =
-            lockTable.entrySet().iterator();
-
-        while (entries.hasNext()) {
-            Map.Entry<Long,Lock> entry = entries.next();
-            Long lsn = entry.getKey();
-            Lock lock = entry.getValue();
-            sb.append("---- LSN: ").
-               append(DbLsn.getNoFormatString(lsn)).
-               append("----\n");
-            sb.append(lock);
-            sb.append('\n');
-        }
+        lockTables[whichTable].dump(sb);
+    }
+
+    static void dumpLock(StringBuilder sb, long lsn, Lock lock) {
+        sb.append("---- LSN: ").
+           append(DbLsn.getNoFormatString(lsn)).
+           append("----\n");
+        sb.append(lock);
+        sb.append('\n');
     }
 
     private StringBuilder findDeadlock(Lock lock, Locker rootLocker) {
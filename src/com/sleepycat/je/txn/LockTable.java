@@ -0,0 +1,245 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.txn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sleepycat.je.dbi.MemoryBudget;
+
+/**
+ * One partition of the LockManager's lock table: a map from LSN to Lock,
+ * keyed by a primitive long.
+ *
+ * An open addressing table with linear probing is used, so that a lookup
+ * neither boxes the LSN in a Long nor allocates a map entry, and the entries
+ * of a table occupy two arrays rather than one object per lock. Removal
+ * shifts the following entries of the probe sequence back, so no tombstones
+ * are needed. The table grows when it is two thirds full and shrinks when it
+ * is one eighth full, so that a table that briefly held the locks of a large
+ * txn does not stay large.
+ *
+ * Like the HashMap it replaces, this class is not thread safe: all access is
+ * protected by the corresponding lock table latch in the LockManager, which
+ * also protects the Lock objects themselves.
+ */
+final class LockTable {
+
+    /*
+     * The memory overhead of one entry, i.e., the two array slots it uses.
+     * It is doubled because, between resizing, a table is on average about
+     * half full.
+     */
+    static final long ENTRY_OVERHEAD =
+        2 * (MemoryBudget.PRIMITIVE_LONG_ARRAY_ITEM_OVERHEAD +
+             MemoryBudget.OBJECT_ARRAY_ITEM_OVERHEAD);
+
+    /* Must be a power of two. */
+    private static final int MIN_CAPACITY = 16;
+
+    /* Used for Fibonacci hashing. */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /* An entry is empty if its Lock is null; its LSN is then undefined. */
+    private long[] lsns;
+    private Lock[] locks;
+    private int size;
+
+    /* 64 - log2(capacity), the shift that maps a hash to a slot. */
+    private int shift;
+
+    LockTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        lsns = new long[capacity];
+        locks = new Lock[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Returns the home slot of an LSN. The high order bits of the product
+     * are used, since the low order bits of the LSN already select the lock
+     * table.
+     */
+    private int slot(long lsn) {
+        return (int) ((lsn * HASH_MULTIPLIER) >>> shift);
+    }
+
+    /**
+     * Returns the slot containing the LSN, or -1 if it is not present.
+     */
+    private int find(long lsn) {
+        final int mask = locks.length - 1;
+        for (int i = slot(lsn);; i = (i + 1) & mask) {
+            if (locks[i] == null) {
+                return -1;
+            }
+            if (lsns[i] == lsn) {
+                return i;
+            }
+        }
+    }
+
+    Lock get(long lsn) {
+        final int i = find(lsn);
+        return (i < 0) ? null : locks[i];
+    }
+
+    /**
+     * Adds the Lock for the LSN, or replaces the existing one, as when a
+     * ThinLockImpl mutates to a LockImpl.
+     */
+    void put(long lsn, Lock lock) {
+        assert lock != null;
+        final int mask = locks.length - 1;
+        int i = slot(lsn);
+        while (locks[i] != null) {
+            if (lsns[i] == lsn) {
+                locks[i] = lock;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        lsns[i] = lsn;
+        locks[i] = lock;
+        size += 1;
+        if (size * 3 > locks.length * 2) {
+            resize(locks.length * 2);
+        }
+    }
+
+    /**
+     * Removes the Lock for the LSN and returns it, or returns null if the
+     * LSN is not present.
+     */
+    Lock remove(long lsn) {
+        int hole = find(lsn);
+        if (hole < 0) {
+            return null;
+        }
+        final Lock removed = locks[hole];
+        final int mask = locks.length - 1;
+
+        /*
+         * Move back each following entry in the probe sequence whose home
+         * slot is not cyclically within (hole, i], so that a lookup never
+         * stops early at the hole.
+         */
+        for (int i = (hole + 1) & mask; locks[i] != null; i = (i + 1) & mask) {
+            final int home = slot(lsns[i]);
+            final boolean stays = (hole <= i) ?
+                (home > hole && home <= i) :
+                (home > hole || home <= i);
+            if (!stays) {
+                lsns[hole] = lsns[i];
+                locks[hole] = locks[i];
+                hole = i;
+            }
+        }
+        locks[hole] = null;
+        size -= 1;
+        if (locks.length > MIN_CAPACITY && size * 8 < locks.length) {
+            resize(locks.length / 2);
+        }
+        return removed;
+    }
+
+    private void resize(int newCapacity) {
+        final long[] oldLsns = lsns;
+        final Lock[] oldLocks = locks;
+        allocate(newCapacity);
+        final int mask = newCapacity - 1;
+        for (int j = 0; j < oldLocks.length; j += 1) {
+            if (oldLocks[j] == null) {
+                continue;
+            }
+            int i = slot(oldLsns[j]);
+            while (locks[i] != null) {
+                i = (i + 1) & mask;
+            }
+            lsns[i] = oldLsns[j];
+            locks[i] = oldLocks[j];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the Locks in the table, for collecting stats.
+     */
+    List<Lock> values() {
+        final List<Lock> list = new ArrayList<Lock>(size);
+        for (final Lock lock : locks) {
+            if (lock != null) {
+                list.add(lock);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Appends the LSN and description of each Lock, for debugging.
+     *
+     * Lock dumps in timeout messages are made without holding the latch for
+     * this table, so the arrays are read once and the entries may be stale,
+     * as with the ConcurrentModificationException handling in the caller.
+     */
+    void dump(StringBuilder sb) {
+        final long[] dumpLsns = lsns;
+        final Lock[] dumpLocks = locks;
+        final int n = Math.min(dumpLsns.length, dumpLocks.length);
+        for (int i = 0; i < n; i += 1) {
+            final Lock lock = dumpLocks[i];
+            if (lock == null) {
+                continue;
+            }
+            LockManager.dumpLock(sb, dumpLsns[i], lock);
+        }
+    }
+}
@@ -62,21 +62,21 @@ public class SyncedLockManager extends LockManager {
         super(envImpl);
     }
 
-    public Set<LockInfo> getOwners(Long lsn) {
+    public Set<LockInfo> getOwners(long lsn) {
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
             return getOwnersInternal(lsn, lockTableIndex);
         }
     }
 
-    public LockType getOwnedLockType(Long lsn, Locker locker) {
+    public LockType getOwnedLockType(long lsn, Locker locker) {
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
             return getOwnedLockTypeInternal(lsn, locker, lockTableIndex);
         }
     }
     
-    public boolean isLockUncontended(Long lsn) {
+    public boolean isLockUncontended(long lsn) {
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
             return isLockUncontendedInternal(lsn, lockTableIndex);
@@ -87,7 +87,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#attemptLock
      */
     @Override
-    Lock lookupLock(Long lsn) {
+    Lock lookupLock(long lsn) {
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
             return lookupLockInternal(lsn, lockTableIndex);
@@ -98,7 +98,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#attemptLock
      */
     @Override
-    LockAttemptResult attemptLock(Long lsn,
+    LockAttemptResult attemptLock(long lsn,
                                   Locker locker,
                                   LockType type,
                                   boolean nonBlockingRequest,
@@ -164,7 +164,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#isLocked
      */
     @Override
-    boolean isLocked(Long lsn) {
+    boolean isLocked(long lsn) {
 
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
@@ -176,7 +176,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#isOwner
      */
     @Override
-    boolean isOwner(Long lsn, Locker locker, LockType type) {
+    boolean isOwner(long lsn, Locker locker, LockType type) {
 
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
@@ -188,7 +188,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#isWaiter
      */
     @Override
-    boolean isWaiter(Long lsn, Locker locker) {
+    boolean isWaiter(long lsn, Locker locker) {
 
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
@@ -200,7 +200,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#nWaiters
      */
     @Override
-    int nWaiters(Long lsn) {
+    int nWaiters(long lsn) {
 
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
@@ -212,7 +212,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#nOwners
      */
     @Override
-    int nOwners(Long lsn) {
+    int nOwners(long lsn) {
 
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
@@ -224,7 +224,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#getWriterOwnerLocker
      */
     @Override
-    Locker getWriteOwnerLocker(Long lsn) {
+    Locker getWriteOwnerLocker(long lsn) {
         int lockTableIndex = getLockTableIndex(lsn);
         synchronized(lockTableLatches[lockTableIndex]) {
             return getWriteOwnerLockerInternal(lsn, lockTableIndex);
@@ -235,7 +235,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#validateOwnership
      */
     @Override
-    boolean validateOwnership(Long lsn,
+    boolean validateOwnership(long lsn,
                               Locker locker,
                               LockType type,
                               boolean flushFromWaiters,
@@ -251,7 +251,7 @@ public class SyncedLockManager extends LockManager {
      * @see LockManager#stealLock
      */
     @Override
-    public LockAttemptResult stealLock(Long lsn,
+    public LockAttemptResult stealLock(long lsn,
                                           Locker locker,
                                           LockType lockType)
         throws DatabaseException {
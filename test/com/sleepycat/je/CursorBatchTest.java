@@ -0,0 +1,495 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.BitSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.dbi.RangeConstraint;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests bulk retrieval with Cursor.getNextBatch/getPrevBatch and
+ * DiskOrderedCursor.getNextBatch.
+ */
+public class CursorBatchTest extends TestBase {
+
+    private static final int N_RECORDS = 5000;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+
+    public CursorBatchTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private void open(boolean dups) {
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        dbConfig.setSortedDuplicates(dups);
+        db = env.openDatabase(null, "foo", dbConfig);
+    }
+
+    /**
+     * Inserts records with even keys 0 to (N_RECORDS - 1) * 2, so that there
+     * are gaps for range searches.
+     */
+    private void insertRecords() {
+        final DatabaseEntry key = new DatabaseEntry();
+        for (int i = 0; i < N_RECORDS; i += 1) {
+            IntegerBinding.intToEntry(i * 2, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         db.put(null, key, makeData(i * 2)));
+        }
+    }
+
+    @Test
+    public void testForward() {
+        open(false);
+        insertRecords();
+        checkScan(null, new RecordBatch(100, 64 * 1024), true, null);
+        checkScan(null, new RecordBatch(1000, 4 * 1024), true, null);
+        checkScan(null, new RecordBatch(1, 0), true, null);
+        final Transaction txn = env.beginTransaction(null, null);
+        checkScan(txn, new RecordBatch(333, 64 * 1024), true, null);
+        txn.commit();
+        checkScan(null, new RecordBatch(100, 64 * 1024), true,
+                  LockMode.READ_UNCOMMITTED);
+    }
+
+    @Test
+    public void testReverse() {
+        open(false);
+        insertRecords();
+        checkScan(null, new RecordBatch(100, 64 * 1024), false, null);
+        checkScan(null, new RecordBatch(7, 64 * 1024), false, null);
+        final Transaction txn = env.beginTransaction(null, null);
+        checkScan(txn, new RecordBatch(333, 64 * 1024), false, null);
+        txn.commit();
+    }
+
+    @Test
+    public void testDuplicates() {
+        open(true);
+        final DatabaseEntry key = new DatabaseEntry();
+        for (int i = 0; i < N_RECORDS; i += 1) {
+            IntegerBinding.intToEntry((i / 10) * 2, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         db.put(null, key, makeData(i)));
+        }
+        checkScan(null, new RecordBatch(64, 64 * 1024), true, null);
+        checkScan(null, new RecordBatch(64, 64 * 1024), false, null);
+    }
+
+    @Test
+    public void testKeysOnly() {
+        open(false);
+        insertRecords();
+        final RecordBatch batch = new RecordBatch(100, 64 * 1024);
+        batch.setKeysOnly(true);
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            final DatabaseEntry key = new DatabaseEntry();
+            int i = 0;
+            while (cursor.getNextBatch(batch, null) ==
+                   OperationStatus.SUCCESS) {
+                for (int j = 0; j < batch.size(); j += 1) {
+                    assertEquals(i * 2, IntegerBinding.entryToInt(
+                        batch.getKey(j, key)));
+                    assertEquals(0, batch.getDataLength(j));
+                    i += 1;
+                }
+            }
+            assertEquals(N_RECORDS, i);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Checks that the cursor is left on the last record of each batch, and
+     * that batches may be mixed with single record operations.
+     */
+    @Test
+    public void testCursorPosition() {
+        open(false);
+        insertRecords();
+        final RecordBatch batch = new RecordBatch(10, 64 * 1024);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            IntegerBinding.intToEntry(101, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getSearchKeyRange(key, data, null));
+            assertEquals(102, IntegerBinding.entryToInt(key));
+
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(10, batch.size());
+            assertEquals(104, IntegerBinding.entryToInt(
+                batch.getKey(0, key)));
+            assertEquals(122, IntegerBinding.entryToInt(
+                batch.getKey(9, key)));
+
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getCurrent(key, data, null));
+            assertEquals(122, IntegerBinding.entryToInt(key));
+            checkData(122, data);
+
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNext(key, data, null));
+            assertEquals(124, IntegerBinding.entryToInt(key));
+
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getPrevBatch(batch, null));
+            assertEquals(10, batch.size());
+            assertEquals(122, IntegerBinding.entryToInt(
+                batch.getKey(0, key)));
+            assertEquals(104, IntegerBinding.entryToInt(
+                batch.getKey(9, key)));
+
+            /* A batch that reaches the end leaves the cursor on the last. */
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getLast(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getPrev(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getPrev(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(2, batch.size());
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getCurrent(key, data, null));
+            assertEquals((N_RECORDS - 1) * 2, IntegerBinding.entryToInt(key));
+            assertEquals(OperationStatus.NOTFOUND,
+                         cursor.getNextBatch(batch, null));
+            assertTrue(batch.isEmpty());
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getPrev(key, data, null));
+            assertEquals((N_RECORDS - 2) * 2, IntegerBinding.entryToInt(key));
+
+            /* Same in reverse. */
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getFirst(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNext(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getPrevBatch(batch, null));
+            assertEquals(1, batch.size());
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getCurrent(key, data, null));
+            assertEquals(0, IntegerBinding.entryToInt(key));
+            assertEquals(OperationStatus.NOTFOUND,
+                         cursor.getPrevBatch(batch, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNext(key, data, null));
+            assertEquals(2, IntegerBinding.entryToInt(key));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Deleted records are skipped, and a batch ending on a record that is
+     * deleted after the batch is returned continues correctly.
+     */
+    @Test
+    public void testDeletedRecords() {
+        open(false);
+        insertRecords();
+        final DatabaseEntry key = new DatabaseEntry();
+        for (int i = 0; i < N_RECORDS; i += 3) {
+            IntegerBinding.intToEntry(i * 2, key);
+            assertEquals(OperationStatus.SUCCESS, db.delete(null, key));
+        }
+
+        final RecordBatch batch = new RecordBatch(50, 64 * 1024);
+        final Transaction txn = env.beginTransaction(null, null);
+        final Cursor cursor = db.openCursor(txn, null);
+        try {
+            cursor.setCacheMode(CacheMode.EVICT_LN);
+            final DatabaseEntry data = new DatabaseEntry();
+            int expect = 1;
+            int nFound = 0;
+            while (cursor.getNextBatch(batch, null) ==
+                   OperationStatus.SUCCESS) {
+                for (int j = 0; j < batch.size(); j += 1) {
+                    if (expect % 3 == 0) {
+                        expect += 1;
+                    }
+                    assertEquals(expect * 2, IntegerBinding.entryToInt(
+                        batch.getKey(j, key)));
+                    checkData(expect * 2, batch.getData(j, data));
+                    expect += 1;
+                    nFound += 1;
+                }
+                /* Delete the last record returned. */
+                assertEquals(OperationStatus.SUCCESS, cursor.delete());
+            }
+            assertEquals(N_RECORDS - ((N_RECORDS + 2) / 3), nFound);
+        } finally {
+            cursor.close();
+        }
+        txn.commit();
+    }
+
+    @Test
+    public void testRangeConstraint() {
+        open(false);
+        insertRecords();
+        final RecordBatch batch = new RecordBatch(100, 64 * 1024);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            cursor.setRangeConstraint(new RangeConstraint() {
+                public boolean inBounds(byte[] k) {
+                    final int i = IntegerBinding.entryToInt(
+                        new DatabaseEntry(k));
+                    return i >= 1000 && i < 2000;
+                }
+            });
+            IntegerBinding.intToEntry(1000, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getSearchKey(key, data, null));
+            int expect = 1002;
+            while (cursor.getNextBatch(batch, null) ==
+                   OperationStatus.SUCCESS) {
+                for (int j = 0; j < batch.size(); j += 1) {
+                    assertEquals(expect, IntegerBinding.entryToInt(
+                        batch.getKey(j, key)));
+                    expect += 2;
+                }
+            }
+            assertEquals(2000, expect);
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getCurrent(key, data, null));
+            assertEquals(1998, IntegerBinding.entryToInt(key));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * A non-transactional cursor holds only the lock on the last record in
+     * the batch, while a transaction holds locks on all records returned.
+     */
+    @Test
+    public void testLocks() {
+        open(false);
+        insertRecords();
+        final RecordBatch batch = new RecordBatch(200, 64 * 1024);
+
+        /* The database handle holds a read lock. */
+        final int nHandleLocks = env.getStats(null).getNReadLocks();
+
+        Cursor cursor = db.openCursor(null, null);
+        try {
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(200, batch.size());
+            assertEquals(nHandleLocks + 1,
+                         env.getStats(null).getNReadLocks());
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(nHandleLocks + 1,
+                         env.getStats(null).getNReadLocks());
+        } finally {
+            cursor.close();
+        }
+        assertEquals(nHandleLocks, env.getStats(null).getNReadLocks());
+
+        final Transaction txn = env.beginTransaction(null, null);
+        cursor = db.openCursor(txn, null);
+        try {
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getNextBatch(batch, null));
+            assertEquals(nHandleLocks + 400,
+                         env.getStats(null).getNReadLocks());
+        } finally {
+            cursor.close();
+        }
+        txn.commit();
+    }
+
+    @Test
+    public void testDiskOrderedCursor() {
+        open(false);
+        insertRecords();
+        final DiskOrderedCursorConfig config = new DiskOrderedCursorConfig();
+        config.setQueueSize(200);
+        final RecordBatch batch = new RecordBatch(100, 64 * 1024);
+        final BitSet found = new BitSet();
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final DiskOrderedCursor cursor = db.openCursor(config);
+        try {
+            while (cursor.getNextBatch(batch, null) ==
+                   OperationStatus.SUCCESS) {
+                assertFalse(batch.isEmpty());
+                for (int j = 0; j < batch.size(); j += 1) {
+                    final int k =
+                        IntegerBinding.entryToInt(batch.getKey(j, key));
+                    checkData(k, batch.getData(j, data));
+                    assertFalse(found.get(k));
+                    found.set(k);
+                }
+                assertEquals(OperationStatus.SUCCESS,
+                             cursor.getCurrent(key, data, null));
+                assertEquals(IntegerBinding.entryToInt(key),
+                             IntegerBinding.entryToInt(
+                                batch.getKey(batch.size() - 1, data)));
+            }
+            assertEquals(N_RECORDS, found.cardinality());
+            assertEquals(OperationStatus.NOTFOUND,
+                         cursor.getNextBatch(batch, null));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void testInvalidParams() {
+        try {
+            new RecordBatch(0, 100);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new RecordBatch(1, -1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new RecordBatch(1, 1).getKey(0, new DatabaseEntry());
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    /**
+     * Scans the database in batches and compares the result to a scan with
+     * getNext or getPrev.
+     */
+    private void checkScan(Transaction txn,
+                           RecordBatch batch,
+                           boolean forward,
+                           LockMode lockMode) {
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final DatabaseEntry batchKey = new DatabaseEntry();
+        final DatabaseEntry batchData = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(txn, null);
+        final Cursor expectCursor = db.openCursor(txn, null);
+        try {
+            int n = 0;
+            while ((forward ?
+                    cursor.getNextBatch(batch, lockMode) :
+                    cursor.getPrevBatch(batch, lockMode)) ==
+                   OperationStatus.SUCCESS) {
+                assertTrue(batch.size() > 0);
+                assertTrue(batch.size() <= batch.getMaxRecords());
+                for (int j = 0; j < batch.size(); j += 1) {
+                    assertEquals(OperationStatus.SUCCESS,
+                                 forward ?
+                                 expectCursor.getNext(key, data, lockMode) :
+                                 expectCursor.getPrev(key, data, lockMode));
+                    assertEquals(key, batch.getKey(j, batchKey));
+                    assertEquals(data, batch.getData(j, batchData));
+                    n += 1;
+                }
+            }
+            assertEquals(N_RECORDS, n);
+            assertTrue(batch.isEmpty());
+        } finally {
+            expectCursor.close();
+            cursor.close();
+        }
+    }
+
+    private static DatabaseEntry makeData(int i) {
+        final byte[] bytes = new byte[10 + (i % 50)];
+        for (int j = 0; j < bytes.length; j += 1) {
+            bytes[j] = (byte) (i + j);
+        }
+        return new DatabaseEntry(bytes);
+    }
+
+    private static void checkData(int i, DatabaseEntry data) {
+        assertEquals(makeData(i), data);
+    }
+}
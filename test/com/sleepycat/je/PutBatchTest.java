@@ -0,0 +1,353 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests Database.putBatch and putNoOverwriteBatch.
+ */
+public class PutBatchTest extends TestBase {
+
+    private static final int N_RECORDS = 10000;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+    private final Map<Integer, Integer> expected =
+        new TreeMap<Integer, Integer>();
+
+    public PutBatchTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private void open(boolean dups, CacheMode cacheMode) {
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        envConfig.setLockTimeout(500, TimeUnit.MILLISECONDS);
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        dbConfig.setSortedDuplicates(dups);
+        dbConfig.setCacheMode(cacheMode);
+        db = env.openDatabase(null, "foo", dbConfig);
+    }
+
+    /**
+     * Writes keys first, first + step, ... less than end, in batches of
+     * batchSize records, with the given data value, and returns the total
+     * count returned by the put methods.
+     */
+    private int putRange(Transaction txn,
+                         int first,
+                         int end,
+                         int step,
+                         int batchSize,
+                         int dataVal,
+                         boolean overwrite) {
+        final RecordBatch batch = new RecordBatch(batchSize, 0);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        IntegerBinding.intToEntry(dataVal, data);
+        int nWritten = 0;
+        for (int i = first; i < end; i += step) {
+            IntegerBinding.intToEntry(i, key);
+            batch.add(key, data);
+            if (overwrite || !expected.containsKey(i)) {
+                expected.put(i, dataVal);
+            }
+            if (batch.size() == batchSize) {
+                nWritten += write(txn, batch, overwrite);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            nWritten += write(txn, batch, overwrite);
+        }
+        return nWritten;
+    }
+
+    private int write(Transaction txn, RecordBatch batch, boolean overwrite) {
+        return overwrite ?
+            db.putBatch(txn, batch) :
+            db.putNoOverwriteBatch(txn, batch);
+    }
+
+    private void verify() {
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            for (final Map.Entry<Integer, Integer> entry :
+                 expected.entrySet()) {
+                assertEquals(OperationStatus.SUCCESS,
+                             cursor.getNext(key, data, null));
+                assertEquals(entry.getKey().intValue(),
+                             IntegerBinding.entryToInt(key));
+                assertEquals(entry.getValue().intValue(),
+                             IntegerBinding.entryToInt(data));
+            }
+            assertEquals(OperationStatus.NOTFOUND,
+                         cursor.getNext(key, data, null));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Appends sequential keys, so that every batch extends the last BIN.
+     */
+    @Test
+    public void testAppend() {
+        open(false, null);
+        assertEquals(N_RECORDS, putRange(null, 0, N_RECORDS, 1, 1000, 1,
+                                         true));
+        verify();
+        assertEquals(N_RECORDS, db.count());
+    }
+
+    /**
+     * Interleaves a batch with existing records, so that batch runs end
+     * within a BIN and BINs are split while the batch is written.
+     */
+    @Test
+    public void testInterleaved() {
+        open(false, null);
+        assertEquals(N_RECORDS / 2,
+                     putRange(null, 1, N_RECORDS, 2, 500, 1, true));
+        assertEquals(N_RECORDS / 2,
+                     putRange(null, 0, N_RECORDS, 2, 3000, 2, true));
+        verify();
+        final Transaction txn = env.beginTransaction(null, null);
+        assertEquals(N_RECORDS / 10,
+                     putRange(txn, N_RECORDS + 5, N_RECORDS * 2, 10, 100, 3,
+                              true));
+        txn.commit();
+        verify();
+    }
+
+    @Test
+    public void testOverwrite() {
+        open(false, null);
+        assertEquals(N_RECORDS / 2,
+                     putRange(null, 0, N_RECORDS, 2, 1000, 1, true));
+        assertEquals(N_RECORDS,
+                     putRange(null, 0, N_RECORDS, 1, 1000, 2, true));
+        verify();
+    }
+
+    @Test
+    public void testNoOverwrite() {
+        open(false, null);
+        assertEquals(N_RECORDS / 2,
+                     putRange(null, 0, N_RECORDS, 2, 1000, 1, false));
+        assertEquals(N_RECORDS / 2,
+                     putRange(null, 0, N_RECORDS, 1, 1000, 2, false));
+        verify();
+    }
+
+    @Test
+    public void testAbort() {
+        open(false, null);
+        putRange(null, 0, N_RECORDS, 2, 1000, 1, true);
+        final Map<Integer, Integer> committed =
+            new TreeMap<Integer, Integer>(expected);
+        final Transaction txn = env.beginTransaction(null, null);
+        putRange(txn, 0, N_RECORDS, 1, 1000, 2, true);
+        txn.abort();
+        expected.clear();
+        expected.putAll(committed);
+        verify();
+    }
+
+    /**
+     * A record locked by another transaction is written by the slow path,
+     * which waits for the lock.
+     */
+    @Test
+    public void testLockedRecord() {
+        open(false, null);
+        putRange(null, 0, 100, 1, 100, 1, true);
+
+        final Transaction reader = env.beginTransaction(null, null);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        IntegerBinding.intToEntry(50, key);
+        assertEquals(OperationStatus.SUCCESS,
+                     db.get(reader, key, data, null));
+
+        final Map<Integer, Integer> committed =
+            new TreeMap<Integer, Integer>(expected);
+        final Transaction writer = env.beginTransaction(null, null);
+        try {
+            putRange(writer, 0, 100, 1, 100, 2, true);
+            fail();
+        } catch (LockConflictException expectedException) {
+            writer.abort();
+        }
+        expected.clear();
+        expected.putAll(committed);
+
+        reader.commit();
+        verify();
+
+        assertEquals(100, putRange(null, 0, 100, 1, 100, 2, true));
+        verify();
+    }
+
+    @Test
+    public void testUnsorted() {
+        open(false, null);
+        final RecordBatch batch = new RecordBatch(10, 0);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[1]);
+        IntegerBinding.intToEntry(1, key);
+        batch.add(key, data);
+        IntegerBinding.intToEntry(2, key);
+        batch.add(key, data);
+        batch.add(key, data);
+        try {
+            db.putBatch(null, batch);
+            fail();
+        } catch (IllegalArgumentException expectedException) {
+        }
+        assertEquals(0, db.count());
+
+        try {
+            db.putBatch(null, null);
+            fail();
+        } catch (IllegalArgumentException expectedException) {
+        }
+
+        final RecordBatch full = new RecordBatch(1, 0);
+        full.add(key, data);
+        try {
+            full.add(key, data);
+            fail();
+        } catch (IllegalStateException expectedException) {
+        }
+        final DatabaseEntry partial = new DatabaseEntry(new byte[1]);
+        partial.setPartial(0, 1, true);
+        try {
+            batch.add(key, partial);
+            fail();
+        } catch (IllegalArgumentException expectedException) {
+        }
+    }
+
+    /**
+     * Duplicates databases are written one record at a time.
+     */
+    @Test
+    public void testDuplicates() {
+        open(true, null);
+        assertEquals(N_RECORDS,
+                     putRange(null, 0, N_RECORDS, 1, 1000, 1, true));
+        verify();
+        assertEquals(0,
+                     putRange(null, 0, N_RECORDS, 1, 1000, 1, false));
+        verify();
+
+        /* A key may be repeated to add duplicates. */
+        final RecordBatch batch = new RecordBatch(10, 0);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        IntegerBinding.intToEntry(N_RECORDS, key);
+        IntegerBinding.intToEntry(1, data);
+        batch.add(key, data);
+        IntegerBinding.intToEntry(2, data);
+        batch.add(key, data);
+        assertEquals(2, db.putBatch(null, batch));
+        assertEquals(N_RECORDS + 2, db.count());
+    }
+
+    @Test
+    public void testEvictLN() {
+        open(false, CacheMode.EVICT_LN);
+        putRange(null, 0, N_RECORDS, 3, 1000, 1, true);
+        putRange(null, 0, N_RECORDS, 1, 1000, 2, true);
+        verify();
+        final DatabaseEntry key = new DatabaseEntry();
+        IntegerBinding.intToEntry(N_RECORDS - 1, key);
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getSearchKey(key, new DatabaseEntry(), null));
+            assertNull(DbInternal.getCursorImpl(cursor).getBIN().
+                       getTarget(DbInternal.getCursorImpl(cursor).getIndex()));
+        } finally {
+            cursor.close();
+        }
+    }
+}
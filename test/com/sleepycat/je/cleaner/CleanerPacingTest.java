@@ -0,0 +1,272 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.cleaner;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.EnvironmentMutableConfig;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.je.utilint.DummyFileStoreInfo;
+import com.sleepycat.je.utilint.FileStoreInfo;
+
+/**
+ * Checks the rate decisions made by the CleanerPacer when adaptive pacing is
+ * configured.
+ */
+public class CleanerPacingTest extends TestCase {
+
+    private static final long MAX_BYTES_RATE = 1 << 20;
+    private static final int MAX_LN_RATE = 1000;
+
+    private final File envHome;
+    private Environment env;
+    private CleanerPacer pacer;
+
+    public CleanerPacingTest() {
+        envHome = new File(System.getProperty(TestUtils.DEST_DIR));
+    }
+
+    @Override
+    public void setUp()
+        throws Exception {
+
+        TestUtils.removeLogFiles("Setup", envHome, false);
+    }
+
+    @Override
+    public void tearDown()
+        throws Exception {
+
+        FileStoreInfo.setFactory(null);
+        try {
+            TestUtils.closeAll(env);
+        } finally {
+            env = null;
+            pacer = null;
+        }
+    }
+
+    private void open(boolean adaptivePacing) {
+        final EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        envConfig.setConfigParam(EnvironmentConfig.CLEANER_ADAPTIVE_PACING,
+                                 String.valueOf(adaptivePacing));
+        envConfig.setConfigParam(
+            EnvironmentConfig.CLEANER_PACING_LATENCY_TARGET, "10 ms");
+        envConfig.setConfigParam(
+            EnvironmentConfig.CLEANER_PACING_MAX_BYTES_RATE,
+            String.valueOf(MAX_BYTES_RATE));
+        envConfig.setConfigParam(
+            EnvironmentConfig.CLEANER_PACING_MAX_LN_RATE,
+            String.valueOf(MAX_LN_RATE));
+        env = new Environment(envHome, envConfig);
+        pacer = DbInternal.getEnvironmentImpl(env).getCleaner().getPacer();
+    }
+
+    private void recordLatencies(long latencyMs, int count) {
+        for (int i = 0; i < count; i += 1) {
+            pacer.recordLatency(latencyMs * 1000000L);
+        }
+    }
+
+    public void testDisabled() {
+        open(false);
+        assertFalse(pacer.isEnabled());
+        for (int i = 0; i < 1000; i += 1) {
+            assertEquals(0, pacer.startForegroundOp());
+        }
+
+        /* Enabling pacing is a mutable change. */
+        final EnvironmentMutableConfig config = env.getMutableConfig();
+        config.setConfigParam(EnvironmentConfig.CLEANER_ADAPTIVE_PACING,
+                              "true");
+        env.setMutableConfig(config);
+        assertTrue(pacer.isEnabled());
+        boolean sampled = false;
+        for (int i = 0; i < 1000 && !sampled; i += 1) {
+            sampled = pacer.startForegroundOp() != 0;
+        }
+        assertTrue(sampled);
+    }
+
+    public void testLatencyFeedback() {
+        open(true);
+        assertEquals(1.0, pacer.getFactor());
+
+        /* Slow foreground operations halve the rate. */
+        recordLatencies(50, 100);
+        pacer.updateWindow(System.nanoTime());
+        assertEquals(0.5, pacer.getFactor());
+        assertEquals(MAX_BYTES_RATE / 2, (long) pacer.getBytesRate());
+        assertEquals(MAX_LN_RATE / 2, (long) pacer.getLNRate());
+
+        recordLatencies(50, 100);
+        pacer.updateWindow(System.nanoTime());
+        assertEquals(0.25, pacer.getFactor());
+
+        /* A single outlier does not exceed the 99th percentile. */
+        recordLatencies(1, 200);
+        recordLatencies(50, 1);
+        pacer.updateWindow(System.nanoTime());
+        assertEquals(0.35, pacer.getFactor(), 0.001);
+
+        /* Too few samples are treated as acceptable latency. */
+        recordLatencies(50, CleanerPacer.MIN_SAMPLES - 1);
+        pacer.updateWindow(System.nanoTime());
+        assertEquals(0.45, pacer.getFactor(), 0.001);
+
+        /* The factor is bounded below. */
+        for (int i = 0; i < 20; i += 1) {
+            recordLatencies(50, 100);
+            pacer.updateWindow(System.nanoTime());
+        }
+        assertEquals(CleanerPacer.MIN_FACTOR, pacer.getFactor());
+
+        final EnvironmentStats stats = env.getStats(null);
+        assertEquals(22, stats.getNPacingLatencyThrottles());
+        assertEquals((long) (MAX_BYTES_RATE * CleanerPacer.MIN_FACTOR),
+                     stats.getPacingBytesRate());
+        assertTrue(stats.getPacingForegroundLatency() >= 50000);
+        assertEquals(0, stats.getNPacingGrowthFloors());
+        assertEquals(0, stats.getNPacingDiskOverrides());
+    }
+
+    public void testGrowthFloor() {
+        open(true);
+
+        /* Drive the rate to its minimum. */
+        for (int i = 0; i < 10; i += 1) {
+            recordLatencies(50, 100);
+            pacer.updateWindow(System.nanoTime());
+        }
+        final long start = System.nanoTime();
+
+        /* Append about 1MB to the log. */
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        final Database db = env.openDatabase(null, "foo", dbConfig);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[10000]);
+        for (int i = 0; i < 100; i += 1) {
+            key.setData(String.valueOf(i).getBytes());
+            db.put(null, key, data);
+        }
+        db.close();
+
+        /*
+         * The log grew by ~1MB in much less than the 16 seconds that cleaning
+         * it at the minimum rate would take, so the floor applies.
+         */
+        recordLatencies(50, 100);
+        pacer.updateWindow(System.nanoTime());
+        final long elapsedMs = (System.nanoTime() - start) / 1000000;
+        if (elapsedMs < 1000) {
+            assertTrue(pacer.getBytesRate() >
+                       MAX_BYTES_RATE * CleanerPacer.MIN_FACTOR);
+            assertTrue(pacer.getLNRate() > MAX_LN_RATE *
+                       CleanerPacer.MIN_FACTOR);
+            final EnvironmentStats stats = env.getStats(null);
+            assertEquals(1, stats.getNPacingGrowthFloors());
+        }
+    }
+
+    public void testDiskOverride() {
+        FileStoreInfo.setFactory(new LowSpaceFileStoreInfo());
+        open(true);
+
+        recordLatencies(50, 100);
+        pacer.updateWindow(System.nanoTime());
+        assertTrue(pacer.isUnthrottled());
+        assertEquals(MAX_BYTES_RATE, (long) pacer.getBytesRate());
+
+        /* Pacing does not sleep while unthrottled. */
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < 100; i += 1) {
+            pacer.pace(MAX_BYTES_RATE, MAX_LN_RATE);
+        }
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        final EnvironmentStats stats =
+            env.getStats(new StatsConfig().setClear(true));
+        assertTrue(stats.getNPacingDiskOverrides() > 0);
+        assertEquals(0, stats.getPacingSleepTime());
+    }
+
+    public void testPaceSleeps() {
+        open(true);
+
+        /*
+         * Charging one second's worth of bytes at the maximum rate puts the
+         * bucket in debt, so the next call sleeps.
+         */
+        pacer.pace(MAX_BYTES_RATE, 0);
+        pacer.pace(MAX_BYTES_RATE / 10, 0);
+        final EnvironmentStats stats = env.getStats(null);
+        assertTrue(stats.getPacingSleepTime() > 0);
+    }
+
+    /** Reports 1% free space. */
+    private static class LowSpaceFileStoreInfo extends DummyFileStoreInfo {
+
+        @Override
+        public long getUsableSpace()
+            throws IOException {
+
+            return getTotalSpace() / 100;
+        }
+    }
+}
@@ -281,6 +281,47 @@ public class CleanerTest extends CleanerTestBase {
         closeEnv();
     }
 
+    /**
+     * Checks that the next file to be cleaned is read ahead, and that
+     * processing LNs in key order rather than log order loses no data.
+     */
+    @Test
+    public void testCleanerReadAhead()
+        throws Throwable {
+
+        initEnv(true, false);
+        final EnvironmentMutableConfig mutableConfig = env.getMutableConfig();
+        mutableConfig.setConfigParam(EnvironmentConfig.CLEANER_READ_AHEAD,
+                                     "true");
+        env.setMutableConfig(mutableConfig);
+
+        final Map<String, Set<String>> expectedMap =
+            new HashMap<String, Set<String>>();
+        doLargePut(expectedMap, N_KEYS, 1, true);
+        modifyData(expectedMap, 1, true);
+        modifyData(expectedMap, 1, true);
+        env.checkpoint(FORCE_CONFIG);
+
+        final int nFiles = env.cleanLog();
+        assertTrue(nFiles > 1);
+
+        /* Read-ahead is asynchronous. */
+        EnvironmentStats stats = null;
+        for (int i = 0; i < 100; i += 1) {
+            stats = env.getStats(null);
+            if (stats.getNReadAheadFiles() > 0) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertTrue(stats.getNReadAheadFiles() > 0);
+        assertTrue(stats.getNReadAheadBytes() > 0);
+        assertTrue(stats.getNLNsMigrated() > 0);
+
+        checkData(expectedMap);
+        closeEnv();
+    }
+
     /**
      * Ensure that INs are cleaned.
      */
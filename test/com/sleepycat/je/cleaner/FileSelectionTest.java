@@ -58,6 +58,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
@@ -538,6 +540,108 @@ public class FileSelectionTest extends TestBase {
         closeEnv();
     }
 
+    /**
+     * Tests that age-weighted selection prefers an older file over a younger
+     * file with somewhat lower utilization.
+     */
+    @Test
+    public void testAgeWeightedSelection()
+        throws DatabaseException {
+
+        /* Test assumes that keys are written in order. */
+        if (isDeferredWriteMode()) {
+            return;
+        }
+
+        EnvironmentConfig myConfig = initConfig();
+        myConfig.setConfigParam
+            (EnvironmentParams.CLEANER_MIN_UTILIZATION.getName(),
+             String.valueOf(90));
+        myConfig.setConfigParam
+            (EnvironmentParams.CLEANER_MIN_FILE_UTILIZATION.getName(),
+             String.valueOf(0));
+        openEnv(myConfig);
+
+        /*
+         * Delete half of the LNs in the first file and two thirds of the
+         * LNs in the middle file.
+         */
+        writeData();
+        final int oldFile = 0;
+        int firstKey = firstKeysInFiles.get(oldFile);
+        int nextKey = firstKeysInFiles.get(oldFile + 1);
+        deleteData(firstKey, (nextKey - firstKey) / 2);
+        final int youngFile = INITIAL_FILES / 2;
+        firstKey = firstKeysInFiles.get(youngFile);
+        nextKey = firstKeysInFiles.get(youngFile + 1);
+        deleteData(firstKey, ((nextKey - firstKey) * 2) / 3);
+
+        /*
+         * By default the lowest utilization file is chosen, and the file with
+         * the fewest live entries is cleaned first.
+         */
+        final Cleaner cleaner = envImpl.getCleaner();
+        final UtilizationCalculator calculator =
+            cleaner.getUtilizationCalculator();
+        final Set<Long> noFiles = new HashSet<Long>();
+        final SortedSet<Long> bothFiles = new TreeSet<Long>(
+            Arrays.asList(Long.valueOf(oldFile), Long.valueOf(youngFile)));
+        assertEquals(Long.valueOf(youngFile),
+                     calculator.getBestFile(
+                         cleaner.getUtilizationProfile().
+                             getFileSummaryMap(true),
+                         false, false, noFiles));
+        assertEquals(Long.valueOf(youngFile),
+                     calculator.getCheapestFileToClean(
+                         cleaner.getUtilizationProfile().
+                             getFileSummaryMap(true),
+                         bothFiles));
+        assertEquals(0, env.getStats(null).getNAgeWeightedSelections());
+
+        /* With age weighting the older file is chosen and cleaned first. */
+        myConfig.setConfigParam
+            (EnvironmentConfig.CLEANER_AGE_WEIGHTED_SELECTION, "true");
+        env.setMutableConfig(myConfig);
+        assertEquals(Long.valueOf(oldFile),
+                     calculator.getBestFile(
+                         cleaner.getUtilizationProfile().
+                             getFileSummaryMap(true),
+                         false, false, noFiles));
+        assertEquals(1, env.getStats(null).getNAgeWeightedSelections());
+
+        /* A backlog is cleaned in the same order. */
+        assertEquals(Long.valueOf(oldFile),
+                     calculator.getCheapestFileToClean(
+                         cleaner.getUtilizationProfile().
+                             getFileSummaryMap(true),
+                         bothFiles));
+
+        /* Cleaning with age weighting loses no data. */
+        env.cleanLog();
+        env.checkpoint(forceConfig);
+        verifyData();
+
+        closeEnv();
+    }
+
+    /**
+     * Tests the age-weighted benefit/cost ratio.
+     */
+    @Test
+    public void testAgeWeightedScore() {
+        assertEquals(0, UtilizationCalculator.getAgeWeightedScore(100, 10));
+        assertEquals(1000, UtilizationCalculator.getAgeWeightedScore(0, 1));
+        assertEquals(2000, UtilizationCalculator.getAgeWeightedScore(0, 2));
+
+        /* An older file beats a younger, emptier one. */
+        assertTrue(UtilizationCalculator.getAgeWeightedScore(50, 4) >
+                   UtilizationCalculator.getAgeWeightedScore(33, 2));
+
+        /* But not a much emptier one. */
+        assertTrue(UtilizationCalculator.getAgeWeightedScore(80, 4) <
+                   UtilizationCalculator.getAgeWeightedScore(10, 2));
+    }
+
     private void printFiles(String msg) {
         System.out.print(msg);
         Long lastNum = envImpl.getFileManager().getLastFileNum();
@@ -46,7 +46,10 @@ package com.sleepycat.je.evictor;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import com.sleepycat.util.test.TestBase;
 import org.junit.Test;
@@ -81,4 +84,160 @@ public class OffHeapAllocatorTest extends TestBase {
 
         allocator.free(memId);
     }
+
+    @Test
+    public void testSlabClasses() {
+
+        final int[] sizes = SlabAllocator.CLASS_SIZES;
+
+        for (int i = 0; i < sizes.length; i += 1) {
+            assertEquals(0, sizes[i] % 8);
+            assertEquals(i, SlabAllocator.getClassIndex(sizes[i]));
+            assertEquals(i, SlabAllocator.getClassIndex(sizes[i] - 1));
+            if (i > 0) {
+                assertTrue(sizes[i] > sizes[i - 1]);
+                assertEquals(i, SlabAllocator.getClassIndex(
+                    sizes[i - 1] + 1));
+            }
+        }
+
+        assertEquals(0, SlabAllocator.getClassIndex(1));
+        assertEquals(
+            -1, SlabAllocator.getClassIndex(sizes[sizes.length - 1] + 1));
+    }
+
+    /**
+     * Allocates and frees blocks of random sizes, including blocks larger
+     * than the largest size class, and checks their contents and the memory
+     * accounting.
+     */
+    @Test
+    public void testSlab() throws Exception {
+
+        final OffHeapAllocatorFactory factory = new OffHeapAllocatorFactory();
+        final OffHeapAllocator allocator =
+            factory.getAllocator(OffHeapAllocatorFactory.SLAB_NAME);
+        final long maxBytes = 64 * 1024 * 1024;
+        allocator.setMaxBytes(maxBytes);
+
+        final Random rnd = new Random(123);
+        final List<Long> memIds = new ArrayList<>();
+        long allocated = 0;
+
+        for (int pass = 0; pass < 3; pass += 1) {
+
+            for (int i = 0; i < 2000; i += 1) {
+
+                final int size = (i % 100 == 0) ?
+                    (100 * 1024 + rnd.nextInt(1000)) :
+                    rnd.nextInt(5000);
+
+                final long memId = allocator.allocate(size);
+                assertTrue(memId != 0);
+                assertEquals(size, allocator.size(memId));
+                assertTrue(allocator.totalSize(memId) >= size);
+
+                final byte[] zeros = new byte[size];
+                final byte[] buf = new byte[size];
+                Arrays.fill(buf, (byte) 1);
+                allocator.copy(memId, 0, buf, 0, size);
+                assertTrue(Arrays.equals(zeros, buf));
+
+                fill(buf, memId);
+                allocator.copy(buf, 0, memId, 0, size);
+
+                memIds.add(memId);
+                allocated += size;
+            }
+
+            assertEquals(allocated, allocator.getAllocatedBytes());
+            assertTrue(
+                allocator.getUsedBytes() > allocator.getAllocatedBytes());
+
+            /* Free half of the blocks, checking their contents. */
+            for (int i = memIds.size() - 1; i >= 0; i -= 2) {
+                final long memId = memIds.remove(i);
+                allocated -= checkAndFree(allocator, memId);
+            }
+
+            assertEquals(allocated, allocator.getAllocatedBytes());
+        }
+
+        for (final long memId : memIds) {
+            allocated -= checkAndFree(allocator, memId);
+        }
+
+        assertEquals(0, allocated);
+        assertEquals(0, allocator.getAllocatedBytes());
+
+        /* At most one empty slab per size class is retained. */
+        final long slabBytes = maxBytes / 256;
+        long maxRetained = 0;
+        for (final int classSize : SlabAllocator.CLASS_SIZES) {
+            maxRetained += Math.max(slabBytes, classSize) + 1024;
+        }
+        assertTrue(allocator.getUsedBytes() > 0);
+        assertTrue(allocator.getUsedBytes() <= maxRetained);
+    }
+
+    /**
+     * Checks that no slab is created beyond the max size, and that free
+     * blocks are reused instead.
+     */
+    @Test
+    public void testSlabLimit() throws Exception {
+
+        final OffHeapAllocatorFactory factory = new OffHeapAllocatorFactory();
+        final OffHeapAllocator allocator =
+            factory.getAllocator(OffHeapAllocatorFactory.SLAB_NAME);
+        final long maxBytes = 1024 * 1024;
+        allocator.setMaxBytes(maxBytes);
+
+        final List<Long> memIds = new ArrayList<>();
+
+        while (true) {
+            final long memId = allocator.allocate(1000);
+            if (memId == 0) {
+                break;
+            }
+            memIds.add(memId);
+        }
+
+        assertTrue(allocator.getUsedBytes() <= maxBytes);
+        assertTrue(allocator.getAllocatedBytes() > maxBytes * 9 / 10);
+
+        /* A block freed from any slab is reused. */
+        final long usedBytes = allocator.getUsedBytes();
+        allocator.free(memIds.remove(memIds.size() / 2));
+        final long memId = allocator.allocate(1000);
+        assertTrue(memId != 0);
+        memIds.add(memId);
+        assertEquals(usedBytes, allocator.getUsedBytes());
+
+        for (final long id : memIds) {
+            allocator.free(id);
+        }
+
+        assertEquals(0, allocator.getAllocatedBytes());
+    }
+
+    private static int checkAndFree(final OffHeapAllocator allocator,
+                                    final long memId) {
+
+        final int size = allocator.size(memId);
+        final byte[] expected = new byte[size];
+        final byte[] buf = new byte[size];
+        fill(expected, memId);
+        allocator.copy(memId, 0, buf, 0, size);
+        assertTrue(Arrays.equals(expected, buf));
+
+        assertTrue(allocator.free(memId) >= size);
+        return size;
+    }
+
+    private static void fill(final byte[] buf, final long memId) {
+        for (int i = 0; i < buf.length; i += 1) {
+            buf[i] = (byte) (memId + i);
+        }
+    }
 }
@@ -43,17 +43,24 @@
 
 package com.sleepycat.je.evictor;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.Random;
 
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DbInternal;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
 import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.tree.BIN;
 import com.sleepycat.je.tree.IN;
 import com.sleepycat.je.util.TestUtils;
@@ -92,10 +99,14 @@ public class OffHeapCacheTest extends TestBase {
     }
 
     private void open() {
-
         final EnvironmentConfig envConfig = new EnvironmentConfig();
-        envConfig.setAllowCreate(true);
         envConfig.setOffHeapCacheSize(1024 * 1024);
+        open(envConfig);
+    }
+
+    private void open(final EnvironmentConfig envConfig) {
+
+        envConfig.setAllowCreate(true);
 
         envConfig.setConfigParam(
             EnvironmentConfig.ENV_RUN_CLEANER, "false");
@@ -169,6 +180,163 @@ public class OffHeapCacheTest extends TestBase {
         close();
     }
 
+    /**
+     * Checks that compressed BINs are serialized and materialized correctly.
+     */
+    @Test
+    public void testCompressedBINSerialization() throws Exception {
+
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        envConfig.setOffHeapCacheSize(1024 * 1024);
+        envConfig.setConfigParam(EnvironmentConfig.OFFHEAP_COMPRESSION, "LZ");
+        envConfig.setConfigParam(
+            EnvironmentConfig.OFFHEAP_COMPRESSION_MIN_SIZE, "0");
+        open(envConfig);
+
+        final BIN bin = new BIN(
+            DbInternal.getDatabaseImpl(db),
+            new byte[] { 1, 2, 3 },
+            128, IN.BIN_LEVEL);
+
+        /* Avoid assertions setting LN memIds. */
+        bin.setOffHeapLruId(1);
+
+        final int[] memIds = new int[100];
+        for (int i = 0; i < memIds.length; i += 1) {
+            memIds[i] = (i % 3 == 0) ? 0 : (1000 + i);
+        }
+
+        bin.latch();
+        try {
+            checkBINSerialization(bin, memIds);
+        } finally {
+            bin.releaseLatch();
+        }
+
+        final EnvironmentStats stats = env.getStats(null);
+        assertTrue(stats.getOffHeapCompressionOutputBytes() <
+                   stats.getOffHeapCompressionInputBytes());
+        assertEquals(1, stats.getOffHeapDecompressions());
+
+        close();
+    }
+
+    /**
+     * Moves compressible LNs to the off-heap cache, and checks that they are
+     * compressed and read back correctly.
+     */
+    @Test
+    public void testCompression() throws Exception {
+        checkCompression("LZ");
+        checkCompression("DEFLATE");
+    }
+
+    private void checkCompression(final String codec) {
+
+        /* Use a cache large enough to prevent off-heap eviction. */
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        envConfig.setOffHeapCacheSize(10 * 1024 * 1024);
+        envConfig.setConfigParam(
+            EnvironmentConfig.OFFHEAP_COMPRESSION, codec);
+        open(envConfig);
+
+        final int nRecords = 100;
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+
+        for (int i = 0; i < nRecords; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            data.setData(makeData(i));
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        /* EVICT_LN moves each LN to the off-heap cache after reading it. */
+        final Cursor cursor = db.openCursor(null, null);
+        cursor.setCacheMode(CacheMode.EVICT_LN);
+
+        while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
+            assertArrayEquals(
+                makeData(IntegerBinding.entryToInt(key)), data.getData());
+        }
+
+        cursor.close();
+
+        EnvironmentStats stats = env.getStats(null);
+        assertEquals(nRecords, stats.getOffHeapLNsStored());
+        assertEquals(nRecords, stats.getOffHeapCachedLNs());
+        assertTrue(stats.getOffHeapCompressionInputBytes() > 0);
+        assertTrue(stats.getOffHeapCompressionOutputBytes() * 2 <
+                   stats.getOffHeapCompressionInputBytes());
+        assertTrue(stats.getOffHeapCompressionNanos() > 0);
+
+        for (int i = 0; i < nRecords; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            assertEquals(
+                OperationStatus.SUCCESS,
+                db.get(null, key, data, null));
+            assertArrayEquals(makeData(i), data.getData());
+        }
+
+        stats = env.getStats(null);
+        assertEquals(nRecords, stats.getOffHeapLNsLoaded());
+        assertEquals(nRecords, stats.getOffHeapDecompressions());
+        assertTrue(stats.getOffHeapDecompressionNanos() > 0);
+
+        close();
+        TestUtils.removeLogFiles("checkCompression", envHome, false);
+    }
+
+    /**
+     * Fills the off-heap cache using the SLAB allocator, then updates random
+     * records so that eviction frees blocks scattered over many slabs. Checks
+     * that the cache settles near its size, rather than being mostly evicted
+     * because the slabs holding the freed blocks are not returned to the OS,
+     * and that the slabs do not exceed the cache size.
+     */
+    @Test
+    public void testSlabEviction() {
+
+        final long cacheSize = 8 * 1024 * 1024;
+        final int nRecords = 20000;
+
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        envConfig.setOffHeapCacheSize(cacheSize);
+        envConfig.setConfigParam(EnvironmentConfig.OFFHEAP_ALLOCATOR, "SLAB");
+        open(envConfig);
+
+        final Random rnd = new Random(123);
+        final DatabaseEntry key = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        cursor.setCacheMode(CacheMode.EVICT_LN);
+
+        for (int i = 0; i < nRecords * 5; i += 1) {
+            final int keyVal = (i < nRecords) ? i : rnd.nextInt(nRecords);
+            IntegerBinding.intToEntry(keyVal, key);
+            final DatabaseEntry data =
+                new DatabaseEntry(new byte[100 + rnd.nextInt(1900)]);
+            cursor.put(key, data);
+        }
+
+        cursor.close();
+
+        final EnvironmentStats stats = env.getStats(null);
+        assertTrue(stats.getOffHeapLNsEvicted() > 0);
+        assertTrue(stats.getOffHeapTotalBytes() <= cacheSize);
+        assertTrue(
+            "allocated=" + stats.getOffHeapAllocatedBytes(),
+            stats.getOffHeapAllocatedBytes() > cacheSize * 6 / 10);
+
+        close();
+    }
+
+    private static byte[] makeData(final int i) {
+        final byte[] bytes = new byte[1000];
+        for (int j = 0; j < bytes.length; j += 1) {
+            bytes[j] = (byte) ((i + j / 100) & 0xF);
+        }
+        return bytes;
+    }
+
     private void checkBINSerialization(BIN bin, int... memIds) {
 
         assertTrue(memIds.length >= bin.getNEntries());
@@ -239,8 +407,14 @@ public class OffHeapCacheTest extends TestBase {
         stats.getOffHeapCachedBINs();
         stats.getOffHeapCachedBINDeltas();
         stats.getOffHeapTotalBytes();
+        stats.getOffHeapAllocatedBytes();
         stats.getOffHeapTotalBlocks();
         stats.getOffHeapLRUSize();
+        stats.getOffHeapCompressionInputBytes();
+        stats.getOffHeapCompressionOutputBytes();
+        stats.getOffHeapCompressionNanos();
+        stats.getOffHeapDecompressions();
+        stats.getOffHeapDecompressionNanos();
 
         close();
     }
@@ -49,6 +49,7 @@ import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_NOWAIT_UNSUCCESS;
 import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_NO_WAITERS;
 import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_RELEASES;
 import static com.sleepycat.je.latch.LatchStatDefinition.LATCH_SELF_OWNED;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -469,4 +470,52 @@ public class LatchTest extends TestBase {
             waiterThreads[i].finishTest();
         }
     }
+
+    @Test
+    public void testOptimisticStamp() {
+
+        final SharedLatch latch = LatchFactory.createSharedLatch(
+            LatchFactory.createTestLatchContext("LatchTest-shared"),
+            false /*exclusiveOnly*/);
+
+        if (!LatchSupport.OPTIMISTIC_READS) {
+            assertEquals(0, latch.getOptimisticStamp());
+            return;
+        }
+
+        final long stamp = latch.getOptimisticStamp();
+        assertTrue(stamp != 0);
+        assertTrue(latch.validateOptimisticStamp(stamp));
+        assertFalse(latch.validateOptimisticStamp(0));
+
+        /* Shared latching does not invalidate the stamp. */
+        latch.acquireShared();
+        assertEquals(stamp, latch.getOptimisticStamp());
+        latch.release();
+        assertTrue(latch.validateOptimisticStamp(stamp));
+
+        /* No stamp is available while latched exclusively. */
+        latch.acquireExclusive();
+        assertEquals(0, latch.getOptimisticStamp());
+        assertFalse(latch.validateOptimisticStamp(stamp));
+        latch.release();
+
+        /* Exclusive latching invalidates the stamp. */
+        assertFalse(latch.validateOptimisticStamp(stamp));
+        final long stamp2 = latch.getOptimisticStamp();
+        assertTrue(stamp2 != 0);
+        assertTrue(stamp2 != stamp);
+        assertTrue(latch.validateOptimisticStamp(stamp2));
+
+        assertTrue(latch.acquireExclusiveNoWait());
+        latch.release();
+        assertFalse(latch.validateOptimisticStamp(stamp2));
+
+        /* Exclusive-only latches do not support optimistic reads. */
+        final SharedLatch exclusiveLatch = LatchFactory.createSharedLatch(
+            LatchFactory.createTestLatchContext("LatchTest-exclusive"),
+            true /*exclusiveOnly*/);
+        assertEquals(0, exclusiveLatch.getOptimisticStamp());
+        assertFalse(exclusiveLatch.validateOptimisticStamp(1));
+    }
 }
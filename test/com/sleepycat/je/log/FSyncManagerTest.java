@@ -44,6 +44,7 @@
 package com.sleepycat.je.log;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -129,6 +130,101 @@ public class FSyncManagerTest extends TestBase {
         }
     }
 
+    /**
+     * Checks that with adaptive group commit a lone committer never waits,
+     * while concurrent committers wait for their group to fill and share
+     * fsyncs.
+     */
+    @Test
+    public void testAdaptiveGroupCommit()
+        throws Throwable {
+
+        Environment env = null;
+
+        try {
+            EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+            envConfig.setConfigParam(
+                EnvironmentConfig.LOG_GROUP_COMMIT_INTERVAL, "50 ms");
+            envConfig.setConfigParam(
+                EnvironmentConfig.LOG_GROUP_COMMIT_THRESHOLD, "4");
+            envConfig.setConfigParam(
+                EnvironmentConfig.LOG_GROUP_COMMIT_ADAPTIVE, "true");
+            envConfig.setAllowCreate(true);
+            env = new Environment(envHome, envConfig);
+            EnvironmentImpl envImpl = DbInternal.getEnvironmentImpl(env);
+
+            /*
+             * A single thread whose requests are further apart than an fsync
+             * takes gains nothing from waiting.
+             */
+            FSyncManager syncManager = new SleepSyncManager(envImpl, 10);
+            for (int i = 0; i < 20; i += 1) {
+                syncManager.sync(true);
+                Thread.sleep(5);
+            }
+            assertEquals(20, syncManager.getNFSyncs());
+            assertEquals(0, syncManager.getNGroupCommitWaits());
+            assertEquals(20, syncManager.getGroupSizes()[0]);
+
+            /* Concurrent committers wait and form larger groups. */
+            syncManager = new SleepSyncManager(envImpl, 10);
+            final int nThreads = 8;
+            final int nIters = 20;
+            JUnitThread[] threads = new JUnitThread[nThreads];
+            for (int i = 0; i < nThreads; i += 1) {
+                threads[i] = new RepeatSyncThread(syncManager, nIters);
+                threads[i].start();
+            }
+            for (JUnitThread t : threads) {
+                t.finishTest();
+            }
+
+            assertEquals(nThreads * nIters, syncManager.getNFSyncRequests());
+            assertTrue(syncManager.getNGroupCommitWaits() > 0);
+            assertTrue(syncManager.getNFSyncs() < (nThreads * nIters) / 2);
+            long[] sizes = syncManager.getGroupSizes();
+            assertTrue(sizes[2] + sizes[3] > sizes[0]);
+        } finally {
+            if (env != null) {
+                env.close();
+            }
+        }
+    }
+
+    /* Sleeps for a fixed time instead of executing a sync. */
+    class SleepSyncManager extends FSyncManager {
+        private final long sleepMs;
+        SleepSyncManager(EnvironmentImpl env, long sleepMs) {
+            super(env);
+            this.sleepMs = sleepMs;
+        }
+        @Override
+        protected void executeFSync() {
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    class RepeatSyncThread extends JUnitThread {
+        private final FSyncManager syncManager;
+        private final int nIters;
+        RepeatSyncThread(FSyncManager syncManager, int nIters) {
+            super("repeatSyncThread");
+            this.syncManager = syncManager;
+            this.nIters = nIters;
+        }
+
+        @Override
+        public void testBody() {
+            for (int i = 0; i < nIters; i += 1) {
+                syncManager.sync(true);
+            }
+        }
+    }
+
     /* This test class waits for an object instead of executing a sync.
      * This way, we can manipulate grouping behavior.
      */
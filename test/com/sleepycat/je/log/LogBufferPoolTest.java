@@ -61,16 +61,21 @@ import java.util.List;
 import org.junit.After;
 import org.junit.Test;
 
+import com.sleepycat.bind.tuple.IntegerBinding;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.Transaction;
+import com.sleepycat.je.TransactionConfig;
 import com.sleepycat.je.config.EnvironmentParams;
 import com.sleepycat.je.dbi.EnvironmentImpl;
 import com.sleepycat.je.dbi.MemoryBudget;
+import com.sleepycat.je.junit.JUnitThread;
 import com.sleepycat.je.util.TestUtils;
 import com.sleepycat.je.utilint.DbLsn;
 import com.sleepycat.util.test.SharedTestUtils;
@@ -265,6 +270,231 @@ public class LogBufferPoolTest extends TestBase {
         env.close();
     }
 
+    /**
+     * Logs concurrently with NO_SYNC commits and small log buffers, so that
+     * full buffers are handed to the writer thread, and checks that all
+     * records are recovered.
+     */
+    @Test
+    public void testWriterThread()
+        throws Throwable {
+
+        final int N_THREADS = 4;
+        final int N_RECORDS = 500;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setTransactional(true);
+        envConfig.setAllowCreate(true);
+        envConfig.setDurability(Durability.COMMIT_NO_SYNC);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_USE_WRITER_THREAD,
+                                 "true");
+        envConfig.setConfigParam(EnvironmentParams.LOG_MEM_SIZE.getName(),
+                                 EnvironmentParams.LOG_MEM_SIZE_MIN_STRING);
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        db = env.openDatabase(null, "WriterThread", dbConfig);
+
+        JUnitThread[] threads = new JUnitThread[N_THREADS];
+        for (int i = 0; i < N_THREADS; i += 1) {
+            final int threadId = i;
+            threads[i] = new JUnitThread("writer" + i) {
+                @Override
+                public void testBody() {
+                    DatabaseEntry key = new DatabaseEntry();
+                    DatabaseEntry data = new DatabaseEntry(new byte[100]);
+                    for (int j = 0; j < N_RECORDS; j += 1) {
+                        IntegerBinding.intToEntry(
+                            threadId * N_RECORDS + j, key);
+                        db.put(null, key, data);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (JUnitThread t : threads) {
+            t.finishTest();
+        }
+
+        assertTrue(env.getStats(null).getNWriterThreadWrites() > 0);
+        db.close();
+        env.close();
+
+        env = new Environment(envHome, envConfig);
+        db = env.openDatabase(null, "WriterThread", dbConfig);
+        assertEquals(N_THREADS * N_RECORDS, db.count());
+        db.close();
+        env.close();
+    }
+
+    /**
+     * Checks that the writer thread does not wait for an fsync in progress
+     * while holding the writeMutex. If it did, a logging thread that finds
+     * the pool full under the log write latch would wait for the fsync.
+     */
+    @Test
+    public void testWriterThreadDuringFsync()
+        throws Throwable {
+
+        final int N_RECORDS = 200;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_USE_WRITER_THREAD,
+                                 "true");
+        envConfig.setConfigParam(EnvironmentParams.LOG_MEM_SIZE.getName(),
+                                 EnvironmentParams.LOG_MEM_SIZE_MIN_STRING);
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER,
+                                 "false");
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        db = env.openDatabase(null, "WriterThreadDuringFsync", dbConfig);
+
+        final FileManager fm =
+            DbInternal.getEnvironmentImpl(env).getFileManager();
+        assertTrue(fm.getUseWriteQueue());
+
+        JUnitThread logger = new JUnitThread("logger") {
+            @Override
+            public void testBody() {
+                DatabaseEntry key = new DatabaseEntry();
+                DatabaseEntry data = new DatabaseEntry(new byte[500]);
+                for (int i = 0; i < N_RECORDS; i += 1) {
+                    IntegerBinding.intToEntry(i, key);
+                    db.put(null, key, data);
+                }
+            }
+        };
+
+        /*
+         * Write to the last file before simulating an fsync in progress, so
+         * that its end of log handle is open. Then log the records.
+         */
+        env.flushLog(false);
+        fm.testWriteQueueLock();
+        try {
+            logger.start();
+            logger.join(10 * 1000);
+            assertFalse("Logging blocked by fsync", logger.isAlive());
+        } finally {
+            fm.testWriteQueueUnlock();
+        }
+        logger.finishTest();
+
+        assertTrue(env.getStats(null).getNWriterThreadWrites() > 0);
+        db.close();
+        env.close();
+
+        env = new Environment(envHome, envConfig);
+        db = env.openDatabase(null, "WriterThreadDuringFsync", dbConfig);
+        assertEquals(N_RECORDS, db.count());
+        db.close();
+        env.close();
+    }
+
+    /**
+     * Checks that a WRITE_NO_SYNC flush does not return while a commit record
+     * is still on the write queue. Log buffers are written to the queue,
+     * rather than the file, while an fsync is in progress. A WRITE_NO_SYNC
+     * committer whose buffer was already moved to the queue finds nothing
+     * dirty, and must then wait for the fsync and write the queue itself.
+     */
+    @Test
+    public void testWriteNoSyncDrainsWriteQueue()
+        throws Throwable {
+
+        final int N_RECORDS = 200;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_USE_WRITER_THREAD,
+                                 "true");
+        envConfig.setConfigParam(EnvironmentParams.LOG_MEM_SIZE.getName(),
+                                 EnvironmentParams.LOG_MEM_SIZE_MIN_STRING);
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER,
+                                 "false");
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        db = env.openDatabase(null, "WriteNoSyncDrain", dbConfig);
+
+        final EnvironmentImpl envImpl = DbInternal.getEnvironmentImpl(env);
+        final FileManager fm = envImpl.getFileManager();
+        assertTrue(fm.getUseWriteQueue());
+
+        final long[] commitLsn = new long[1];
+
+        /*
+         * Commit without a flush, then move every log buffer to the write
+         * queue. This is the state left behind when the committer's buffer
+         * is handed to the writer thread during an fsync.
+         */
+        JUnitThread logger = new JUnitThread("logger") {
+            @Override
+            public void testBody() {
+                DatabaseEntry key = new DatabaseEntry();
+                DatabaseEntry data = new DatabaseEntry(new byte[500]);
+                TransactionConfig txnConfig = new TransactionConfig();
+                txnConfig.setDurability(Durability.COMMIT_NO_SYNC);
+                Transaction txn = env.beginTransaction(null, txnConfig);
+                for (int i = 0; i < N_RECORDS; i += 1) {
+                    IntegerBinding.intToEntry(i, key);
+                    db.put(txn, key, data);
+                }
+                txn.commit();
+                commitLsn[0] = fm.getLastUsedLsn();
+                envImpl.getLogManager().flushNoSync();
+            }
+        };
+
+        /* The flush done by a WRITE_NO_SYNC committer. */
+        JUnitThread flusher = new JUnitThread("flusher") {
+            @Override
+            public void testBody() {
+                envImpl.getLogManager().flushWriteNoSync();
+            }
+        };
+
+        /*
+         * Write to the last file before simulating an fsync in progress, so
+         * that its end of log handle is open.
+         */
+        env.flushLog(false);
+        fm.testWriteQueueLock();
+        try {
+            logger.start();
+            logger.join(10 * 1000);
+            assertFalse("Logging blocked by fsync", logger.isAlive());
+            assertTrue(fm.hasQueuedWrites());
+
+            flusher.start();
+            flusher.join(1000);
+            assertTrue("Flush returned with queued writes",
+                       flusher.isAlive());
+        } finally {
+            fm.testWriteQueueUnlock();
+        }
+        logger.finishTest();
+        flusher.finishTest();
+
+        assertFalse(fm.hasQueuedWrites());
+        final File lastFile = new File(
+            fm.getFullFileName(DbLsn.getFileNumber(commitLsn[0])));
+        assertTrue(lastFile.length() > DbLsn.getFileOffset(commitLsn[0]));
+
+        db.close();
+        env.close();
+    }
+
     private void tempBufferInitEnvInternal(String buffSize, String cacheSize)
         throws DatabaseException {
 
@@ -0,0 +1,175 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import org.junit.Test;
+
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests the LogCodec implementations directly.
+ */
+public class LogCodecTest extends TestBase {
+
+    private static final int[] SIZES =
+        { 0, 1, 4, 12, 13, 100, 255, 256, 4096, 70000, 300000 };
+
+    @Test
+    public void testLookup() {
+        assertNull(LogCodec.getCodec("none"));
+        assertSame(LogCodec.getCodec(LogCodec.LZ_ID),
+                   LogCodec.getCodec("lz"));
+        assertSame(LogCodec.getCodec(LogCodec.DEFLATE_ID),
+                   LogCodec.getCodec("DEFLATE"));
+        assertNull(LogCodec.getCodec(LogCodec.NONE_ID));
+        assertNull(LogCodec.getCodec(99));
+        try {
+            LogCodec.getCodec("snappy");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testLZ()
+        throws DataFormatException {
+
+        checkCodec(LogCodec.getCodec(LogCodec.LZ_ID));
+    }
+
+    @Test
+    public void testDeflate()
+        throws DataFormatException {
+
+        checkCodec(LogCodec.getCodec(LogCodec.DEFLATE_ID));
+    }
+
+    private void checkCodec(LogCodec codec)
+        throws DataFormatException {
+
+        final Random rnd = new Random(123);
+        for (int size : SIZES) {
+
+            /* Compressible text. */
+            final byte[] text = makeText(rnd, size);
+            final int textLen = checkRoundTrip(codec, text);
+            if (size >= 4096) {
+                assertTrue(codec + " size=" + size + " len=" + textLen,
+                           textLen < size / 2);
+            }
+
+            /* Random data may expand, up to maxCompressedLength. */
+            final byte[] random = new byte[size];
+            rnd.nextBytes(random);
+            checkRoundTrip(codec, random);
+
+            /* Long runs produce overlapping matches. */
+            final byte[] run = new byte[size];
+            Arrays.fill(run, (byte) 7);
+            checkRoundTrip(codec, run);
+        }
+    }
+
+    /**
+     * Compresses and decompresses at non-zero offsets, checks the result,
+     * and checks that truncated data is detected.
+     */
+    private int checkRoundTrip(LogCodec codec, byte[] data)
+        throws DataFormatException {
+
+        final int srcOff = 3;
+        final byte[] src = new byte[srcOff + data.length];
+        System.arraycopy(data, 0, src, srcOff, data.length);
+
+        final int destOff = 5;
+        final byte[] compressed =
+            new byte[destOff + codec.maxCompressedLength(data.length)];
+        final int len =
+            codec.compress(src, srcOff, data.length, compressed, destOff);
+        assertTrue(len <= codec.maxCompressedLength(data.length));
+
+        final byte[] result = new byte[2 + data.length];
+        codec.decompress(compressed, destOff, len, result, 2, data.length);
+        assertTrue(Arrays.equals
+            (data, Arrays.copyOfRange(result, 2, 2 + data.length)));
+
+        if (data.length > 0) {
+            try {
+                codec.decompress(compressed, destOff, len / 2,
+                                 new byte[data.length], 0, data.length);
+                fail(codec + " size=" + data.length);
+            } catch (DataFormatException expected) {
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Returns JSON-like data with repeated field names and some variation.
+     */
+    private static byte[] makeText(Random rnd, int size) {
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < size) {
+            sb.append("{\"id\":").append(rnd.nextInt(100000)).
+               append(",\"name\":\"user").append(rnd.nextInt(1000)).
+               append("\",\"active\":").append(rnd.nextBoolean()).
+               append("},");
+        }
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i += 1) {
+            bytes[i] = (byte) sb.charAt(i);
+        }
+        return bytes;
+    }
+}
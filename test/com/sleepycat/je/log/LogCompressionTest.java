@@ -0,0 +1,315 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.CheckpointConfig;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests writing compressed log entries, and reading them by fetching,
+ * recovery and log cleaning.
+ */
+public class LogCompressionTest extends TestBase {
+
+    private static final int N_RECORDS = 2000;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+
+    public LogCompressionTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private void open(String codec, boolean dbCompression) {
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        DbInternal.disableParameterValidation(envConfig);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_FILE_MAX, "100000");
+        envConfig.setConfigParam(EnvironmentConfig.LOG_COMPRESSION, codec);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_COMPRESSION_ENTRY_TYPES,
+                                 "LN,BIN,IN");
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER,
+                                 "false");
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        dbConfig.setLogCompression(dbCompression);
+        db = env.openDatabase(null, "foo", dbConfig);
+    }
+
+    private void close() {
+        db.close();
+        db = null;
+        env.close();
+        env = null;
+    }
+
+    @Test
+    public void testLZ() {
+        checkCompression("LZ");
+    }
+
+    @Test
+    public void testDeflate() {
+        checkCompression("DEFLATE");
+    }
+
+    private void checkCompression(String codec) {
+        open(codec, true);
+        writeAll(0);
+
+        EnvironmentStats stats = env.getStats(StatsConfig.CLEAR);
+        assertTrue(stats.getNCompressedLogEntries() > 0);
+        assertTrue(stats.getNLogCompressionInputBytes() >
+                   2 * stats.getNLogCompressionOutputBytes());
+        assertTrue(stats.getLogCompressionNanos() > 0);
+
+        /* Fetch every LN from the log. */
+        readAll(0, true);
+        stats = env.getStats(StatsConfig.CLEAR);
+        assertTrue(stats.getNDecompressedLogEntries() >= N_RECORDS);
+        assertTrue(env.verify(null, System.err));
+
+        /* Recovery reads compressed INs and LNs. */
+        DbInternal.getEnvironmentImpl(env).abnormalClose();
+        env = null;
+        db = null;
+        open(codec, true);
+        readAll(0, true);
+
+        /* Clean the log after making all records obsolete. */
+        writeAll(1);
+        env.checkpoint(new CheckpointConfig().setForce(true));
+        assertTrue(env.cleanLog() > 0);
+        env.checkpoint(new CheckpointConfig().setForce(true));
+        readAll(1, true);
+        close();
+
+        /* Compressed entries are readable when compression is disabled. */
+        open("NONE", true);
+        readAll(1, true);
+        stats = env.getStats(StatsConfig.DEFAULT);
+        assertTrue(stats.getNDecompressedLogEntries() > 0);
+        assertEquals(0, stats.getNCompressedLogEntries());
+        assertTrue(env.verify(null, System.err));
+    }
+
+    @Test
+    public void testDatabaseOptOut() {
+        open("LZ", false);
+        writeAll(0);
+        readAll(0, false);
+        EnvironmentStats stats = env.getStats(StatsConfig.DEFAULT);
+        assertEquals(0, stats.getNCompressedLogEntries());
+        close();
+
+        /* The setting is not persistent. */
+        open("LZ", true);
+        writeAll(1);
+        stats = env.getStats(StatsConfig.DEFAULT);
+        assertTrue(stats.getNCompressedLogEntries() > 0);
+    }
+
+    /**
+     * Checks that compressed entries are written with a log version that
+     * defines the COMPRESSED header flag, so that older releases reject the
+     * log rather than misreading the entries.
+     */
+    @Test
+    public void testLogVersion() {
+        open("LZ", true);
+        writeAll(0);
+        env.flushLog(false);
+
+        final TestUtilLogReader reader =
+            new TestUtilLogReader(DbInternal.getEnvironmentImpl(env));
+        int nCompressed = 0;
+        while (reader.readNextEntry()) {
+            if (reader.isCompressed()) {
+                assertEquals(LogEntryType.LOG_VERSION,
+                             reader.getEntryVersion());
+                nCompressed += 1;
+            }
+        }
+        assertTrue(nCompressed > 0);
+        assertTrue(LogEntryType.LOG_VERSION >=
+                   LogEntryType.LOG_VERSION_COMPRESSION);
+    }
+
+    /**
+     * Checks that the COMPRESSED header flag is ignored for entries written
+     * before the log version that defines it.
+     */
+    @Test
+    public void testFlagIgnoredForOldVersion()
+        throws Exception {
+
+        final ByteBuffer buf =
+            ByteBuffer.allocate(LogEntryHeader.MIN_HEADER_SIZE);
+        LogUtils.writeUnsignedInt(buf, 0);
+        buf.put(LogEntryType.LOG_TRACE.getTypeNum());
+        buf.put((byte) 0x04);
+        LogUtils.writeUnsignedInt(buf, 0);
+        LogUtils.writeInt(buf, 10);
+
+        buf.flip();
+        assertTrue(new LogEntryHeader(
+            buf, LogEntryType.LOG_VERSION_COMPRESSION).isCompressed());
+
+        buf.rewind();
+        assertFalse(new LogEntryHeader(
+            buf, LogEntryType.LOG_VERSION_COMPRESSION - 1).isCompressed());
+    }
+
+    @Test
+    public void testInvalidParams() {
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        try {
+            envConfig.setConfigParam(EnvironmentConfig.LOG_COMPRESSION, "XYZ");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            envConfig.setConfigParam
+                (EnvironmentConfig.LOG_COMPRESSION_ENTRY_TYPES, "LN,TXN");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        envConfig.setConfigParam(EnvironmentConfig.LOG_COMPRESSION, "lz");
+        envConfig.setConfigParam
+            (EnvironmentConfig.LOG_COMPRESSION_ENTRY_TYPES, "bin");
+    }
+
+    private void writeAll(int seed) {
+        final DatabaseEntry key = new DatabaseEntry();
+        for (int i = 0; i < N_RECORDS; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         db.put(null, key, makeData(i, seed)));
+        }
+    }
+
+    /**
+     * Reads all records, evicting each LN after it is read.  When the LNs
+     * have already been evicted, every read is a fetch from the log.
+     */
+    private void readAll(int seed, boolean evict) {
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        for (int pass = 0; pass < (evict ? 2 : 1); pass += 1) {
+            final Cursor cursor = db.openCursor(null, null);
+            try {
+                cursor.setCacheMode(CacheMode.EVICT_LN);
+                int i = 0;
+                while (cursor.getNext(key, data, null) ==
+                       OperationStatus.SUCCESS) {
+                    assertEquals(i, IntegerBinding.entryToInt(key));
+                    assertEquals(makeData(i, seed), data);
+                    i += 1;
+                }
+                assertEquals(N_RECORDS, i);
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Returns JSON-like data, which compresses well.
+     */
+    private static DatabaseEntry makeData(int i, int seed) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"id\":").append(i).
+           append(",\"seed\":").append(seed).
+           append(",\"tags\":[");
+        for (int j = 0; j < 20; j += 1) {
+            sb.append("{\"name\":\"tag").append(j).
+               append("\",\"value\":").append(i % (j + 1)).append("},");
+        }
+        sb.append("]}");
+        return new DatabaseEntry(sb.toString().getBytes());
+    }
+}
@@ -264,6 +264,81 @@ public class LogManagerTest extends TestBase {
         }
     }
 
+    /**
+     * Log from many threads at once with small log buffers, so that segments
+     * are copied concurrently and buffers are frequently written while other
+     * threads are still copying.  Every entry must be readable at its LSN,
+     * both from the log buffers and after the log is flushed to disk.
+     */
+    @Test
+    public void testConcurrentLogging()
+        throws Throwable {
+
+        final int N_THREADS = 8;
+        final int N_RECS = 500;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        DbInternal.disableParameterValidation(envConfig);
+        envConfig.setConfigParam(
+            EnvironmentParams.LOG_MEM_SIZE.getName(),
+            EnvironmentParams.LOG_MEM_SIZE_MIN_STRING);
+        envConfig.setConfigParam(
+            EnvironmentParams.NUM_LOG_BUFFERS.getName(), "2");
+        envConfig.setConfigParam(
+            EnvironmentParams.LOG_FILE_MAX.getName(), "100000");
+        turnOffDaemons(envConfig);
+        envConfig.setAllowCreate(true);
+        env = new Environment(envHome, envConfig);
+
+        try {
+            final EnvironmentImpl envImpl = DbInternal.getEnvironmentImpl(env);
+            logManager = envImpl.getLogManager();
+
+            final long[][] lsns = new long[N_THREADS][N_RECS];
+            final JUnitThread[] threads = new JUnitThread[N_THREADS];
+
+            for (int t = 0; t < N_THREADS; t += 1) {
+                final int threadNum = t;
+                threads[t] = new JUnitThread("Logger" + t) {
+                    @Override
+                    public void testBody() {
+                        for (int i = 0; i < N_RECS; i += 1) {
+                            lsns[threadNum][i] = Trace.trace(
+                                envImpl, new Trace(traceMsg(threadNum, i)));
+                        }
+                    }
+                };
+            }
+            for (JUnitThread thread : threads) {
+                thread.start();
+            }
+            for (JUnitThread thread : threads) {
+                thread.finishTest();
+            }
+
+            verifyTraces(lsns);
+            logManager.flush();
+            verifyTraces(lsns);
+        } finally {
+            env.close();
+        }
+    }
+
+    private static String traceMsg(int threadNum, int i) {
+        return "Thread " + threadNum + " rec " + i;
+    }
+
+    private void verifyTraces(long[][] lsns)
+        throws Exception {
+
+        for (int t = 0; t < lsns.length; t += 1) {
+            for (int i = 0; i < lsns[t].length; i += 1) {
+                final Trace trace = (Trace) logManager.getEntry(lsns[t][i]);
+                assertEquals(traceMsg(t, i), trace.getMessage());
+            }
+        }
+    }
+
     /**
      * Log and retrieve objects, with some of log flushed to disk, some of log
      * in memory.
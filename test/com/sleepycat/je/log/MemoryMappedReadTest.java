@@ -0,0 +1,232 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests fetching log entries from memory mapped log files.
+ */
+public class MemoryMappedReadTest extends TestBase {
+
+    private static final int N_RECORDS = 2000;
+    private static final int DATA_SIZE = 500;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+
+    public MemoryMappedReadTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private void open(boolean useMemoryMappedRead, int fileCacheSize) {
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        DbInternal.disableParameterValidation(envConfig);
+        envConfig.setConfigParam(EnvironmentConfig.LOG_FILE_MAX, "100000");
+        envConfig.setConfigParam(EnvironmentConfig.LOG_FILE_CACHE_SIZE,
+                                 String.valueOf(fileCacheSize));
+        envConfig.setConfigParam
+            (EnvironmentConfig.LOG_USE_MEMORY_MAPPED_READ,
+             String.valueOf(useMemoryMappedRead));
+        envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        /* Use small log buffers so that fetches are not from the pool. */
+        envConfig.setConfigParam(EnvironmentConfig.LOG_BUFFER_SIZE, "4096");
+        env = new Environment(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(envConfig.getTransactional());
+        db = env.openDatabase(null, "foo", dbConfig);
+    }
+
+    private void close() {
+        db.close();
+        db = null;
+        env.close();
+        env = null;
+    }
+
+    /**
+     * Fetches from sealed files are served from mappings, and the log is
+     * readable afterwards in the default mode.
+     */
+    @Test
+    public void testMappedReads() {
+        open(true, 100);
+        writeAll(0);
+        close();
+        open(true, 100);
+
+        readAll(0);
+        EnvironmentStats stats = env.getStats(StatsConfig.DEFAULT);
+        assertTrue(stats.getNMappedReads() > 0);
+        assertTrue(stats.getNMappedFiles() > 0);
+        assertTrue(env.verify(null, System.err));
+        close();
+
+        open(false, 100);
+        readAll(0);
+        stats = env.getStats(StatsConfig.DEFAULT);
+        assertEquals(0, stats.getNMappedReads());
+        assertEquals(0, stats.getNMappedFiles());
+    }
+
+    /**
+     * Files evicted from a small file cache are unmapped, and later fetches
+     * map them again.
+     */
+    @Test
+    public void testFileCacheEviction() {
+        open(true, 3);
+        writeAll(0);
+        close();
+        open(true, 3);
+
+        readAll(0);
+        readAll(0);
+        final EnvironmentStats stats = env.getStats(StatsConfig.DEFAULT);
+        assertTrue(stats.getNMappedReads() > 0);
+        assertTrue(stats.getNMappedFiles() <= 3);
+    }
+
+    /**
+     * Records written after the environment is opened are read correctly
+     * while the log grows, since files are only mapped once sealed.
+     */
+    @Test
+    public void testReadWhileWriting() {
+        open(true, 100);
+        for (int pass = 0; pass < 3; pass += 1) {
+            writeAll(pass);
+            /* The first pass evicts the LNs and the second fetches them. */
+            readAll(pass);
+            readAll(pass);
+        }
+        assertTrue(env.getStats(StatsConfig.DEFAULT).getNMappedReads() > 0);
+    }
+
+    private void writeAll(int seed) {
+        final DatabaseEntry key = new DatabaseEntry();
+        for (int i = 0; i < N_RECORDS; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            assertEquals(OperationStatus.SUCCESS,
+                         db.put(null, key, makeData(i + seed)));
+        }
+    }
+
+    /**
+     * Reads every record, evicting each LN after it is read so that every
+     * read is a fetch from the log.
+     */
+    private void readAll(int seed) {
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            cursor.setCacheMode(CacheMode.EVICT_LN);
+            int i = 0;
+            while (cursor.getNext(key, data, null) ==
+                   OperationStatus.SUCCESS) {
+                assertEquals(i, IntegerBinding.entryToInt(key));
+                checkData(i + seed, data);
+                i += 1;
+            }
+            assertEquals(N_RECORDS, i);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static DatabaseEntry makeData(int i) {
+        final byte[] bytes = new byte[DATA_SIZE];
+        for (int j = 0; j < bytes.length; j += 1) {
+            bytes[j] = (byte) (i + j);
+        }
+        return new DatabaseEntry(bytes);
+    }
+
+    private static void checkData(int i, DatabaseEntry data) {
+        final byte[] bytes = data.getData();
+        assertEquals(DATA_SIZE, bytes.length);
+        for (int j = 0; j < bytes.length; j += 1) {
+            assertEquals((byte) (i + j), bytes[j]);
+        }
+    }
+}
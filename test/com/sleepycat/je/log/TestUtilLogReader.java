@@ -96,6 +96,10 @@ public class TestUtilLogReader extends FileReader {
         return currentEntryHeader.getVersion();
     }
 
+    public boolean isCompressed() {
+        return currentEntryHeader.isCompressed();
+    }
+
     public LogEntry getEntry() {
         return entry;
     }
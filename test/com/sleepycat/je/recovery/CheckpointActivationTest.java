@@ -50,7 +50,11 @@ import java.io.File;
 
 import org.junit.Test;
 
+import com.sleepycat.bind.tuple.IntegerBinding;
 import com.sleepycat.je.CheckpointConfig;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DbInternal;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
@@ -317,4 +321,163 @@ public class CheckpointActivationTest extends TestBase {
             }
         }
     }
+
+    /**
+     * Checks that a daemon checkpoint spreads IN flushing over the configured
+     * percentage of the interval when je.checkpointer.flushSpreadPercent is
+     * set, and that closing the environment is not delayed by the pacing.
+     */
+    @Test
+    public void testPacedFlush()
+        throws Exception {
+
+        final int N_RECORDS = 20000;
+        final int WAIT_FOR_CHECKPOINT_SECS = 10;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(
+            EnvironmentParams.CHECKPOINTER_BYTES_INTERVAL.getName(), "0");
+        envConfig.setConfigParam(
+            EnvironmentParams.CHECKPOINTER_WAKEUP_INTERVAL.getName(), "1 s");
+        envConfig.setConfigParam(
+            EnvironmentConfig.CHECKPOINTER_FLUSH_SPREAD_PERCENT, "50");
+        envConfig.setConfigParam(EnvironmentConfig.STATS_COLLECT, "false");
+        envConfig.setConfigParam(
+            EnvironmentParams.ENV_RUN_EVICTOR.getName(), "false");
+        envConfig.setConfigParam(
+            EnvironmentParams.ENV_RUN_CLEANER.getName(), "false");
+        Environment env = new Environment(envHome, envConfig);
+        long closeStart;
+
+        try {
+            DatabaseConfig dbConfig = new DatabaseConfig();
+            dbConfig.setAllowCreate(true);
+            Database db = env.openDatabase(null, "foo", dbConfig);
+
+            /* Dirty a large number of BINs. */
+            DatabaseEntry key = new DatabaseEntry();
+            DatabaseEntry data = new DatabaseEntry(new byte[10]);
+            for (int i = 0; i < N_RECORDS; i += 1) {
+                IntegerBinding.intToEntry(i, key);
+                db.put(null, key, data);
+            }
+            db.close();
+
+            StatsConfig statsConfig = new StatsConfig();
+            statsConfig.setFast(true);
+
+            /* Wait for a paced daemon checkpoint to flush the dirty INs. */
+            long startTime = System.currentTimeMillis();
+            EnvironmentStats stats = env.getStats(statsConfig);
+            while (stats.getNPacedFlushSleeps() == 0 &&
+                   (System.currentTimeMillis() - startTime <
+                    WAIT_FOR_CHECKPOINT_SECS * 1000)) {
+                Thread.sleep(10);
+                stats = env.getStats(statsConfig);
+            }
+            assertTrue(stats.getNPacedFlushSleeps() > 0);
+            assertTrue(stats.getPacedFlushSleepTime() > 0);
+
+            /* Dirty the INs again and close during the paced flush. */
+            db = env.openDatabase(null, "foo", dbConfig);
+            for (int i = 0; i < N_RECORDS; i += 1) {
+                IntegerBinding.intToEntry(i, key);
+                db.put(null, key, data);
+            }
+            db.close();
+        } finally {
+            closeStart = System.currentTimeMillis();
+            env.close();
+        }
+        assertTrue(System.currentTimeMillis() - closeStart <
+                   WAIT_FOR_CHECKPOINT_SECS * 1000);
+    }
+
+    /**
+     * Checks that a database can be removed while a daemon checkpoint is
+     * pacing its flushing, after the checkpoint has flushed some of the
+     * database's INs. The checkpoint must not keep the database in use while
+     * it sleeps, since removal waits until the database is not in use.
+     */
+    @Test
+    public void testRemoveDbDuringPacedFlush()
+        throws Exception {
+
+        final int N_RECORDS = 20000;
+        final int WAIT_FOR_CHECKPOINT_SECS = 10;
+        final long MAX_REMOVE_MILLIS = 1000;
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(
+            EnvironmentParams.CHECKPOINTER_BYTES_INTERVAL.getName(), "0");
+        envConfig.setConfigParam(
+            EnvironmentParams.CHECKPOINTER_WAKEUP_INTERVAL.getName(), "5 s");
+        envConfig.setConfigParam(
+            EnvironmentConfig.CHECKPOINTER_FLUSH_SPREAD_PERCENT, "90");
+        envConfig.setConfigParam(EnvironmentConfig.STATS_COLLECT, "false");
+        envConfig.setConfigParam(
+            EnvironmentParams.ENV_RUN_EVICTOR.getName(), "false");
+        envConfig.setConfigParam(
+            EnvironmentParams.ENV_RUN_CLEANER.getName(), "false");
+        Environment env = new Environment(envHome, envConfig);
+
+        try {
+            DatabaseConfig dbConfig = new DatabaseConfig();
+            dbConfig.setAllowCreate(true);
+
+            /*
+             * Write the records of the DB to be removed first, so its BINs
+             * are flushed before the others. Update the records after a
+             * checkpoint to dirty all BINs.
+             */
+            Database removeDb = env.openDatabase(null, "toRemove", dbConfig);
+            Database db = env.openDatabase(null, "foo", dbConfig);
+            DatabaseEntry key = new DatabaseEntry();
+            DatabaseEntry data = new DatabaseEntry(new byte[10]);
+            for (int pass = 0; pass < 2; pass += 1) {
+                for (int i = 0; i < N_RECORDS / 10; i += 1) {
+                    IntegerBinding.intToEntry(i, key);
+                    removeDb.put(null, key, data);
+                }
+                for (int i = 0; i < N_RECORDS; i += 1) {
+                    IntegerBinding.intToEntry(i, key);
+                    db.put(null, key, data);
+                }
+                if (pass == 0) {
+                    env.checkpoint(new CheckpointConfig().setForce(true));
+                }
+            }
+            removeDb.close();
+            db.close();
+
+            StatsConfig statsConfig = new StatsConfig();
+            statsConfig.setFast(true);
+
+            /* Wait for a paced daemon checkpoint to start sleeping. */
+            long startTime = System.currentTimeMillis();
+            EnvironmentStats stats = env.getStats(statsConfig);
+            while (stats.getNPacedFlushSleeps() == 0 &&
+                   (System.currentTimeMillis() - startTime <
+                    WAIT_FOR_CHECKPOINT_SECS * 1000)) {
+                Thread.sleep(10);
+                stats = env.getStats(statsConfig);
+            }
+            assertTrue(stats.getNPacedFlushSleeps() > 0);
+            final long nCheckpoints = stats.getNCheckpoints();
+
+            /* The remove does not wait for the checkpoint to finish. */
+            final long removeStart = System.currentTimeMillis();
+            env.removeDatabase(null, "toRemove");
+            final long removeMillis =
+                System.currentTimeMillis() - removeStart;
+            assertTrue("removeDatabase took " + removeMillis + " ms",
+                       removeMillis < MAX_REMOVE_MILLIS);
+            assertEquals(nCheckpoints,
+                         env.getStats(statsConfig).getNCheckpoints());
+        } finally {
+            env.close();
+        }
+    }
 }
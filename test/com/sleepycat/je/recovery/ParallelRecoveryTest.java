@@ -0,0 +1,285 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.recovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CheckpointConfig;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.dbi.StartupTracker.Phase;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Checks that recovery with multiple redo threads (ENV_RECOVERY_THREADS)
+ * produces the same databases as the committed operations, when records are
+ * inserted, updated and deleted repeatedly in the recovery interval.
+ */
+public class ParallelRecoveryTest extends TestBase {
+
+    private static final String[] DB_NAMES = {"plain", "dups", "comparator"};
+    private static final int N_KEYS = 2000;
+    private static final int N_TXNS = 2000;
+
+    private final File envHome;
+    private Environment env;
+    private final Database[] dbs = new Database[DB_NAMES.length];
+
+    /* Expected data for each database, key -> set of data. */
+    private final List<Map<Integer, Set<Integer>>> expected =
+        new ArrayList<Map<Integer, Set<Integer>>>();
+
+    public ParallelRecoveryTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (env != null) {
+            closeDbs();
+            env.close();
+            env = null;
+        }
+    }
+
+    /**
+     * Orders keys in reverse.  Recovery must not distribute the records of a
+     * database with a custom comparator across redo threads.
+     */
+    public static class ReverseComparator
+        implements Comparator<byte[]>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public int compare(byte[] k1, byte[] k2) {
+            final int i1 = IntegerBinding.entryToInt(new DatabaseEntry(k1));
+            final int i2 = IntegerBinding.entryToInt(new DatabaseEntry(k2));
+            return (i1 < i2) ? 1 : ((i1 > i2) ? -1 : 0);
+        }
+    }
+
+    private void open(int nRedoThreads) {
+        final EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        envConfig.setConfigParam(
+            EnvironmentConfig.ENV_RECOVERY_THREADS,
+            String.valueOf(nRedoThreads));
+        envConfig.setConfigParam(
+            EnvironmentParams.NODE_MAX.getName(), "16");
+        envConfig.setConfigParam(
+            EnvironmentConfig.ENV_RUN_CHECKPOINTER, "false");
+        envConfig.setConfigParam(
+            EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        env = new Environment(envHome, envConfig);
+
+        for (int i = 0; i < DB_NAMES.length; i += 1) {
+            final DatabaseConfig dbConfig = new DatabaseConfig();
+            dbConfig.setAllowCreate(true);
+            dbConfig.setTransactional(true);
+            dbConfig.setSortedDuplicates(i == 1);
+            if (i == 2) {
+                dbConfig.setBtreeComparator(ReverseComparator.class);
+            }
+            dbs[i] = env.openDatabase(null, DB_NAMES[i], dbConfig);
+        }
+    }
+
+    private void closeDbs() {
+        for (int i = 0; i < dbs.length; i += 1) {
+            if (dbs[i] != null) {
+                dbs[i].close();
+                dbs[i] = null;
+            }
+        }
+    }
+
+    private void crash() {
+        DbInternal.getEnvironmentImpl(env).abnormalClose();
+        env = null;
+        for (int i = 0; i < dbs.length; i += 1) {
+            dbs[i] = null;
+        }
+    }
+
+    @Test
+    public void testParallelRedo() {
+        runRecovery(4);
+    }
+
+    @Test
+    public void testSerialRedo() {
+        runRecovery(1);
+    }
+
+    private void runRecovery(int nRedoThreads) {
+        open(1);
+        writeRecords();
+        crash();
+
+        open(nRedoThreads);
+        assertTrue(DbInternal.getEnvironmentImpl(env).getStartupTracker().
+                   getCounter(Phase.REDO_LNS).getNumProcessed() > 0);
+        verify();
+
+        /* Recover again, now with the tree recovered above in the log. */
+        crash();
+        open(nRedoThreads);
+        verify();
+    }
+
+    /**
+     * Writes, overwrites and deletes the same keys many times in random
+     * transactions, aborting some, and with a checkpoint in the middle.  One
+     * transaction is left open at the crash.
+     */
+    private void writeRecords() {
+        for (int i = 0; i < DB_NAMES.length; i += 1) {
+            expected.add(new HashMap<Integer, Set<Integer>>());
+        }
+        final Random random = new Random(123);
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+
+        for (int t = 0; t <= N_TXNS; t += 1) {
+            if (t == N_TXNS / 2) {
+                env.checkpoint(new CheckpointConfig().setForce(true));
+            }
+            final Transaction txn = env.beginTransaction(null, null);
+            final boolean commit = (t < N_TXNS) && random.nextInt(10) != 0;
+            final int nOps = 1 + random.nextInt(20);
+
+            for (int op = 0; op < nOps; op += 1) {
+                final int dbNum = random.nextInt(DB_NAMES.length);
+                final int keyVal = random.nextInt(N_KEYS);
+                final int dataVal = random.nextInt(4);
+                IntegerBinding.intToEntry(keyVal, key);
+                IntegerBinding.intToEntry(dataVal, data);
+                final Map<Integer, Set<Integer>> map = expected.get(dbNum);
+
+                if (random.nextInt(3) == 0) {
+                    dbs[dbNum].delete(txn, key);
+                    if (commit) {
+                        map.remove(keyVal);
+                    }
+                } else {
+                    assertEquals(OperationStatus.SUCCESS,
+                                 dbs[dbNum].put(txn, key, data));
+                    if (commit) {
+                        Set<Integer> set = map.get(keyVal);
+                        if (set == null || dbNum != 1) {
+                            set = new TreeSet<Integer>();
+                            map.put(keyVal, set);
+                        }
+                        set.add(dataVal);
+                    }
+                }
+            }
+
+            /* The last txn is neither committed nor aborted. */
+            if (t < N_TXNS) {
+                if (commit) {
+                    txn.commit();
+                } else {
+                    txn.abort();
+                }
+            }
+        }
+    }
+
+    private void verify() {
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        for (int i = 0; i < DB_NAMES.length; i += 1) {
+            final Map<Integer, Set<Integer>> actual =
+                new TreeMap<Integer, Set<Integer>>();
+            final Cursor cursor = dbs[i].openCursor(null, null);
+            try {
+                while (cursor.getNext(key, data, null) ==
+                       OperationStatus.SUCCESS) {
+                    final int keyVal = IntegerBinding.entryToInt(key);
+                    Set<Integer> set = actual.get(keyVal);
+                    if (set == null) {
+                        set = new TreeSet<Integer>();
+                        actual.put(keyVal, set);
+                    }
+                    set.add(IntegerBinding.entryToInt(data));
+                }
+            } finally {
+                cursor.close();
+            }
+            assertEquals(DB_NAMES[i],
+                         new TreeMap<Integer, Set<Integer>>(expected.get(i)),
+                         actual);
+        }
+        assertTrue(env.verify(null, System.err));
+    }
+}
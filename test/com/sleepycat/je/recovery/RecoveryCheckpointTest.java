@@ -79,6 +79,11 @@ public class RecoveryCheckpointTest extends RecoveryTestBase {
 
     volatile int sequence = 0;
 
+    private int flushThreads = 1;
+
+    /* Checkpointer.MIN_INS_PER_FLUSH_THREAD */
+    private static final int MIN_INS_PER_THREAD = 16;
+
     @Override
     public void setExtraProperties() {
 
@@ -88,6 +93,9 @@ public class RecoveryCheckpointTest extends RecoveryTestBase {
          */
         envConfig.setConfigParam
             (EnvironmentParams.ENV_RUN_CHECKPOINTER.getName(), "false");
+        envConfig.setConfigParam
+            (EnvironmentConfig.CHECKPOINTER_FLUSH_THREADS,
+             String.valueOf(flushThreads));
     }
 
     /**
@@ -183,6 +191,64 @@ public class RecoveryCheckpointTest extends RecoveryTestBase {
         }
     }
 
+    /**
+     * Flush each level with multiple threads, then close without a final
+     * checkpoint.  Records inserted before CkptStart are not replayed by
+     * recovery, so they are only found if the parallel flush logged every
+     * dirty IN and its ancestors correctly.
+     */
+    @Test
+    public void testParallelFlush()
+        throws Throwable {
+
+        flushThreads = 4;
+        createEnvAndDbs(1 << 20, true, NUM_DBS);
+
+        try {
+            Map<TestData, Set<TestData>> expectedData =
+                new HashMap<TestData, Set<TestData>>();
+
+            /*
+             * Insert and then update every record, so that most BINs are
+             * dirty; the BINs split by ascending inserts are already logged.
+             */
+            Transaction txn = env.beginTransaction(null, null);
+            insertData(txn, 0, NUM_RECS * 4, expectedData, 1, true, NUM_DBS);
+            modifyData(txn, NUM_RECS * 4, expectedData, 1, true, NUM_DBS);
+            txn.commit();
+
+            StatsConfig statsConfig = new StatsConfig();
+            statsConfig.setClear(true);
+            env.getStats(statsConfig);
+
+            env.checkpoint(forceConfig);
+
+            EnvironmentStats stats = env.getStats(statsConfig);
+            assertTrue(stats.getNFullBINFlush() + stats.getNDeltaINFlush() >
+                       NUM_DBS * MIN_INS_PER_THREAD);
+
+            boolean foundFlusher = false;
+            for (Thread t : Thread.getAllStackTraces().keySet()) {
+                if (t.getName().startsWith("JECheckpointFlusher")) {
+                    foundFlusher = true;
+                }
+            }
+            assertTrue(foundFlusher);
+
+            /* A second, smaller checkpoint after further changes. */
+            txn = env.beginTransaction(null, null);
+            modifyData(txn, NUM_RECS, expectedData, 1, true, NUM_DBS);
+            txn.commit();
+            env.checkpoint(forceConfig);
+
+            closeEnv();
+            recoverAndVerify(expectedData, NUM_DBS);
+        } catch (Throwable t) {
+            t.printStackTrace();
+            throw t;
+        }
+    }
+
     /**
      * Test checkpoints that end up using BIN-deltas -- the recovery must work.
      */
@@ -0,0 +1,310 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.rep.impl.node;
+
+import static com.sleepycat.je.rep.impl.node.ReplayStatDefinition.N_PREFETCH_LNS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.junit.JUnitThread;
+import com.sleepycat.je.tree.IN;
+import com.sleepycat.je.tree.Tree;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.je.utilint.StatGroup;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests the ReplayPrefetcher in a standalone environment. Keys are submitted
+ * directly, as the Replica would submit them for incoming LNs.
+ */
+public class ReplayPrefetcherTest extends TestBase {
+
+    private static final int N_RECORDS = 2000;
+    private static final int N_BINS = N_RECORDS / 16;
+    private static final long TIMEOUT_MS = 30 * 1000;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+    private ReplayPrefetcher prefetcher;
+
+    public ReplayPrefetcherTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (prefetcher != null) {
+            prefetcher.shutdown();
+            prefetcher = null;
+        }
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    /**
+     * Opens a database with 16 records per BIN, and evicts the BINs so that
+     * none of them are resident.
+     */
+    private Tree open() {
+
+        final EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(EnvironmentParams.NODE_MAX.getName(), "16");
+        env = new Environment(envHome, envConfig);
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        db = env.openDatabase(null, "foo", dbConfig);
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[10]);
+        for (int i = 0; i < N_RECORDS; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        /* Make the BINs clean, then evict them by reading them. */
+        env.sync();
+        final Cursor cursor = db.openCursor(null, null);
+        cursor.setCacheMode(CacheMode.EVICT_BIN);
+        int nRead = 0;
+        while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
+            nRead += 1;
+        }
+        assertEquals(N_RECORDS, nRead);
+        cursor.close();
+
+        return DbInternal.getDatabaseImpl(db).getTree();
+    }
+
+    private ReplayPrefetcher createPrefetcher(final int nThreads,
+                                              final StatGroup stats) {
+        return new ReplayPrefetcher(
+            DbInternal.getEnvironmentImpl(env), nThreads, N_RECORDS, stats);
+    }
+
+    private static StatGroup createStats() {
+        return new StatGroup(ReplayStatDefinition.GROUP_NAME,
+                             ReplayStatDefinition.GROUP_DESC);
+    }
+
+    private long getDbId() {
+        return DbInternal.getDatabaseImpl(db).getId().getId();
+    }
+
+    private static byte[] makeKey(final int i) {
+        final DatabaseEntry entry = new DatabaseEntry();
+        IntegerBinding.intToEntry(i, entry);
+        return entry.getData();
+    }
+
+    /**
+     * Returns whether the BIN for the key is resident, without fetching.
+     */
+    private static boolean isBINResident(final Tree tree, final byte[] key) {
+        IN in = tree.getResidentRootIN(false);
+        while (in != null && !in.isBIN()) {
+            in = (IN) in.getTarget(in.findEntry(key, false, false));
+        }
+        return in != null;
+    }
+
+    private static int countResidentBINs(final Tree tree) {
+        int count = 0;
+        for (int i = 0; i < N_RECORDS; i += N_RECORDS / N_BINS) {
+            if (isBINResident(tree, makeKey(i))) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    private static void waitForPrefetches(final StatGroup stats,
+                                          final long expected) {
+        final long end = System.currentTimeMillis() + TIMEOUT_MS;
+        while (stats.getLong(N_PREFETCH_LNS) < expected) {
+            assertTrue("Timed out with " + stats.getLong(N_PREFETCH_LNS) +
+                       " prefetches", System.currentTimeMillis() < end);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Checks that the BINs for the submitted keys become resident.
+     */
+    @Test
+    public void testPrefetch() {
+
+        final Tree tree = open();
+        assertEquals(0, countResidentBINs(tree));
+
+        final StatGroup stats = createStats();
+        prefetcher = createPrefetcher(3, stats);
+        prefetcher.start();
+
+        for (int i = 0; i < N_RECORDS; i += N_RECORDS / N_BINS) {
+            prefetcher.submit(getDbId(), makeKey(i));
+        }
+        waitForPrefetches(stats, N_BINS);
+
+        assertEquals(N_BINS, countResidentBINs(tree));
+    }
+
+    /**
+     * Checks that keys submitted before start, for an unknown database, or
+     * after shutdown are not prefetched.
+     */
+    @Test
+    public void testNotStarted() {
+
+        final Tree tree = open();
+
+        final StatGroup stats = createStats();
+        prefetcher = createPrefetcher(1, stats);
+        prefetcher.submit(getDbId(), makeKey(0));
+
+        prefetcher.start();
+        prefetcher.submit(Long.MAX_VALUE, makeKey(1));
+        prefetcher.submit(getDbId(), makeKey(N_RECORDS - 1));
+        waitForPrefetches(stats, 1);
+
+        prefetcher.shutdown();
+        prefetcher.submit(getDbId(), makeKey(N_RECORDS / 2));
+
+        assertEquals(1, stats.getLong(N_PREFETCH_LNS));
+        assertFalse(isBINResident(tree, makeKey(0)));
+        assertTrue(isBINResident(tree, makeKey(N_RECORDS - 1)));
+        assertFalse(isBINResident(tree, makeKey(N_RECORDS / 2)));
+    }
+
+    /**
+     * Checks that shutdown waits for the prefetch in progress and discards
+     * the keys still queued.
+     */
+    @Test
+    public void testShutdownWithQueuedKeys()
+        throws Throwable {
+
+        final Tree tree = open();
+
+        final StatGroup stats = createStats();
+        prefetcher = createPrefetcher(1, stats);
+        prefetcher.start();
+
+        /* Block the prefetch thread in its first search. */
+        final IN root = tree.getRootINLatchedExclusive(CacheMode.UNCHANGED);
+        final ReplayPrefetcher prefetcherToStop = prefetcher;
+        final JUnitThread shutdownThread;
+        try {
+            for (int i = 0; i < N_RECORDS; i += N_RECORDS / N_BINS) {
+                prefetcher.submit(getDbId(), makeKey(i));
+            }
+            waitForActivePrefetch(stats);
+
+            shutdownThread = new JUnitThread("shutdown") {
+                @Override
+                public void testBody() {
+                    prefetcherToStop.shutdown();
+                }
+            };
+            shutdownThread.start();
+
+            /* Wait until shutdown has been requested and is waiting. */
+            final long end = System.currentTimeMillis() + TIMEOUT_MS;
+            while (shutdownThread.getState() != Thread.State.WAITING) {
+                assertTrue(System.currentTimeMillis() < end);
+                Thread.sleep(10);
+            }
+        } finally {
+            root.releaseLatch();
+        }
+
+        shutdownThread.finishTest();
+        prefetcher = null;
+
+        assertEquals(1, stats.getLong(N_PREFETCH_LNS));
+        assertEquals(1, countResidentBINs(tree));
+        assertTrue(isBINResident(tree, makeKey(0)));
+    }
+
+    private static void waitForActivePrefetch(final StatGroup stats)
+        throws InterruptedException {
+
+        final long end = System.currentTimeMillis() + TIMEOUT_MS;
+        while (stats.getLong(
+                   ReplayStatDefinition.MAX_PREFETCH_PARALLELISM) == 0) {
+            assertTrue(System.currentTimeMillis() < end);
+            Thread.sleep(10);
+        }
+    }
+}
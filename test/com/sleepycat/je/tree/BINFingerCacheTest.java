@@ -0,0 +1,326 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+package com.sleepycat.je.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.junit.JUnitThread;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests the cache of BINs used by point searches, see BINFingerCache.
+ */
+public class BINFingerCacheTest extends TestBase {
+
+    private static final int N_INITIAL = 1000;
+    private static final int N_INSERTS = 5000;
+    private static final int N_HOT_KEYS = 20;
+    private static final int N_READERS = 3;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+
+    public BINFingerCacheTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private Tree open(final int fingerCacheSize) {
+
+        final EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(EnvironmentParams.NODE_MAX.getName(), "8");
+        envConfig.setConfigParam(
+            EnvironmentParams.TREE_BIN_FINGER_CACHE_SIZE.getName(),
+            String.valueOf(fingerCacheSize));
+        env = new Environment(envHome, envConfig);
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        db = env.openDatabase(null, "foo", dbConfig);
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[1]);
+        for (int i = 0; i < N_INITIAL; i += 1) {
+            IntegerBinding.intToEntry(i * 2, key);
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        return DbInternal.getDatabaseImpl(db).getTree();
+    }
+
+    private static byte[] makeKey(final int i) {
+        final DatabaseEntry entry = new DatabaseEntry();
+        IntegerBinding.intToEntry(i, entry);
+        return entry.getData();
+    }
+
+    /**
+     * Searches for the key and checks that the BIN returned contains it.
+     */
+    private static BIN checkSearch(final Tree tree, final int i) {
+        final byte[] key = makeKey(i);
+        final BIN bin = tree.search(key, CacheMode.DEFAULT);
+        try {
+            assertTrue("key " + i, bin.findEntry(key, false, true) >= 0);
+        } finally {
+            bin.releaseLatch();
+        }
+        return bin;
+    }
+
+    @Test
+    public void testDisabled() {
+        final Tree tree = open(0);
+        assertNull(tree.getBINFingerCache());
+        checkSearch(tree, 10);
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(1, new BINFingerCache(1).getSize());
+        assertEquals(64, new BINFingerCache(64).getSize());
+        assertEquals(128, new BINFingerCache(65).getSize());
+    }
+
+    /**
+     * Checks that a repeated search returns the cached BIN, and that only
+     * keys within the BIN's keys are satisfied from the cache.
+     */
+    @Test
+    public void testHit() {
+
+        final Tree tree = open(64);
+        final BINFingerCache fingers = tree.getBINFingerCache();
+        assertNotNull(fingers);
+
+        final byte[] key = makeKey(N_INITIAL);
+        assertNull(fingers.get(key, CacheMode.DEFAULT));
+
+        final BIN bin = checkSearch(tree, N_INITIAL);
+
+        final BIN cached = fingers.get(key, CacheMode.DEFAULT);
+        assertSame(bin, cached);
+        cached.releaseLatch();
+
+        assertSame(bin, checkSearch(tree, N_INITIAL));
+
+        /* A key outside the cached BIN's keys is not satisfied. */
+        final byte[] otherKey = makeKey(-1);
+        fingers.put(otherKey, bin);
+        assertNull(fingers.get(otherKey, CacheMode.DEFAULT));
+        assertNull(fingers.get(otherKey, CacheMode.DEFAULT));
+    }
+
+    /**
+     * Checks that a cached BIN is not used after it is split, for keys that
+     * moved to the new sibling.
+     */
+    @Test
+    public void testSplit() {
+
+        final Tree tree = open(1024);
+
+        /* Cache the BINs of all keys. */
+        for (int i = 0; i < N_INITIAL; i += 1) {
+            checkSearch(tree, i * 2);
+        }
+
+        /* Split every BIN by filling in the odd keys. */
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[1]);
+        for (int i = 0; i < N_INITIAL; i += 1) {
+            IntegerBinding.intToEntry((i * 2) + 1, key);
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        for (int i = 0; i < N_INITIAL * 2; i += 1) {
+            checkSearch(tree, i);
+        }
+    }
+
+    /**
+     * Checks that a cached BIN is not used after it is evicted.
+     */
+    @Test
+    public void testEviction() {
+
+        final Tree tree = open(64);
+        final BINFingerCache fingers = tree.getBINFingerCache();
+
+        final BIN bin = checkSearch(tree, N_INITIAL);
+
+        final DatabaseEntry key = new DatabaseEntry(makeKey(N_INITIAL));
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        cursor.setCacheMode(CacheMode.EVICT_BIN);
+        assertEquals(OperationStatus.SUCCESS,
+                     cursor.getSearchKey(key, data, null));
+        cursor.close();
+
+        assertTrue(!bin.getInListResident());
+        assertNull(fingers.get(key.getData(), CacheMode.DEFAULT));
+        assertNotSame(bin, checkSearch(tree, N_INITIAL));
+    }
+
+    /**
+     * Checks that the cache does not keep an evicted BIN reachable.
+     */
+    @Test
+    public void testEvictedBINNotRetained()
+        throws InterruptedException {
+
+        final Tree tree = open(64);
+
+        final WeakReference<BIN> binRef =
+            new WeakReference<BIN>(checkSearch(tree, N_INITIAL));
+
+        final DatabaseEntry key = new DatabaseEntry(makeKey(N_INITIAL));
+        final DatabaseEntry data = new DatabaseEntry();
+        final Cursor cursor = db.openCursor(null, null);
+        cursor.setCacheMode(CacheMode.EVICT_BIN);
+        assertEquals(OperationStatus.SUCCESS,
+                     cursor.getSearchKey(key, data, null));
+        cursor.close();
+
+        for (int i = 0; i < 100 && binRef.get() != null; i += 1) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(binRef.get());
+        assertNull(tree.getBINFingerCache().get(key.getData(),
+                                                CacheMode.DEFAULT));
+    }
+
+    /**
+     * Searches for a small set of hot keys while another thread inserts
+     * records, which splits the BINs holding them.  Every search must land
+     * on the BIN containing the key.
+     */
+    @Test
+    public void testConcurrentSplits()
+        throws Throwable {
+
+        final Tree tree = open(64);
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        final JUnitThread inserter = new JUnitThread("inserter") {
+            @Override
+            public void testBody() {
+                final DatabaseEntry key = new DatabaseEntry();
+                final DatabaseEntry data = new DatabaseEntry(new byte[1]);
+                final Random rnd = new Random(123);
+                for (int i = 0; i < N_INSERTS; i += 1) {
+                    final int k = (rnd.nextInt(N_INITIAL) * 2) + 1;
+                    IntegerBinding.intToEntry(k, key);
+                    db.put(null, key, data);
+                }
+            }
+        };
+
+        final JUnitThread[] readers = new JUnitThread[N_READERS];
+        for (int t = 0; t < N_READERS; t += 1) {
+            readers[t] = new JUnitThread("reader" + t) {
+                @Override
+                public void testBody() {
+                    final Random rnd = new Random();
+                    while (!done.get()) {
+                        final int hot = rnd.nextInt(N_HOT_KEYS);
+                        checkSearch(tree, hot * (N_INITIAL / N_HOT_KEYS));
+                    }
+                }
+            };
+        }
+
+        for (final JUnitThread thread : readers) {
+            thread.start();
+        }
+        inserter.start();
+        try {
+            inserter.finishTest();
+        } finally {
+            done.set(true);
+            for (final JUnitThread thread : readers) {
+                thread.finishTest();
+            }
+        }
+    }
+}
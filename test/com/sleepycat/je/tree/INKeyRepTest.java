@@ -42,6 +42,7 @@
  */
 
 package com.sleepycat.je.tree;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -59,14 +60,18 @@ import org.junit.runners.Parameterized.Parameters;
 
 import com.sleepycat.je.CacheMode;
 import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.PartialComparator;
 import com.sleepycat.je.config.EnvironmentParams;
 import com.sleepycat.je.dbi.DatabaseImpl;
 import com.sleepycat.je.dbi.EnvironmentImpl;
 import com.sleepycat.je.tree.INKeyRep.Default;
+import com.sleepycat.je.tree.INKeyRep.FixedLong;
 import com.sleepycat.je.tree.INKeyRep.MaxKeySize;
+import com.sleepycat.je.tree.INKeyRep.Packed;
 import com.sleepycat.je.tree.INKeyRep.Type;
 import com.sleepycat.je.utilint.VLSN;
 
@@ -130,6 +135,75 @@ public class INKeyRepTest extends INEntryTestBase {
         db.close();
     }
 
+    /**
+     * Keys that are too long for the MaxKeySize rep are packed when the BIN
+     * is compacted, and the packed rep is maintained as keys are added.
+     */
+    @Test
+    public void testINPacked() {
+
+        /* Keys must not be embedded, so that evictLNs compacts the BIN. */
+        final int keySize = 1 + Math.max(
+            compactMaxKeyLength,
+            DbInternal.getEnvironmentImpl(env).getMaxEmbeddedLN());
+
+        final Database db = createDb(DB_NAME, keySize, nodeMaxEntries - 1);
+        final DatabaseImpl dbImpl = DbInternal.getDatabaseImpl(db);
+
+        final BIN bin = verifyAcrossINEvict(db, Type.DEFAULT, Type.PACKED);
+
+        DatabaseEntry key = new DatabaseEntry();
+        key.setData(createByteVal(nodeMaxEntries, keySize * 2));
+        db.put(null, key, key);
+
+        verifyINMemorySize(dbImpl);
+        assertEquals(Type.PACKED, bin.getKeyVals().getType());
+
+        db.close();
+    }
+
+    /**
+     * Fixed length 8 byte keys use the FixedLong rep, when permitted by
+     * compactMaxKeyLength, and a key with another length mutates the rep.
+     */
+    @Test
+    public void testINFixedLong() {
+
+        final Database db = env.openDatabase(null, DB_NAME,
+            new DatabaseConfig().setAllowCreate(true));
+        final DatabaseImpl dbImpl = DbInternal.getDatabaseImpl(db);
+
+        /* The data must not be embedded, so that evictLNs compacts. */
+        final DatabaseEntry data = new DatabaseEntry(new byte[
+            DbInternal.getEnvironmentImpl(env).getMaxEmbeddedLN() + 1]);
+        final DatabaseEntry key = new DatabaseEntry();
+
+        for (int i = 0; i < nodeMaxEntries - 1; i++) {
+            key.setData(createByteVal(i, 8));
+            db.put(null, key, data);
+        }
+
+        final Type compactType =
+            (compactMaxKeyLength >= 8) ? Type.FIXED_LONG : Type.PACKED;
+
+        final BIN bin = verifyAcrossINEvict(db, Type.DEFAULT, compactType);
+
+        for (int i = 0; i < nodeMaxEntries - 1; i++) {
+            key.setData(createByteVal(i, 8));
+            assertEquals(OperationStatus.SUCCESS,
+                         db.get(null, key, new DatabaseEntry(), null));
+        }
+
+        key.setData(createByteVal(nodeMaxEntries, 9));
+        db.put(null, key, data);
+
+        verifyINMemorySize(dbImpl);
+        assertEquals((compactType == Type.PACKED) ? Type.PACKED : Type.DEFAULT,
+                     bin.getKeyVals().getType());
+
+        db.close();
+    }
+
     private BIN verifyAcrossINEvict(Database db,
                                     Type pre,
                                     Type post) {
@@ -197,6 +271,8 @@ public class INKeyRepTest extends INEntryTestBase {
         commonTest(parent, new Default(size));
         commonTest(parent, new MaxKeySize(size,
                             (short) Math.max(1, (compactMaxKeyLength - 9))));
+        commonTest(parent, new Packed(size, 0));
+        commonTest(parent, new FixedLong(size, (byte) 1));
     }
 
     public void commonTest(IN parent, INKeyRep targets) {
@@ -235,6 +311,198 @@ public class INKeyRepTest extends INEntryTestBase {
         checkEquals(refEntries, defrep);
     }
 
+    @Test
+    public void testPackedKeyVals() {
+        final int size = 128;
+        final IN parent = new TestIN(size);
+        Packed defrep = new Packed(size, 0);
+        byte[][] refEntries = initRep(parent, defrep);
+        checkEquals(refEntries, defrep);
+    }
+
+    /**
+     * Checks that the packed rep notes the growth of its arena in the parent,
+     * and that compaction drops the garbage left by overwritten keys.
+     */
+    @Test
+    public void testPackedArena() {
+        final int size = 64;
+        final IN parent = new TestIN(size);
+        final long initialSize = parent.getInMemorySize();
+        INKeyRep rep = new Packed(size, 0);
+        final long initialRepSize = rep.calculateMemorySize();
+        final byte[][] refEntries = new byte[size][];
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < size; i++) {
+                refEntries[i] = createByteVal(i, 1 + (i + round) % 40);
+                rep = rep.set(i, refEntries[i], parent);
+                assertEquals(Type.PACKED, rep.getType());
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            assertArrayEquals(refEntries[i], rep.get(i));
+        }
+        assertEquals(rep.calculateMemorySize() - initialRepSize,
+                     parent.getInMemorySize() - initialSize);
+
+        final long garbageSize = rep.calculateMemorySize();
+        rep = rep.compact(parent);
+        assertEquals(Type.PACKED, rep.getType());
+        assertTrue(rep.calculateMemorySize() < garbageSize);
+        assertEquals(rep.calculateMemorySize() - initialRepSize,
+                     parent.getInMemorySize() - initialSize);
+
+        for (int i = 0; i < size; i++) {
+            assertArrayEquals(refEntries[i], rep.get(i));
+            assertEquals(0, rep.compareKeys(refEntries[i], null, i, false,
+                                            null));
+        }
+    }
+
+    /**
+     * Checks that comparisons against FixedLong keys give the same result as
+     * comparing the key bytes, for search keys of any length and prefixes.
+     */
+    @Test
+    public void testFixedLongCompare() {
+        final int size = 32;
+        final IN parent = new TestIN(size);
+        final Random rand = new Random(123);
+
+        for (byte keyLength : new byte[] { 4, 8, 11, 16 }) {
+            final INKeyRep rep = new FixedLong(size, keyLength);
+            final byte[][] refEntries = new byte[size][];
+
+            for (int i = 0; i < size; i++) {
+                refEntries[i] = randomKey(rand, keyLength);
+                assertTrue(rep == rep.set(i, refEntries[i], parent));
+                assertArrayEquals(refEntries[i], rep.get(i));
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                final int idx = rand.nextInt(size);
+                final byte[] searchKey = (i % 4 == 0) ?
+                    refEntries[idx].clone() :
+                    randomKey(rand, rand.nextInt(keyLength + 3));
+                if (i % 8 == 1 && searchKey.length > 0) {
+                    /* Close to the slot key, to exercise the padding. */
+                    System.arraycopy(refEntries[idx], 0, searchKey, 0,
+                                     Math.min(searchKey.length, keyLength));
+                    if (searchKey.length > keyLength) {
+                        searchKey[keyLength] = 0;
+                    }
+                }
+
+                assertEquals(
+                    Integer.signum(Key.compareUnsignedBytes(
+                        searchKey, 0, searchKey.length,
+                        refEntries[idx], 0, keyLength)),
+                    Integer.signum(rep.compareKeys(
+                        searchKey, null, idx, false, null)));
+
+                final byte[] prefix = new byte[] { 7, 7 };
+                final byte[] fullKey = new byte[2 + searchKey.length];
+                System.arraycopy(prefix, 0, fullKey, 0, 2);
+                System.arraycopy(searchKey, 0, fullKey, 2, searchKey.length);
+                assertEquals(
+                    Integer.signum(Key.compareUnsignedBytes(
+                        searchKey, 0, searchKey.length,
+                        refEntries[idx], 0, keyLength)),
+                    Integer.signum(rep.compareKeys(
+                        fullKey, prefix, idx, false, null)));
+            }
+        }
+    }
+
+    /**
+     * Checks comparisons of search keys that are no longer than the prefix,
+     * which must still take the slot's suffix into account.
+     */
+    @Test
+    public void testCompareShortSearchKey() {
+        final int size = 32;
+        final IN parent = new TestIN(size);
+        checkShortSearchKey(parent, new Default(size), true);
+        checkShortSearchKey(parent, new MaxKeySize(size, (short) 16), true);
+        checkShortSearchKey(parent, new Packed(size, 0), true);
+        checkShortSearchKey(parent, new FixedLong(size, (byte) 1), false);
+    }
+
+    private void checkShortSearchKey(IN parent,
+                                     INKeyRep rep,
+                                     boolean emptySuffix) {
+        final byte[] prefix = new byte[] { 7, 7 };
+        rep = rep.set(1, new byte[] { 5 }, parent);
+
+        /* Slot 1 holds { 7, 7, 5 }. */
+        assertTrue(rep.compareKeys(new byte[] { 7, 7 }, prefix, 1,
+                                   false, null) < 0);
+        assertTrue(rep.compareKeys(new byte[] { 7 }, prefix, 1,
+                                   false, null) < 0);
+        assertTrue(rep.compareKeys(new byte[] { 7, 6 }, prefix, 1,
+                                   false, null) < 0);
+        assertTrue(rep.compareKeys(new byte[] { 8 }, prefix, 1,
+                                   false, null) > 0);
+        assertTrue(rep.compareKeys(new byte[] {}, prefix, 1,
+                                   false, null) < 0);
+
+        if (!emptySuffix) {
+            return;
+        }
+
+        /* Slot 0 holds { 7, 7 }, the prefix itself. */
+        rep = rep.set(0, new byte[0], parent);
+        assertEquals(0, rep.compareKeys(new byte[] { 7, 7 }, prefix, 0,
+                                        false, null));
+        assertTrue(rep.compareKeys(new byte[] { 7 }, prefix, 0,
+                                   false, null) < 0);
+        assertTrue(rep.compareKeys(new byte[] { 7, 7, 0 }, prefix, 0,
+                                   false, null) > 0);
+    }
+
+    private static byte[] randomKey(Random rand, int length) {
+        final byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            /* Favor zero and 0xff bytes, the edge cases for padding. */
+            final int r = rand.nextInt(4);
+            key[i] = (r == 0) ? 0 : (r == 1) ? (byte) 0xff :
+                (byte) rand.nextInt(256);
+        }
+        return key;
+    }
+
+    @Test
+    public void testFixedLongMutation() {
+        final int size = 32;
+        final IN parent = new TestIN(size);
+        INKeyRep rep = new Default(size);
+
+        for (int i = 0; i < size; i++) {
+            rep = rep.set(i, createByteVal(i, 8), parent);
+        }
+
+        rep = rep.compact(parent);
+        assertEquals((compactMaxKeyLength >= 8) ?
+                     Type.FIXED_LONG : Type.PACKED,
+                     rep.getType());
+
+        /* No mutation on null. */
+        rep = rep.set(0, null, parent);
+        assertEquals(null, rep.get(0));
+        rep = rep.set(0, createByteVal(0, 8), parent);
+        assertArrayEquals(createByteVal(0, 8), rep.get(0));
+
+        /* Mutate on a key with a different length. */
+        rep = rep.set(1, new byte[9], parent);
+        assertArrayEquals(new byte[9], rep.get(1));
+        assertArrayEquals(createByteVal(2, 8), rep.get(2));
+        if (compactMaxKeyLength >= 8) {
+            assertEquals(Type.DEFAULT, rep.getType());
+        }
+    }
+
     @Test
     public void testMaxKeyMutation() {
         final int size = 32;
@@ -281,16 +549,16 @@ public class INKeyRepTest extends INEntryTestBase {
             checkEquals(refEntries, defrep);
         }
 
-        if (compactMaxKeyLength < 20) {
+        if (compactMaxKeyLength < 16) {
             /* Should have transitioned as a result of the compaction. */
             assertEquals(Type.MAX_KEY_SIZE, defrep.getType());
         } else {
             /*
-             * With compactMaxKeyLength == 202, the java mem overhead of
-             * storing each key as a separate byte array is smaller than
-             * using 202 bytes for all 128 keys.
+             * With larger values of compactMaxKeyLength, the key lengths vary
+             * enough that packing the keys by their actual length is smaller
+             * than allocating compactMaxKeyLength bytes for every key.
              */
-            assertEquals(Type.DEFAULT, defrep.getType());
+            assertEquals(Type.PACKED, defrep.getType());
         }
     }
 
@@ -300,6 +568,8 @@ public class INKeyRepTest extends INEntryTestBase {
         final IN parent = new TestIN(size);
         commonShiftEntries(parent, new Default(size));
         commonShiftEntries(parent, new MaxKeySize(size, (short)8));
+        commonShiftEntries(parent, new Packed(size, 0));
+        commonShiftEntries(parent, new FixedLong(size, (byte) 8));
     }
 
     public void commonShiftEntries(IN parent, INKeyRep entries) {
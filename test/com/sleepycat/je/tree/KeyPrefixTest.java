@@ -53,6 +53,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
@@ -68,12 +69,14 @@ import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
 import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.dbi.DatabaseImpl;
 import com.sleepycat.je.tree.Key.DumpType;
 import com.sleepycat.je.util.DualTestCase;
 import com.sleepycat.je.util.TestUtils;
@@ -628,4 +631,183 @@ public class KeyPrefixTest extends DualTestCase {
             return s1.compareTo(s2);
         }
     }
+
+    /**
+     * Checks that the separator key is the shortest prefix of the right key
+     * that is greater than the left key.
+     */
+    @Test
+    public void testComputeSeparatorKey() {
+        checkSeparator("abc", "abd", "abd");
+        checkSeparator("abc", "abdzzz", "abd");
+        checkSeparator("abc", "abcd", "abcd");
+        checkSeparator("abc", "abcdef", "abcd");
+        checkSeparator("", "a", "a");
+        checkSeparator("azzz", "b", "b");
+        checkSeparator("azzz", "bcd", "b");
+
+        /* Bytes are compared unsigned. */
+        byte[] left = new byte[] { 1, 0x7f, 5 };
+        byte[] right = new byte[] { 1, (byte) 0x80, 0, 0 };
+        byte[] sep = IN.computeSeparatorKey(left, right);
+        assertTrue(Arrays.equals(new byte[] { 1, (byte) 0x80 }, sep));
+
+        /* The right key itself is returned when it cannot be shortened. */
+        right = StringUtils.toUTF8("abd");
+        assertSame(right,
+                   IN.computeSeparatorKey(StringUtils.toUTF8("abc"), right));
+    }
+
+    private void checkSeparator(String left, String right, String expect) {
+        byte[] sep = IN.computeSeparatorKey(StringUtils.toUTF8(left),
+                                            StringUtils.toUTF8(right));
+        assertEquals(expect, StringUtils.fromUTF8(sep));
+    }
+
+    /**
+     * Checks that upper INs are prefixed and store truncated separator keys
+     * in a database without key prefixing, and that all records can be found
+     * before and after recovery. This is the default behavior.
+     */
+    @Test
+    public void testUpperINKeys() {
+        assertEquals("true",
+            EnvironmentParams.TREE_COMPACT_UPPER_IN_KEYS.getDefault());
+        doTestUpperINKeys(true, false);
+    }
+
+    /**
+     * Same as testUpperINKeys but with key prefixing configured, so that
+     * search keys may be equal to, or shorter than, an IN's prefix.
+     */
+    @Test
+    public void testUpperINKeysWithPrefixing() {
+        doTestUpperINKeys(true, true);
+    }
+
+    /**
+     * Checks that upper IN keys are left alone when
+     * je.tree.compactUpperINKeys is false.
+     */
+    @Test
+    public void testUpperINKeysDisabled() {
+        doTestUpperINKeys(false, false);
+    }
+
+    private void doTestUpperINKeys(boolean compact, boolean keyPrefixing) {
+
+        final int nRecords = 5000;
+        final String keyBase = "customer/account/";
+        final int keyLen = keyBase.length() + 8;
+
+        openUpperINEnv(compact, keyPrefixing);
+
+        /* Insert in random order to split BINs in the middle. */
+        final List<Integer> order = new ArrayList<Integer>(nRecords);
+        for (int i = 0; i < nRecords; i += 1) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(123));
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[] { 1 });
+        for (int i : order) {
+            key.setData(StringUtils.toUTF8(upperINKey(keyBase, i)));
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        boolean upperPrefixSeen = false;
+        boolean shortKeySeen = false;
+        final DatabaseImpl dbImpl = DbInternal.getDatabaseImpl(db);
+
+        for (IN in : DbInternal.getEnvironmentImpl(env).getInMemoryINs()) {
+            if (in.getDatabase() != dbImpl) {
+                continue;
+            }
+            if (in.isBIN()) {
+                if (!keyPrefixing) {
+                    assertEquals(null, in.getKeyPrefix());
+                }
+                continue;
+            }
+            if (in.getKeyPrefix() != null) {
+                upperPrefixSeen = true;
+            }
+            for (int i = 1; i < in.getNEntries(); i += 1) {
+                if (in.getKey(i).length < keyLen) {
+                    shortKeySeen = true;
+                }
+            }
+        }
+
+        assertEquals(compact || keyPrefixing, upperPrefixSeen);
+        assertEquals(compact, shortKeySeen);
+
+        verifyUpperINKeys(keyBase, nRecords);
+
+        /* Recover and check again. */
+        closeEnv();
+        openUpperINEnv(compact, keyPrefixing);
+        verifyUpperINKeys(keyBase, nRecords);
+        closeEnv();
+    }
+
+    private void openUpperINEnv(boolean compact, boolean keyPrefixing) {
+
+        EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setConfigParam(EnvironmentParams.NODE_MAX.getName(), "16");
+        envConfig.setConfigParam(
+            EnvironmentParams.TREE_COMPACT_UPPER_IN_KEYS.getName(),
+            String.valueOf(compact));
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(true);
+        envConfig.setDurability(Durability.COMMIT_NO_SYNC);
+        env = create(envHome, envConfig);
+
+        DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setTransactional(true);
+        dbConfig.setKeyPrefixing(keyPrefixing);
+        db = env.openDatabase(null, "testUpperINKeys", dbConfig);
+    }
+
+    private static String upperINKey(String keyBase, int i) {
+        return keyBase + String.format("%08d", i);
+    }
+
+    private void verifyUpperINKeys(String keyBase, int nRecords) {
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+
+        for (int i = 0; i < nRecords; i += 1) {
+            key.setData(StringUtils.toUTF8(upperINKey(keyBase, i)));
+            assertEquals(OperationStatus.SUCCESS,
+                         db.get(null, key, data, null));
+        }
+
+        final Cursor cursor = db.openCursor(null, null);
+        try {
+            for (int i = 0; i < nRecords; i += 1) {
+                assertEquals(OperationStatus.SUCCESS,
+                             cursor.getNext(key, data, null));
+                assertEquals(upperINKey(keyBase, i),
+                             StringUtils.fromUTF8(key.getData()));
+            }
+            assertEquals(OperationStatus.NOTFOUND,
+                         cursor.getNext(key, data, null));
+            assertEquals(OperationStatus.SUCCESS,
+                         cursor.getLast(key, data, null));
+            for (int i = nRecords - 1; i >= 0; i -= 1) {
+                if (i < nRecords - 1) {
+                    assertEquals(OperationStatus.SUCCESS,
+                                 cursor.getPrev(key, data, null));
+                }
+                assertEquals(upperINKey(keyBase, i),
+                             StringUtils.fromUTF8(key.getData()));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
 }
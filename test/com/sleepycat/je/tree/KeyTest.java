@@ -49,6 +49,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
@@ -218,4 +220,87 @@ public class KeyTest extends TestBase {
         } catch (NullPointerException NPE) {
         }
     }
+
+    /**
+     * Checks that the word at a time comparison returns exactly what a byte
+     * at a time comparison does, for all lengths around the word size,
+     * offsets, and differences at every position.
+     */
+    @Test
+    public void testWordComparison() {
+
+        final Random rnd = new Random(123);
+        final byte[] values = { 0, 1, 0x7f, (byte) 0x80, (byte) 0xff };
+
+        for (int len1 = 0; len1 <= 34; len1++) {
+            for (int len2 = Math.max(0, len1 - 2); len2 <= len1 + 2; len2++) {
+                for (int pos = 0; pos <= Math.min(len1, len2); pos++) {
+
+                    final int off1 = rnd.nextInt(3);
+                    final int off2 = rnd.nextInt(3);
+                    final byte[] key1 = new byte[off1 + len1 + 1];
+                    final byte[] key2 = new byte[off2 + len2 + 1];
+                    rnd.nextBytes(key1);
+
+                    /* Keys are equal up to pos, and then differ. */
+                    for (int i = 0; i < len2; i++) {
+                        key2[off2 + i] = (i < len1) ?
+                            key1[off1 + i] : values[rnd.nextInt(5)];
+                    }
+                    if (pos < Math.min(len1, len2)) {
+                        key2[off2 + pos] = values[rnd.nextInt(5)];
+                    }
+
+                    assertEquals(
+                        compareByByte(key1, off1, len1, key2, off2, len2),
+                        Key.compareUnsignedBytes(key1, off1, len1,
+                                                 key2, off2, len2));
+                    assertEquals(
+                        compareByByte(key2, off2, len2, key1, off1, len1),
+                        Key.compareUnsignedBytes(key2, off2, len2,
+                                                 key1, off1, len1));
+                }
+            }
+        }
+
+        /* Unsafe reads must not go beyond the arrays. */
+        try {
+            Key.compareUnsignedBytes(new byte[16], 4, 16, new byte[20], 0, 16);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException expected) {
+        }
+    }
+
+    /**
+     * Checks that getWord returns the bytes as a big endian long, padded
+     * with zero bytes, whether or not they are read with Unsafe.
+     */
+    @Test
+    public void testGetWord() {
+
+        final byte[] buf = new byte[12];
+        new Random(123).nextBytes(buf);
+
+        for (int off = 0; off <= 4; off++) {
+            for (int len = -1; len <= buf.length - off; len++) {
+                final byte[] word = new byte[8];
+                System.arraycopy(buf, off, word, 0,
+                                 Math.max(0, Math.min(len, 8)));
+                assertEquals(ByteBuffer.wrap(word).getLong(),
+                             Key.getWord(buf, off, len));
+            }
+        }
+    }
+
+    private static int compareByByte(byte[] key1, int off1, int len1,
+                                     byte[] key2, int off2, int len2) {
+        for (int i = 0; i < Math.min(len1, len2); i++) {
+            final int b1 = key1[off1 + i] & 0xff;
+            final int b2 = key2[off2 + i] & 0xff;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return len1 - len2;
+    }
 }
@@ -0,0 +1,336 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sleepycat.bind.tuple.IntegerBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.config.EnvironmentParams;
+import com.sleepycat.je.junit.JUnitThread;
+import com.sleepycat.je.latch.LatchSupport;
+import com.sleepycat.je.tree.Tree.SearchType;
+import com.sleepycat.je.util.TestUtils;
+import com.sleepycat.util.test.SharedTestUtils;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Tests Btree searches that read the upper INs optimistically, see
+ * Tree.searchOptimistic.
+ */
+public class OptimisticSearchTest extends TestBase {
+
+    private static final int N_INITIAL = 1000;
+    private static final int N_INSERTERS = 2;
+    private static final int N_READERS = 3;
+    private static final int N_INSERTS = 5000;
+
+    private final File envHome;
+    private Environment env;
+    private Database db;
+
+    public OptimisticSearchTest() {
+        envHome = SharedTestUtils.getTestDir();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+        if (env != null) {
+            env.close();
+            env = null;
+        }
+    }
+
+    private Tree open(final boolean optimistic) {
+
+        final EnvironmentConfig envConfig = TestUtils.initEnvConfig();
+        envConfig.setAllowCreate(true);
+        envConfig.setConfigParam(EnvironmentParams.NODE_MAX.getName(), "8");
+        envConfig.setConfigParam(
+            EnvironmentParams.TREE_OPTIMISTIC_READS.getName(),
+            String.valueOf(optimistic));
+        env = new Environment(envHome, envConfig);
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        db = env.openDatabase(null, "foo", dbConfig);
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[1]);
+        for (int i = 0; i < N_INITIAL; i += 1) {
+            IntegerBinding.intToEntry(i, key);
+            assertEquals(OperationStatus.SUCCESS, db.put(null, key, data));
+        }
+
+        return DbInternal.getDatabaseImpl(db).getTree();
+    }
+
+    private static byte[] makeKey(final int i) {
+        final DatabaseEntry entry = new DatabaseEntry();
+        IntegerBinding.intToEntry(i, entry);
+        return entry.getData();
+    }
+
+    /**
+     * Checks that exclusive latching of an upper IN invalidates its stamp,
+     * and that BINs are never read optimistically.
+     */
+    @Test
+    public void testINStamps() {
+
+        final Tree tree = open(true);
+        final IN root = tree.getResidentRootIN(false);
+        assertNotNull(root);
+        assertTrue(root.isUpperIN());
+
+        if (!LatchSupport.OPTIMISTIC_READS) {
+            assertEquals(0, root.getOptimisticStamp());
+            return;
+        }
+
+        final long stamp = root.getOptimisticStamp();
+        assertTrue(stamp != 0);
+
+        root.latchShared();
+        root.releaseLatch();
+        assertTrue(root.validateOptimisticStamp(stamp));
+
+        root.latch();
+        assertEquals(0, root.getOptimisticStamp());
+        root.releaseLatch();
+        assertFalse(root.validateOptimisticStamp(stamp));
+
+        final BIN bin = tree.search(makeKey(0), CacheMode.UNCHANGED);
+        try {
+            assertEquals(0, bin.getOptimisticStamp());
+        } finally {
+            bin.releaseLatch();
+        }
+    }
+
+    /**
+     * Checks the BIN returned, and the BINBoundary, for NORMAL, LEFT and
+     * RIGHT searches.
+     */
+    @Test
+    public void testSearchTypes() {
+        checkSearchTypes(open(true));
+    }
+
+    @Test
+    public void testSearchTypesDisabled() {
+        checkSearchTypes(open(false));
+    }
+
+    private void checkSearchTypes(final Tree tree) {
+
+        final BINBoundary boundary = new BINBoundary();
+
+        BIN bin = tree.search(
+            null, SearchType.LEFT, boundary, CacheMode.DEFAULT, null);
+        try {
+            assertTrue(boundary.isFirstBin);
+            assertFalse(boundary.isLastBin);
+            assertTrue(bin.findEntry(makeKey(0), false, true) >= 0);
+        } finally {
+            bin.releaseLatch();
+        }
+
+        bin = tree.search(
+            null, SearchType.RIGHT, boundary, CacheMode.DEFAULT, null);
+        try {
+            assertFalse(boundary.isFirstBin);
+            assertTrue(boundary.isLastBin);
+            assertTrue(
+                bin.findEntry(makeKey(N_INITIAL - 1), false, true) >= 0);
+        } finally {
+            bin.releaseLatch();
+        }
+
+        bin = tree.search(
+            makeKey(N_INITIAL / 2), SearchType.NORMAL, boundary,
+            CacheMode.DEFAULT, null);
+        try {
+            assertFalse(boundary.isFirstBin);
+            assertFalse(boundary.isLastBin);
+        } finally {
+            bin.releaseLatch();
+        }
+
+        for (int i = 0; i < N_INITIAL; i += 1) {
+            final byte[] key = makeKey(i);
+            bin = tree.search(key, CacheMode.DEFAULT);
+            try {
+                assertTrue(bin.findEntry(key, false, true) >= 0);
+            } finally {
+                bin.releaseLatch();
+            }
+        }
+    }
+
+    /**
+     * Searches for existing keys while other threads insert records, which
+     * causes concurrent splits of the BINs and upper INs.  Every search must
+     * land on the BIN containing the key.
+     */
+    @Test
+    public void testConcurrentSplits()
+        throws Throwable {
+
+        doConcurrentSplits(true);
+    }
+
+    @Test
+    public void testConcurrentSplitsDisabled()
+        throws Throwable {
+
+        doConcurrentSplits(false);
+    }
+
+    private void doConcurrentSplits(final boolean optimistic)
+        throws Throwable {
+
+        final Tree tree = open(optimistic);
+
+        /* The number of keys inserted so far by each inserter. */
+        final AtomicIntegerArray nInserted =
+            new AtomicIntegerArray(N_INSERTERS);
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        final JUnitThread[] inserters = new JUnitThread[N_INSERTERS];
+        for (int t = 0; t < N_INSERTERS; t += 1) {
+            final int id = t;
+            inserters[t] = new JUnitThread("inserter" + t) {
+                @Override
+                public void testBody() {
+                    final DatabaseEntry key = new DatabaseEntry();
+                    final DatabaseEntry data =
+                        new DatabaseEntry(new byte[1]);
+                    for (int i = 0; i < N_INSERTS; i += 1) {
+                        IntegerBinding.intToEntry(
+                            insertedKey(id, i), key);
+                        assertEquals(OperationStatus.SUCCESS,
+                                     db.putNoOverwrite(null, key, data));
+                        nInserted.set(id, i + 1);
+                    }
+                }
+            };
+        }
+
+        final JUnitThread[] readers = new JUnitThread[N_READERS];
+        for (int t = 0; t < N_READERS; t += 1) {
+            readers[t] = new JUnitThread("reader" + t) {
+                @Override
+                public void testBody() {
+                    final Random rnd = new Random();
+                    while (!done.get()) {
+                        final int id = rnd.nextInt(N_INSERTERS + 1);
+                        final int i;
+                        if (id == N_INSERTERS) {
+                            i = rnd.nextInt(N_INITIAL);
+                        } else {
+                            final int n = nInserted.get(id);
+                            if (n == 0) {
+                                continue;
+                            }
+                            i = insertedKey(id, rnd.nextInt(n));
+                        }
+                        final byte[] key = makeKey(i);
+                        final BIN bin = tree.search(key, CacheMode.DEFAULT);
+                        try {
+                            assertTrue("key " + i,
+                                       bin.findEntry(key, false, true) >= 0);
+                        } finally {
+                            bin.releaseLatch();
+                        }
+                    }
+                }
+            };
+        }
+
+        for (final JUnitThread thread : readers) {
+            thread.start();
+        }
+        for (final JUnitThread thread : inserters) {
+            thread.start();
+        }
+        try {
+            for (final JUnitThread thread : inserters) {
+                thread.finishTest();
+            }
+        } finally {
+            done.set(true);
+            for (final JUnitThread thread : readers) {
+                thread.finishTest();
+            }
+        }
+    }
+
+    /* Interleaves the inserters' keys, so they split the same nodes. */
+    private static int insertedKey(final int id, final int i) {
+        return N_INITIAL + (i * N_INSERTERS) + id;
+    }
+}
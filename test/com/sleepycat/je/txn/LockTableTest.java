@@ -0,0 +1,161 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+
+package com.sleepycat.je.txn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sleepycat.je.utilint.DbLsn;
+import com.sleepycat.util.test.TestBase;
+
+/**
+ * Checks the LockTable open addressing map against a HashMap, and the
+ * default number of lock tables.
+ */
+public class LockTableTest extends TestBase {
+
+    @Test
+    public void testPutGetRemove() {
+        final LockTable table = new LockTable();
+        final Lock lock1 = new ThinLockImpl();
+        final Lock lock2 = new LockImpl();
+
+        assertNull(table.get(1));
+        assertNull(table.remove(1));
+
+        table.put(1, lock1);
+        assertSame(lock1, table.get(1));
+        assertEquals(1, table.size());
+
+        /* Replacing, as when a ThinLockImpl mutates, keeps the size. */
+        table.put(1, lock2);
+        assertSame(lock2, table.get(1));
+        assertEquals(1, table.size());
+
+        /* Negative LSNs and zero are ordinary keys. */
+        table.put(0, lock1);
+        table.put(-1, lock1);
+        table.put(0x80000000L, lock1);
+        assertEquals(4, table.size());
+        assertSame(lock1, table.get(-1));
+
+        assertSame(lock2, table.remove(1));
+        assertNull(table.get(1));
+        assertEquals(3, table.size());
+        assertEquals(3, table.values().size());
+    }
+
+    /**
+     * Performs random operations on LSNs drawn from a small range, so that
+     * probe sequences are long and often wrap, and checks the results and
+     * the final contents against a HashMap. The number of live entries rises
+     * and falls, so the table grows and shrinks several times.
+     */
+    @Test
+    public void testRandomOps() {
+        final LockTable table = new LockTable();
+        final Map<Long, Lock> expected = new HashMap<Long, Lock>();
+        final Random rnd = new Random(123);
+
+        for (int round = 0; round < 4; round += 1) {
+            final int range = (round % 2 == 0) ? 5000 : 50;
+            for (int i = 0; i < 100000; i += 1) {
+                final long lsn = DbLsn.makeLsn(rnd.nextInt(3),
+                                               rnd.nextInt(range));
+                final boolean insert = (round % 2 == 0) ?
+                    rnd.nextInt(3) > 0 : rnd.nextInt(3) == 0;
+                if (insert) {
+                    final Lock lock = new ThinLockImpl();
+                    table.put(lsn, lock);
+                    expected.put(lsn, lock);
+                } else {
+                    assertSame(expected.remove(lsn), table.remove(lsn));
+                }
+                assertSame(expected.get(lsn), table.get(lsn));
+            }
+            assertEquals(expected.size(), table.size());
+            for (Map.Entry<Long, Lock> entry : expected.entrySet()) {
+                assertSame(entry.getValue(), table.get(entry.getKey()));
+            }
+        }
+
+        /* Drain the table. */
+        final List<Long> lsns = new ArrayList<Long>(expected.keySet());
+        for (Long lsn : lsns) {
+            assertSame(expected.get(lsn), table.remove(lsn));
+        }
+        assertEquals(0, table.size());
+        assertEquals(0, table.values().size());
+    }
+
+    @Test
+    public void testDump() {
+        final LockTable table = new LockTable();
+        final long lsn = DbLsn.makeLsn(2, 0x20);
+        table.put(lsn, new ThinLockImpl());
+        final StringBuilder sb = new StringBuilder();
+        table.dump(sb);
+        assertEquals(0, sb.indexOf("---- LSN: " +
+                                   DbLsn.getNoFormatString(lsn) + "----"));
+    }
+
+    @Test
+    public void testDefaultLockTables() {
+        assertEquals(1, LockManager.getDefaultLockTables(1));
+        assertEquals(5, LockManager.getDefaultLockTables(2));
+        assertEquals(11, LockManager.getDefaultLockTables(5));
+        assertEquals(17, LockManager.getDefaultLockTables(8));
+        assertEquals(257, LockManager.getDefaultLockTables(128));
+    }
+}
@@ -0,0 +1,174 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Durability;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.RecordBatch;
+import com.sleepycat.je.Transaction;
+
+/**
+ * Loading sorted data with Database.putBatch compared to a Database.put call
+ * per record.
+ *
+ * Each operation inserts batchSize records with ascending keys in one
+ * transaction, after the keys of the previous operation, so that the
+ * database grows at its right edge as in a bulk load.  The only difference
+ * between the two benchmarks is the put API used.  Transactions are
+ * committed with NO_SYNC durability, to measure Btree and logging overhead
+ * rather than fsync latency.  With evictLN, the database uses
+ * CacheMode.EVICT_LN, as a bulk load usually would.
+ *
+ * The database is created again for every iteration, so that its size
+ * depends only on the iteration time.  The key counter is not shared safely
+ * between threads, so the benchmark must be run with a single thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchPutBenchmark {
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int dataSize;
+
+    @Param({"false", "true"})
+    public boolean evictLN;
+
+    private BenchmarkEnv benchEnv;
+    private Environment env;
+    private Database db;
+    private RecordBatch batch;
+    private final DatabaseEntry key = new DatabaseEntry();
+    private DatabaseEntry data;
+    private long nextKey;
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        envConfig.setDurability(Durability.COMMIT_NO_SYNC);
+        benchEnv = new BenchmarkEnv(true /*transactional*/, envConfig);
+        env = benchEnv.getEnv();
+
+        batch = new RecordBatch(batchSize, 0);
+        data = new DatabaseEntry(new byte[dataSize]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        benchEnv.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void openDb() {
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setTransactional(true);
+        dbConfig.setAllowCreate(true);
+        dbConfig.setExclusiveCreate(true);
+        if (evictLN) {
+            dbConfig.setCacheMode(CacheMode.EVICT_LN);
+        }
+        db = env.openDatabase(null, "batchPutBench", dbConfig);
+        nextKey = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeDb() {
+        db.close();
+        env.removeDatabase(null, "batchPutBench");
+    }
+
+    @Benchmark
+    public int singlePut() {
+        int nWritten = 0;
+        final Transaction txn = env.beginTransaction(null, null);
+        for (int i = 0; i < batchSize; i += 1) {
+            LongBinding.longToEntry(nextKey, key);
+            nextKey += 1;
+            if (db.put(txn, key, data) == OperationStatus.SUCCESS) {
+                nWritten += 1;
+            }
+        }
+        txn.commit();
+        return nWritten;
+    }
+
+    @Benchmark
+    public int batchPut() {
+        batch.clear();
+        for (int i = 0; i < batchSize; i += 1) {
+            LongBinding.longToEntry(nextKey, key);
+            nextKey += 1;
+            batch.add(key, data);
+        }
+        final Transaction txn = env.beginTransaction(null, null);
+        final int nWritten = db.putBatch(txn, batch);
+        txn.commit();
+        return nWritten;
+    }
+}
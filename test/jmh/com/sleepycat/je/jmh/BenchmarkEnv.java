@@ -0,0 +1,127 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.dbi.EnvironmentImpl;
+
+/**
+ * A scratch environment for a benchmark trial.  The environment home is a
+ * fresh temporary directory that is removed again when the environment is
+ * closed.  The class is public so that benchmarks of package-private classes
+ * can be placed in the packages of those classes.
+ *
+ * Unless they are set in the given config, the cache size is 256 MB and the
+ * daemon threads are disabled, so that the background activity of the
+ * cleaner and checkpointer does not show up as noise in the measurements of
+ * a single code path.
+ */
+public class BenchmarkEnv {
+
+    private final File envHome;
+    private final Environment env;
+
+    public BenchmarkEnv(final boolean transactional)
+        throws IOException {
+
+        this(transactional, new EnvironmentConfig());
+    }
+
+    public BenchmarkEnv(final boolean transactional,
+                        final EnvironmentConfig envConfig)
+        throws IOException {
+
+        envHome = File.createTempFile("jejmh", "");
+        if (!envHome.delete() || !envHome.mkdir()) {
+            throw new IOException("Unable to create " + envHome);
+        }
+
+        envConfig.setAllowCreate(true);
+        envConfig.setTransactional(transactional);
+        setDefault(envConfig, EnvironmentConfig.MAX_MEMORY,
+                   String.valueOf(256L << 20));
+        setDefault(envConfig, EnvironmentConfig.ENV_RUN_CLEANER, "false");
+        setDefault(envConfig, EnvironmentConfig.ENV_RUN_CHECKPOINTER, "false");
+        setDefault(envConfig, EnvironmentConfig.STATS_COLLECT, "false");
+        setDefault(envConfig, EnvironmentConfig.LOG_FILE_MAX,
+                   String.valueOf(256L << 20));
+
+        env = new Environment(envHome, envConfig);
+    }
+
+    private static void setDefault(final EnvironmentConfig envConfig,
+                                   final String param,
+                                   final String value) {
+        if (!envConfig.isConfigParamSet(param)) {
+            envConfig.setConfigParam(param, value);
+        }
+    }
+
+    public Environment getEnv() {
+        return env;
+    }
+
+    public EnvironmentImpl getEnvImpl() {
+        return DbInternal.getEnvironmentImpl(env);
+    }
+
+    public void close() {
+        try {
+            env.close();
+        } finally {
+            final File[] files = envHome.listFiles();
+            if (files != null) {
+                for (final File file : files) {
+                    file.delete();
+                }
+            }
+            envHome.delete();
+        }
+    }
+}
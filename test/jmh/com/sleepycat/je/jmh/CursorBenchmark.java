@@ -0,0 +1,189 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+
+/**
+ * Cursor get, put and delete against a resident, non-transactional database.
+ *
+ * The database is populated with nRecords records whose keys are the
+ * sequential long values 0 to nRecords-1.  Each benchmark thread owns its
+ * own Cursor, so the numbers reflect the cost of a cursor operation rather
+ * than cursor open/close.  Inserts use keys above the populated range that
+ * are unique per thread, and are immediately deleted again so the size of
+ * the tree stays constant during a trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CursorBenchmark {
+
+    @Param({"100000"})
+    public int nRecords;
+
+    @Param({"100"})
+    public int dataSize;
+
+    private BenchmarkEnv benchEnv;
+    private Database db;
+
+    /* Hands out disjoint insertion key ranges to the benchmark threads. */
+    private final AtomicLong nextInsertBase = new AtomicLong();
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        benchEnv = new BenchmarkEnv(false /*transactional*/);
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        db = benchEnv.getEnv().openDatabase(null, "cursorBench", dbConfig);
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry(new byte[dataSize]);
+        for (long i = 0; i < nRecords; i += 1) {
+            LongBinding.longToEntry(i, key);
+            db.put(null, key, data);
+        }
+        nextInsertBase.set(nRecords);
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+        benchEnv.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        final DatabaseEntry key = new DatabaseEntry();
+        final DatabaseEntry data = new DatabaseEntry();
+        DatabaseEntry newData;
+        Cursor cursor;
+        int nRecords;
+        long insertKey;
+
+        @Setup
+        public void setup(final CursorBenchmark bench) {
+            cursor = bench.db.openCursor(null, null);
+            nRecords = bench.nRecords;
+            newData = new DatabaseEntry(new byte[bench.dataSize]);
+
+            /* 2^32 inserts per thread before ranges would overlap. */
+            insertKey = bench.nextInsertBase.getAndAdd(1L << 32);
+        }
+
+        @TearDown
+        public void tearDown() {
+            cursor.close();
+        }
+
+        DatabaseEntry randomKey() {
+            LongBinding.longToEntry
+                (ThreadLocalRandom.current().nextInt(nRecords), key);
+            return key;
+        }
+    }
+
+    @Benchmark
+    public OperationStatus getSearchKey(final ThreadState ts) {
+        return ts.cursor.getSearchKey(ts.randomKey(), ts.data, null);
+    }
+
+    @Benchmark
+    public OperationStatus getSearchKeyReadUncommitted(final ThreadState ts) {
+        return ts.cursor.getSearchKey
+            (ts.randomKey(), ts.data, LockMode.READ_UNCOMMITTED);
+    }
+
+    @Benchmark
+    public OperationStatus getNext(final ThreadState ts) {
+        OperationStatus status = ts.cursor.getNext(ts.key, ts.data, null);
+        if (status != OperationStatus.SUCCESS) {
+            status = ts.cursor.getFirst(ts.key, ts.data, null);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public OperationStatus putOverwrite(final ThreadState ts) {
+        return ts.cursor.put(ts.randomKey(), ts.newData);
+    }
+
+    @Benchmark
+    public OperationStatus insertDelete(final ThreadState ts) {
+        LongBinding.longToEntry(ts.insertKey, ts.key);
+        ts.insertKey += 1;
+        final OperationStatus status =
+            ts.cursor.putNoOverwrite(ts.key, ts.newData);
+        if (status == OperationStatus.SUCCESS) {
+            ts.cursor.delete();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,153 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.bind.EntityBinding;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.persist.EntityStore;
+import com.sleepycat.persist.PrimaryIndex;
+import com.sleepycat.persist.StoreConfig;
+import com.sleepycat.persist.model.Entity;
+import com.sleepycat.persist.model.PrimaryKey;
+import com.sleepycat.persist.model.SecondaryKey;
+
+import static com.sleepycat.persist.model.Relationship.MANY_TO_ONE;
+
+/**
+ * Conversion between a DPL entity and its key/data entries using the
+ * primary index entity binding, without any database access.
+ *
+ * The entity class is not bytecode enhanced here, so this measures the
+ * reflection based accessors.  Running with the enhancer agent
+ * (-javaagent:je.jar=enhance:-v,com.sleepycat.je.jmh) measures the
+ * enhanced accessors instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DplBindingBenchmark {
+
+    @Entity
+    public static class Item {
+
+        @PrimaryKey
+        long id;
+
+        @SecondaryKey(relate=MANY_TO_ONE)
+        String category;
+
+        String name;
+        int quantity;
+        double price;
+        long[] history;
+
+        public Item() {
+        }
+    }
+
+    private BenchmarkEnv benchEnv;
+    private EntityStore store;
+    private EntityBinding<Item> binding;
+    private Item item;
+    private final DatabaseEntry key = new DatabaseEntry();
+    private final DatabaseEntry data = new DatabaseEntry();
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        benchEnv = new BenchmarkEnv(false /*transactional*/);
+
+        final StoreConfig storeConfig = new StoreConfig();
+        storeConfig.setAllowCreate(true);
+        store = new EntityStore(benchEnv.getEnv(), "dplBench", storeConfig);
+
+        final PrimaryIndex<Long, Item> index =
+            store.getPrimaryIndex(Long.class, Item.class);
+        binding = index.getEntityBinding();
+
+        item = new Item();
+        item.id = 123456789L;
+        item.category = "benchmark";
+        item.name = "a moderately sized item name";
+        item.quantity = 42;
+        item.price = 9.99;
+        item.history = new long[] {1, 2, 3, 4, 5, 6, 7, 8};
+
+        binding.objectToKey(item, key);
+        binding.objectToData(item, data);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        benchEnv.close();
+    }
+
+    @Benchmark
+    public int objectToEntry() {
+        final DatabaseEntry k = new DatabaseEntry();
+        final DatabaseEntry d = new DatabaseEntry();
+        binding.objectToKey(item, k);
+        binding.objectToData(item, d);
+        return k.getSize() + d.getSize();
+    }
+
+    @Benchmark
+    public Item entryToObject() {
+        return binding.entryToObject(key, data);
+    }
+}
@@ -0,0 +1,215 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sleepycat.je.tree.INKeyRep;
+import com.sleepycat.je.tree.Key;
+
+/**
+ * The default key comparison, Key.compareKeys with a null comparator, as
+ * used by Btree searches.
+ *
+ * A sorted array of nKeys keys is created with the given key layout, and
+ * each operation is a binary search for a randomly chosen key in the array,
+ * so that the comparisons have the length distributions and common leading
+ * bytes of a real Btree search.  The layouts are:
+ *
+ *  Long    8 byte big endian keys
+ *  Uuid    16 random bytes
+ *  String  a shared prefix followed by a variable length suffix, 20 to 60
+ *          bytes in all
+ *
+ * inSearch is a binary search of the keys of one IN, as done by
+ * IN.findEntry, where the keys are stored in the given key rep:
+ *
+ *  MaxKeySize  the rep used for small keys of varying length
+ *  FixedLong   the rep used for keys of 1 to 16 bytes that all have the
+ *              same length, which holds each key in one or two longs
+ *
+ * The String keys are longer than 16 bytes, so for the String layout both
+ * reps mutate to a Default rep.
+ *
+ * Keys are compared eight bytes at a time when possible.  To measure the
+ * byte at a time comparison, run the benchmark in JVMs where it is disabled:
+ *
+ *   ant -Djmh.benchmarks=KeyCompareBenchmark \
+ *       -Djmh.args="-jvmArgsAppend -Dje.wordKeyComparison=false" jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeyCompareBenchmark {
+
+    @Param({"1000000"})
+    public int nKeys;
+
+    @Param({"Long", "Uuid", "String"})
+    public String layout;
+
+    /* The number of keys in an IN with the default node max entries. */
+    private static final int IN_KEYS = 128;
+
+    private static final Comparator<byte[]> COMPARATOR =
+        new Comparator<byte[]>() {
+            @Override
+            public int compare(byte[] k1, byte[] k2) {
+                return Key.compareKeys(k1, k2, null);
+            }
+        };
+
+    private byte[][] keys;
+
+    /**
+     * The keys of one IN, every nKeys / IN_KEYS key, stored in the given key
+     * rep.
+     */
+    @State(Scope.Benchmark)
+    public static class INKeys {
+
+        @Param({"MaxKeySize", "FixedLong"})
+        public String keyRep;
+
+        private INKeyRep rep;
+
+        @Setup
+        public void setup(final KeyCompareBenchmark bench) {
+            final int keyLength = bench.keys[0].length;
+            switch (keyRep) {
+            case "MaxKeySize":
+                rep = new INKeyRep.MaxKeySize(IN_KEYS, (short) 16);
+                break;
+            case "FixedLong":
+                rep = (keyLength <= INKeyRep.FixedLong.MAX_KEY_LENGTH) ?
+                    new INKeyRep.FixedLong(IN_KEYS, (byte) keyLength) :
+                    new INKeyRep.MaxKeySize(IN_KEYS, (short) 16);
+                break;
+            default:
+                throw new IllegalArgumentException(keyRep);
+            }
+
+            /* A rep mutates to a Default rep when a key does not fit. */
+            for (int i = 0; i < IN_KEYS; i += 1) {
+                rep = rep.set(i, bench.keys[i * (bench.nKeys / IN_KEYS)],
+                              null);
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(42);
+        keys = new byte[nKeys][];
+        for (int i = 0; i < nKeys; i += 1) {
+            keys[i] = makeKey(i, rnd);
+        }
+        Arrays.sort(keys, COMPARATOR);
+    }
+
+    private byte[] makeKey(final int i, final Random rnd) {
+        switch (layout) {
+        case "Long":
+            return ByteBuffer.allocate(8).putLong(i).array();
+        case "Uuid":
+            final byte[] uuid = new byte[16];
+            rnd.nextBytes(uuid);
+            return uuid;
+        case "String":
+            final StringBuilder sb = new StringBuilder("customer/order/");
+            sb.append(i);
+            final int len = 20 + rnd.nextInt(41);
+            while (sb.length() < len) {
+                sb.append((char) ('a' + rnd.nextInt(26)));
+            }
+            return sb.toString().getBytes();
+        default:
+            throw new IllegalArgumentException(layout);
+        }
+    }
+
+    @Benchmark
+    public int binarySearch() {
+        final byte[] key = keys[ThreadLocalRandom.current().nextInt(nKeys)];
+        return Arrays.binarySearch(keys, key, COMPARATOR);
+    }
+
+    /**
+     * Searches the IN keys for a random key, returning the index of the
+     * greatest IN key less than or equal to it, as IN.findEntry does.
+     */
+    @Benchmark
+    public int inSearch(final INKeys inKeys) {
+        final byte[] key = keys[ThreadLocalRandom.current().nextInt(nKeys)];
+        int low = 0;
+        int high = IN_KEYS - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int cmp = inKeys.rep.compareKeys(
+                key, null, middle, false, null);
+            if (cmp < 0) {
+                high = middle - 1;
+            } else if (cmp > 0) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.je.txn.BasicLocker;
+import com.sleepycat.je.txn.LockType;
+
+/**
+ * Lock acquisition and release through a BasicLocker, which goes straight to
+ * the LockManager without any transaction bookkeeping.
+ *
+ * lockRelease takes locks on LSNs that are private to each thread, so
+ * threads only meet in the lock tables.  sharedReadLockRelease has every
+ * thread read lock the same LSN, the worst case for a single Lock object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LockManagerBenchmark {
+
+    @Param({"READ", "WRITE"})
+    public String lockType;
+
+    /* The number of distinct LSNs each thread cycles through. */
+    @Param({"1024"})
+    public int nLsns;
+
+    private BenchmarkEnv benchEnv;
+    private LockType type;
+    private final AtomicInteger nextThread = new AtomicInteger();
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        benchEnv = new BenchmarkEnv(true /*transactional*/);
+        type = "WRITE".equals(lockType) ? LockType.WRITE : LockType.READ;
+    }
+
+    @TearDown
+    public void tearDown() {
+        benchEnv.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        BasicLocker locker;
+        long lsnBase;
+        int lsnIndex;
+
+        @Setup
+        public void setup(final LockManagerBenchmark bench) {
+            locker = BasicLocker.createBasicLocker(bench.benchEnv.getEnvImpl());
+            lsnBase = ((long) bench.nextThread.getAndIncrement()) << 32;
+        }
+
+        @TearDown
+        public void tearDown() {
+            locker.operationEnd();
+        }
+    }
+
+    @Benchmark
+    public boolean lockRelease(final ThreadState ts) {
+        final long lsn = ts.lsnBase + ts.lsnIndex;
+        if (++ts.lsnIndex == nLsns) {
+            ts.lsnIndex = 0;
+        }
+        ts.locker.lock(lsn, type, false /*noWait*/, null /*database*/);
+        return ts.locker.releaseLock(lsn);
+    }
+
+    @Benchmark
+    public boolean sharedReadLockRelease(final ThreadState ts) {
+        ts.locker.lock(1L, LockType.READ, false /*noWait*/, null /*database*/);
+        return ts.locker.releaseLock(1L);
+    }
+}
@@ -0,0 +1,125 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.je.Durability.SyncPolicy;
+import com.sleepycat.je.log.LogManager;
+import com.sleepycat.je.log.ReplicationContext;
+import com.sleepycat.je.log.Trace;
+import com.sleepycat.je.log.entry.TraceLogEntry;
+
+/**
+ * Throughput of LogManager.log for a small, fixed size entry under each of
+ * the local durability sync policies.
+ *
+ * NO_SYNC only copies the entry into the log buffers, WRITE_NO_SYNC also
+ * writes the buffers to the file system, and SYNC additionally fsyncs the
+ * log, mirroring what a commit with the corresponding SyncPolicy costs.
+ * Run with several threads (-t) to see the effect of group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LogManagerBenchmark {
+
+    @Param({"NO_SYNC", "WRITE_NO_SYNC", "SYNC"})
+    public SyncPolicy syncPolicy;
+
+    @Param({"100", "1000"})
+    public int entrySize;
+
+    private BenchmarkEnv benchEnv;
+    private LogManager logManager;
+    private String msg;
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        benchEnv = new BenchmarkEnv(true /*transactional*/);
+        logManager = benchEnv.getEnvImpl().getLogManager();
+
+        final char[] chars = new char[entrySize];
+        Arrays.fill(chars, 'x');
+        msg = new String(chars);
+    }
+
+    @TearDown
+    public void tearDown() {
+        benchEnv.close();
+    }
+
+    @Benchmark
+    public long log() {
+        final TraceLogEntry entry = new TraceLogEntry(new Trace(msg));
+        switch (syncPolicy) {
+        case NO_SYNC:
+            return logManager.log(entry, ReplicationContext.NO_REPLICATE);
+        case WRITE_NO_SYNC:
+            return logManager.logForceFlush
+                (entry, false /*fsyncRequired*/,
+                 ReplicationContext.NO_REPLICATE);
+        case SYNC:
+            return logManager.logForceFlush
+                (entry, true /*fsyncRequired*/,
+                 ReplicationContext.NO_REPLICATE);
+        default:
+            throw new IllegalStateException(syncPolicy.toString());
+        }
+    }
+}
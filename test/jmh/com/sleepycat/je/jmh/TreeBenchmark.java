@@ -0,0 +1,167 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.tree.BIN;
+import com.sleepycat.je.tree.Tree;
+
+/**
+ * Btree descent and in-node binary search, below the Cursor layer.
+ *
+ * Keys are fixed width, made of a common prefix of prefixSize bytes followed
+ * by a big endian 4 byte counter, so that the key comparisons in
+ * IN.findEntry see realistic shared prefixes.  keyPrefixing controls whether
+ * the BINs store those keys prefix-compressed.
+ *
+ * The findEntry benchmark searches the keys of a single resident BIN.  The
+ * database is read-only during a trial, so the BIN is searched without
+ * holding its latch, to measure the key comparisons alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TreeBenchmark {
+
+    @Param({"100000"})
+    public int nRecords;
+
+    @Param({"0", "16"})
+    public int prefixSize;
+
+    @Param({"false", "true"})
+    public boolean keyPrefixing;
+
+    private BenchmarkEnv benchEnv;
+    private Database db;
+    private Tree tree;
+    private byte[][] keys;
+    private BIN bin;
+    private byte[][] binKeys;
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        benchEnv = new BenchmarkEnv(false /*transactional*/);
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setAllowCreate(true);
+        dbConfig.setKeyPrefixing(keyPrefixing);
+        db = benchEnv.getEnv().openDatabase(null, "treeBench", dbConfig);
+
+        keys = new byte[nRecords][];
+        final DatabaseEntry data = new DatabaseEntry(new byte[10]);
+        for (int i = 0; i < nRecords; i += 1) {
+            keys[i] = makeKey(i);
+            db.put(null, new DatabaseEntry(keys[i]), data);
+        }
+
+        tree = DbInternal.getDatabaseImpl(db).getTree();
+
+        bin = tree.search(keys[nRecords / 2], CacheMode.UNCHANGED);
+        try {
+            binKeys = new byte[bin.getNEntries()][];
+            for (int i = 0; i < binKeys.length; i += 1) {
+                binKeys[i] = bin.getKey(i);
+            }
+        } finally {
+            bin.releaseLatch();
+        }
+    }
+
+    private byte[] makeKey(final int i) {
+        final byte[] key = new byte[prefixSize + 4];
+        for (int j = 0; j < prefixSize; j += 1) {
+            key[j] = (byte) ('a' + (j % 26));
+        }
+        key[prefixSize] = (byte) (i >>> 24);
+        key[prefixSize + 1] = (byte) (i >>> 16);
+        key[prefixSize + 2] = (byte) (i >>> 8);
+        key[prefixSize + 3] = (byte) i;
+        return key;
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+        benchEnv.close();
+    }
+
+    @Benchmark
+    public int treeSearch() {
+        final byte[] key = keys[ThreadLocalRandom.current().nextInt(nRecords)];
+        final BIN found = tree.search(key, CacheMode.UNCHANGED);
+        try {
+            return found.findEntry(key, false, true);
+        } finally {
+            found.releaseLatch();
+        }
+    }
+
+    @Benchmark
+    public int binFindEntry() {
+        final byte[] key =
+            binKeys[ThreadLocalRandom.current().nextInt(binKeys.length)];
+        return bin.findEntry(key, true, false);
+    }
+}
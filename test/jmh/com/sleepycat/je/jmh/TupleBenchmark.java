@@ -0,0 +1,216 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+
+package com.sleepycat.je.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.util.PackedInteger;
+
+/**
+ * TupleInput/TupleOutput and PackedInteger encoding and decoding.
+ *
+ * Each invocation processes a block of N_VALUES values whose magnitudes are
+ * spread evenly over the possible packed lengths, so that the branches in
+ * the packed formats are all exercised.  Scores are in blocks, not values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TupleBenchmark {
+
+    private static final int N_VALUES = 1024;
+
+    private final long[] longs = new long[N_VALUES];
+    private final int[] ints = new int[N_VALUES];
+    private final String[] strings = new String[N_VALUES];
+
+    private final byte[] buf =
+        new byte[N_VALUES * PackedInteger.MAX_LONG_LENGTH];
+    private byte[] packedInts;
+    private byte[] packedLongs;
+    private byte[] sortedLongs;
+    private byte[] tuple;
+    private final TupleOutput output = new TupleOutput();
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(123);
+        for (int i = 0; i < N_VALUES; i += 1) {
+            final int bits = 1 + (i % 63);
+            longs[i] = rnd.nextLong() >>> (64 - bits);
+            if ((i & 1) != 0) {
+                longs[i] = -longs[i];
+            }
+            ints[i] = (int) longs[i];
+            strings[i] = "value-" + longs[i];
+        }
+
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeInt(buf, off, ints[i]);
+        }
+        packedInts = copy(buf, off);
+
+        off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeLong(buf, off, longs[i]);
+        }
+        packedLongs = copy(buf, off);
+
+        off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeSortedLong(buf, off, longs[i]);
+        }
+        sortedLongs = copy(buf, off);
+
+        final int len = writeTuple();
+        tuple = copy(output.getBufferBytes(), len);
+    }
+
+    private static byte[] copy(final byte[] src, final int len) {
+        final byte[] dest = new byte[len];
+        System.arraycopy(src, 0, dest, 0, len);
+        return dest;
+    }
+
+    @Benchmark
+    public int packedIntWrite() {
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeInt(buf, off, ints[i]);
+        }
+        return off;
+    }
+
+    @Benchmark
+    public int packedIntRead() {
+        int sum = 0;
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            sum += PackedInteger.readInt(packedInts, off);
+            off += PackedInteger.getReadIntLength(packedInts, off);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int packedLongWrite() {
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeLong(buf, off, longs[i]);
+        }
+        return off;
+    }
+
+    @Benchmark
+    public long packedLongRead() {
+        long sum = 0;
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            sum += PackedInteger.readLong(packedLongs, off);
+            off += PackedInteger.getReadLongLength(packedLongs, off);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sortedLongWrite() {
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            off = PackedInteger.writeSortedLong(buf, off, longs[i]);
+        }
+        return off;
+    }
+
+    @Benchmark
+    public long sortedLongRead() {
+        long sum = 0;
+        int off = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            sum += PackedInteger.readSortedLong(sortedLongs, off);
+            off += PackedInteger.getReadSortedLongLength(sortedLongs, off);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int tupleOutput() {
+        return writeTuple();
+    }
+
+    private int writeTuple() {
+        output.reset();
+        for (int i = 0; i < N_VALUES; i += 1) {
+            output.writeInt(ints[i]);
+            output.writeLong(longs[i]);
+            output.writePackedLong(longs[i]);
+            output.writeString(strings[i]);
+        }
+        return output.getBufferLength();
+    }
+
+    @Benchmark
+    public long tupleInput() {
+        final TupleInput input = new TupleInput(tuple);
+        long sum = 0;
+        for (int i = 0; i < N_VALUES; i += 1) {
+            sum += input.readInt();
+            sum += input.readLong();
+            sum += input.readPackedLong();
+            sum += input.readString().length();
+        }
+        return sum;
+    }
+}
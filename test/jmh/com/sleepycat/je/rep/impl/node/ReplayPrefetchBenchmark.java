@@ -0,0 +1,216 @@
+/*-
+ *
+ *  This file is part of Oracle Berkeley DB Java Edition
+ *  Copyright (C) 2002, 2015 Oracle and/or its affiliates.  All rights reserved.
+ *
+ *  Oracle Berkeley DB Java Edition is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU Affero General Public License
+ *  as published by the Free Software Foundation, version 3.
+ *
+ *  Oracle Berkeley DB Java Edition is distributed in the hope that it will be
+ *  useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Affero
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Affero General Public License in
+ *  the LICENSE file along with Oracle Berkeley DB Java Edition.  If not, see
+ *  <http://www.gnu.org/licenses/>.
+ *
+ *  An active Oracle commercial licensing agreement for this product
+ *  supercedes this license.
+ *
+ *  For more information please contact:
+ *
+ *  Vice President Legal, Development
+ *  Oracle America, Inc.
+ *  5OP-10
+ *  500 Oracle Parkway
+ *  Redwood Shores, CA 94065
+ *
+ *  or
+ *
+ *  berkeleydb-info_us@oracle.com
+ *
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  [This line intentionally left blank.]
+ *  EOF
+ *
+ */
+package com.sleepycat.je.rep.impl.node;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DbInternal;
+import com.sleepycat.je.Durability;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.Transaction;
+import com.sleepycat.je.jmh.BenchmarkEnv;
+import com.sleepycat.je.tree.IN;
+import com.sleepycat.je.utilint.StatGroup;
+import com.sleepycat.je.utilint.TestHookAdapter;
+
+/**
+ * The replay of update txns on a replica whose data set does not fit in
+ * cache, with and without the ReplayPrefetcher.
+ *
+ * A database of nRecords records is created with a cache that holds only a
+ * small fraction of its BINs.  Each operation applies one txn of txnSize
+ * updates to random existing keys on a single thread, like the
+ * ReplayThread.  Before a key is updated, the key queueDepth positions
+ * further in the sequence is handed to the prefetcher, like the network
+ * thread does when it places an entry in a replay queue of that size.
+ *
+ * The BIN reads that prefetching overlaps are served from the OS file
+ * cache when the log fits in memory, as on most test machines.  To model a
+ * storage device, readLatencyMicros is added to every BIN fetch from the
+ * log, by a hook that sleeps in IN.fetchIN of the BIN's parent without
+ * holding a latch, i.e., where a real read would block.  The hook is
+ * installed on the resident level 2 INs at the start of each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReplayPrefetchBenchmark {
+
+    private static final int KEY_SEQUENCE_SIZE = 1 << 20;
+
+    @Param({"0", "8"})
+    public int prefetchThreads;
+
+    @Param({"0", "200"})
+    public int readLatencyMicros;
+
+    @Param({"200000"})
+    public int nRecords;
+
+    @Param({"100"})
+    public int dataSize;
+
+    @Param({"10"})
+    public int txnSize;
+
+    @Param({"1000"})
+    public int queueDepth;
+
+    private BenchmarkEnv benchEnv;
+    private Environment env;
+    private Database db;
+    private ReplayPrefetcher prefetcher;
+    private long dbId;
+
+    /* The random sequence of keys to update, used circularly. */
+    private final int[] keySequence = new int[KEY_SEQUENCE_SIZE];
+    private int nextKey;
+
+    private final DatabaseEntry key = new DatabaseEntry();
+    private DatabaseEntry data;
+
+    @Setup
+    public void setup()
+        throws IOException {
+
+        final EnvironmentConfig envConfig = new EnvironmentConfig();
+        envConfig.setCacheSize(4L << 20);
+        envConfig.setDurability(Durability.COMMIT_NO_SYNC);
+        benchEnv = new BenchmarkEnv(true /*transactional*/, envConfig);
+        env = benchEnv.getEnv();
+
+        final DatabaseConfig dbConfig = new DatabaseConfig();
+        dbConfig.setTransactional(true);
+        dbConfig.setAllowCreate(true);
+        dbConfig.setCacheMode(CacheMode.EVICT_LN);
+        db = env.openDatabase(null, "replayPrefetchBench", dbConfig);
+        dbId = DbInternal.getDatabaseImpl(db).getId().getId();
+
+        data = new DatabaseEntry(new byte[dataSize]);
+        for (long i = 0; i < nRecords; i += 1) {
+            LongBinding.longToEntry(i, key);
+            db.put(null, key, data);
+        }
+        env.sync();
+
+        final Random random = new Random(123);
+        for (int i = 0; i < KEY_SEQUENCE_SIZE; i += 1) {
+            keySequence[i] = random.nextInt(nRecords);
+        }
+
+        prefetcher = new ReplayPrefetcher(
+            benchEnv.getEnvImpl(), prefetchThreads, queueDepth,
+            new StatGroup(ReplayStatDefinition.GROUP_NAME,
+                          ReplayStatDefinition.GROUP_DESC));
+        prefetcher.start();
+        for (int i = 0; i < queueDepth; i += 1) {
+            prefetcher.submit(dbId, makeKey(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        prefetcher.shutdown();
+        db.close();
+        benchEnv.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void installReadLatency() {
+        if (readLatencyMicros == 0) {
+            return;
+        }
+        final long latencyNs = TimeUnit.MICROSECONDS.toNanos(
+            readLatencyMicros);
+        final TestHookAdapter<Object> hook = new TestHookAdapter<Object>() {
+            @Override
+            public void doHook() {
+                LockSupport.parkNanos(latencyNs);
+            }
+        };
+        for (final IN in : benchEnv.getEnvImpl().getInMemoryINs()) {
+            if (in.getNormalizedLevel() == 2) {
+                in.setFetchINHook(hook);
+            }
+        }
+    }
+
+    private byte[] makeKey(final int position) {
+        final DatabaseEntry entry = new DatabaseEntry();
+        LongBinding.longToEntry(
+            keySequence[position & (KEY_SEQUENCE_SIZE - 1)], entry);
+        return entry.getData();
+    }
+
+    @Benchmark
+    public void replayTxn() {
+        final Transaction txn = env.beginTransaction(null, null);
+        for (int i = 0; i < txnSize; i += 1) {
+            prefetcher.submit(dbId, makeKey(nextKey + queueDepth));
+            key.setData(makeKey(nextKey));
+            nextKey += 1;
+            db.put(txn, key, data);
+        }
+        txn.commit();
+    }
+}
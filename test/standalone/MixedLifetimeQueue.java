@@ -64,6 +64,7 @@ import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.EnvironmentStats;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.StatsConfig;
@@ -87,6 +88,15 @@ import com.sleepycat.je.utilint.TracerFormatter;
  *          -ops 1500 -key 16 -data 200 -interval 1 S -lifetime 6 H \
  *      -workload short-lived -chunkAcrossDbs 500 \
  *          -ops 500 -key 16 -data 3000 -interval 50 MS -lifetime 1 MIN
+ *
+ * Environment options, before the first -workload:
+ *  -runtime <time> <units>  stop after this time; default: run forever
+ *  -fileMax <bytes>         je.log.fileMax; default: 100 MB
+ *  -ageWeighted             set je.cleaner.ageWeightedSelection
+ *
+ * When the test stops, the write amplification is printed: the bytes
+ * written to the log per byte of inserted records, and the LNs migrated by
+ * the cleaner per inserted LN.
  */
 public class MixedLifetimeQueue {
 
@@ -134,6 +144,13 @@ public class MixedLifetimeQueue {
     final Environment env;
     final long runTimeMs;
     final AtomicLong sequenceNumber = new AtomicLong();
+    final AtomicLong nInsertedRecords = new AtomicLong();
+    final AtomicLong nInsertedBytes = new AtomicLong();
+    final AtomicLong nLogBytesWritten = new AtomicLong();
+    final AtomicLong nLNsMigrated = new AtomicLong();
+    final AtomicLong nCleanerRuns = new AtomicLong();
+    final AtomicLong nAgeWeightedSelections = new AtomicLong();
+    final StatsConfig statsConfig = new StatsConfig().setClear(true);
     final List<Workload> workloads = new ArrayList<Workload>();
     final ScheduledExecutorService executor;
     AtomicBoolean shutdownFlag = new AtomicBoolean(false);
@@ -149,7 +166,11 @@ public class MixedLifetimeQueue {
             argsPartitions.subList(1, argsPartitions.size());
 
         final String envHome = getStringArg(firstArgPartition, "-h", null);
-        env = openEnv(new File(envHome));
+        final int fileMax = getIntArg(firstArgPartition, "-fileMax",
+                                      100 * 1024 * 1024);
+        final boolean ageWeighted =
+            getSwitchArg(firstArgPartition, "-ageWeighted");
+        env = openEnv(new File(envHome), fileMax, ageWeighted);
 
         runTimeMs = getDurationArg(firstArgPartition, "-runtime", 0);
 
@@ -177,7 +198,9 @@ public class MixedLifetimeQueue {
         }
     }
 
-    static Environment openEnv(final File envHome) {
+    static Environment openEnv(final File envHome,
+                               final int fileMax,
+                               final boolean ageWeighted) {
         final EnvironmentConfig envConfig = new EnvironmentConfig();
         envConfig.setAllowCreate(true);
         envConfig.setTransactional(true);
@@ -190,7 +213,7 @@ public class MixedLifetimeQueue {
         */
         //envConfig.setConfigParam("je.cleaner.calc.recentLNSizes", "40");
         envConfig.setConfigParam(EnvironmentConfig.LOG_FILE_MAX,
-                                 String.valueOf(100 * 1024 * 1024));
+                                 String.valueOf(fileMax));
         envConfig.setConfigParam(EnvironmentConfig.LOG_FILE_CACHE_SIZE,
                                  "2000");
         envConfig.setConfigParam(EnvironmentConfig.LOG_NUM_BUFFERS, "16");
@@ -204,6 +227,9 @@ public class MixedLifetimeQueue {
         envConfig.setConfigParam(EnvironmentConfig.CLEANER_READ_SIZE,
                                  "1048576");
         envConfig.setConfigParam(EnvironmentConfig.LOCK_N_LOCK_TABLES, "23");
+        envConfig.setConfigParam(
+            EnvironmentConfig.CLEANER_AGE_WEIGHTED_SELECTION,
+            String.valueOf(ageWeighted));
         return new Environment(envHome, envConfig);
     }
 
@@ -222,6 +248,8 @@ public class MixedLifetimeQueue {
         for (final Workload w : workloads) {
             w.close();
         }
+        addStats(env.getStats(statsConfig));
+        printWriteAmplification();
         env.close();
         if (!cleanShutdown) {
             throw new IllegalStateException(
@@ -242,25 +270,59 @@ public class MixedLifetimeQueue {
     }
 
     void startMonitor() {
-        final StatsConfig statsConfig = new StatsConfig().setClear(true);
         final long startTime = System.currentTimeMillis();
         executor.scheduleAtFixedRate(new Runnable() {
                 @Override
                 public void run() {
                     long now = System.currentTimeMillis();
+                    final EnvironmentStats stats = env.getStats(statsConfig);
+                    addStats(stats);
                     System.out.println(dateFormat.format(now));
-                    System.out.println(env.getStats(statsConfig));
+                    System.out.println(stats);
                     System.out.println();
 
                     if ((runTimeMs > 0) &&
-                        (startTime + runTimeMs >= now)) {
-                        shutdownFlag.set(true);
-                        shutdownFlag.notify();
+                        (now >= startTime + runTimeMs)) {
+                        synchronized (shutdownFlag) {
+                            shutdownFlag.set(true);
+                            shutdownFlag.notify();
+                        }
                     }
                 }
             }, 0, 1, TimeUnit.MINUTES);
     }
 
+    /**
+     * Adds the stats of one interval to the totals used for the write
+     * amplification.  The stats are cleared by every call.
+     */
+    synchronized void addStats(final EnvironmentStats stats) {
+        nLogBytesWritten.addAndGet(stats.getNSequentialWriteBytes() +
+                                   stats.getNRandomWriteBytes());
+        nLNsMigrated.addAndGet(stats.getNLNsMigrated());
+        nCleanerRuns.addAndGet(stats.getNCleanerRuns());
+        nAgeWeightedSelections.addAndGet(stats.getNAgeWeightedSelections());
+    }
+
+    void printWriteAmplification() {
+        final long records = nInsertedRecords.get();
+        final long bytes = nInsertedBytes.get();
+        System.out.println("Inserted records: " + records +
+                           " bytes: " + bytes);
+        System.out.println("Log bytes written: " + nLogBytesWritten.get() +
+                           " cleaner runs: " + nCleanerRuns.get() +
+                           " age-weighted selections: " +
+                           nAgeWeightedSelections.get() +
+                           " LNs migrated: " + nLNsMigrated.get());
+        if (records > 0) {
+            System.out.printf(
+                "Write amplification: %.2f log bytes per inserted byte," +
+                " %.3f LNs migrated per inserted LN%n",
+                ((double) nLogBytesWritten.get()) / bytes,
+                ((double) nLNsMigrated.get()) / records);
+        }
+    }
+
     Workload createWorkload(final String name,
                             final boolean chunkByDb,
                             final int chunkAcrossDbs,
@@ -380,6 +442,8 @@ public class MixedLifetimeQueue {
                 if (status != OperationStatus.SUCCESS) {
                     throw new IllegalStateException(status.toString());
                 }
+                nInsertedRecords.incrementAndGet();
+                nInsertedBytes.addAndGet(key.getSize() + value.getSize());
             }
         }
 